@@ -0,0 +1,189 @@
+package com.cooola.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 流入制御付きデータソース
+ *
+ * このクラスは接続の取得をセマフォで制限し、同時に接続を使用する処理数を max-concurrent 以下に抑えます。
+ * 接続待ちが max-waiting を超えた場合は待たずに失敗させ、接続プールの待ち行列に大量の処理が滞留することを防ぎます。
+ * 仮想スレッドで数千件のスキャンを同時に受け付けても、接続待ちの処理は公平な順序で待機します。
+ * 許可は取得した接続を閉じた時点で返却します。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class AdmissionControlledDataSource extends DelegatingDataSource {
+
+    // 同時に接続を使用できる処理数
+    private final int maxConcurrent;
+    // 接続を使用する許可
+    private final Semaphore permits;
+    // 接続待ちの上限
+    private final int maxWaiting;
+    // 接続待ちの最大時間
+    private final Duration acquireTimeout;
+    // 上限超過・待ち時間超過で失敗した回数
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * データソースを作成するコンストラクタ
+     *
+     * @param target 接続プール
+     * @param maxConcurrent 同時に接続を使用できる処理数
+     * @param maxWaiting 接続待ちの上限
+     * @param acquireTimeout 接続待ちの最大時間
+     */
+    public AdmissionControlledDataSource(DataSource target, int maxConcurrent, int maxWaiting,
+                                         Duration acquireTimeout) {
+        super(target);
+        this.maxConcurrent = maxConcurrent;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxWaiting = maxWaiting;
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return wrap(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return wrap(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 接続を使用中の処理数を返却するメソッド
+     *
+     * @return 使用中の処理数
+     */
+    public int getActive() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    /**
+     * 接続待ちの処理数（概算）を返却するメソッド
+     *
+     * @return 接続待ちの処理数
+     */
+    public int getWaiting() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * 接続を取得できずに失敗した回数を返却するメソッド
+     *
+     * @return 失敗した回数
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * 許可を取得するメソッド
+     */
+    private void acquire() throws SQLException {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        if (permits.getQueueLength() >= maxWaiting) {
+            rejected.incrementAndGet();
+            throw new SQLTransientConnectionException("Too many requests waiting for a database connection");
+        }
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                rejected.incrementAndGet();
+                throw new SQLTransientConnectionException(
+                        "Timed out waiting for a database connection after " + acquireTimeout.toMillis() + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+        }
+    }
+
+    /**
+     * 閉じた時点で許可を返却する接続を作成するメソッド
+     */
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                new PermitReleasingHandler(connection));
+    }
+
+    /**
+     * 接続を閉じた時点で許可を1回だけ返却する処理
+     */
+    private final class PermitReleasingHandler implements InvocationHandler {
+
+        private final Connection target;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private PermitReleasingHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    try {
+                        target.close();
+                    } finally {
+                        if (closed.compareAndSet(false, true)) {
+                            permits.release();
+                        }
+                    }
+                    return null;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return true;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.cooola.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * バーコード描画用スレッドプール設定
+ *
+ * このクラスはバーコード・QRコード画像の描画に使用するスレッドプールを定義します。
+ * 描画はCPU処理のみのため、スレッド数はCPUコア数に合わせています。
+ * ラベルシートの一括描画は、個別の画像生成を待たせないよう別のスレッドプールで行います。
+ * 待機タスク数・実行中のスレッド数はMicrometerのメトリクス（executor.*、name=barcode.render・label.render）として出力します。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Configuration  // Spring設定クラスとして登録
+public class BarcodeExecutorConfig {
+
+    /**
+     * バーコード描画用のスレッドプールを作成するメソッド
+     *
+     * @param queueCapacity 待機タスクの最大数
+     * @param meterRegistry メトリクスの登録先
+     * @return バーコード描画用スレッドプール
+     */
+    @Bean(name = "barcodeRenderExecutor")
+    public ThreadPoolTaskExecutor barcodeRenderExecutor(
+            @Value("${barcode.executor.queue-capacity:1000}") int queueCapacity,
+            MeterRegistry meterRegistry) {
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(cores);            // CPUコア数分のスレッドを常駐
+        executor.setMaxPoolSize(cores);             // CPU処理のためコア数を上限とする
+        executor.setQueueCapacity(queueCapacity);   // 待機タスク数の上限
+        executor.setThreadNamePrefix("barcode-render-");
+        executor.initialize();
+
+        // 待機タスク数・実行中のスレッド数を出力
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), "barcode.render", Tags.empty())
+                .bindTo(meterRegistry);
+        return executor;
+    }
+
+    /**
+     * ラベルシート描画用のスレッドプールを作成するメソッド
+     *
+     * 個別の画像生成用にCPUを残すため、スレッド数は設定値（既定はCPUコア数の半分）までとします。
+     *
+     * @param threads スレッド数（0以下の場合はCPUコア数の半分）
+     * @param queueCapacity 待機タスクの最大数
+     * @param meterRegistry メトリクスの登録先
+     * @return ラベルシート描画用スレッドプール
+     */
+    @Bean(name = "labelSheetRenderExecutor")
+    public ThreadPoolTaskExecutor labelSheetRenderExecutor(
+            @Value("${barcode.labels.threads:0}") int threads,
+            @Value("${barcode.labels.queue-capacity:100}") int queueCapacity,
+            MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);   // 待機タスク数の上限（超えた場合は書き出し中のスレッドで描画）
+        executor.setThreadNamePrefix("label-render-");
+        executor.initialize();
+
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), "label.render", Tags.empty())
+                .bindTo(meterRegistry);
+        return executor;
+    }
+}
@@ -0,0 +1,51 @@
+package com.cooola.config;
+
+import com.cooola.service.CacheInvalidationBus;
+import com.cooola.service.LocalCacheInvalidationBus;
+import com.cooola.service.RedisCacheInvalidationBus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.lettuce.core.RedisClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * キャッシュ無効化イベントの通知経路設定
+ *
+ * このクラスは cache-invalidation.transport の値（REDIS または LOCAL）に応じて通知経路を作成します。
+ * 親コンテキストに通知経路が登録されている場合はそれを使用するため、1つのJVM内で複数のアプリケーションコンテキストを
+ * 起動する場合は、親コンテキストに LocalCacheInvalidationBus を登録すると通知経路を共有できます。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Configuration  // Spring設定クラスとして登録
+@Slf4j          // ログ機能
+public class CacheInvalidationConfig {
+
+    /**
+     * キャッシュ無効化イベントの通知経路を作成するメソッド
+     *
+     * @param transport 通知経路の種類（REDIS: Redis Pub/Sub、LOCAL: メモリ上の通知）
+     * @param redisUri RedisのURI
+     * @param channel Redisのチャンネル名
+     * @param objectMapper JSON変換
+     * @return キャッシュ無効化イベントの通知経路
+     */
+    @Bean
+    @ConditionalOnMissingBean(CacheInvalidationBus.class)  // 親コンテキストの通知経路を優先
+    public CacheInvalidationBus cacheInvalidationBus(
+            @Value("${cache-invalidation.transport:LOCAL}") String transport,
+            @Value("${cache-invalidation.redis-uri:redis://localhost:6379}") String redisUri,
+            @Value("${cache-invalidation.channel:cooola:cache-invalidation}") String channel,
+            ObjectMapper objectMapper) {
+        if ("REDIS".equalsIgnoreCase(transport)) {
+            log.info("Cache invalidation events are published to Redis: {} ({})", redisUri, channel);
+            return new RedisCacheInvalidationBus(RedisClient.create(redisUri), channel, objectMapper);
+        }
+        return new LocalCacheInvalidationBus();
+    }
+}
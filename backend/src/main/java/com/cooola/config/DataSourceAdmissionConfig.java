@@ -0,0 +1,79 @@
+package com.cooola.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * データベース接続の流入制御設定
+ *
+ * このクラスは db-admission.enabled が有効な場合に、データソースを AdmissionControlledDataSource で包みます。
+ * 仮想スレッドで処理する場合は処理数がスレッド数で制限されないため、接続プールの前で同時実行数を制限します。
+ * 接続待ち・使用中の処理数と失敗回数はMicrometerのメトリクス（db.admission.*）として出力します。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Configuration  // Spring設定クラスとして登録
+@Slf4j          // ログ機能
+public class DataSourceAdmissionConfig {
+
+    /**
+     * データソースを流入制御付きデータソースで包むメソッド
+     *
+     * @param environment 環境設定
+     * @return データソースの後処理
+     */
+    @Bean
+    public static BeanPostProcessor dataSourceAdmissionPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof AdmissionControlledDataSource
+                        || !environment.getProperty("db-admission.enabled", Boolean.class, false)) {
+                    return bean;
+                }
+                int maxConcurrent = environment.getProperty("db-admission.max-concurrent", Integer.class, 20);
+                int maxWaiting = environment.getProperty("db-admission.max-waiting", Integer.class, 2000);
+                Duration acquireTimeout = environment.getProperty("db-admission.acquire-timeout", Duration.class,
+                        Duration.ofSeconds(5));
+                log.info("Database admission control enabled for {}: maxConcurrent={}, maxWaiting={}, timeout={}",
+                        beanName, maxConcurrent, maxWaiting, acquireTimeout);
+                return new AdmissionControlledDataSource(dataSource, maxConcurrent, maxWaiting, acquireTimeout);
+            }
+        };
+    }
+
+    /**
+     * 流入制御のメトリクスを登録するメソッド
+     *
+     * @param dataSource データソース
+     * @return メトリクスの登録処理（流入制御が無効な場合は何も登録しない）
+     */
+    @Bean
+    public MeterBinder dataSourceAdmissionMetrics(DataSource dataSource) {
+        return registry -> {
+            if (!(dataSource instanceof AdmissionControlledDataSource admission)) {
+                return;
+            }
+            Gauge.builder("db.admission.active", admission, AdmissionControlledDataSource::getActive)
+                    .description("Requests holding a database connection permit")
+                    .register(registry);
+            Gauge.builder("db.admission.waiting", admission, AdmissionControlledDataSource::getWaiting)
+                    .description("Requests waiting for a database connection permit")
+                    .register(registry);
+            FunctionCounter.builder("db.admission.rejected", admission, AdmissionControlledDataSource::getRejected)
+                    .description("Requests rejected because too many were waiting or the wait timed out")
+                    .register(registry);
+        };
+    }
+}
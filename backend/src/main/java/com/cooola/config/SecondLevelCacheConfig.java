@@ -0,0 +1,133 @@
+package com.cooola.config;
+
+import com.cooola.entity.Location;
+import com.cooola.entity.ProductCategory;
+import com.cooola.entity.User;
+import com.cooola.entity.Warehouse;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate二次キャッシュ設定
+ *
+ * このクラスは倉庫・ロケーション・商品カテゴリ・ユーザーなど、ほぼ全てのリクエストで参照される
+ * マスタデータのエンティティ・コレクション・クエリ結果を保持するキャッシュ（Caffeine）を定義します。
+ * キャッシュ領域ごとの最大件数と保持期間は jpa-cache.regions.&lt;領域名&gt; で設定し、
+ * 省略した項目は jpa-cache.default の値を使用します。
+ * 各キャッシュのヒット数・ミス数はMicrometerのメトリクス（cache.gets など）として出力します。
+ *
+ * エンティティの更新時はHibernateがトランザクション内でキャッシュを無効化します（READ_WRITE）。
+ * 親側のコレクション（children、locations）は子エンティティの親の設定・変更時にも無効化します
+ * （hibernate.cache.auto_evict_collection_cache）。
+ * データベースを直接更新した場合は、保持期間の経過後に反映されます。
+ * キャッシュマネージャーはアプリケーションコンテキストごとに作成するため、
+ * 1つのJVMで複数のアプリケーションコンテキストを起動してもキャッシュは共有されません。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Configuration  // Spring設定クラスとして登録
+@Slf4j          // ログ機能
+public class SecondLevelCacheConfig {
+
+    // 設定項目のプレフィックス
+    private static final String PREFIX = "jpa-cache.";
+
+    // Hibernateのキャッシュ領域名 → 設定上の領域名
+    private static final Map<String, String> REGIONS = new LinkedHashMap<>();
+
+    static {
+        REGIONS.put(Warehouse.class.getName(), "warehouse");
+        REGIONS.put(Warehouse.class.getName() + ".locations", "warehouse-locations");
+        REGIONS.put(Location.class.getName(), "location");
+        REGIONS.put(Location.class.getName() + ".children", "location-children");
+        REGIONS.put(ProductCategory.class.getName(), "product-category");
+        REGIONS.put(ProductCategory.class.getName() + ".children", "product-category-children");
+        REGIONS.put(User.class.getName(), "user");
+        REGIONS.put(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, "query-results");
+    }
+
+    /**
+     * 二次キャッシュ用のキャッシュマネージャーを作成するメソッド
+     *
+     * クエリキャッシュの更新時刻を保持する領域は、期限切れや追い出しがあると古いクエリ結果を
+     * 返す可能性があるため、件数・期間の上限を設けません（テーブル数分の件数のみ保持します）。
+     *
+     * @param environment 環境設定
+     * @param meterRegistry メトリクスレジストリ
+     * @return キャッシュマネージャー
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager jpaCacheManager(Environment environment, MeterRegistry meterRegistry) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        // 同じURIのキャッシュマネージャーはJVM内で共有されるため、コンテキストごとに一意なURIを使用する
+        URI uri = URI.create(provider.getDefaultURI() + "#" + UUID.randomUUID());
+        CacheManager cacheManager = provider.getCacheManager(uri, getClass().getClassLoader());
+
+        REGIONS.forEach((region, key) -> {
+            long maxSize = environment.getProperty(PREFIX + "regions." + key + ".max-size", Long.class,
+                    environment.getProperty(PREFIX + "default.max-size", Long.class, 10_000L));
+            Duration expireAfterWrite = environment.getProperty(PREFIX + "regions." + key + ".expire-after-write",
+                    Duration.class, environment.getProperty(PREFIX + "default.expire-after-write", Duration.class,
+                            Duration.ofMinutes(30)));
+
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(maxSize));                          // 最大件数
+            configuration.setExpireAfterWrite(OptionalLong.of(expireAfterWrite.toNanos())); // 保持期間
+            configuration.setStatisticsEnabled(true);                                        // ヒット率の集計
+            register(cacheManager, meterRegistry, region, configuration);
+            log.info("Second-level cache region configured: region={}, maxSize={}, expireAfterWrite={}",
+                    region, maxSize, expireAfterWrite);
+        });
+
+        CaffeineConfiguration<Object, Object> timestamps = new CaffeineConfiguration<>();
+        timestamps.setStatisticsEnabled(true);
+        register(cacheManager, meterRegistry, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                timestamps);
+        return cacheManager;
+    }
+
+    /**
+     * Hibernateに二次キャッシュ用のキャッシュマネージャーを渡すメソッド
+     *
+     * @param jpaCacheManager 二次キャッシュ用のキャッシュマネージャー
+     * @return Hibernate設定のカスタマイザー
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager jpaCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, jpaCacheManager);
+    }
+
+    /**
+     * キャッシュ領域を作成し、メトリクスに登録するメソッド
+     */
+    private static void register(CacheManager cacheManager, MeterRegistry meterRegistry, String region,
+                                 CaffeineConfiguration<Object, Object> configuration) {
+        Cache<Object, Object> cache = cacheManager.getCache(region);
+        if (cache == null) {
+            cache = cacheManager.createCache(region, configuration);
+        }
+        JCacheMetrics.monitor(meterRegistry, cache);
+    }
+}
@@ -0,0 +1,50 @@
+package com.cooola.config;
+
+import com.amazonaws.services.sqs.AmazonSQSClientBuilder;
+import com.cooola.service.LocalStockAlertQueue;
+import com.cooola.service.SqsStockAlertQueue;
+import com.cooola.service.StockAlertQueue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 在庫アラートの送信先キュー設定
+ *
+ * このクラスは inventory.alerts.queue の値（SQS または LOCAL）に応じて送信先キューを作成します。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Configuration  // Spring設定クラスとして登録
+@Slf4j          // ログ機能
+public class StockAlertQueueConfig {
+
+    /**
+     * 在庫アラートの送信先キューを作成するメソッド
+     *
+     * @param queue キューの種類（SQS: AWS SQS、LOCAL: メモリ上のキュー）
+     * @param region AWSリージョン
+     * @param queueUrl SQSキューURL
+     * @param localCapacity メモリ上のキューの最大件数
+     * @param objectMapper JSON変換
+     * @return 在庫アラートの送信先キュー
+     */
+    @Bean
+    public StockAlertQueue stockAlertQueue(
+            @Value("${inventory.alerts.queue:LOCAL}") String queue,
+            @Value("${aws.region:ap-northeast-1}") String region,
+            @Value("${aws.sqs.queue-url:}") String queueUrl,
+            @Value("${inventory.alerts.local-capacity:10000}") int localCapacity,
+            ObjectMapper objectMapper) {
+        if ("SQS".equalsIgnoreCase(queue)) {
+            log.info("Stock alerts are sent to SQS: {}", queueUrl);
+            return new SqsStockAlertQueue(AmazonSQSClientBuilder.standard().withRegion(region).build(),
+                    queueUrl, objectMapper);
+        }
+        return new LocalStockAlertQueue(localCapacity);
+    }
+}
@@ -1,20 +1,35 @@
 package com.cooola.controller;
 
+import com.cooola.dto.LabelSheetRequest;
+import com.cooola.service.AsyncBarcodeRenderer;
+import com.cooola.service.BarcodeImageCache;
 import com.cooola.service.BarcodeService;
+import com.cooola.service.LabelSheetService;
 import com.cooola.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * バーコード・QRコード生成コントローラー
  * 
  * このクラスはバーコードとQRコードの生成に関するRESTful APIエンドポイントを提供します。
  * 商品管理システムで使用するバーコード・QRコードの動的生成機能を実装しています。
+ * 画像の描画は描画用スレッドプールで非同期に行い、描画待ちが上限に達した場合は503とRetry-Afterを返却します。
  * 
  * @author COOOLa Team
  * @version 1.0.0
@@ -31,38 +46,44 @@ public class BarcodeController {
     private final BarcodeService barcodeService;
     // 商品管理サービス
     private final ProductService productService;
+    // ラベルシート一括生成サービス
+    private final LabelSheetService labelSheetService;
+    // バーコード画像の非同期描画サービス
+    private final AsyncBarcodeRenderer barcodeRenderer;
+
+    // 描画待ちが上限に達した場合に返却するRetry-After
+    @Value("${barcode.executor.retry-after:PT1S}")
+    private Duration retryAfter;
 
     /**
      * QRコードを生成するエンドポイント
      * 
      * 指定された内容でQRコードを生成し、PNG画像として返却します。
+     * If-None-MatchがETagと一致する場合は画像を生成せずに304を返却します。
      * 
      * @param content QRコードに含める内容（テキスト、URL等）
      * @param width QRコードの幅（デフォルト: 200px）
      * @param height QRコードの高さ（デフォルト: 200px）
+     * @param renderMode 描画方式（PACKED/GRAPHICS2D、省略時は設定値）
+     * @param webRequest 条件付きリクエストの判定に使用するリクエスト
      * @return QRコードのPNG画像データ
      */
     @GetMapping("/qr")
-    public ResponseEntity<byte[]> generateQRCode(
+    public CompletableFuture<ResponseEntity<byte[]>> generateQRCode(
             @RequestParam String content,
             @RequestParam(defaultValue = "200") int width,
-            @RequestParam(defaultValue = "200") int height) {
+            @RequestParam(defaultValue = "200") int height,
+            @RequestParam(required = false) BarcodeService.RenderMode renderMode,
+            WebRequest webRequest) {
 
         try {
-            // QRコードを生成
-            byte[] qrCode = barcodeService.generateQRCode(content, width, height);
-
-            // HTTPレスポンスヘッダーを設定
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.IMAGE_PNG);  // PNG画像として設定
-            headers.setContentLength(qrCode.length);      // コンテンツ長を設定
-
-            return new ResponseEntity<>(qrCode, headers, HttpStatus.OK);
+            // QRコードを生成（キャッシュ済みの場合は再利用）
+            return imageResponse(barcodeService.qrCodeKey(content, width, height, renderMode), webRequest);
 
         } catch (Exception e) {
             // エラーログを出力
             log.error("Error generating QR code: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
         }
     }
 
@@ -70,33 +91,31 @@ public class BarcodeController {
      * バーコード（Code128）を生成するエンドポイント
      * 
      * 指定された内容でCode128形式のバーコードを生成し、PNG画像として返却します。
+     * If-None-MatchがETagと一致する場合は画像を生成せずに304を返却します。
      * 
      * @param content バーコードに含める内容（商品コード、SKU等）
      * @param width バーコードの幅（デフォルト: 300px）
      * @param height バーコードの高さ（デフォルト: 100px）
+     * @param renderMode 描画方式（PACKED/GRAPHICS2D、省略時は設定値）
+     * @param webRequest 条件付きリクエストの判定に使用するリクエスト
      * @return バーコードのPNG画像データ
      */
     @GetMapping("/code128")
-    public ResponseEntity<byte[]> generateBarcode(
+    public CompletableFuture<ResponseEntity<byte[]>> generateBarcode(
             @RequestParam String content,
             @RequestParam(defaultValue = "300") int width,
-            @RequestParam(defaultValue = "100") int height) {
+            @RequestParam(defaultValue = "100") int height,
+            @RequestParam(required = false) BarcodeService.RenderMode renderMode,
+            WebRequest webRequest) {
 
         try {
-            // バーコードを生成
-            byte[] barcode = barcodeService.generateBarcode(content, width, height);
-
-            // HTTPレスポンスヘッダーを設定
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.IMAGE_PNG);  // PNG画像として設定
-            headers.setContentLength(barcode.length);     // コンテンツ長を設定
-
-            return new ResponseEntity<>(barcode, headers, HttpStatus.OK);
+            // バーコードを生成（キャッシュ済みの場合は再利用）
+            return imageResponse(barcodeService.barcodeKey(content, width, height, renderMode), webRequest);
 
         } catch (Exception e) {
             // エラーログを出力
             log.error("Error generating barcode: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
         }
     }
 
@@ -107,30 +126,22 @@ public class BarcodeController {
      * 商品の詳細情報（SKU、商品名等）がQRコードに含まれます。
      * 
      * @param sku 商品のSKU（Stock Keeping Unit）
+     * @param webRequest 条件付きリクエストの判定に使用するリクエスト
      * @return 商品情報を含むQRコードのPNG画像データ
      */
     @GetMapping("/product/qr/{sku}")
-    public ResponseEntity<byte[]> generateProductQRCode(@PathVariable String sku) {
+    public CompletableFuture<ResponseEntity<byte[]>> generateProductQRCode(@PathVariable String sku, WebRequest webRequest) {
         try {
             // SKUで商品を検索し、存在する場合はQRコードを生成
-            return productService.getProductBySku(sku)
-                    .map(product -> {
-                        // 商品情報を含むQRコードを生成
-                        byte[] qrCode = barcodeService.generateProductQRCode(product.getSku(), product.getName());
-
-                        // HTTPレスポンスヘッダーを設定
-                        HttpHeaders headers = new HttpHeaders();
-                        headers.setContentType(MediaType.IMAGE_PNG);  // PNG画像として設定
-                        headers.setContentLength(qrCode.length);      // コンテンツ長を設定
-
-                        return new ResponseEntity<>(qrCode, headers, HttpStatus.OK);
-                    })
-                    .orElse(ResponseEntity.notFound().build());  // 商品が見つからない場合は404
+            return productService.getScanViewBySku(sku)
+                    .map(product -> imageResponse(
+                            barcodeService.productQRCodeKey(product.sku(), product.name()), webRequest))
+                    .orElse(CompletableFuture.completedFuture(ResponseEntity.notFound().build()));  // 商品が見つからない場合は404
 
         } catch (Exception e) {
             // エラーログを出力
             log.error("Error generating product QR code: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
         }
     }
 
@@ -141,30 +152,101 @@ public class BarcodeController {
      * 商品のSKUがバーコードに含まれ、スキャン時に商品を識別できます。
      * 
      * @param sku 商品のSKU（Stock Keeping Unit）
+     * @param webRequest 条件付きリクエストの判定に使用するリクエスト
      * @return 商品用バーコードのPNG画像データ
      */
     @GetMapping("/product/barcode/{sku}")
-    public ResponseEntity<byte[]> generateProductBarcode(@PathVariable String sku) {
+    public CompletableFuture<ResponseEntity<byte[]>> generateProductBarcode(@PathVariable String sku, WebRequest webRequest) {
         try {
             // SKUで商品を検索し、存在する場合はバーコードを生成
-            return productService.getProductBySku(sku)
-                    .map(product -> {
-                        // 商品用バーコードを生成
-                        byte[] barcode = barcodeService.generateProductBarcode(product.getSku());
-
-                        // HTTPレスポンスヘッダーを設定
-                        HttpHeaders headers = new HttpHeaders();
-                        headers.setContentType(MediaType.IMAGE_PNG);  // PNG画像として設定
-                        headers.setContentLength(barcode.length);     // コンテンツ長を設定
-
-                        return new ResponseEntity<>(barcode, headers, HttpStatus.OK);
-                    })
-                    .orElse(ResponseEntity.notFound().build());  // 商品が見つからない場合は404
+            return productService.getScanViewBySku(sku)
+                    .map(product -> imageResponse(barcodeService.productBarcodeKey(product.sku()), webRequest))
+                    .orElse(CompletableFuture.completedFuture(ResponseEntity.notFound().build()));  // 商品が見つからない場合は404
 
         } catch (Exception e) {
             // エラーログを出力
             log.error("Error generating product barcode: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * ラベルシートを一括生成するエンドポイント
+     * 
+     * 指定されたSKU一覧、カテゴリ、倉庫またはロケーションに該当する商品のラベル画像を
+     * 1つのZIPアーカイブとしてストリーミング返却します。
+     * 
+     * @param request ラベルシート生成リクエスト
+     * @return ラベル画像（PNG）を格納したZIPアーカイブ
+     */
+    @PostMapping("/labels")
+    public ResponseEntity<StreamingResponseBody> generateLabelSheet(@RequestBody LabelSheetRequest request) {
+        try {
+            // 対象商品を一括で解決
+            List<LabelSheetService.Label> labels = labelSheetService.resolveLabels(request);
+            if (labels.isEmpty()) {
+                return ResponseEntity.notFound().build();  // 対象商品がない場合は404
+            }
+
+            // 描画しながらZIPを書き出す
+            StreamingResponseBody body = out -> labelSheetService.writeZip(labels, request.getLabelType(), out);
+
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType("application/zip"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"labels.zip\"")
+                    .body(body);
+
+        } catch (IllegalArgumentException e) {
+            // 対象指定エラーのログ出力
+            log.error("Error generating label sheet: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * 画像レスポンスを作成するメソッド
+     * 
+     * ETagが一致する場合は画像を生成せずに304を返却し、
+     * それ以外の場合はキャッシュまたは描画用スレッドプールから画像を取得して返却します。
+     * 描画待ちが上限に達している場合は503とRetry-Afterを返却します。
+     * 
+     * @param key 画像のキャッシュキー
+     * @param webRequest 条件付きリクエストの判定に使用するリクエスト
+     * @return PNG画像・304・503のいずれかのレスポンス
+     */
+    private CompletableFuture<ResponseEntity<byte[]>> imageResponse(BarcodeImageCache.Key key, WebRequest webRequest) {
+        String eTag = key.eTag();
+        if (webRequest.checkNotModified(eTag)) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build());
+        }
+
+        CompletableFuture<byte[]> image;
+        try {
+            image = barcodeRenderer.render(key);
+        } catch (TaskRejectedException e) {
+            // 描画待ちが上限に達している場合は503
+            log.warn("Barcode render queue is full: {}", e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())))
+                    .build());
+        }
+
+        return image.handle((bytes, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                log.error("Error rendering barcode image: {}", cause.getMessage());
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            }
+
+            // HTTPレスポンスヘッダーを設定
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.IMAGE_PNG);     // PNG画像として設定
+            headers.setContentLength(bytes.length);          // コンテンツ長を設定
+            headers.setETag(eTag);                           // 再取得時の304判定用
+            headers.setCacheControl(CacheControl.noCache()); // 毎回ETagで再検証
+
+            return new ResponseEntity<>(bytes, headers, HttpStatus.OK);
+        });
+    }
+}
@@ -0,0 +1,124 @@
+package com.cooola.controller;
+
+import com.cooola.dto.InboundOrderRequest;
+import com.cooola.dto.InboundOrderView;
+import com.cooola.dto.ReceiptCommit;
+import com.cooola.dto.ReceivingScanRequest;
+import com.cooola.dto.ReceivingScanResult;
+import com.cooola.service.InboundOrderService;
+import com.cooola.service.InboundReceivingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 入庫予定コントローラー
+ *
+ * このクラスは入庫予定の登録・参照と、入荷作業（スキャン・確定・完了）に関するAPIエンドポイントを提供します。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@RestController                       // RESTful APIコントローラー
+@RequestMapping("/inbound-orders")    // ベースパス: /api/inbound-orders
+@RequiredArgsConstructor              // コンストラクタインジェクション
+@Slf4j                               // ログ機能
+@CrossOrigin(origins = "*")           // CORS設定（全オリジン許可）
+public class InboundOrderController {
+
+    // 入庫予定サービス
+    private final InboundOrderService inboundOrderService;
+    // 入荷受付サービス
+    private final InboundReceivingService receivingService;
+
+    /**
+     * 入庫予定を登録するエンドポイント
+     *
+     * @param request 入庫予定の登録内容
+     * @return 登録された入庫予定（入力が不正な場合は400）
+     */
+    @PostMapping
+    public ResponseEntity<InboundOrderView> createOrder(@RequestBody InboundOrderRequest request) {
+        try {
+            return ResponseEntity.ok(inboundOrderService.createOrder(request));
+        } catch (IllegalArgumentException e) {
+            log.error("Error creating inbound order: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * IDで入庫予定を取得するエンドポイント
+     *
+     * 入庫済み数量はデータベースに反映済みの分のみです。
+     *
+     * @param id 入庫予定ID
+     * @return 入庫予定（存在しない場合は404）
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<InboundOrderView> getOrder(@PathVariable Long id) {
+        return inboundOrderService.getOrder(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * 入荷スキャンを受け付けるエンドポイント
+     *
+     * 数量はメモリ上で集計され、一定間隔でまとめてデータベースに反映されます。
+     *
+     * @param id 入庫予定ID
+     * @param request 読み取ったコードと数量
+     * @return スキャン結果（入力が不正な場合は400、入荷完了済みの場合は409）
+     */
+    @PostMapping("/{id}/scans")
+    public ResponseEntity<ReceivingScanResult> scan(@PathVariable Long id, @RequestBody ReceivingScanRequest request) {
+        try {
+            return ResponseEntity.ok(receivingService.scan(id, request.getCode(), request.getQuantity()));
+        } catch (IllegalArgumentException e) {
+            log.error("Error receiving scan: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            log.warn("Scan rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    /**
+     * 集計済みの入荷数量を直ちに反映するエンドポイント
+     *
+     * @param id 入庫予定ID
+     * @return 反映した数量と格納先（受付中の入荷がない場合は409）
+     */
+    @PostMapping("/{id}/receipts")
+    public ResponseEntity<ReceiptCommit> commit(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(receivingService.commit(id));
+        } catch (IllegalStateException e) {
+            log.warn("Receipt commit rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    /**
+     * 入荷を完了するエンドポイント
+     *
+     * @param id 入庫予定ID
+     * @return 反映した数量と格納先（存在しない場合は404、入荷完了済み・取消済みの場合は409）
+     */
+    @PostMapping("/{id}/complete")
+    public ResponseEntity<ReceiptCommit> complete(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(receivingService.complete(id));
+        } catch (IllegalArgumentException e) {
+            log.error("Error completing inbound order: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            log.warn("Inbound order cannot be completed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+}
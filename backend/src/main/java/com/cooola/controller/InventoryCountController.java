@@ -0,0 +1,138 @@
+package com.cooola.controller;
+
+import com.cooola.dto.CountPostingResult;
+import com.cooola.dto.CountUploadResult;
+import com.cooola.dto.InventoryCountRequest;
+import com.cooola.dto.InventoryCountView;
+import com.cooola.service.CycleCountService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 棚卸しコントローラー
+ *
+ * このクラスは棚卸しの登録、実数の取り込み、差異の在庫反映に関するAPIエンドポイントを提供します。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@RestController                         // RESTful APIコントローラー
+@RequestMapping("/inventory-counts")    // ベースパス: /api/inventory-counts
+@RequiredArgsConstructor                // コンストラクタインジェクション
+@Slf4j                                 // ログ機能
+@CrossOrigin(origins = "*")             // CORS設定（全オリジン許可）
+public class InventoryCountController {
+
+    // 棚卸しサービス
+    private final CycleCountService cycleCountService;
+
+    /**
+     * 棚卸しを登録するエンドポイント
+     *
+     * 登録時点の在庫数量が予定数量になります。
+     *
+     * @param request 棚卸しの登録内容
+     * @return 登録された棚卸し（入力が不正な場合は400）
+     */
+    @PostMapping
+    public ResponseEntity<InventoryCountView> createCount(@RequestBody InventoryCountRequest request) {
+        try {
+            return ResponseEntity.ok(cycleCountService.createCount(request));
+        } catch (IllegalArgumentException e) {
+            log.error("Error creating inventory count: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * 棚卸しの状況を取得するエンドポイント
+     *
+     * @param id 棚卸しID
+     * @return 棚卸しの状況（存在しない場合は404）
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<InventoryCountView> getCount(@PathVariable Long id) {
+        return cycleCountService.getCount(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * CSV形式の実数を取り込むエンドポイント
+     *
+     * リクエスト本文をストリームとして読み込むため、件数によらずメモリ使用量は一定です。
+     * 文字コードはContent-Typeのcharsetで指定します（デフォルト: UTF-8）。
+     *
+     * @param id 棚卸しID
+     * @param request HTTPリクエスト
+     * @return 取り込み結果（棚卸しが存在しない場合、またはCSVが不正な場合は400、実施中でない場合は409）
+     */
+    @PostMapping(value = "/{id}/counts", consumes = "text/csv")
+    public ResponseEntity<CountUploadResult> uploadCounts(@PathVariable Long id, HttpServletRequest request) {
+        try {
+            // 不明な文字コードの場合はIllegalArgumentExceptionのサブクラスが発生する
+            Charset charset = request.getCharacterEncoding() != null
+                    ? Charset.forName(request.getCharacterEncoding())
+                    : StandardCharsets.UTF_8;
+            return ResponseEntity.ok(cycleCountService.uploadCsv(id, request.getInputStream(), charset));
+        } catch (IllegalArgumentException | IOException e) {
+            log.error("Error uploading inventory counts: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            log.warn("Inventory count upload rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    /**
+     * 差異を在庫へ反映して棚卸しを完了するエンドポイント
+     *
+     * 反映しなかった明細がある場合は、再度呼び出すと残りの明細を反映します。
+     *
+     * @param id 棚卸しID
+     * @param userId 操作したユーザーID（省略時は棚卸しの登録者）
+     * @return 反映結果（存在しない場合は404、取消済みの場合は409）
+     */
+    @PostMapping("/{id}/post")
+    public ResponseEntity<CountPostingResult> postAdjustments(@PathVariable Long id,
+                                                              @RequestParam(required = false) Long userId) {
+        try {
+            return ResponseEntity.ok(cycleCountService.postAdjustments(id, userId));
+        } catch (IllegalArgumentException e) {
+            log.error("Error posting inventory count: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            log.warn("Inventory count cannot be posted: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    /**
+     * 棚卸しを取り消すエンドポイント
+     *
+     * @param id 棚卸しID
+     * @return 取り消し成功時は200（存在しない場合は404、実施中でない場合は409）
+     */
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<Void> cancelCount(@PathVariable Long id) {
+        try {
+            cycleCountService.cancelCount(id);
+            return ResponseEntity.ok().build();
+        } catch (IllegalArgumentException e) {
+            log.error("Error cancelling inventory count: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            log.warn("Inventory count cannot be cancelled: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.cooola.controller;
+
+import com.cooola.dto.ProductStockSummary;
+import com.cooola.dto.WarehouseStockSummary;
+import com.cooola.repository.ProductRepository;
+import com.cooola.repository.WarehouseRepository;
+import com.cooola.service.InventoryAggregates;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+
+/**
+ * 在庫ダッシュボードコントローラー
+ *
+ * このクラスはダッシュボード向けの在庫集計を取得するAPIエンドポイントを提供します。
+ * 集計値は集計テーブルから読み込むため、在庫レコード数によらず一定の時間で応答します。
+ * 在庫の変更が集計に反映されるまで数秒遅れる場合があります。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@RestController                            // RESTful APIコントローラー
+@RequestMapping("/dashboard/inventory")    // ベースパス: /api/dashboard/inventory
+@RequiredArgsConstructor                   // コンストラクタインジェクション
+@CrossOrigin(origins = "*")                // CORS設定（全オリジン許可）
+public class InventoryDashboardController {
+
+    // 在庫集計
+    private final InventoryAggregates aggregates;
+    // 倉庫リポジトリ
+    private final WarehouseRepository warehouseRepository;
+    // 商品リポジトリ
+    private final ProductRepository productRepository;
+
+    /**
+     * 倉庫の在庫集計（在庫数量・在庫金額・在庫あり/なしのレコード数）を取得するエンドポイント
+     *
+     * @param warehouseId 倉庫ID
+     * @return 在庫集計（倉庫が存在しない場合は404）
+     */
+    @GetMapping("/warehouses/{warehouseId}")
+    public ResponseEntity<WarehouseStockSummary> getWarehouseSummary(@PathVariable Long warehouseId) {
+        WarehouseStockSummary summary = aggregates.getWarehouseSummary(warehouseId);
+        if (summary != null) {
+            return ResponseEntity.ok(summary);
+        }
+        // 集計行は在庫の登録時または照合時に作成されるため、在庫のない倉庫は0件として返却する
+        if (!warehouseRepository.existsById(warehouseId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(new WarehouseStockSummary(warehouseId, BigDecimal.ZERO, BigDecimal.ZERO, 0, 0, null));
+    }
+
+    /**
+     * 商品の全倉庫の在庫数量を取得するエンドポイント
+     *
+     * @param productId 商品ID
+     * @return 在庫集計（商品が存在しない場合は404）
+     */
+    @GetMapping("/products/{productId}")
+    public ResponseEntity<ProductStockSummary> getProductSummary(@PathVariable Long productId) {
+        ProductStockSummary summary = aggregates.getProductSummary(productId);
+        if (summary.updatedAt() == null && !productRepository.existsById(productId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(summary);
+    }
+}
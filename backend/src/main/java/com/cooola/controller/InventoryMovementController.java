@@ -0,0 +1,62 @@
+package com.cooola.controller;
+
+import com.cooola.entity.InventoryMovement;
+import com.cooola.repository.InventoryMovementRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 在庫移動履歴コントローラー
+ *
+ * このクラスは在庫移動台帳を参照するAPIエンドポイントを提供します。
+ * 台帳は非同期に書き込まれるため、直前の在庫変更が反映されるまでわずかに遅れる場合があります。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@RestController                            // RESTful APIコントローラー
+@RequestMapping("/inventory-movements")    // ベースパス: /api/inventory-movements
+@RequiredArgsConstructor                   // コンストラクタインジェクション
+@CrossOrigin(origins = "*")                // CORS設定（全オリジン許可）
+public class InventoryMovementController {
+
+    // 1回に取得する最大件数
+    private static final int MAX_PAGE_SIZE = 500;
+
+    // 在庫移動履歴リポジトリ
+    private final InventoryMovementRepository movementRepository;
+
+    /**
+     * 在庫レコードの移動履歴を古い順に取得するエンドポイント
+     *
+     * @param inventoryId 在庫ID
+     * @param afterId この台帳IDより後の履歴のみ取得（前回の最後の台帳IDを指定して続きを取得する）
+     * @param size 取得件数（デフォルト: 100、最大: 500）
+     * @return 移動履歴（台帳ID順）
+     */
+    @GetMapping(params = "inventoryId")
+    public ResponseEntity<List<InventoryMovement>> getByInventory(
+            @RequestParam Long inventoryId,
+            @RequestParam(defaultValue = "0") long afterId,
+            @RequestParam(defaultValue = "100") int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return ResponseEntity.ok(movementRepository.findByInventoryIdAfter(inventoryId, afterId,
+                PageRequest.of(0, pageSize)));
+    }
+
+    /**
+     * 伝票番号（入庫番号・出庫番号・ウェーブ番号）に紐づく移動履歴を取得するエンドポイント
+     *
+     * @param reference 伝票番号
+     * @return 移動履歴（台帳ID順）
+     */
+    @GetMapping(params = "reference")
+    public ResponseEntity<List<InventoryMovement>> getByReference(@RequestParam String reference) {
+        return ResponseEntity.ok(movementRepository.findByReferenceNumberOrderById(reference));
+    }
+}
@@ -0,0 +1,54 @@
+package com.cooola.controller;
+
+import com.cooola.dto.InventoryAsOf;
+import com.cooola.service.InventorySnapshotService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 在庫スナップショットコントローラー
+ *
+ * このクラスは過去の任意の時点の在庫を照会するAPIエンドポイントを提供します。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@RestController                            // RESTful APIコントローラー
+@RequestMapping("/inventory-snapshots")    // ベースパス: /api/inventory-snapshots
+@RequiredArgsConstructor                   // コンストラクタインジェクション
+@Slf4j                                    // ログ機能
+@CrossOrigin(origins = "*")                // CORS設定（全オリジン許可）
+public class InventorySnapshotController {
+
+    // 在庫スナップショットサービス
+    private final InventorySnapshotService snapshotService;
+
+    /**
+     * 指定時点の在庫を取得するエンドポイント
+     *
+     * 例: GET /api/inventory-snapshots/as-of?at=2024-01-31T23:59:59&amp;warehouseId=1
+     *
+     * @param at 指定時点（ISO 8601形式のローカル日時）
+     * @param warehouseId 倉庫ID
+     * @param productId 商品ID（省略時は倉庫内の全商品）
+     * @return 指定時点の在庫（指定時点以前のスナップショットが存在しない場合は400）
+     */
+    @GetMapping("/as-of")
+    public ResponseEntity<InventoryAsOf> getAsOf(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at,
+            @RequestParam Long warehouseId,
+            @RequestParam(required = false) Long productId) {
+        try {
+            return ResponseEntity.ok(snapshotService.asOf(at, warehouseId, productId));
+        } catch (IllegalArgumentException e) {
+            log.error("Inventory as-of query rejected: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
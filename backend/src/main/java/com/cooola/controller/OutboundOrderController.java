@@ -0,0 +1,121 @@
+package com.cooola.controller;
+
+import com.cooola.dto.OutboundOrderRequest;
+import com.cooola.dto.OutboundOrderView;
+import com.cooola.dto.PickList;
+import com.cooola.dto.WaveRequest;
+import com.cooola.dto.WaveResult;
+import com.cooola.service.OutboundOrderService;
+import com.cooola.service.OutboundWaveService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 出庫指示コントローラー
+ *
+ * このクラスは出庫指示の登録・参照・取消と、ピッキングウェーブの作成に関するAPIエンドポイントを提供します。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@RestController                        // RESTful APIコントローラー
+@RequestMapping("/outbound-orders")    // ベースパス: /api/outbound-orders
+@RequiredArgsConstructor               // コンストラクタインジェクション
+@Slf4j                                // ログ機能
+@CrossOrigin(origins = "*")            // CORS設定（全オリジン許可）
+public class OutboundOrderController {
+
+    // 出庫指示サービス
+    private final OutboundOrderService outboundOrderService;
+    // 出庫ウェーブサービス
+    private final OutboundWaveService outboundWaveService;
+
+    /**
+     * 出庫指示を登録するエンドポイント
+     *
+     * @param request 出庫指示の登録内容
+     * @return 登録された出庫指示（入力が不正な場合は400）
+     */
+    @PostMapping
+    public ResponseEntity<OutboundOrderView> createOrder(@RequestBody OutboundOrderRequest request) {
+        try {
+            return ResponseEntity.ok(outboundOrderService.createOrder(request));
+        } catch (IllegalArgumentException e) {
+            log.error("Error creating outbound order: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * IDで出庫指示を取得するエンドポイント
+     *
+     * @param id 出庫指示ID
+     * @return 出庫指示（存在しない場合は404）
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<OutboundOrderView> getOrder(@PathVariable Long id) {
+        return outboundOrderService.getOrder(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * 出庫指示を取り消すエンドポイント
+     *
+     * @param id 出庫指示ID
+     * @return 取消結果（存在しない場合は404、取り消せない状態の場合は409）
+     */
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<Void> cancelOrder(@PathVariable Long id) {
+        try {
+            outboundOrderService.cancelOrder(id);
+            return ResponseEntity.ok().build();
+        } catch (IllegalArgumentException e) {
+            log.error("Error cancelling outbound order: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            log.warn("Outbound order cannot be cancelled: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    /**
+     * ピッキングウェーブを作成するエンドポイント
+     *
+     * 未処理の出庫指示を優先度・納期順にまとめて引当し、ピッキングリストを返却します。
+     *
+     * @param request ウェーブの作成条件
+     * @return ウェーブ作成結果（入力が不正な場合は400、作成中に在庫・出庫指示が更新された場合は409）
+     */
+    @PostMapping("/waves")
+    public ResponseEntity<WaveResult> createWave(@RequestBody WaveRequest request) {
+        try {
+            return ResponseEntity.ok(outboundWaveService.createWave(request));
+        } catch (IllegalArgumentException e) {
+            log.error("Error creating wave: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            log.warn("Wave creation conflicted: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    /**
+     * ウェーブのピッキングリストを取得するエンドポイント
+     *
+     * @param waveNumber ウェーブ番号
+     * @return ピッキングリスト（ウェーブが存在しない場合は404）
+     */
+    @GetMapping("/waves/{waveNumber}/pick-list")
+    public ResponseEntity<PickList> getPickList(@PathVariable String waveNumber) {
+        PickList pickList = outboundOrderService.getPickList(waveNumber);
+        if (pickList.lines().isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(pickList);
+    }
+}
@@ -0,0 +1,51 @@
+package com.cooola.controller;
+
+import com.cooola.dto.PickRoute;
+import com.cooola.dto.PickRouteRequest;
+import com.cooola.service.PickRouteService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * ピッキング経路コントローラー
+ *
+ * このクラスは倉庫内のロケーションを巡回する順序を計算するAPIエンドポイントを提供します。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@RestController                    // RESTful APIコントローラー
+@RequestMapping("/pick-routes")    // ベースパス: /api/pick-routes
+@RequiredArgsConstructor           // コンストラクタインジェクション
+@Slf4j                            // ログ機能
+@CrossOrigin(origins = "*")        // CORS設定（全オリジン許可）
+public class PickRouteController {
+
+    // ピッキング経路サービス
+    private final PickRouteService pickRouteService;
+
+    // 1回の計算で受け付ける最大ロケーション数
+    @Value("${pick-route.max-stops:2000}")
+    private int maxStops;
+
+    /**
+     * ロケーションの巡回順を計算するエンドポイント
+     *
+     * @param request 倉庫IDと巡回するロケーションID
+     * @return ピッキング経路（入力が不正な場合は400）
+     */
+    @PostMapping
+    public ResponseEntity<PickRoute> route(@RequestBody PickRouteRequest request) {
+        if (request.getWarehouseId() == null || request.getLocationIds() == null
+                || request.getLocationIds().isEmpty() || request.getLocationIds().size() > maxStops) {
+            log.error("Invalid pick route request: warehouse={}, locations={}", request.getWarehouseId(),
+                    request.getLocationIds() == null ? null : request.getLocationIds().size());
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(pickRouteService.route(request.getWarehouseId(), request.getLocationIds()));
+    }
+}
@@ -1,18 +1,38 @@
 package com.cooola.controller;
 
+import com.cooola.dto.CategoryProductCount;
+import com.cooola.dto.CursorPage;
+import com.cooola.dto.ProductDetailView;
+import com.cooola.dto.ProductImportResult;
+import com.cooola.dto.ProductListItem;
+import com.cooola.dto.ProductScanView;
+import com.cooola.dto.ProductSortKey;
 import com.cooola.entity.Product;
+import com.cooola.service.ProductImportService;
 import com.cooola.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * 商品管理コントローラー
@@ -33,45 +53,101 @@ public class ProductController {
 
     // 商品管理サービス
     private final ProductService productService;
+    // 商品一括登録サービス
+    private final ProductImportService productImportService;
+    // NDJSON出力用のJSON変換
+    private final ObjectMapper objectMapper;
+
+    // 一覧取得の1ページあたりの最大件数
+    private static final int MAX_PAGE_SIZE = 500;
 
     /**
      * 商品一覧を取得するエンドポイント
      * 
      * ページネーション、ソート機能付きで商品一覧を取得します。
+     * ソート項目はインデックスのある項目（id, sku, name, createdAt, updatedAt）に限られます。
+     * withCount=falseの場合は総件数を求めず、次ページの有無のみを返却します。
      * 
      * @param page ページ番号（デフォルト: 0）
-     * @param size 1ページあたりの件数（デフォルト: 20）
+     * @param size 1ページあたりの件数（デフォルト: 20、最大: 500）
      * @param sortBy ソート項目（デフォルト: id）
      * @param sortDir ソート方向（asc/desc、デフォルト: desc）
-     * @return ページネーションされた商品一覧
+     * @param withCount 総件数を取得するかどうか（デフォルト: true）
+     * @return ページネーションされた商品一覧（ページ番号が負、件数が1未満、ソート項目が不正な場合は400）
      */
     @GetMapping
-    public ResponseEntity<Page<Product>> getAllProducts(
+    public ResponseEntity<Slice<ProductListItem>> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "true") boolean withCount) {
+
+        ProductSortKey sortKey;
+        try {
+            if (page < 0 || size < 1) {
+                throw new IllegalArgumentException("Invalid page or size: page=" + page + ", size=" + size);
+            }
+            sortKey = ProductSortKey.fromProperty(sortBy);
+        } catch (IllegalArgumentException e) {
+            log.error("Error listing products: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
 
-        // ソート条件を設定
-        Sort sort = sortDir.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+        // ソート条件を設定（同値の並びを安定させるためIDを第2キーとする）
+        Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = Sort.by(direction, sortKey.getProperty());
+        if (sortKey != ProductSortKey.ID) {
+            sort = sort.and(Sort.by(direction, "id"));
+        }
 
         // ページネーション条件を設定
-        Pageable pageable = PageRequest.of(page, size, sort);
+        Pageable pageable = PageRequest.of(page, clampPageSize(size), sort);
         // 商品一覧を取得
-        Page<Product> products = productService.getAllProducts(pageable);
+        Slice<ProductListItem> products = withCount
+                ? productService.getAllProducts(pageable)
+                : productService.getProductSlice(pageable);
 
         return ResponseEntity.ok(products);
     }
 
+    /**
+     * 商品一覧を取得するエンドポイント（カーソル方式）
+     * 
+     * 前ページのカーソルから続きを取得します。OFFSETを使わないため、
+     * 深いページでも先頭ページと同じコストで取得できます。総件数は返却しません。
+     * 
+     * @param sortBy ソート項目（id, sku, name, createdAt, updatedAt、デフォルト: id）
+     * @param sortDir ソート方向（asc/desc、デフォルト: desc）
+     * @param cursor 前ページのnextCursor（先頭ページの場合は省略）
+     * @param size 1ページあたりの件数（デフォルト: 20、最大: 500）
+     * @return 商品一覧のページ（ソート項目・カーソルが不正な場合は400）
+     */
+    @GetMapping("/seek")
+    public ResponseEntity<CursorPage<ProductListItem>> getProductsAfter(
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            ProductSortKey sortKey = ProductSortKey.fromProperty(sortBy);
+            boolean descending = sortDir.equalsIgnoreCase("desc");
+            return ResponseEntity.ok(productService.getProductsAfter(sortKey, descending, cursor, clampPageSize(size)));
+        } catch (IllegalArgumentException e) {
+            log.error("Error listing products: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * 商品をIDで取得するエンドポイント
      * 
      * @param id 商品ID
-     * @return 商品情報（存在しない場合は404）
+     * @return 商品詳細用ビュー（存在しない場合は404）
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        return productService.getProductById(id)
+    public ResponseEntity<ProductDetailView> getProductById(@PathVariable Long id) {
+        return productService.getProductDetail(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -79,12 +155,14 @@ public class ProductController {
     /**
      * 商品をSKUで取得するエンドポイント
      * 
+     * スキャナーからの照会用に、メモリ上のインデックスから最小限の商品情報を返却します。
+     * 
      * @param sku 商品のSKU（Stock Keeping Unit）
-     * @return 商品情報（存在しない場合は404）
+     * @return 商品スキャン用ビュー（存在しない場合は404）
      */
     @GetMapping("/sku/{sku}")
-    public ResponseEntity<Product> getProductBySku(@PathVariable String sku) {
-        return productService.getProductBySku(sku)
+    public ResponseEntity<ProductScanView> getProductBySku(@PathVariable String sku) {
+        return productService.getScanViewBySku(sku)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -92,12 +170,14 @@ public class ProductController {
     /**
      * 商品をバーコードで取得するエンドポイント
      * 
+     * スキャナーからの照会用に、メモリ上のインデックスから最小限の商品情報を返却します。
+     * 
      * @param barcode 商品のバーコード
-     * @return 商品情報（存在しない場合は404）
+     * @return 商品スキャン用ビュー（存在しない場合は404）
      */
     @GetMapping("/barcode/{barcode}")
-    public ResponseEntity<Product> getProductByBarcode(@PathVariable String barcode) {
-        return productService.getProductByBarcode(barcode)
+    public ResponseEntity<ProductScanView> getProductByBarcode(@PathVariable String barcode) {
+        return productService.getScanViewByBarcode(barcode)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -105,40 +185,160 @@ public class ProductController {
     /**
      * キーワードで商品を検索するエンドポイント
      * 
-     * 商品名、説明文などで部分一致検索を行います。
+     * 有効な商品のSKU、商品名、説明文、バーコードで部分一致検索を行い、一致度の高い順に返却します。
+     * 総件数はX-Total-Countヘッダーで返却します。
      * 
-     * @param keyword 検索キーワード
-     * @return 検索結果の商品一覧
+     * @param keyword 検索キーワード（空白区切りでAND条件）
+     * @param page ページ番号（デフォルト: 0）
+     * @param size 1ページあたりの件数（デフォルト: 50、最大: 500）
+     * @return 検索結果の商品一覧用ビュー（ページ番号が負の場合は400）
      */
     @GetMapping("/search")
-    public ResponseEntity<List<Product>> searchProducts(@RequestParam String keyword) {
-        List<Product> products = productService.searchProducts(keyword);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<List<ProductListItem>> searchProducts(
+            @RequestParam String keyword,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            Page<ProductListItem> products = productService.searchProducts(keyword, page, clampPageSize(size));
+            return ResponseEntity.ok()
+                    .header("X-Total-Count", String.valueOf(products.getTotalElements()))
+                    .body(products.getContent());
+        } catch (IllegalArgumentException e) {
+            log.error("Error searching products: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * キーワードで商品を検索するエンドポイント（カーソル方式）
+     * 
+     * 有効な商品の一致度順の検索結果を、前ページのカーソルから続けて取得します。
+     * 
+     * @param keyword 検索キーワード（空白区切りでAND条件）
+     * @param cursor 前ページのnextCursor（先頭ページの場合は省略）
+     * @param size 1ページあたりの件数（デフォルト: 50、最大: 500）
+     * @return 検索結果のページ（カーソルが不正な場合は400）
+     */
+    @GetMapping("/search/seek")
+    public ResponseEntity<CursorPage<ProductListItem>> searchProductsAfter(
+            @RequestParam String keyword,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(productService.searchProductsAfter(keyword, cursor, clampPageSize(size)));
+        } catch (IllegalArgumentException e) {
+            log.error("Error searching products: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * キーワード検索の全結果をNDJSONで返却するエンドポイント
+     * 
+     * 有効な商品のうち一致した商品を、1行に1商品のJSONとして一致度順に出力します。
+     * 
+     * @param keyword 検索キーワード（空白区切りでAND条件）
+     * @return 検索結果のNDJSONストリーム
+     */
+    @GetMapping(value = "/search/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSearchResults(@RequestParam String keyword) {
+        StreamingResponseBody body = out -> writeNdjson(out, sink -> productService.streamSearchResults(keyword, sink));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * 配下のカテゴリを含めたカテゴリ別商品一覧を取得するエンドポイント（カーソル方式）
+     * 
+     * @param categoryId カテゴリID
+     * @param cursor 前ページのnextCursor（先頭ページの場合は省略）
+     * @param size 1ページあたりの件数（デフォルト: 50、最大: 500）
+     * @return 商品一覧のページ（カテゴリが存在しない場合、またはカーソルが不正な場合は400）
+     */
+    @GetMapping("/category/{categoryId}/subtree/seek")
+    public ResponseEntity<CursorPage<ProductListItem>> getProductsByCategorySubtreeAfter(
+            @PathVariable Long categoryId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(productService.getProductsByCategorySubtreeAfter(categoryId, cursor,
+                    clampPageSize(size)));
+        } catch (IllegalArgumentException e) {
+            log.error("Error listing products by category subtree: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * カテゴリ別商品一覧を取得するエンドポイント（カーソル方式）
+     * 
+     * 商品ID順の一覧を、前ページのカーソルから続けて取得します。
+     * 
+     * @param categoryId カテゴリID
+     * @param cursor 前ページのnextCursor（先頭ページの場合は省略）
+     * @param size 1ページあたりの件数（デフォルト: 50、最大: 500）
+     * @return 商品一覧のページ（カーソルが不正な場合は400）
+     */
+    @GetMapping("/category/{categoryId}/seek")
+    public ResponseEntity<CursorPage<ProductListItem>> getProductsByCategoryAfter(
+            @PathVariable Long categoryId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(productService.getProductsByCategoryAfter(categoryId, cursor, clampPageSize(size)));
+        } catch (IllegalArgumentException e) {
+            log.error("Error listing products by category: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * カテゴリ別商品一覧をNDJSONで返却するエンドポイント
+     * 
+     * 1行に1商品のJSONを商品ID順に出力します。
+     * 
+     * @param categoryId カテゴリID
+     * @return 商品一覧のNDJSONストリーム
+     */
+    @GetMapping(value = "/category/{categoryId}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamProductsByCategory(@PathVariable Long categoryId) {
+        StreamingResponseBody body = out -> writeNdjson(out, sink -> productService.streamProductsByCategory(categoryId, sink));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     /**
      * カテゴリ別商品一覧を取得するエンドポイント
      * 
+     * 商品ID順に1ページ分を返却します。深いページは /category/{categoryId}/seek を使用してください。
+     * 
      * @param categoryId カテゴリID
-     * @return 指定カテゴリの商品一覧
+     * @param page ページ番号（デフォルト: 0）
+     * @param size 1ページあたりの件数（デフォルト: 50、最大: 500）
+     * @return 指定カテゴリの商品一覧用ビュー（ページ番号が負の場合は400）
      */
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable Long categoryId) {
-        List<Product> products = productService.getProductsByCategory(categoryId);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<List<ProductListItem>> getProductsByCategory(
+            @PathVariable Long categoryId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(productService.getProductsByCategory(categoryId, page, clampPageSize(size)));
+        } catch (IllegalArgumentException e) {
+            log.error("Error listing products by category: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     /**
      * 商品を新規作成するエンドポイント
      * 
      * @param product 作成する商品情報
-     * @return 作成された商品情報
+     * @return 作成された商品の詳細用ビュー
      */
     @PostMapping
-    public ResponseEntity<Product> createProduct(@Valid @RequestBody Product product) {
+    public ResponseEntity<ProductDetailView> createProduct(@Valid @RequestBody Product product) {
         try {
             Product createdProduct = productService.createProduct(product);
-            return ResponseEntity.ok(createdProduct);
+            return ResponseEntity.ok(ProductDetailView.from(createdProduct));
         } catch (IllegalArgumentException e) {
             // バリデーションエラーのログ出力
             log.error("Error creating product: {}", e.getMessage());
@@ -146,18 +346,61 @@ public class ProductController {
         }
     }
 
+    /**
+     * CSV形式の商品データを一括登録するエンドポイント
+     * 
+     * リクエスト本文をストリームとして読み込むため、件数によらずメモリ使用量は一定です。
+     * 文字コードはContent-Typeのcharsetで指定します（デフォルト: UTF-8）。
+     * 
+     * @param request HTTPリクエスト
+     * @return 取り込み結果（ヘッダー行が不正な場合、または読み込みに失敗した場合は400）
+     */
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ProductImportResult> importProductsCsv(HttpServletRequest request) {
+        try {
+            // 不明な文字コードの場合はIllegalArgumentExceptionのサブクラスが発生する
+            Charset charset = request.getCharacterEncoding() != null
+                    ? Charset.forName(request.getCharacterEncoding())
+                    : StandardCharsets.UTF_8;
+            return ResponseEntity.ok(productImportService.importCsv(request.getInputStream(), charset));
+        } catch (IllegalArgumentException | IOException e) {
+            // 入力形式エラーのログ出力
+            log.error("Error importing products: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * NDJSON形式の商品データを一括登録するエンドポイント
+     * 
+     * 1行に1商品のJSONオブジェクトを記述します。
+     * 
+     * @param body リクエスト本文
+     * @return 取り込み結果（読み込みに失敗した場合は400）
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ProductImportResult> importProductsNdjson(InputStream body) {
+        try {
+            return ResponseEntity.ok(productImportService.importNdjson(body));
+        } catch (IOException e) {
+            // 入力形式エラーのログ出力
+            log.error("Error importing products: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * 商品を更新するエンドポイント
      * 
      * @param id 更新対象の商品ID
      * @param product 更新する商品情報
-     * @return 更新された商品情報
+     * @return 更新された商品の詳細用ビュー
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Product> updateProduct(@PathVariable Long id, @Valid @RequestBody Product product) {
+    public ResponseEntity<ProductDetailView> updateProduct(@PathVariable Long id, @Valid @RequestBody Product product) {
         try {
             Product updatedProduct = productService.updateProduct(id, product);
-            return ResponseEntity.ok(updatedProduct);
+            return ResponseEntity.ok(ProductDetailView.from(updatedProduct));
         } catch (IllegalArgumentException e) {
             // バリデーションエラーのログ出力
             log.error("Error updating product: {}", e.getMessage());
@@ -216,4 +459,62 @@ public class ProductController {
         long count = productService.getProductCountByCategory(categoryId);
         return ResponseEntity.ok(count);
     }
-}
\ No newline at end of file
+
+    /**
+     * 配下のカテゴリを含めたカテゴリ別商品数を取得するエンドポイント
+     * 
+     * @param categoryId カテゴリID
+     * @return 指定カテゴリとその配下のカテゴリの商品数（カテゴリが存在しない場合は404）
+     */
+    @GetMapping("/count/category/{categoryId}/subtree")
+    public ResponseEntity<Long> getProductCountByCategorySubtree(@PathVariable Long categoryId) {
+        try {
+            return ResponseEntity.ok(productService.getProductCountByCategorySubtree(categoryId));
+        } catch (IllegalArgumentException e) {
+            log.error("Error counting products by category subtree: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * 全カテゴリの商品数を取得するエンドポイント
+     * 
+     * カテゴリごとに件数を問い合わせる代わりに、1回の呼び出しで階層全体の商品数を取得できます。
+     * 
+     * @return 階層の行きがけ順に並んだカテゴリ別商品数（配下のカテゴリを含めた合計を含む）
+     */
+    @GetMapping("/count/categories")
+    public ResponseEntity<List<CategoryProductCount>> getCategoryProductCounts() {
+        return ResponseEntity.ok(productService.getCategoryProductCounts());
+    }
+
+    /**
+     * 1ページあたりの件数を1〜最大件数の範囲に収めるメソッド
+     */
+    private static int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * 商品を1行1件のJSON（NDJSON）として出力するメソッド
+     * 
+     * @param out 出力先ストリーム
+     * @param source 商品を順に出力先へ渡す処理
+     * @throws IOException 出力に失敗した場合
+     */
+    private void writeNdjson(OutputStream out, Consumer<Consumer<ProductListItem>> source) throws IOException {
+        try {
+            source.accept(item -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(item));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,110 @@
+package com.cooola.controller;
+
+import com.cooola.dto.StockAlert;
+import com.cooola.dto.StockAlertThresholdRequest;
+import com.cooola.service.LocalStockAlertQueue;
+import com.cooola.service.StockAlertBroadcaster;
+import com.cooola.service.StockAlertQueue;
+import com.cooola.service.StockAlertService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+/**
+ * 在庫アラートコントローラー
+ *
+ * このクラスは在庫不足・有効期限のアラートの購読、在庫不足の一覧、閾値の設定を行うAPIエンドポイントを提供します。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@RestController                     // RESTful APIコントローラー
+@RequestMapping("/stock-alerts")    // ベースパス: /api/stock-alerts
+@RequiredArgsConstructor            // コンストラクタインジェクション
+@Slf4j                             // ログ機能
+@CrossOrigin(origins = "*")         // CORS設定（全オリジン許可）
+public class StockAlertController {
+
+    // 1回に取り出す最大件数
+    private static final int MAX_RECEIVE = 500;
+
+    // 在庫アラートサービス
+    private final StockAlertService alertService;
+    // SSE配信
+    private final StockAlertBroadcaster broadcaster;
+    // 送信先キュー
+    private final StockAlertQueue alertQueue;
+
+    /**
+     * 在庫アラートを購読するエンドポイント（Server-Sent Events）
+     *
+     * @return SSE接続（イベント名: stock-alert）
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return broadcaster.subscribe();
+    }
+
+    /**
+     * 現在在庫不足の商品・倉庫を取得するエンドポイント
+     *
+     * @param warehouseId 倉庫ID（省略時は全倉庫）
+     * @return 在庫不足のアラート（商品ID・倉庫ID順）
+     */
+    @GetMapping("/low-stock")
+    public ResponseEntity<List<StockAlert>> getLowStock(@RequestParam(required = false) Long warehouseId) {
+        return ResponseEntity.ok(alertService.getLowStock(warehouseId));
+    }
+
+    /**
+     * メモリ上のキューからアラートを取り出すエンドポイント（SQSを使用しない環境での代替）
+     *
+     * @param max 取り出す最大件数（デフォルト: 100、最大: 500）
+     * @return アラート（古い順、SQSを使用している場合は404）
+     */
+    @PostMapping("/queue/receive")
+    public ResponseEntity<List<StockAlert>> receive(@RequestParam(defaultValue = "100") int max) {
+        if (!(alertQueue instanceof LocalStockAlertQueue local)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(local.receive(Math.max(1, Math.min(max, MAX_RECEIVE))));
+    }
+
+    /**
+     * 商品別・カテゴリ別の在庫不足閾値を設定するエンドポイント
+     *
+     * @param request 商品IDまたはカテゴリIDと閾値
+     * @return 成功時は204、入力が不正な場合は400
+     */
+    @PutMapping("/thresholds")
+    public ResponseEntity<Void> setThreshold(@RequestBody StockAlertThresholdRequest request) {
+        try {
+            alertService.setThreshold(request);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid stock alert threshold: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * 商品別・カテゴリ別の在庫不足閾値を削除するエンドポイント
+     *
+     * @param productId 商品ID
+     * @param categoryId カテゴリID
+     * @return 成功時は204、設定がない場合は404
+     */
+    @DeleteMapping("/thresholds")
+    public ResponseEntity<Void> deleteThreshold(@RequestParam(required = false) Long productId,
+                                                @RequestParam(required = false) Long categoryId) {
+        return alertService.deleteThreshold(productId, categoryId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+}
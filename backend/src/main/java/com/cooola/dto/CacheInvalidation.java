@@ -0,0 +1,35 @@
+package com.cooola.dto;
+
+/**
+ * キャッシュ無効化イベント
+ *
+ * 他のインスタンスで商品・カテゴリ・ロケーションなどが変更されたことを通知し、メモリ上のキャッシュを無効化します。
+ *
+ * @param id イベントID（コミット順の連番）
+ * @param type 変更されたデータの種類
+ * @param entityId 変更されたデータのID
+ * @param warehouseId 倉庫ID（ロケーションのみ）
+ * @param origin 変更したインスタンスの識別子
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public record CacheInvalidation(
+        Long id,
+        Type type,
+        Long entityId,
+        Long warehouseId,
+        String origin) {
+
+    /**
+     * 変更されたデータの種類
+     */
+    public enum Type {
+        PRODUCT,    // 商品（検索インデックス・スキャン用インデックス）
+        CATEGORY,   // 商品カテゴリ（カテゴリツリー・二次キャッシュ）
+        LOCATION,   // ロケーション（ピッキング経路用グラフ・二次キャッシュ）
+        WAREHOUSE,  // 倉庫（二次キャッシュ）
+        USER        // ユーザー（二次キャッシュ）
+    }
+}
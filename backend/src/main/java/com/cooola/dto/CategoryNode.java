@@ -0,0 +1,20 @@
+package com.cooola.dto;
+
+/**
+ * カテゴリ階層の1ノード
+ *
+ * カテゴリツリーの構築用に、カテゴリの階層構造のみを読み込むための投影です。
+ *
+ * @param id カテゴリID
+ * @param name カテゴリ名
+ * @param parentId 親カテゴリID（最上位の場合はnull）
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public record CategoryNode(
+        Long id,
+        String name,
+        Long parentId) {
+}
@@ -0,0 +1,24 @@
+package com.cooola.dto;
+
+/**
+ * カテゴリ別の商品数
+ *
+ * @param categoryId カテゴリID
+ * @param name カテゴリ名
+ * @param parentId 親カテゴリID（最上位の場合はnull）
+ * @param depth 階層の深さ（最上位は0）
+ * @param productCount このカテゴリに直接属する商品数
+ * @param totalProductCount 配下のカテゴリを含めた商品数
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public record CategoryProductCount(
+        Long categoryId,
+        String name,
+        Long parentId,
+        int depth,
+        long productCount,
+        long totalProductCount) {
+}
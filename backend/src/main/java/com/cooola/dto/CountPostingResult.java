@@ -0,0 +1,24 @@
+package com.cooola.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * 棚卸し差異の在庫反映結果
+ *
+ * @param countNumber 棚卸し番号
+ * @param adjustedItems 在庫を調整した明細数
+ * @param skippedItems 調整後の在庫数量が引当済み数量を下回るため反映しなかった明細数（再度反映を要求できます）
+ * @param netAdjustment 調整数量の合計
+ * @param elapsedMillis 処理時間（ミリ秒）
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public record CountPostingResult(
+        String countNumber,
+        long adjustedItems,
+        long skippedItems,
+        BigDecimal netAdjustment,
+        long elapsedMillis) {
+}
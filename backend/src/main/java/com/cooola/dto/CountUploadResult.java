@@ -0,0 +1,38 @@
+package com.cooola.dto;
+
+import java.util.List;
+
+/**
+ * 棚卸し実数の取り込み結果
+ *
+ * 取り込みはバッチ単位でコミットされるため、エラーのある行を除いた行は反映済みです。
+ * エラー詳細は上限件数までのみ含まれます。
+ *
+ * @param totalRows 読み込んだ行数
+ * @param acceptedRows 反映した行数
+ * @param failedRows エラーとなった行数
+ * @param errors 行ごとのエラー詳細
+ * @param errorsTruncated エラー詳細が上限件数で打ち切られた場合はtrue
+ * @param elapsedMillis 処理時間（ミリ秒）
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public record CountUploadResult(
+        long totalRows,
+        long acceptedRows,
+        long failedRows,
+        List<RowError> errors,
+        boolean errorsTruncated,
+        long elapsedMillis) {
+
+    /**
+     * 行ごとのエラー
+     *
+     * @param line 入力のレコードの開始行番号（1始まり）
+     * @param message エラー内容
+     */
+    public record RowError(long line, String message) {
+    }
+}
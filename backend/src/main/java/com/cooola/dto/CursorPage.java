@@ -0,0 +1,21 @@
+package com.cooola.dto;
+
+import java.util.List;
+
+/**
+ * カーソル（シーク）方式のページ
+ *
+ * OFFSETを使わず、前ページ最後の行の位置から続きを取得するページです。
+ * 総件数は含みません。
+ *
+ * @param content ページ内の要素
+ * @param nextCursor 次ページ取得用のカーソル（最終ページの場合はnull）
+ * @param hasNext 次ページが存在するかどうか
+ * @param <T> 要素の型
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public record CursorPage<T>(List<T> content, String nextCursor, boolean hasNext) {
+}
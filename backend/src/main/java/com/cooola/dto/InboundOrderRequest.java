@@ -0,0 +1,96 @@
+package com.cooola.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 入庫予定登録リクエスト
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Data                // Lombok: getter/setter/toString/equals/hashCodeを自動生成
+@NoArgsConstructor   // Lombok: 引数なしコンストラクタを自動生成
+@AllArgsConstructor  // Lombok: 全引数コンストラクタを自動生成
+public class InboundOrderRequest {
+
+    /**
+     * 入庫先の倉庫ID
+     */
+    private Long warehouseId;
+
+    /**
+     * 仕入先名
+     */
+    private String supplierName;
+
+    /**
+     * 仕入先の注文番号
+     */
+    private String supplierOrderNumber;
+
+    /**
+     * 入荷予定日
+     */
+    private LocalDate expectedArrivalDate;
+
+    /**
+     * 備考
+     */
+    private String notes;
+
+    /**
+     * 登録者のユーザーID
+     */
+    private Long createdBy;
+
+    /**
+     * 入庫明細
+     */
+    private List<Item> items;
+
+    /**
+     * 入庫明細
+     */
+    @Data                // Lombok: getter/setter/toString/equals/hashCodeを自動生成
+    @NoArgsConstructor   // Lombok: 引数なしコンストラクタを自動生成
+    @AllArgsConstructor  // Lombok: 全引数コンストラクタを自動生成
+    public static class Item {
+
+        /**
+         * 商品ID
+         */
+        private Long productId;
+
+        /**
+         * 入庫予定数量
+         */
+        private BigDecimal quantity;
+
+        /**
+         * 単価
+         */
+        private BigDecimal unitCost;
+
+        /**
+         * ロット番号
+         */
+        private String lotNumber;
+
+        /**
+         * 賞味・使用期限
+         */
+        private LocalDate expiryDate;
+
+        /**
+         * 備考
+         */
+        private String notes;
+    }
+}
@@ -0,0 +1,81 @@
+package com.cooola.dto;
+
+import com.cooola.entity.InboundOrder;
+import com.cooola.entity.InboundOrderItem;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 入庫予定ビュー
+ *
+ * @param id 入庫予定ID
+ * @param orderNumber 入庫番号
+ * @param warehouseId 倉庫ID
+ * @param supplierName 仕入先名
+ * @param supplierOrderNumber 仕入先の注文番号
+ * @param expectedArrivalDate 入荷予定日
+ * @param status ステータス
+ * @param createdAt 作成日時
+ * @param items 入庫明細
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public record InboundOrderView(
+        Long id,
+        String orderNumber,
+        Long warehouseId,
+        String supplierName,
+        String supplierOrderNumber,
+        LocalDate expectedArrivalDate,
+        InboundOrder.OrderStatus status,
+        LocalDateTime createdAt,
+        List<Item> items) {
+
+    /**
+     * 入庫予定エンティティからビューを作成するメソッド
+     *
+     * 明細と商品が初期化済みであることを前提とします（トランザクション内で呼び出してください）。
+     *
+     * @param order 入庫予定エンティティ
+     * @return 入庫予定ビュー
+     */
+    public static InboundOrderView from(InboundOrder order) {
+        return new InboundOrderView(order.getId(), order.getOrderNumber(), order.getWarehouse().getId(),
+                order.getSupplierName(), order.getSupplierOrderNumber(), order.getExpectedArrivalDate(),
+                order.getStatus(), order.getCreatedAt(), order.getItems().stream().map(Item::from).toList());
+    }
+
+    /**
+     * 入庫明細ビュー
+     *
+     * @param id 入庫明細ID
+     * @param productId 商品ID
+     * @param sku 商品のSKU
+     * @param productName 商品名
+     * @param expectedQuantity 入庫予定数量
+     * @param receivedQuantity 入庫済み数量（確定分のみ）
+     * @param lotNumber ロット番号
+     * @param expiryDate 賞味・使用期限
+     */
+    public record Item(
+            Long id,
+            Long productId,
+            String sku,
+            String productName,
+            BigDecimal expectedQuantity,
+            BigDecimal receivedQuantity,
+            String lotNumber,
+            LocalDate expiryDate) {
+
+        private static Item from(InboundOrderItem item) {
+            return new Item(item.getId(), item.getProduct().getId(), item.getProduct().getSku(),
+                    item.getProduct().getName(), item.getExpectedQuantity(), item.getReceivedQuantity(),
+                    item.getLotNumber(), item.getExpiryDate());
+        }
+    }
+}
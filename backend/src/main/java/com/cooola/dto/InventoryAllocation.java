@@ -0,0 +1,49 @@
+package com.cooola.dto;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+
+/**
+ * 在庫レコード単位の引当
+ *
+ * 引当結果では在庫レコードごとの引当数量を、引当候補の検索では引当可能数量を表します。
+ * 引当の解除時もこの単位で指定します。
+ *
+ * @param inventoryId 在庫ID
+ * @param productId 商品ID
+ * @param warehouseId 倉庫ID
+ * @param locationId ロケーションID
+ * @param quantity 数量
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public record InventoryAllocation(
+        Long inventoryId,
+        Long productId,
+        Long warehouseId,
+        Long locationId,
+        BigDecimal quantity) {
+
+    /**
+     * ロック取得順（商品ID、倉庫ID、在庫IDの昇順）
+     *
+     * 引当・解除のいずれもこの順で在庫レコードを更新するため、
+     * 同時に実行されるトランザクション間でデッドロックが発生しません。
+     */
+    public static final Comparator<InventoryAllocation> LOCK_ORDER =
+            Comparator.comparing(InventoryAllocation::productId)
+                    .thenComparing(InventoryAllocation::warehouseId)
+                    .thenComparing(InventoryAllocation::inventoryId);
+
+    /**
+     * 数量を置き換えた引当を返却するメソッド
+     *
+     * @param quantity 数量
+     * @return 新しい引当
+     */
+    public InventoryAllocation withQuantity(BigDecimal quantity) {
+        return new InventoryAllocation(inventoryId, productId, warehouseId, locationId, quantity);
+    }
+}
@@ -0,0 +1,23 @@
+package com.cooola.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 指定時点の在庫
+ *
+ * 基準にしたスナップショットの数量に、スナップショット時点から指定時点までの在庫移動を加えた結果です。
+ *
+ * @param at 指定時点
+ * @param snapshotAt 基準にしたスナップショットの時点
+ * @param positions 在庫レコードごとの数量（在庫ID順、数量・引当数量がともに0のレコードは含まない）
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public record InventoryAsOf(
+        LocalDateTime at,
+        LocalDateTime snapshotAt,
+        List<InventoryPosition> positions) {
+}
@@ -0,0 +1,45 @@
+package com.cooola.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * 棚卸し登録リクエスト
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Data                // Lombok: getter/setter/toString/equals/hashCodeを自動生成
+@NoArgsConstructor   // Lombok: 引数なしコンストラクタを自動生成
+@AllArgsConstructor  // Lombok: 全引数コンストラクタを自動生成
+public class InventoryCountRequest {
+
+    /**
+     * 棚卸しを行う倉庫ID
+     */
+    private Long warehouseId;
+
+    /**
+     * 対象範囲のロケーションID（指定した場合はそのロケーション配下のみ、未指定の場合は倉庫全体）
+     */
+    private Long locationId;
+
+    /**
+     * 棚卸し日（未指定の場合は当日）
+     */
+    private LocalDate countDate;
+
+    /**
+     * 備考
+     */
+    private String notes;
+
+    /**
+     * 登録者のユーザーID
+     */
+    private Long createdBy;
+}
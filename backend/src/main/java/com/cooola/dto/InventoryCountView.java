@@ -0,0 +1,39 @@
+package com.cooola.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 棚卸しの状況
+ *
+ * 差異は明細ごとに「実数 - 予定数量」で、実数を受け付けるたびに更新されます。
+ *
+ * @param id 棚卸しID
+ * @param countNumber 棚卸し番号
+ * @param warehouseId 倉庫ID
+ * @param locationId 対象範囲のロケーションID（倉庫全体の場合はnull）
+ * @param countDate 棚卸し日
+ * @param status ステータス（IN_PROGRESS、COMPLETED、CANCELLED）
+ * @param itemCount 明細数
+ * @param countedItems 実数を受け付けた明細数
+ * @param varianceItems 差異のある明細数
+ * @param adjustedItems 在庫へ反映した明細数
+ * @param netVariance 差異の合計
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public record InventoryCountView(
+        Long id,
+        String countNumber,
+        Long warehouseId,
+        Long locationId,
+        LocalDate countDate,
+        String status,
+        long itemCount,
+        long countedItems,
+        long varianceItems,
+        long adjustedItems,
+        BigDecimal netVariance) {
+}
@@ -0,0 +1,26 @@
+package com.cooola.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * 在庫レコード1件分の指定時点の数量
+ *
+ * @param inventoryId 在庫ID
+ * @param productId 商品ID
+ * @param warehouseId 倉庫ID
+ * @param locationId ロケーションID
+ * @param quantity 在庫数量
+ * @param reservedQuantity 引当数量
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public record InventoryPosition(
+        Long inventoryId,
+        Long productId,
+        Long warehouseId,
+        Long locationId,
+        BigDecimal quantity,
+        BigDecimal reservedQuantity) {
+}
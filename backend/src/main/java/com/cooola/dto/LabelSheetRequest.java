@@ -0,0 +1,55 @@
+package com.cooola.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * ラベルシート一括生成リクエスト
+ *
+ * 対象商品はSKU一覧、カテゴリ、倉庫、ロケーションのいずれかで指定します。
+ * 複数指定された場合はSKU一覧、カテゴリ、ロケーション、倉庫の順に優先されます。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Data                // Lombok: getter/setter/toString/equals/hashCodeを自動生成
+@NoArgsConstructor   // Lombok: 引数なしコンストラクタを自動生成
+@AllArgsConstructor  // Lombok: 全引数コンストラクタを自動生成
+public class LabelSheetRequest {
+
+    /**
+     * 対象商品のSKU一覧
+     */
+    private List<String> skus;
+
+    /**
+     * 対象カテゴリID
+     */
+    private Long categoryId;
+
+    /**
+     * 対象倉庫ID（在庫レコードを持つ商品が対象）
+     */
+    private Long warehouseId;
+
+    /**
+     * 対象ロケーションID（在庫レコードを持つ商品が対象）
+     */
+    private Long locationId;
+
+    /**
+     * ラベルの種類
+     */
+    private LabelType labelType = LabelType.CODE128;
+
+    /**
+     * ラベルの種類
+     */
+    public enum LabelType {
+        QR, CODE128
+    }
+}
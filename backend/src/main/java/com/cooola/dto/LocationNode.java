@@ -0,0 +1,24 @@
+package com.cooola.dto;
+
+import com.cooola.entity.Location;
+
+/**
+ * ロケーション階層の1ノード
+ *
+ * ピッキング経路の計算用に、ロケーションの階層構造のみを読み込むための投影です。
+ *
+ * @param id ロケーションID
+ * @param code ロケーションコード
+ * @param locationType ロケーション種別
+ * @param parentId 親ロケーションID（最上位の場合はnull）
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public record LocationNode(
+        Long id,
+        String code,
+        Location.LocationType locationType,
+        Long parentId) {
+}
@@ -0,0 +1,92 @@
+package com.cooola.dto;
+
+import com.cooola.entity.OutboundOrder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 出庫指示登録リクエスト
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Data                // Lombok: getter/setter/toString/equals/hashCodeを自動生成
+@NoArgsConstructor   // Lombok: 引数なしコンストラクタを自動生成
+@AllArgsConstructor  // Lombok: 全引数コンストラクタを自動生成
+public class OutboundOrderRequest {
+
+    /**
+     * 出庫元の倉庫ID
+     */
+    private Long warehouseId;
+
+    /**
+     * 顧客名
+     */
+    private String customerName;
+
+    /**
+     * 顧客の注文番号
+     */
+    private String customerOrderNumber;
+
+    /**
+     * 納期
+     */
+    private LocalDate requiredDate;
+
+    /**
+     * 優先度
+     */
+    private OutboundOrder.Priority priority = OutboundOrder.Priority.NORMAL;
+
+    /**
+     * 備考
+     */
+    private String notes;
+
+    /**
+     * 登録者のユーザーID
+     */
+    private Long createdBy;
+
+    /**
+     * 出庫明細
+     */
+    private List<Item> items;
+
+    /**
+     * 出庫明細
+     */
+    @Data                // Lombok: getter/setter/toString/equals/hashCodeを自動生成
+    @NoArgsConstructor   // Lombok: 引数なしコンストラクタを自動生成
+    @AllArgsConstructor  // Lombok: 全引数コンストラクタを自動生成
+    public static class Item {
+
+        /**
+         * 商品ID
+         */
+        private Long productId;
+
+        /**
+         * 出庫数量
+         */
+        private BigDecimal quantity;
+
+        /**
+         * 単価
+         */
+        private BigDecimal unitPrice;
+
+        /**
+         * 備考
+         */
+        private String notes;
+    }
+}
@@ -0,0 +1,84 @@
+package com.cooola.dto;
+
+import com.cooola.entity.OutboundOrder;
+import com.cooola.entity.OutboundOrderItem;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 出庫指示ビュー
+ *
+ * @param id 出庫指示ID
+ * @param orderNumber 出庫番号
+ * @param warehouseId 倉庫ID
+ * @param customerName 顧客名
+ * @param customerOrderNumber 顧客の注文番号
+ * @param requiredDate 納期
+ * @param status ステータス
+ * @param priority 優先度
+ * @param waveNumber ウェーブ番号（ウェーブ未割当の場合はnull）
+ * @param createdAt 作成日時
+ * @param items 出庫明細
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public record OutboundOrderView(
+        Long id,
+        String orderNumber,
+        Long warehouseId,
+        String customerName,
+        String customerOrderNumber,
+        LocalDate requiredDate,
+        OutboundOrder.OrderStatus status,
+        OutboundOrder.Priority priority,
+        String waveNumber,
+        LocalDateTime createdAt,
+        List<Item> items) {
+
+    /**
+     * 出庫指示エンティティからビューを作成するメソッド
+     *
+     * 明細と商品が初期化済みであることを前提とします（トランザクション内で呼び出してください）。
+     *
+     * @param order 出庫指示エンティティ
+     * @return 出庫指示ビュー
+     */
+    public static OutboundOrderView from(OutboundOrder order) {
+        return new OutboundOrderView(order.getId(), order.getOrderNumber(), order.getWarehouse().getId(),
+                order.getCustomerName(), order.getCustomerOrderNumber(), order.getRequiredDate(),
+                order.getStatus(), order.getPriority(), order.getWaveNumber(), order.getCreatedAt(),
+                order.getItems().stream().map(Item::from).toList());
+    }
+
+    /**
+     * 出庫明細ビュー
+     *
+     * @param id 出庫明細ID
+     * @param productId 商品ID
+     * @param sku 商品のSKU
+     * @param productName 商品名
+     * @param requestedQuantity 出庫数量
+     * @param pickedQuantity ピッキング済み数量
+     * @param shippedQuantity 出荷済み数量
+     */
+    public record Item(
+            Long id,
+            Long productId,
+            String sku,
+            String productName,
+            BigDecimal requestedQuantity,
+            BigDecimal pickedQuantity,
+            BigDecimal shippedQuantity) {
+
+        private static Item from(OutboundOrderItem item) {
+            return new Item(item.getId(), item.getProduct().getId(), item.getProduct().getSku(),
+                    item.getProduct().getName(), item.getRequestedQuantity(), item.getPickedQuantity(),
+                    item.getShippedQuantity());
+        }
+    }
+}
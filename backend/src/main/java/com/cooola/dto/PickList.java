@@ -0,0 +1,117 @@
+package com.cooola.dto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ピッキングリスト
+ *
+ * ウェーブ内の引当を在庫レコード（ロケーション・ロット）ごとにまとめ、ロケーションコード順に並べたものです。
+ * 各行には出庫指示ごとの内訳が含まれます。歩行順に並べる場合はinRouteOrderでピッキング経路の順に並べ替えます。
+ *
+ * @param waveNumber ウェーブ番号
+ * @param lines ピッキング行（ロケーション順）
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public record PickList(String waveNumber, List<Line> lines) {
+
+    /**
+     * ロケーションコード順（ロケーション未設定は末尾）、SKU順
+     */
+    private static final Comparator<PickListEntry> ORDER =
+            Comparator.comparing(PickListEntry::locationCode, Comparator.nullsLast(Comparator.naturalOrder()))
+                    .thenComparing(PickListEntry::sku)
+                    .thenComparing(PickListEntry::inventoryId)
+                    .thenComparing(PickListEntry::orderNumber);
+
+    /**
+     * 引当明細からピッキングリストを作成するメソッド
+     *
+     * @param waveNumber ウェーブ番号
+     * @param entries 引当明細
+     * @return ピッキングリスト
+     */
+    public static PickList of(String waveNumber, List<PickListEntry> entries) {
+        List<PickListEntry> sorted = new ArrayList<>(entries);
+        sorted.sort(ORDER);
+
+        // 在庫レコードごとにまとめる（並び順を維持）
+        Map<Long, List<PickListEntry>> byInventory = new LinkedHashMap<>();
+        for (PickListEntry entry : sorted) {
+            byInventory.computeIfAbsent(entry.inventoryId(), id -> new ArrayList<>()).add(entry);
+        }
+
+        List<Line> lines = new ArrayList<>(byInventory.size());
+        for (List<PickListEntry> group : byInventory.values()) {
+            PickListEntry first = group.get(0);
+            BigDecimal quantity = BigDecimal.ZERO;
+            List<OrderQuantity> orders = new ArrayList<>(group.size());
+            for (PickListEntry entry : group) {
+                quantity = quantity.add(entry.quantity());
+                orders.add(new OrderQuantity(entry.orderNumber(), entry.quantity()));
+            }
+            lines.add(new Line(first.locationId(), first.locationCode(), first.inventoryId(), first.lotNumber(),
+                    first.productId(), first.sku(), first.productName(), quantity, orders));
+        }
+        return new PickList(waveNumber, lines);
+    }
+
+    /**
+     * ピッキング経路の巡回順に行を並べ替えるメソッド
+     *
+     * 同じロケーションの行は元の順序を保ち、経路に含まれないロケーションの行は末尾に置きます。
+     *
+     * @param route ピッキング経路
+     * @return 並べ替えたピッキングリスト
+     */
+    public PickList inRouteOrder(PickRoute route) {
+        Map<Long, Integer> sequences = new HashMap<>();
+        route.stops().forEach(stop -> sequences.put(stop.locationId(), stop.sequence()));
+        List<Line> ordered = new ArrayList<>(lines);
+        ordered.sort(Comparator.comparingInt(line -> line.locationId() == null
+                ? Integer.MAX_VALUE : sequences.getOrDefault(line.locationId(), Integer.MAX_VALUE)));
+        return new PickList(waveNumber, ordered);
+    }
+
+    /**
+     * ピッキング行
+     *
+     * @param locationId ロケーションID
+     * @param locationCode ロケーションコード
+     * @param inventoryId 在庫ID
+     * @param lotNumber ロット番号
+     * @param productId 商品ID
+     * @param sku 商品のSKU
+     * @param productName 商品名
+     * @param quantity ピッキング数量の合計
+     * @param orders 出庫指示ごとの内訳
+     */
+    public record Line(
+            Long locationId,
+            String locationCode,
+            Long inventoryId,
+            String lotNumber,
+            Long productId,
+            String sku,
+            String productName,
+            BigDecimal quantity,
+            List<OrderQuantity> orders) {
+    }
+
+    /**
+     * 出庫指示ごとの内訳
+     *
+     * @param orderNumber 出庫番号
+     * @param quantity 数量
+     */
+    public record OrderQuantity(String orderNumber, BigDecimal quantity) {
+    }
+}
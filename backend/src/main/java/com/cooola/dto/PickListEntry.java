@@ -0,0 +1,34 @@
+package com.cooola.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * ピッキングリストの引当明細
+ *
+ * 出庫引当1件分のロケーション・商品・出庫指示の情報です。
+ *
+ * @param locationId ロケーションID
+ * @param locationCode ロケーションコード
+ * @param inventoryId 在庫ID
+ * @param lotNumber ロット番号
+ * @param productId 商品ID
+ * @param sku 商品のSKU
+ * @param productName 商品名
+ * @param orderNumber 出庫番号
+ * @param quantity 引当数量
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public record PickListEntry(
+        Long locationId,
+        String locationCode,
+        Long inventoryId,
+        String lotNumber,
+        Long productId,
+        String sku,
+        String productName,
+        String orderNumber,
+        BigDecimal quantity) {
+}
@@ -0,0 +1,48 @@
+package com.cooola.dto;
+
+import java.util.List;
+
+/**
+ * ピッキング経路
+ *
+ * @param warehouseId 倉庫ID
+ * @param algorithm 採用した経路計算方式
+ * @param distance 出発点から全地点を回って出発点に戻るまでの歩行距離（ラック1つ分の奥行きを1とした距離）
+ * @param elapsedMicros 経路計算にかかった時間（マイクロ秒）
+ * @param stops 巡回順の地点
+ * @param unroutedLocationIds 倉庫のロケーション階層に含まれず、経路に含めなかったロケーションID
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public record PickRoute(
+        Long warehouseId,
+        Algorithm algorithm,
+        long distance,
+        long elapsedMicros,
+        List<Stop> stops,
+        List<Long> unroutedLocationIds) {
+
+    /**
+     * 経路計算方式
+     */
+    public enum Algorithm {
+        /** 通路を順に往復するS字型 */
+        S_SHAPE,
+        /** 最近傍法で作成し2-optで改善した経路 */
+        NEAREST_NEIGHBOUR_2OPT
+    }
+
+    /**
+     * 巡回地点
+     *
+     * @param sequence 巡回順（1始まり）
+     * @param locationId ロケーションID
+     * @param locationCode ロケーションコード
+     * @param aisle 通路番号
+     * @param position 通路内の位置
+     */
+    public record Stop(int sequence, Long locationId, String locationCode, int aisle, int position) {
+    }
+}
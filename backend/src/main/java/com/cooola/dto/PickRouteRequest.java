@@ -0,0 +1,30 @@
+package com.cooola.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * ピッキング経路計算リクエスト
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Data                // Lombok: getter/setter/toString/equals/hashCodeを自動生成
+@NoArgsConstructor   // Lombok: 引数なしコンストラクタを自動生成
+@AllArgsConstructor  // Lombok: 全引数コンストラクタを自動生成
+public class PickRouteRequest {
+
+    /**
+     * 倉庫ID
+     */
+    private Long warehouseId;
+
+    /**
+     * 巡回するロケーションID（重複は1地点として扱う）
+     */
+    private List<Long> locationIds;
+}
@@ -0,0 +1,59 @@
+package com.cooola.dto;
+
+import com.cooola.entity.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 商品詳細用ビュー
+ *
+ * 商品詳細・登録・更新の結果として返却する商品情報です。カテゴリはIDと名称のみを含みます。
+ *
+ * @param id 商品ID
+ * @param sku 商品のSKU
+ * @param name 商品名
+ * @param description 商品説明
+ * @param categoryId カテゴリID
+ * @param categoryName カテゴリ名
+ * @param unitOfMeasure 単位
+ * @param weight 重量
+ * @param dimensions 寸法
+ * @param barcode 商品のバーコード
+ * @param isActive アクティブ状態
+ * @param createdAt 作成日時
+ * @param updatedAt 更新日時
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public record ProductDetailView(
+        Long id,
+        String sku,
+        String name,
+        String description,
+        Long categoryId,
+        String categoryName,
+        String unitOfMeasure,
+        BigDecimal weight,
+        String dimensions,
+        String barcode,
+        Boolean isActive,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+
+    /**
+     * 商品エンティティから詳細用ビューを作成するメソッド
+     *
+     * @param product 商品エンティティ
+     * @return 商品詳細用ビュー
+     */
+    public static ProductDetailView from(Product product) {
+        Long categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+        String categoryName = product.getCategory() != null ? product.getCategory().getName() : null;
+        return new ProductDetailView(product.getId(), product.getSku(), product.getName(), product.getDescription(),
+                categoryId, categoryName, product.getUnitOfMeasure(), product.getWeight(), product.getDimensions(),
+                product.getBarcode(), product.getIsActive(), product.getCreatedAt(), product.getUpdatedAt());
+    }
+}
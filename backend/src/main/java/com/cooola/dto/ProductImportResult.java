@@ -0,0 +1,39 @@
+package com.cooola.dto;
+
+import java.util.List;
+
+/**
+ * 商品一括登録の結果
+ *
+ * 登録はバッチ単位でコミットされるため、エラーのある行を除いた行は登録済みです。
+ * エラー詳細は上限件数までのみ含まれます。
+ *
+ * @param totalRows 読み込んだ行数
+ * @param importedRows 登録した行数
+ * @param failedRows エラーとなった行数
+ * @param errors 行ごとのエラー詳細
+ * @param errorsTruncated エラー詳細が上限件数で打ち切られた場合はtrue
+ * @param elapsedMillis 処理時間（ミリ秒）
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public record ProductImportResult(
+        long totalRows,
+        long importedRows,
+        long failedRows,
+        List<RowError> errors,
+        boolean errorsTruncated,
+        long elapsedMillis) {
+
+    /**
+     * 行ごとのエラー
+     *
+     * @param line 入力の行番号（1始まり、CSVはレコードの開始行）
+     * @param sku 商品のSKU（読み取れなかった場合はnull）
+     * @param message エラー内容
+     */
+    public record RowError(long line, String sku, String message) {
+    }
+}
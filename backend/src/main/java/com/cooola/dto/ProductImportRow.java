@@ -0,0 +1,63 @@
+package com.cooola.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 商品一括登録の1行
+ *
+ * CSVの1レコード、またはNDJSONの1行に対応します。
+ * CSVの場合はヘッダー行の列名をこのクラスの項目名と対応付けます。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Data                // Lombok: getter/setter/toString/equals/hashCodeを自動生成
+@NoArgsConstructor   // Lombok: 引数なしコンストラクタを自動生成
+@AllArgsConstructor  // Lombok: 全引数コンストラクタを自動生成
+public class ProductImportRow {
+
+    /**
+     * 商品のSKU（必須）
+     */
+    private String sku;
+
+    /**
+     * 商品名（必須）
+     */
+    private String name;
+
+    /**
+     * 商品説明
+     */
+    private String description;
+
+    /**
+     * カテゴリID（必須）
+     */
+    private Long categoryId;
+
+    /**
+     * 単位（必須）
+     */
+    private String unitOfMeasure;
+
+    /**
+     * 重量
+     */
+    private BigDecimal weight;
+
+    /**
+     * 寸法
+     */
+    private String dimensions;
+
+    /**
+     * バーコード
+     */
+    private String barcode;
+}
@@ -0,0 +1,39 @@
+package com.cooola.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 商品一覧用ビュー
+ *
+ * 一覧・検索結果で返却する商品情報です。説明文は含まず、カテゴリ名は同一クエリで取得します。
+ *
+ * @param id 商品ID
+ * @param sku 商品のSKU
+ * @param name 商品名
+ * @param categoryId カテゴリID
+ * @param categoryName カテゴリ名
+ * @param unitOfMeasure 単位
+ * @param weight 重量
+ * @param barcode 商品のバーコード
+ * @param isActive アクティブ状態
+ * @param createdAt 作成日時
+ * @param updatedAt 更新日時
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public record ProductListItem(
+        Long id,
+        String sku,
+        String name,
+        Long categoryId,
+        String categoryName,
+        String unitOfMeasure,
+        BigDecimal weight,
+        String barcode,
+        Boolean isActive,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+}
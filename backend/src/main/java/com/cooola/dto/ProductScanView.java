@@ -0,0 +1,48 @@
+package com.cooola.dto;
+
+import com.cooola.entity.Product;
+
+/**
+ * 商品スキャン用ビュー
+ *
+ * ハンディスキャナーからのSKU・バーコード照会で返却する最小限の商品情報です。
+ * メモリ上のルックアップインデックスにもこの形式で保持されます。
+ *
+ * @param id 商品ID
+ * @param sku 商品のSKU
+ * @param name 商品名
+ * @param barcode 商品のバーコード
+ * @param unitOfMeasure 単位
+ * @param categoryId カテゴリID
+ * @param categoryName カテゴリ名
+ * @param isActive アクティブ状態
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public record ProductScanView(
+        Long id,
+        String sku,
+        String name,
+        String barcode,
+        String unitOfMeasure,
+        Long categoryId,
+        String categoryName,
+        Boolean isActive) {
+
+    /**
+     * 商品エンティティからビューを作成するメソッド
+     *
+     * カテゴリが初期化済みであることを前提とします（トランザクション内で呼び出してください）。
+     *
+     * @param product 商品エンティティ
+     * @return 商品スキャン用ビュー
+     */
+    public static ProductScanView from(Product product) {
+        Long categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+        String categoryName = product.getCategory() != null ? product.getCategory().getName() : null;
+        return new ProductScanView(product.getId(), product.getSku(), product.getName(), product.getBarcode(),
+                product.getUnitOfMeasure(), categoryId, categoryName, product.getIsActive());
+    }
+}
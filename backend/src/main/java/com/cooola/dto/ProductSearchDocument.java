@@ -0,0 +1,37 @@
+package com.cooola.dto;
+
+import com.cooola.entity.Product;
+
+/**
+ * 商品検索ドキュメント
+ *
+ * 全文検索インデックスに登録する商品の検索対象項目です。
+ *
+ * @param id 商品ID
+ * @param sku 商品のSKU
+ * @param name 商品名
+ * @param description 商品説明
+ * @param barcode 商品のバーコード
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public record ProductSearchDocument(
+        Long id,
+        String sku,
+        String name,
+        String description,
+        String barcode) {
+
+    /**
+     * 商品エンティティから検索ドキュメントを作成するメソッド
+     *
+     * @param product 商品エンティティ
+     * @return 商品検索ドキュメント
+     */
+    public static ProductSearchDocument from(Product product) {
+        return new ProductSearchDocument(product.getId(), product.getSku(), product.getName(),
+                product.getDescription(), product.getBarcode());
+    }
+}
@@ -0,0 +1,81 @@
+package com.cooola.dto;
+
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * 商品一覧のソート項目
+ *
+ * 商品一覧で指定できるソート項目をインデックスのある列に限定します。
+ * いずれも（is_active, 項目, id）の複合インデックスで並び替え・位置指定ができます。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public enum ProductSortKey {
+
+    ID("id", ProductListItem::id, Long::valueOf),
+    SKU("sku", ProductListItem::sku, Function.identity()),
+    NAME("name", ProductListItem::name, Function.identity()),
+    CREATED_AT("createdAt", ProductListItem::createdAt, LocalDateTime::parse),
+    UPDATED_AT("updatedAt", ProductListItem::updatedAt, LocalDateTime::parse);
+
+    // エンティティのプロパティ名
+    private final String property;
+    // 一覧用ビューからソート値を取り出す処理
+    private final Function<ProductListItem, Object> extractor;
+    // カーソル文字列からソート値を復元する処理
+    private final Function<String, Object> parser;
+
+    ProductSortKey(String property, Function<ProductListItem, ?> extractor, Function<String, ?> parser) {
+        this.property = property;
+        this.extractor = extractor::apply;
+        this.parser = parser::apply;
+    }
+
+    /**
+     * エンティティのプロパティ名を返却するメソッド
+     *
+     * @return プロパティ名
+     */
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * 一覧用ビューからソート値を取り出すメソッド
+     *
+     * @param item 商品一覧用ビュー
+     * @return ソート値
+     */
+    public Object valueOf(ProductListItem item) {
+        return extractor.apply(item);
+    }
+
+    /**
+     * カーソル文字列からソート値を復元するメソッド
+     *
+     * @param value カーソルに含まれるソート値の文字列
+     * @return ソート値
+     */
+    public Object parse(String value) {
+        return parser.apply(value);
+    }
+
+    /**
+     * プロパティ名からソート項目を取得するメソッド
+     *
+     * @param property プロパティ名（id, sku, name, createdAt, updatedAt）
+     * @return ソート項目
+     * @throws IllegalArgumentException 許可されていないプロパティ名の場合
+     */
+    public static ProductSortKey fromProperty(String property) {
+        for (ProductSortKey key : values()) {
+            if (key.property.equals(property)) {
+                return key;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported sort property: " + property);
+    }
+}
@@ -0,0 +1,21 @@
+package com.cooola.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 商品の在庫集計（全倉庫の合計）
+ *
+ * @param productId 商品ID
+ * @param totalQuantity 在庫数量の合計
+ * @param updatedAt 最終更新日時（在庫がない場合はnull）
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public record ProductStockSummary(
+        Long productId,
+        BigDecimal totalQuantity,
+        LocalDateTime updatedAt) {
+}
@@ -0,0 +1,33 @@
+package com.cooola.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 入荷確定結果
+ *
+ * @param orderNumber 入庫番号
+ * @param lines 今回確定したロットごとの数量と格納先
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public record ReceiptCommit(String orderNumber, List<PutawayLine> lines) {
+
+    /**
+     * 格納指示
+     *
+     * @param productId 商品ID
+     * @param sku 商品のSKU
+     * @param lotNumber ロット番号
+     * @param expiryDate 期限
+     * @param quantity 確定した数量
+     * @param locationId 格納先ロケーションID（空きロケーションがない場合はnull）
+     * @param locationCode 格納先ロケーションコード
+     */
+    public record PutawayLine(Long productId, String sku, String lotNumber, LocalDate expiryDate, BigDecimal quantity,
+                              Long locationId, String locationCode) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.cooola.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 入荷スキャンリクエスト
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Data                // Lombok: getter/setter/toString/equals/hashCodeを自動生成
+@NoArgsConstructor   // Lombok: 引数なしコンストラクタを自動生成
+@AllArgsConstructor  // Lombok: 全引数コンストラクタを自動生成
+public class ReceivingScanRequest {
+
+    /**
+     * 読み取ったバーコード（一致しない場合はSKUとして照会）
+     */
+    private String code;
+
+    /**
+     * 数量（nullの場合は1）
+     */
+    private BigDecimal quantity;
+}
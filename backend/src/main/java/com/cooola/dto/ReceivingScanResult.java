@@ -0,0 +1,30 @@
+package com.cooola.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * 入荷スキャン結果
+ *
+ * @param orderNumber 入庫番号
+ * @param productId 商品ID
+ * @param sku 商品のSKU
+ * @param productName 商品名
+ * @param expectedQuantity 入庫予定数量
+ * @param receivedQuantity 入荷数量（未確定分を含む）
+ * @param pendingQuantity 未確定の入荷数量（まだデータベースに書き込まれていない分）
+ * @param overReceived 入庫予定数量を超えて入荷した場合はtrue
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public record ReceivingScanResult(
+        String orderNumber,
+        Long productId,
+        String sku,
+        String productName,
+        BigDecimal expectedQuantity,
+        BigDecimal receivedQuantity,
+        BigDecimal pendingQuantity,
+        boolean overReceived) {
+}
@@ -0,0 +1,37 @@
+package com.cooola.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 在庫引当明細
+ *
+ * 1商品・1倉庫あたりの引当数量を表します。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Data                // Lombok: getter/setter/toString/equals/hashCodeを自動生成
+@NoArgsConstructor   // Lombok: 引数なしコンストラクタを自動生成
+@AllArgsConstructor  // Lombok: 全引数コンストラクタを自動生成
+public class ReservationLine {
+
+    /**
+     * 商品ID
+     */
+    private Long productId;
+
+    /**
+     * 倉庫ID
+     */
+    private Long warehouseId;
+
+    /**
+     * 引当数量
+     */
+    private BigDecimal quantity;
+}
@@ -0,0 +1,46 @@
+package com.cooola.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 在庫アラート
+ *
+ * 在庫不足（LOW_STOCK・STOCK_RECOVERED）は商品・倉庫単位、期限（EXPIRING・EXPIRED）は在庫レコード単位で通知します。
+ *
+ * @param type アラート種別
+ * @param productId 商品ID
+ * @param warehouseId 倉庫ID
+ * @param inventoryId 在庫ID（期限のアラートのみ）
+ * @param quantity 在庫不足の場合は引当可能数量の合計、期限の場合は在庫数量
+ * @param threshold 在庫不足の閾値（在庫不足のアラートのみ）
+ * @param lotNumber ロット番号（期限のアラートのみ）
+ * @param expiryDate 有効期限（期限のアラートのみ）
+ * @param raisedAt 発生日時
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public record StockAlert(
+        Type type,
+        Long productId,
+        Long warehouseId,
+        Long inventoryId,
+        BigDecimal quantity,
+        BigDecimal threshold,
+        String lotNumber,
+        LocalDate expiryDate,
+        LocalDateTime raisedAt) {
+
+    /**
+     * アラート種別
+     */
+    public enum Type {
+        LOW_STOCK,          // 引当可能数量が閾値以下になった
+        STOCK_RECOVERED,    // 引当可能数量が閾値を上回った
+        EXPIRING,           // 有効期限が警告日数以内になった
+        EXPIRED             // 有効期限を過ぎた
+    }
+}
@@ -0,0 +1,37 @@
+package com.cooola.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 在庫不足閾値の設定リクエスト
+ *
+ * 商品IDとカテゴリIDのどちらか一方を指定します。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Data                // Lombok: getter/setter/toString/equals/hashCodeを自動生成
+@NoArgsConstructor   // Lombok: 引数なしコンストラクタを自動生成
+@AllArgsConstructor  // Lombok: 全引数コンストラクタを自動生成
+public class StockAlertThresholdRequest {
+
+    /**
+     * 商品ID
+     */
+    private Long productId;
+
+    /**
+     * カテゴリID（配下のカテゴリの商品にも適用される）
+     */
+    private Long categoryId;
+
+    /**
+     * 閾値（引当可能数量がこの値以下になった場合に通知する）
+     */
+    private BigDecimal threshold;
+}
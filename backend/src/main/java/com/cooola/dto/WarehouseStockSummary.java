@@ -0,0 +1,27 @@
+package com.cooola.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 倉庫の在庫集計
+ *
+ * @param warehouseId 倉庫ID
+ * @param totalQuantity 在庫数量の合計
+ * @param totalValue 在庫金額の合計（数量 × 単価、単価未設定の在庫は含まない）
+ * @param inStockCount 在庫のある在庫レコード数
+ * @param outOfStockCount 在庫数量が0の在庫レコード数
+ * @param updatedAt 最終更新日時
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public record WarehouseStockSummary(
+        Long warehouseId,
+        BigDecimal totalQuantity,
+        BigDecimal totalValue,
+        long inStockCount,
+        long outOfStockCount,
+        LocalDateTime updatedAt) {
+}
@@ -0,0 +1,43 @@
+package com.cooola.dto;
+
+import com.cooola.entity.OutboundOrder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * ピッキングウェーブ作成リクエスト
+ *
+ * 指定倉庫の未処理の出庫指示を、優先度の高い順・納期の早い順に最大件数まで対象とします。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Data                // Lombok: getter/setter/toString/equals/hashCodeを自動生成
+@NoArgsConstructor   // Lombok: 引数なしコンストラクタを自動生成
+@AllArgsConstructor  // Lombok: 全引数コンストラクタを自動生成
+public class WaveRequest {
+
+    /**
+     * 倉庫ID
+     */
+    private Long warehouseId;
+
+    /**
+     * 対象とする最大出庫指示数
+     */
+    private Integer maxOrders;
+
+    /**
+     * 納期がこの日付以前の出庫指示のみ対象（nullの場合は納期で絞り込まない）
+     */
+    private LocalDate requiredBy;
+
+    /**
+     * この優先度以上の出庫指示のみ対象（nullの場合は全優先度）
+     */
+    private OutboundOrder.Priority minPriority;
+}
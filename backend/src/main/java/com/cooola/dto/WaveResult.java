@@ -0,0 +1,22 @@
+package com.cooola.dto;
+
+import java.util.List;
+
+/**
+ * ピッキングウェーブ作成結果
+ *
+ * @param waveNumber ウェーブ番号（引当できた出庫指示がない場合はnull）
+ * @param allocatedOrders 引当してウェーブに割り当てた出庫指示数
+ * @param skippedOrderNumbers 在庫不足のため割り当てなかった出庫指示の出庫番号（未処理のまま残ります）
+ * @param pickList ピッキングリスト
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public record WaveResult(
+        String waveNumber,
+        int allocatedOrders,
+        List<String> skippedOrderNumbers,
+        PickList pickList) {
+}
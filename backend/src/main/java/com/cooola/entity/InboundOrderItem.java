@@ -0,0 +1,62 @@
+package com.cooola.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "inbound_order_items")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InboundOrderItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "inbound_order_id", nullable = false)
+    private InboundOrder inboundOrder;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+
+    @Column(name = "expected_quantity", nullable = false, precision = 10, scale = 3)
+    private BigDecimal expectedQuantity;
+
+    @Column(name = "received_quantity", precision = 10, scale = 3)
+    private BigDecimal receivedQuantity = BigDecimal.ZERO;
+
+    @Column(name = "unit_cost", precision = 10, scale = 2)
+    private BigDecimal unitCost;
+
+    @Column(name = "lot_number", length = 50)
+    private String lotNumber;
+
+    @Column(name = "expiry_date")
+    private LocalDate expiryDate;
+
+    @Column(columnDefinition = "TEXT")
+    private String notes;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,66 @@
+package com.cooola.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// 追記専用の台帳（InventoryLedgerがJDBCで一括登録し、更新・削除はしない）
+@Entity
+@Immutable
+@Table(name = "inventory_movements")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "movement_number", unique = true, nullable = false, length = 50)
+    private String movementNumber;
+
+    @Column(name = "inventory_id")
+    private Long inventoryId;
+
+    @Column(name = "warehouse_id", nullable = false)
+    private Long warehouseId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "from_location_id")
+    private Long fromLocationId;
+
+    @Column(name = "to_location_id")
+    private Long toLocationId;
+
+    @Column(nullable = false, precision = 10, scale = 3)
+    private BigDecimal quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "movement_type", nullable = false)
+    private MovementType movementType;
+
+    @Column(name = "reference_number", length = 50)
+    private String referenceNumber;
+
+    @Column(columnDefinition = "TEXT")
+    private String reason;
+
+    @Column(name = "created_by")
+    private Long createdBy;
+
+    @Column(name = "created_at", insertable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // RESERVE・RELEASEは引当数量、それ以外は在庫数量の増減
+    public enum MovementType {
+        TRANSFER, ADJUSTMENT, DAMAGE, LOSS, RECEIPT, RESERVE, RELEASE
+    }
+}
@@ -1,9 +1,13 @@
 package com.cooola.entity;
 
+import com.cooola.service.CacheInvalidationListener;
+import com.cooola.service.LocationChangeListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -11,7 +15,10 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "locations")
+@EntityListeners({LocationChangeListener.class, CacheInvalidationListener.class})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -40,6 +47,7 @@ public class Location {
     private Location parent;
 
     @OneToMany(mappedBy = "parent", cascade = CascadeType.ALL)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<Location> children;
 
     @OneToMany(mappedBy = "location", cascade = CascadeType.ALL)
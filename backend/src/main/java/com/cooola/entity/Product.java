@@ -92,6 +92,14 @@ public class Product {
     @Column(length = 100)  // 最大100文字
     private String barcode;
 
+    /**
+     * 引当方式
+     * 出荷時にどのロットから引き当てるか（未設定の場合はシステムの既定値）
+     */
+    @Enumerated(EnumType.STRING)  // 文字列として保存
+    @Column(name = "allocation_strategy")
+    private AllocationStrategy allocationStrategy;
+
     /**
      * アクティブ状態
      * 商品の有効/無効状態（論理削除用）
@@ -114,4 +122,14 @@ public class Product {
     @UpdateTimestamp  // 更新時に自動設定
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    /**
+     * 引当方式
+     * FEFO: 有効期限の近いロットから（期限切れのロットは引当しない）
+     * FIFO: 先に入庫したロットから
+     * LIFO: 後に入庫したロットから
+     */
+    public enum AllocationStrategy {
+        FEFO, FIFO, LIFO
+    }
 }
\ No newline at end of file
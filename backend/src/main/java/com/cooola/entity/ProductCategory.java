@@ -1,9 +1,13 @@
 package com.cooola.entity;
 
+import com.cooola.service.CacheInvalidationListener;
+import com.cooola.service.CategoryChangeListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -11,7 +15,10 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "product_categories")
+@EntityListeners({CategoryChangeListener.class, CacheInvalidationListener.class})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -32,6 +39,7 @@ public class ProductCategory {
     private ProductCategory parent;
 
     @OneToMany(mappedBy = "parent", cascade = CascadeType.ALL)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<ProductCategory> children;
 
     @OneToMany(mappedBy = "category", cascade = CascadeType.ALL)
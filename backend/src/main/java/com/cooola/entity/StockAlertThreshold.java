@@ -0,0 +1,41 @@
+package com.cooola.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// 商品別またはカテゴリ別の在庫不足閾値（どちらか一方のみ設定する）
+@Entity
+@Table(name = "stock_alert_thresholds")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAlertThreshold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", unique = true)
+    private Long productId;
+
+    @Column(name = "category_id", unique = true)
+    private Long categoryId;
+
+    @Column(nullable = false, precision = 10, scale = 3)
+    private BigDecimal threshold;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -1,16 +1,22 @@
 package com.cooola.entity;
 
+import com.cooola.service.CacheInvalidationListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "users")
+@EntityListeners(CacheInvalidationListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -1,9 +1,12 @@
 package com.cooola.entity;
 
+import com.cooola.service.CacheInvalidationListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -11,7 +14,10 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "warehouses")
+@EntityListeners(CacheInvalidationListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -40,6 +46,7 @@ public class Warehouse {
     private String contactEmail;
 
     @OneToMany(mappedBy = "warehouse", cascade = CascadeType.ALL)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<Location> locations;
 
     @OneToMany(mappedBy = "warehouse", cascade = CascadeType.ALL)
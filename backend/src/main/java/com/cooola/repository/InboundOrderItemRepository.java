@@ -0,0 +1,16 @@
+package com.cooola.repository;
+
+import com.cooola.entity.InboundOrderItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface InboundOrderItemRepository extends JpaRepository<InboundOrderItem, Long> {
+
+    @Query("SELECT i FROM InboundOrderItem i JOIN FETCH i.product WHERE i.inboundOrder.id = :orderId ORDER BY i.id")
+    List<InboundOrderItem> findByInboundOrderId(@Param("orderId") Long orderId);
+}
@@ -0,0 +1,24 @@
+package com.cooola.repository;
+
+import com.cooola.entity.InboundOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+import java.util.Optional;
+
+@Repository
+public interface InboundOrderRepository extends JpaRepository<InboundOrder, Long> {
+
+    Optional<InboundOrder> findByOrderNumber(String orderNumber);
+
+    @Query("SELECT DISTINCT o FROM InboundOrder o LEFT JOIN FETCH o.items i LEFT JOIN FETCH i.product WHERE o.id = :id")
+    Optional<InboundOrder> findWithItemsById(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM InboundOrder o WHERE o.id = :id")
+    Optional<InboundOrder> findForUpdateById(@Param("id") Long id);
+}
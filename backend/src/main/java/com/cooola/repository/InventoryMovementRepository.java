@@ -0,0 +1,20 @@
+package com.cooola.repository;
+
+import com.cooola.entity.InventoryMovement;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface InventoryMovementRepository extends JpaRepository<InventoryMovement, Long> {
+
+    @Query("SELECT m FROM InventoryMovement m WHERE m.inventoryId = :inventoryId AND m.id > :afterId ORDER BY m.id")
+    List<InventoryMovement> findByInventoryIdAfter(@Param("inventoryId") Long inventoryId,
+            @Param("afterId") long afterId, Pageable pageable);
+
+    List<InventoryMovement> findByReferenceNumberOrderById(String referenceNumber);
+}
@@ -1,17 +1,20 @@
 package com.cooola.repository;
 
+import com.cooola.dto.InventoryAllocation;
 import com.cooola.entity.Inventory;
 import com.cooola.entity.Product;
 import com.cooola.entity.Warehouse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -65,4 +68,20 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
 
     @Query("SELECT COUNT(i) FROM Inventory i WHERE i.warehouse.id = :warehouseId AND i.quantity = 0")
     long countOutOfStockByWarehouseId(@Param("warehouseId") Long warehouseId);
-}
\ No newline at end of file
+
+    @Query("SELECT new com.cooola.dto.InventoryAllocation(i.id, i.product.id, i.warehouse.id, l.id, i.availableQuantity) " +
+            "FROM Inventory i LEFT JOIN i.location l WHERE i.id IN :ids")
+    List<InventoryAllocation> findAllocationsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Inventory i SET i.reservedQuantity = i.reservedQuantity + :quantity, " +
+            "i.availableQuantity = i.availableQuantity - :quantity " +
+            "WHERE i.id = :id AND i.availableQuantity >= :quantity")
+    int reserve(@Param("id") Long id, @Param("quantity") BigDecimal quantity);
+
+    @Modifying
+    @Query("UPDATE Inventory i SET i.reservedQuantity = i.reservedQuantity - :quantity, " +
+            "i.availableQuantity = i.availableQuantity + :quantity " +
+            "WHERE i.id = :id AND i.reservedQuantity >= :quantity")
+    int release(@Param("id") Long id, @Param("quantity") BigDecimal quantity);
+}
@@ -0,0 +1,21 @@
+package com.cooola.repository;
+
+import com.cooola.dto.LocationNode;
+import com.cooola.entity.Location;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface LocationRepository extends JpaRepository<Location, Long> {
+
+    List<Location> findByWarehouseId(Long warehouseId);
+
+    // 無効化されたロケーションにも在庫が残っている場合があるため、有効フラグでは絞り込まない
+    @Query("SELECT new com.cooola.dto.LocationNode(l.id, l.code, l.locationType, p.id) " +
+            "FROM Location l LEFT JOIN l.parent p WHERE l.warehouse.id = :warehouseId")
+    List<LocationNode> findNodesByWarehouseId(@Param("warehouseId") Long warehouseId);
+}
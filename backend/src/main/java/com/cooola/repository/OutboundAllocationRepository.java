@@ -0,0 +1,32 @@
+package com.cooola.repository;
+
+import com.cooola.dto.InventoryAllocation;
+import com.cooola.dto.PickListEntry;
+import com.cooola.entity.OutboundAllocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboundAllocationRepository extends JpaRepository<OutboundAllocation, Long> {
+
+    @Query("SELECT new com.cooola.dto.PickListEntry(l.id, l.code, inv.id, inv.lotNumber, p.id, p.sku, p.name, " +
+            "o.orderNumber, a.quantity) FROM OutboundAllocation a JOIN a.outboundOrderItem it " +
+            "JOIN it.outboundOrder o JOIN it.product p JOIN a.inventory inv LEFT JOIN inv.location l " +
+            "WHERE o.waveNumber = :waveNumber")
+    List<PickListEntry> findPickListEntries(@Param("waveNumber") String waveNumber);
+
+    @Query("SELECT new com.cooola.dto.InventoryAllocation(inv.id, inv.product.id, inv.warehouse.id, l.id, a.quantity) " +
+            "FROM OutboundAllocation a JOIN a.inventory inv LEFT JOIN inv.location l " +
+            "WHERE a.outboundOrderItem.outboundOrder.id = :orderId")
+    List<InventoryAllocation> findInventoryAllocationsByOrderId(@Param("orderId") Long orderId);
+
+    @Modifying
+    @Query("DELETE FROM OutboundAllocation a WHERE a.outboundOrderItem.id IN " +
+            "(SELECT i.id FROM OutboundOrderItem i WHERE i.outboundOrder.id = :orderId)")
+    int deleteByOrderId(@Param("orderId") Long orderId);
+}
@@ -0,0 +1,20 @@
+package com.cooola.repository;
+
+import com.cooola.entity.OutboundOrderItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboundOrderItemRepository extends JpaRepository<OutboundOrderItem, Long> {
+
+    @Query("SELECT i FROM OutboundOrderItem i WHERE i.outboundOrder.id = :orderId ORDER BY i.id")
+    List<OutboundOrderItem> findByOutboundOrderId(@Param("orderId") Long orderId);
+
+    @Query("SELECT i FROM OutboundOrderItem i WHERE i.outboundOrder.id IN :orderIds ORDER BY i.outboundOrder.id, i.id")
+    List<OutboundOrderItem> findByOutboundOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+}
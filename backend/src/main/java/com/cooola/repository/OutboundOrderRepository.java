@@ -0,0 +1,59 @@
+package com.cooola.repository;
+
+import com.cooola.entity.OutboundOrder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboundOrderRepository extends JpaRepository<OutboundOrder, Long> {
+
+    /**
+     * ロック取得済みの行を読み飛ばすためのロックタイムアウト値（SKIP LOCKED）
+     */
+    String SKIP_LOCKED = "-2";
+
+    Optional<OutboundOrder> findByOrderNumber(String orderNumber);
+
+    List<OutboundOrder> findByWaveNumber(String waveNumber);
+
+    @Query("SELECT o.warehouse.id FROM OutboundOrder o WHERE o.waveNumber = :waveNumber")
+    List<Long> findWarehouseIdsByWaveNumber(@Param("waveNumber") String waveNumber, Pageable pageable);
+
+    @Query("SELECT DISTINCT o FROM OutboundOrder o LEFT JOIN FETCH o.items i LEFT JOIN FETCH i.product WHERE o.id = :id")
+    Optional<OutboundOrder> findWithItemsById(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM OutboundOrder o WHERE o.id = :id")
+    Optional<OutboundOrder> findForUpdateById(@Param("id") Long id);
+
+    // 優先度はENUMの定義順（LOW < NORMAL < HIGH < URGENT）で並ぶため降順で高い順になる
+    // 他のウェーブ作成処理がロック中の出庫指示は読み飛ばす
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = SKIP_LOCKED))
+    @Query("SELECT o FROM OutboundOrder o WHERE o.warehouse.id = :warehouseId " +
+            "AND o.status = com.cooola.entity.OutboundOrder.OrderStatus.PENDING AND o.priority IN :priorities " +
+            "AND (:requiredBy IS NULL OR o.requiredDate <= :requiredBy) " +
+            "ORDER BY o.priority DESC, CASE WHEN o.requiredDate IS NULL THEN 1 ELSE 0 END, o.requiredDate, o.id")
+    List<OutboundOrder> findWaveCandidates(@Param("warehouseId") Long warehouseId,
+            @Param("priorities") Collection<OutboundOrder.Priority> priorities,
+            @Param("requiredBy") LocalDate requiredBy, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE OutboundOrder o SET o.status = com.cooola.entity.OutboundOrder.OrderStatus.PICKING, " +
+            "o.waveNumber = :waveNumber WHERE o.id IN :ids " +
+            "AND o.status = com.cooola.entity.OutboundOrder.OrderStatus.PENDING")
+    int assignWave(@Param("waveNumber") String waveNumber, @Param("ids") Collection<Long> ids);
+}
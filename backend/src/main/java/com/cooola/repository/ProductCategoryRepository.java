@@ -1,7 +1,11 @@
 package com.cooola.repository;
 
+import com.cooola.dto.CategoryNode;
 import com.cooola.entity.ProductCategory;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -11,6 +15,7 @@ import java.util.List;
 @Repository
 public interface ProductCategoryRepository extends JpaRepository<ProductCategory, Long> {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<ProductCategory> findByParentIsNull();
 
     List<ProductCategory> findByParent(ProductCategory parent);
@@ -25,4 +30,12 @@ public interface ProductCategoryRepository extends JpaRepository<ProductCategory
 
     @Query("SELECT COUNT(c) FROM ProductCategory c WHERE c.parent.id = :parentId")
     long countByParentId(@Param("parentId") Long parentId);
-}
\ No newline at end of file
+
+    @Query("SELECT c.id FROM ProductCategory c")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Long> findAllIds();
+
+    // 無効化されたカテゴリにも商品が残っている場合があるため、有効フラグでは絞り込まない
+    @Query("SELECT new com.cooola.dto.CategoryNode(c.id, c.name, p.id) FROM ProductCategory c LEFT JOIN c.parent p")
+    List<CategoryNode> findNodes();
+}
@@ -1,16 +1,27 @@
 package com.cooola.repository;
 
+import com.cooola.dto.ProductDetailView;
+import com.cooola.dto.ProductListItem;
+import com.cooola.dto.ProductScanView;
+import com.cooola.dto.ProductSearchDocument;
 import com.cooola.entity.Product;
 import com.cooola.entity.ProductCategory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 /**
  * 商品リポジトリインターフェース
@@ -23,7 +34,18 @@ import java.util.Optional;
  * @since 2024-01-01
  */
 @Repository  // Spring Bootリポジトリとして登録
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+
+    /**
+     * MySQLで結果セットを1行ずつ受信するためのフェッチサイズ
+     */
+    String STREAMING_FETCH_SIZE = "" + Integer.MIN_VALUE;
+
+    /**
+     * 商品一覧用ビューを取得するSELECT句（カテゴリを結合）
+     */
+    String LIST_ITEM_SELECT = "SELECT new com.cooola.dto.ProductListItem(p.id, p.sku, p.name, c.id, c.name, " +
+            "p.unitOfMeasure, p.weight, p.barcode, p.isActive, p.createdAt, p.updatedAt) FROM Product p LEFT JOIN p.category c ";
 
     /**
      * SKUで商品を検索するメソッド
@@ -123,6 +145,23 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT COUNT(p) FROM Product p WHERE p.category.id = :categoryId")
     long countByCategoryId(@Param("categoryId") Long categoryId);
 
+    /**
+     * 複数カテゴリの商品数の合計を取得するメソッド
+     * 
+     * @param categoryIds カテゴリIDの一覧
+     * @return 指定カテゴリの商品数の合計
+     */
+    @Query("SELECT COUNT(p) FROM Product p WHERE p.category.id IN :categoryIds")
+    long countByCategoryIdIn(@Param("categoryIds") Collection<Long> categoryIds);
+
+    /**
+     * カテゴリごとの商品数を1回の集計で取得するメソッド
+     * 
+     * @return [カテゴリID, 商品数] の一覧（商品のないカテゴリは含まない）
+     */
+    @Query("SELECT p.category.id, COUNT(p) FROM Product p GROUP BY p.category.id")
+    List<Object[]> countGroupByCategoryId();
+
     /**
      * アクティブな商品をSKUで部分一致検索するメソッド
      * 
@@ -139,4 +178,245 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      * @return 指定状態の商品数
      */
     long countByIsActive(Boolean isActive);
-}
\ No newline at end of file
+
+    /**
+     * 複数のSKUで商品を一括検索するメソッド
+     * 
+     * @param skus SKUの一覧
+     * @return 該当する商品一覧（存在しないSKUは含まれません）
+     */
+    List<Product> findBySkuIn(Collection<String> skus);
+
+    /**
+     * 指定倉庫に在庫レコードを持つ商品を検索するメソッド
+     * 
+     * @param warehouseId 倉庫ID
+     * @return 該当する商品一覧
+     */
+    @Query("SELECT p FROM Product p WHERE p.id IN (SELECT i.product.id FROM Inventory i WHERE i.warehouse.id = :warehouseId) ORDER BY p.sku")
+    List<Product> findStockedInWarehouse(@Param("warehouseId") Long warehouseId);
+
+    /**
+     * 指定ロケーションに在庫レコードを持つ商品を検索するメソッド
+     * 
+     * @param locationId ロケーションID
+     * @return 該当する商品一覧
+     */
+    @Query("SELECT p FROM Product p WHERE p.id IN (SELECT i.product.id FROM Inventory i WHERE i.location.id = :locationId) ORDER BY p.sku")
+    List<Product> findStockedInLocation(@Param("locationId") Long locationId);
+
+    /**
+     * 指定倉庫に在庫レコードを持つ商品の数を取得するメソッド
+     * 
+     * @param warehouseId 倉庫ID
+     * @return 該当する商品数
+     */
+    @Query("SELECT COUNT(p) FROM Product p WHERE p.id IN (SELECT i.product.id FROM Inventory i WHERE i.warehouse.id = :warehouseId)")
+    long countStockedInWarehouse(@Param("warehouseId") Long warehouseId);
+
+    /**
+     * 指定ロケーションに在庫レコードを持つ商品の数を取得するメソッド
+     * 
+     * @param locationId ロケーションID
+     * @return 該当する商品数
+     */
+    @Query("SELECT COUNT(p) FROM Product p WHERE p.id IN (SELECT i.product.id FROM Inventory i WHERE i.location.id = :locationId)")
+    long countStockedInLocation(@Param("locationId") Long locationId);
+
+    /**
+     * アクティブな商品のスキャン用ビューをストリームで取得するメソッド
+     * 
+     * カテゴリ名を同一クエリで取得し、結果はサーバー側から逐次受信します。
+     * 呼び出し元はトランザクション内でストリームを閉じる必要があります。
+     * 
+     * @return 商品スキャン用ビューのストリーム
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAMING_FETCH_SIZE))
+    @Query("SELECT new com.cooola.dto.ProductScanView(p.id, p.sku, p.name, p.barcode, p.unitOfMeasure, c.id, c.name, p.isActive) " +
+            "FROM Product p LEFT JOIN p.category c WHERE p.isActive = true")
+    Stream<ProductScanView> streamActiveScanViews();
+
+    /**
+     * SKUで商品のスキャン用ビューを取得するメソッド
+     * 
+     * @param sku 商品のSKU
+     * @return 商品スキャン用ビュー（存在しない場合は空のOptional）
+     */
+    @Query("SELECT new com.cooola.dto.ProductScanView(p.id, p.sku, p.name, p.barcode, p.unitOfMeasure, c.id, c.name, p.isActive) " +
+            "FROM Product p LEFT JOIN p.category c WHERE p.sku = :sku")
+    Optional<ProductScanView> findScanViewBySku(@Param("sku") String sku);
+
+    /**
+     * バーコードで商品のスキャン用ビューを取得するメソッド
+     * 
+     * @param barcode 商品のバーコード
+     * @return 商品スキャン用ビュー（存在しない場合は空のOptional）
+     */
+    @Query("SELECT new com.cooola.dto.ProductScanView(p.id, p.sku, p.name, p.barcode, p.unitOfMeasure, c.id, c.name, p.isActive) " +
+            "FROM Product p LEFT JOIN p.category c WHERE p.barcode = :barcode")
+    Optional<ProductScanView> findScanViewByBarcode(@Param("barcode") String barcode);
+
+    /**
+     * アクティブな商品の検索ドキュメントをストリームで取得するメソッド
+     * 
+     * 全文検索インデックスの構築に使用します。
+     * 呼び出し元はトランザクション内でストリームを閉じる必要があります。
+     * 
+     * @return 商品検索ドキュメントのストリーム
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAMING_FETCH_SIZE))
+    @Query("SELECT new com.cooola.dto.ProductSearchDocument(p.id, p.sku, p.name, p.description, p.barcode) " +
+            "FROM Product p WHERE p.isActive = true")
+    Stream<ProductSearchDocument> streamActiveSearchDocuments();
+
+    /**
+     * 商品IDの一覧で商品一覧用ビューを取得するメソッド
+     * 
+     * @param ids 商品IDの一覧
+     * @return 商品一覧用ビュー（順不同）
+     */
+    @Query(LIST_ITEM_SELECT + "WHERE p.id IN :ids")
+    List<ProductListItem> findListItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * カテゴリ別商品一覧を指定ID以降から取得するメソッド（キーセットページネーション）
+     * 
+     * idx_category_id（category_id, id）を使って位置を特定するため、
+     * 何ページ目でもOFFSETによる読み飛ばしが発生しません。
+     * 
+     * @param categoryId カテゴリID
+     * @param afterId 前ページ最後の商品ID（先頭ページの場合は0）
+     * @param pageable 取得件数
+     * @return 商品ID昇順の商品一覧用ビュー
+     */
+    @Query(LIST_ITEM_SELECT + "WHERE p.category.id = :categoryId AND p.id > :afterId ORDER BY p.id")
+    List<ProductListItem> findListItemsByCategoryIdAfter(@Param("categoryId") Long categoryId,
+            @Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * 複数カテゴリの商品一覧を指定ID以降から取得するメソッド（キーセットページネーション）
+     * 
+     * @param categoryIds カテゴリIDの一覧
+     * @param afterId 前ページ最後の商品ID（先頭ページの場合は0）
+     * @param pageable 取得件数
+     * @return 商品ID昇順の商品一覧用ビュー
+     */
+    @Query(LIST_ITEM_SELECT + "WHERE p.category.id IN :categoryIds AND p.id > :afterId ORDER BY p.id")
+    List<ProductListItem> findListItemsByCategoryIdInAfter(@Param("categoryIds") Collection<Long> categoryIds,
+            @Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * カテゴリ別商品一覧をストリームで取得するメソッド
+     * 
+     * 結果はサーバー側から逐次受信するため、件数によらずメモリ使用量は一定です。
+     * 呼び出し元はトランザクション内でストリームを閉じる必要があります。
+     * 
+     * @param categoryId カテゴリID
+     * @return 商品ID昇順の商品一覧用ビューのストリーム
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAMING_FETCH_SIZE))
+    @Query(LIST_ITEM_SELECT + "WHERE p.category.id = :categoryId ORDER BY p.id")
+    Stream<ProductListItem> streamListItemsByCategoryId(@Param("categoryId") Long categoryId);
+
+    /**
+     * アクティブな商品の一覧用ビューを取得するメソッド（ページネーション付き）
+     * 
+     * @param pageable ページネーション情報
+     * @return ページネーションされた商品一覧用ビュー
+     */
+    @Query(value = LIST_ITEM_SELECT + "WHERE p.isActive = true",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.isActive = true")
+    Page<ProductListItem> findActiveListItems(Pageable pageable);
+
+    /**
+     * アクティブな商品の一覧用ビューを取得するメソッド（件数取得なし）
+     * 
+     * @param pageable ページネーション情報
+     * @return 総件数を含まない商品一覧用ビューのスライス
+     */
+    @Query(LIST_ITEM_SELECT + "WHERE p.isActive = true")
+    Slice<ProductListItem> findActiveListItemSlice(Pageable pageable);
+
+    /**
+     * カテゴリIDで商品一覧用ビューを取得するメソッド（ページネーション付き）
+     * 
+     * @param categoryId カテゴリID
+     * @param pageable ページネーション情報
+     * @return 商品ID昇順の指定カテゴリの商品一覧用ビュー
+     */
+    @Query(LIST_ITEM_SELECT + "WHERE p.category.id = :categoryId ORDER BY p.id")
+    List<ProductListItem> findListItemsByCategoryId(@Param("categoryId") Long categoryId, Pageable pageable);
+
+    /**
+     * 商品IDで商品詳細用ビューを取得するメソッド
+     * 
+     * @param id 商品ID
+     * @return 商品詳細用ビュー（存在しない場合は空のOptional）
+     */
+    @Query("SELECT new com.cooola.dto.ProductDetailView(p.id, p.sku, p.name, p.description, c.id, c.name, " +
+            "p.unitOfMeasure, p.weight, p.dimensions, p.barcode, p.isActive, p.createdAt, p.updatedAt) " +
+            "FROM Product p LEFT JOIN p.category c WHERE p.id = :id")
+    Optional<ProductDetailView> findDetailViewById(@Param("id") Long id);
+
+    /**
+     * 指定したSKUのうち登録済みのものを取得するメソッド
+     * 
+     * 一括登録時の重複チェックに使用します。
+     * 
+     * @param skus SKUの一覧
+     * @return 登録済みのSKU
+     */
+    @Query("SELECT p.sku FROM Product p WHERE p.sku IN :skus")
+    List<String> findExistingSkus(@Param("skus") Collection<String> skus);
+
+    /**
+     * 指定したバーコードのうち登録済みのものを取得するメソッド
+     * 
+     * 一括登録時の重複チェックに使用します。
+     * 
+     * @param barcodes バーコードの一覧
+     * @return 登録済みのバーコード
+     */
+    @Query("SELECT p.barcode FROM Product p WHERE p.barcode IN :barcodes")
+    List<String> findExistingBarcodes(@Param("barcodes") Collection<String> barcodes);
+
+    /**
+     * 複数のSKUで商品のスキャン用ビューを一括取得するメソッド
+     * 
+     * @param skus SKUの一覧
+     * @return 商品スキャン用ビュー（順不同）
+     */
+    @Query("SELECT new com.cooola.dto.ProductScanView(p.id, p.sku, p.name, p.barcode, p.unitOfMeasure, c.id, c.name, p.isActive) " +
+            "FROM Product p LEFT JOIN p.category c WHERE p.sku IN :skus")
+    List<ProductScanView> findScanViewsBySkuIn(@Param("skus") Collection<String> skus);
+
+    /**
+     * 複数のSKUで商品の検索ドキュメントを一括取得するメソッド
+     * 
+     * @param skus SKUの一覧
+     * @return 商品検索ドキュメント（順不同）
+     */
+    @Query("SELECT new com.cooola.dto.ProductSearchDocument(p.id, p.sku, p.name, p.description, p.barcode) " +
+            "FROM Product p WHERE p.sku IN :skus")
+    List<ProductSearchDocument> findSearchDocumentsBySkuIn(@Param("skus") Collection<String> skus);
+
+    /**
+     * 複数の商品IDで商品のスキャン用ビューを一括取得するメソッド
+     * 
+     * @param ids 商品IDの一覧
+     * @return 商品スキャン用ビュー（順不同）
+     */
+    @Query("SELECT new com.cooola.dto.ProductScanView(p.id, p.sku, p.name, p.barcode, p.unitOfMeasure, c.id, c.name, p.isActive) " +
+            "FROM Product p LEFT JOIN p.category c WHERE p.id IN :ids")
+    List<ProductScanView> findScanViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 複数の商品IDでアクティブな商品の検索ドキュメントを一括取得するメソッド
+     * 
+     * @param ids 商品IDの一覧
+     * @return 商品検索ドキュメント（順不同、非アクティブな商品は含まない）
+     */
+    @Query("SELECT new com.cooola.dto.ProductSearchDocument(p.id, p.sku, p.name, p.description, p.barcode) " +
+            "FROM Product p WHERE p.id IN :ids AND p.isActive = true")
+    List<ProductSearchDocument> findActiveSearchDocumentsByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,33 @@
+package com.cooola.repository;
+
+import com.cooola.dto.ProductListItem;
+import com.cooola.dto.ProductSortKey;
+
+import java.util.List;
+
+/**
+ * 商品リポジトリの動的クエリ定義
+ *
+ * ソート項目によってクエリが変わるため、Spring Data JPAの派生クエリでは表現できない検索を定義します。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * アクティブな商品一覧を指定位置の次から取得するメソッド（キーセットページネーション）
+     *
+     * （ソート値, 商品ID）の組で位置を指定し、OFFSETを使わずに続きを取得します。
+     *
+     * @param sortKey ソート項目
+     * @param descending 降順の場合はtrue
+     * @param lastValue 前ページ最後の行のソート値（先頭ページの場合はnull）
+     * @param lastId 前ページ最後の行の商品ID（先頭ページの場合はnull）
+     * @param limit 取得件数
+     * @return 商品一覧用ビュー
+     */
+    List<ProductListItem> findActiveListItemsAfter(ProductSortKey sortKey, boolean descending,
+                                                   Object lastValue, Long lastId, int limit);
+}
@@ -0,0 +1,56 @@
+package com.cooola.repository;
+
+import com.cooola.dto.ProductListItem;
+import com.cooola.dto.ProductSortKey;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.List;
+
+/**
+ * 商品リポジトリの動的クエリ実装
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductListItem> findActiveListItemsAfter(ProductSortKey sortKey, boolean descending,
+                                                          Object lastValue, Long lastId, int limit) {
+        String column = "p." + sortKey.getProperty();
+        String op = descending ? "<" : ">";
+        String direction = descending ? " DESC" : " ASC";
+
+        StringBuilder jpql = new StringBuilder(ProductRepository.LIST_ITEM_SELECT).append("WHERE p.isActive = true");
+        boolean hasCursor = lastId != null;
+        if (hasCursor) {
+            // （ソート値, 商品ID）が前ページ最後の行より後ろの行のみ
+            if (sortKey == ProductSortKey.ID) {
+                jpql.append(" AND p.id ").append(op).append(" :lastId");
+            } else {
+                jpql.append(" AND (").append(column).append(' ').append(op).append(" :lastValue")
+                        .append(" OR (").append(column).append(" = :lastValue AND p.id ").append(op).append(" :lastId))");
+            }
+        }
+        jpql.append(" ORDER BY ");
+        if (sortKey != ProductSortKey.ID) {
+            jpql.append(column).append(direction).append(", ");
+        }
+        jpql.append("p.id").append(direction);
+
+        TypedQuery<ProductListItem> query = entityManager.createQuery(jpql.toString(), ProductListItem.class);
+        if (hasCursor) {
+            query.setParameter("lastId", lastId);
+            if (sortKey != ProductSortKey.ID) {
+                query.setParameter("lastValue", lastValue);
+            }
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+}
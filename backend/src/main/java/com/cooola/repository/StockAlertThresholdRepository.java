@@ -0,0 +1,15 @@
+package com.cooola.repository;
+
+import com.cooola.entity.StockAlertThreshold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface StockAlertThresholdRepository extends JpaRepository<StockAlertThreshold, Long> {
+
+    Optional<StockAlertThreshold> findByProductId(Long productId);
+
+    Optional<StockAlertThreshold> findByCategoryId(Long categoryId);
+}
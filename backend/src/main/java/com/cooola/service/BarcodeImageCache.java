@@ -0,0 +1,120 @@
+package com.cooola.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.zxing.BarcodeFormat;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.function.Function;
+
+/**
+ * バーコード画像キャッシュ
+ *
+ * このクラスは生成済みのバーコード・QRコード画像をメモリ上に保持します。
+ * 画像のバイト数で重み付けした上限とW-TinyLFUによる追い出しを行い、
+ * ヒット・ミス・追い出し件数をMicrometer経由でPrometheusに公開します。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component  // Springコンポーネントとして登録
+public class BarcodeImageCache {
+
+    // キャッシュキー1件あたりの固定オーバーヘッド（バイト）
+    private static final int ENTRY_OVERHEAD = 64;
+
+    // 画像キャッシュ本体
+    private final Cache<Key, byte[]> cache;
+
+    /**
+     * キャッシュを初期化するコンストラクタ
+     *
+     * @param meterRegistry メトリクスレジストリ
+     * @param maxBytes キャッシュ全体の最大バイト数
+     * @param expireAfterAccess 最終アクセスからの有効期間
+     */
+    public BarcodeImageCache(MeterRegistry meterRegistry,
+                             @Value("${barcode.cache.max-bytes:67108864}") long maxBytes,
+                             @Value("${barcode.cache.expire-after-access:PT1H}") Duration expireAfterAccess) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key key, byte[] image) -> image.length + key.content().length() * 2 + ENTRY_OVERHEAD)
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "barcode.images");
+    }
+
+    /**
+     * キャッシュから画像を取得するメソッド
+     *
+     * キャッシュに存在しない場合はローダーで生成し、キャッシュに登録します。
+     *
+     * @param key キャッシュキー
+     * @param loader 画像生成処理
+     * @return PNG画像データ
+     */
+    public byte[] get(Key key, Function<Key, byte[]> loader) {
+        return cache.get(key, loader);
+    }
+
+    /**
+     * キャッシュ済みの画像を取得するメソッド
+     *
+     * @param key キャッシュキー
+     * @return PNG画像データ（キャッシュに存在しない場合はnull）
+     */
+    public byte[] getIfPresent(Key key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * キャッシュを全件破棄するメソッド
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * キャッシュキー
+     *
+     * 画像を一意に決定する要素（形式、内容、サイズ、描画方式）の組み合わせです。
+     * エンコードヒントは形式ごとに固定のため、形式に含めて扱います。
+     *
+     * @param format バーコード形式
+     * @param content エンコード内容
+     * @param width 幅（ピクセル）
+     * @param height 高さ（ピクセル）
+     * @param renderMode 描画方式
+     */
+    public record Key(BarcodeFormat format, String content, int width, int height,
+                      BarcodeService.RenderMode renderMode) {
+
+        /**
+         * キーから決定的に導出されるETagを返却するメソッド
+         *
+         * 同じキーからは常に同じ画像が生成されるため、画像を生成せずにETagを比較できます。
+         *
+         * @return 強いETag（ダブルクォート付き）
+         */
+        public String eTag() {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                String source = format + "|" + renderMode + "|" + width + "x" + height + "|" + content;
+                byte[] hash = digest.digest(source.getBytes(StandardCharsets.UTF_8));
+                return "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+    }
+}
@@ -5,13 +5,16 @@ import com.google.zxing.EncodeHintType;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
 import com.google.zxing.oned.Code128Writer;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -25,10 +28,35 @@ import java.util.Map;
  * @version 1.0.0
  * @since 2024-01-01
  */
-@Service  // Spring Bootサービスとして登録
-@Slf4j    // ログ機能
+@Service                  // Spring Bootサービスとして登録
+@RequiredArgsConstructor  // コンストラクタインジェクション
+@Slf4j                    // ログ機能
 public class BarcodeService {
 
+    /**
+     * 画像描画方式
+     *
+     * PACKED: BitMatrixを1ビットPNGへ直接エンコード（AWT不使用、既定）
+     * GRAPHICS2D: BufferedImageへ描画してImageIOで出力（従来方式）
+     */
+    public enum RenderMode {
+        PACKED, GRAPHICS2D
+    }
+
+    // 商品ラベル用画像サイズ（ピクセル）
+    private static final int PRODUCT_QR_SIZE = 200;
+    private static final int PRODUCT_BARCODE_WIDTH = 300;
+    private static final int PRODUCT_BARCODE_HEIGHT = 100;
+
+    // 1ビットPNGエンコーダー
+    private final BitMatrixPngEncoder pngEncoder;
+    // 生成済み画像キャッシュ
+    private final BarcodeImageCache imageCache;
+
+    // 既定の描画方式
+    @Value("${barcode.render-mode:PACKED}")
+    private RenderMode defaultRenderMode;
+
     /**
      * QRコードを生成するメソッド
      * 
@@ -41,6 +69,141 @@ public class BarcodeService {
      * @throws RuntimeException QRコード生成に失敗した場合
      */
     public byte[] generateQRCode(String content, int width, int height) {
+        return generateQRCode(content, width, height, null);
+    }
+
+    /**
+     * 描画方式を指定してQRコードを生成するメソッド
+     * 
+     * @param content QRコードに含める内容（テキスト、URL等）
+     * @param width QRコードの幅（ピクセル）
+     * @param height QRコードの高さ（ピクセル）
+     * @param renderMode 描画方式（nullの場合は既定の描画方式）
+     * @return QRコードのPNG画像データ
+     * @throws RuntimeException QRコード生成に失敗した場合
+     */
+    public byte[] generateQRCode(String content, int width, int height, RenderMode renderMode) {
+        return generate(qrCodeKey(content, width, height, renderMode));
+    }
+
+    /**
+     * バーコード（Code128）を生成するメソッド
+     * 
+     * 指定された内容、幅、高さでCode128形式のバーコードを生成し、PNG画像のバイト配列として返却します。
+     * 
+     * @param content バーコードに含める内容（商品コード、SKU等）
+     * @param width バーコードの幅（ピクセル）
+     * @param height バーコードの高さ（ピクセル）
+     * @return バーコードのPNG画像データ
+     * @throws RuntimeException バーコード生成に失敗した場合
+     */
+    public byte[] generateBarcode(String content, int width, int height) {
+        return generateBarcode(content, width, height, null);
+    }
+
+    /**
+     * 描画方式を指定してバーコード（Code128）を生成するメソッド
+     * 
+     * @param content バーコードに含める内容（商品コード、SKU等）
+     * @param width バーコードの幅（ピクセル）
+     * @param height バーコードの高さ（ピクセル）
+     * @param renderMode 描画方式（nullの場合は既定の描画方式）
+     * @return バーコードのPNG画像データ
+     * @throws RuntimeException バーコード生成に失敗した場合
+     */
+    public byte[] generateBarcode(String content, int width, int height, RenderMode renderMode) {
+        return generate(barcodeKey(content, width, height, renderMode));
+    }
+
+    /**
+     * キャッシュキーに対応する画像を取得するメソッド
+     * 
+     * キャッシュに存在する場合はエンコードを行わずに返却します。
+     * 
+     * @param key 画像のキャッシュキー
+     * @return PNG画像データ
+     * @throws RuntimeException 画像生成に失敗した場合
+     */
+    public byte[] generate(BarcodeImageCache.Key key) {
+        return imageCache.get(key, this::encode);
+    }
+
+    /**
+     * キャッシュを使用せずに画像を生成するメソッド
+     * 
+     * ラベルシートのように大量の画像を1回だけ使用する場合に、キャッシュ上の画像を追い出さないために使用します。
+     * 
+     * @param key 画像のキャッシュキー
+     * @return PNG画像データ
+     * @throws RuntimeException 画像生成に失敗した場合
+     */
+    public byte[] generateUncached(BarcodeImageCache.Key key) {
+        return encode(key);
+    }
+
+    /**
+     * QRコードのキャッシュキーを作成するメソッド
+     * 
+     * @param content QRコードに含める内容
+     * @param width 幅（ピクセル）
+     * @param height 高さ（ピクセル）
+     * @param renderMode 描画方式（nullの場合は既定の描画方式）
+     * @return キャッシュキー
+     */
+    public BarcodeImageCache.Key qrCodeKey(String content, int width, int height, RenderMode renderMode) {
+        return new BarcodeImageCache.Key(BarcodeFormat.QR_CODE, content, width, height, resolve(renderMode));
+    }
+
+    /**
+     * バーコード（Code128）のキャッシュキーを作成するメソッド
+     * 
+     * @param content バーコードに含める内容
+     * @param width 幅（ピクセル）
+     * @param height 高さ（ピクセル）
+     * @param renderMode 描画方式（nullの場合は既定の描画方式）
+     * @return キャッシュキー
+     */
+    public BarcodeImageCache.Key barcodeKey(String content, int width, int height, RenderMode renderMode) {
+        return new BarcodeImageCache.Key(BarcodeFormat.CODE_128, content, width, height, resolve(renderMode));
+    }
+
+    /**
+     * 商品用QRコードのキャッシュキーを作成するメソッド
+     * 
+     * @param sku 商品のSKU
+     * @param name 商品名
+     * @return キャッシュキー
+     */
+    public BarcodeImageCache.Key productQRCodeKey(String sku, String name) {
+        // 商品情報を構造化された形式でQRコードに含める
+        String content = String.format("SKU:%s\nName:%s", sku, name);
+        return qrCodeKey(content, PRODUCT_QR_SIZE, PRODUCT_QR_SIZE, null);
+    }
+
+    /**
+     * 商品用バーコードのキャッシュキーを作成するメソッド
+     * 
+     * @param sku 商品のSKU
+     * @return キャッシュキー
+     */
+    public BarcodeImageCache.Key productBarcodeKey(String sku) {
+        return barcodeKey(sku, PRODUCT_BARCODE_WIDTH, PRODUCT_BARCODE_HEIGHT, null);
+    }
+
+    /**
+     * キャッシュキーに従って画像をエンコードするメソッド
+     */
+    private byte[] encode(BarcodeImageCache.Key key) {
+        if (key.format() == BarcodeFormat.QR_CODE) {
+            return encodeQRCode(key);
+        }
+        return encodeCode128(key);
+    }
+
+    /**
+     * QRコードをエンコードするメソッド
+     */
+    private byte[] encodeQRCode(BarcodeImageCache.Key key) {
         try {
             // QRコードライターを初期化
             QRCodeWriter qrCodeWriter = new QRCodeWriter();
@@ -51,35 +214,9 @@ public class BarcodeService {
             hints.put(EncodeHintType.MARGIN, 1);               // マージン設定
 
             // QRコードのビットマトリックスを生成
-            BitMatrix bitMatrix = qrCodeWriter.encode(content, BarcodeFormat.QR_CODE, width, height, hints);
-
-            // 画像を生成
-            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-            Graphics2D graphics = image.createGraphics();
-            
-            // 背景を白で塗りつぶし
-            graphics.setColor(Color.WHITE);
-            graphics.fillRect(0, 0, width, height);
-            
-            // QRコード部分を黒で描画
-            graphics.setColor(Color.BLACK);
-
-            // ビットマトリックスを画像に変換
-            for (int x = 0; x < width; x++) {
-                for (int y = 0; y < height; y++) {
-                    if (bitMatrix.get(x, y)) {
-                        graphics.fillRect(x, y, 1, 1);
-                    }
-                }
-            }
+            BitMatrix bitMatrix = qrCodeWriter.encode(key.content(), BarcodeFormat.QR_CODE, key.width(), key.height(), hints);
 
-            // グラフィックスリソースを解放
-            graphics.dispose();
-
-            // PNG画像としてバイト配列に変換
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            ImageIO.write(image, "PNG", baos);
-            return baos.toByteArray();
+            return render(bitMatrix, key.width(), key.height(), key.renderMode());
 
         } catch (Exception e) {
             // エラーログを出力
@@ -89,51 +226,17 @@ public class BarcodeService {
     }
 
     /**
-     * バーコード（Code128）を生成するメソッド
-     * 
-     * 指定された内容、幅、高さでCode128形式のバーコードを生成し、PNG画像のバイト配列として返却します。
-     * 
-     * @param content バーコードに含める内容（商品コード、SKU等）
-     * @param width バーコードの幅（ピクセル）
-     * @param height バーコードの高さ（ピクセル）
-     * @return バーコードのPNG画像データ
-     * @throws RuntimeException バーコード生成に失敗した場合
+     * バーコード（Code128）をエンコードするメソッド
      */
-    public byte[] generateBarcode(String content, int width, int height) {
+    private byte[] encodeCode128(BarcodeImageCache.Key key) {
         try {
             // Code128バーコードライターを初期化
             Code128Writer barcodeWriter = new Code128Writer();
             
             // バーコードのビットマトリックスを生成
-            BitMatrix bitMatrix = barcodeWriter.encode(content, BarcodeFormat.CODE_128, width, height);
-
-            // 画像を生成
-            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-            Graphics2D graphics = image.createGraphics();
-            
-            // 背景を白で塗りつぶし
-            graphics.setColor(Color.WHITE);
-            graphics.fillRect(0, 0, width, height);
-            
-            // バーコード部分を黒で描画
-            graphics.setColor(Color.BLACK);
-
-            // ビットマトリックスを画像に変換
-            for (int x = 0; x < width; x++) {
-                for (int y = 0; y < height; y++) {
-                    if (bitMatrix.get(x, y)) {
-                        graphics.fillRect(x, y, 1, 1);
-                    }
-                }
-            }
+            BitMatrix bitMatrix = barcodeWriter.encode(key.content(), BarcodeFormat.CODE_128, key.width(), key.height());
 
-            // グラフィックスリソースを解放
-            graphics.dispose();
-
-            // PNG画像としてバイト配列に変換
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            ImageIO.write(image, "PNG", baos);
-            return baos.toByteArray();
+            return render(bitMatrix, key.width(), key.height(), key.renderMode());
 
         } catch (Exception e) {
             // エラーログを出力
@@ -142,6 +245,56 @@ public class BarcodeService {
         }
     }
 
+    /**
+     * 描画方式の指定がない場合に既定値を適用するメソッド
+     */
+    private RenderMode resolve(RenderMode renderMode) {
+        return renderMode != null ? renderMode : defaultRenderMode;
+    }
+
+    /**
+     * ビットマトリックスを指定の描画方式でPNG画像に変換するメソッド
+     */
+    private byte[] render(BitMatrix bitMatrix, int width, int height, RenderMode renderMode) throws IOException {
+        if (renderMode == RenderMode.GRAPHICS2D) {
+            return renderWithGraphics(bitMatrix, width, height);
+        }
+        return pngEncoder.encode(bitMatrix, width, height);
+    }
+
+    /**
+     * Graphics2Dでビットマトリックスを描画してPNG画像に変換するメソッド（従来方式）
+     */
+    private byte[] renderWithGraphics(BitMatrix bitMatrix, int width, int height) throws IOException {
+        // 画像を生成
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        
+        // 背景を白で塗りつぶし
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, width, height);
+        
+        // コード部分を黒で描画
+        graphics.setColor(Color.BLACK);
+
+        // ビットマトリックスを画像に変換
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                if (bitMatrix.get(x, y)) {
+                    graphics.fillRect(x, y, 1, 1);
+                }
+            }
+        }
+
+        // グラフィックスリソースを解放
+        graphics.dispose();
+
+        // PNG画像としてバイト配列に変換
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ImageIO.write(image, "PNG", baos);
+        return baos.toByteArray();
+    }
+
     /**
      * 商品用QRコードを生成するメソッド
      * 
@@ -153,9 +306,7 @@ public class BarcodeService {
      * @return 商品情報を含むQRコードのPNG画像データ
      */
     public byte[] generateProductQRCode(String sku, String name) {
-        // 商品情報を構造化された形式でQRコードに含める
-        String content = String.format("SKU:%s\nName:%s", sku, name);
-        return generateQRCode(content, 200, 200);  // 200x200ピクセルのQRコードを生成
+        return generate(productQRCodeKey(sku, name));  // 200x200ピクセルのQRコードを生成
     }
 
     /**
@@ -168,6 +319,6 @@ public class BarcodeService {
      * @return 商品用バーコードのPNG画像データ
      */
     public byte[] generateProductBarcode(String sku) {
-        return generateBarcode(sku, 300, 100);  // 300x100ピクセルのバーコードを生成
+        return generate(productBarcodeKey(sku));  // 300x100ピクセルのバーコードを生成
     }
 }
\ No newline at end of file
@@ -0,0 +1,247 @@
+package com.cooola.service;
+
+import com.google.zxing.common.BitArray;
+import com.google.zxing.common.BitMatrix;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * BitMatrix PNGエンコーダー
+ *
+ * このクラスはZXingのBitMatrixをAWTを使わずに1ビットグレースケールPNGへ直接変換します。
+ * 行単位でビットをパックして圧縮するため、ピクセル単位の描画やBufferedImageの生成が不要です。
+ * Deflaterと行バッファは上限付きのプールで再利用されます。
+ * 仮想スレッドのようにスレッドが使い捨てになる場合でも、Deflaterのネイティブメモリは
+ * プールに戻せなかった時点で解放（end）されるため、リクエスト数に比例して残ることはありません。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component  // Springコンポーネントとして登録
+public class BitMatrixPngEncoder {
+
+    // PNGファイルシグネチャ
+    private static final byte[] PNG_SIGNATURE = {
+            (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'
+    };
+
+    // 1ビットグレースケール（黒=0、白=1）
+    private static final int BIT_DEPTH = 1;
+    private static final int COLOR_TYPE_GRAYSCALE = 0;
+
+    // 行フィルタ種別（None）
+    private static final int FILTER_NONE = 0;
+
+    // プールに保持する圧縮用バッファの上限（同時にエンコードするスレッド数の目安）
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+
+    // 再利用する圧縮用バッファのプール
+    private final BlockingQueue<EncoderBuffers> pool = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    /**
+     * BitMatrixをPNG画像に変換するメソッド
+     *
+     * マトリックスのセット済みビットを黒、それ以外を白として出力します。
+     *
+     * @param matrix 変換対象のビットマトリックス
+     * @return PNG画像データ
+     */
+    public byte[] encode(BitMatrix matrix) {
+        return encode(matrix, matrix.getWidth(), matrix.getHeight());
+    }
+
+    /**
+     * BitMatrixを指定サイズのPNG画像に変換するメソッド
+     *
+     * 指定サイズを超える部分は切り捨て、マトリックスに含まれない部分は白で出力します
+     * （Graphics2Dで指定サイズの画像に描画した場合と同じ結果になります）。
+     *
+     * @param matrix 変換対象のビットマトリックス
+     * @param width 画像の幅（ピクセル）
+     * @param height 画像の高さ（ピクセル）
+     * @return PNG画像データ
+     */
+    public byte[] encode(BitMatrix matrix, int width, int height) {
+        int rowBytes = (width + 7) >>> 3;
+
+        EncoderBuffers buf = acquire();
+        try {
+            return encode(matrix, width, height, rowBytes, buf);
+        } finally {
+            release(buf);
+        }
+    }
+
+    /**
+     * 停止時にプール内のDeflaterを解放するメソッド
+     */
+    @PreDestroy
+    public void close() {
+        EncoderBuffers buf;
+        while ((buf = pool.poll()) != null) {
+            buf.deflater.end();
+        }
+    }
+
+    /**
+     * プールから圧縮用バッファを取得するメソッド（空の場合は新規作成）
+     */
+    private EncoderBuffers acquire() {
+        EncoderBuffers buf = pool.poll();
+        return buf != null ? buf : new EncoderBuffers();
+    }
+
+    /**
+     * 圧縮用バッファをプールに戻すメソッド（プールが満杯の場合はDeflaterを解放して破棄）
+     */
+    private void release(EncoderBuffers buf) {
+        if (!pool.offer(buf)) {
+            buf.deflater.end();
+        }
+    }
+
+    private byte[] encode(BitMatrix matrix, int width, int height, int rowBytes, EncoderBuffers buf) {
+        buf.ensureCapacity(Math.max(width, matrix.getWidth()), rowBytes);
+
+        Deflater deflater = buf.deflater;
+        deflater.reset();
+        ByteArrayOutputStream idat = buf.idat;
+        idat.reset();
+
+        // 各行をフィルタバイト + パック済みビット列として圧縮
+        byte[] line = buf.line;
+        BitArray row = buf.row;
+        for (int y = 0; y < height; y++) {
+            if (y < matrix.getHeight()) {
+                // マトリックスの幅を超える列はビットが立たないため白になる
+                row = matrix.getRow(y, row);
+                packRow(row.getBitArray(), line, rowBytes);
+            } else {
+                whiteRow(line, rowBytes);
+            }
+            deflater.setInput(line, 0, rowBytes + 1);
+            drain(deflater, buf.chunk, idat);
+        }
+        buf.row = row;
+        deflater.finish();
+        while (!deflater.finished()) {
+            int n = deflater.deflate(buf.chunk);
+            idat.write(buf.chunk, 0, n);
+        }
+
+        // PNGストリームを組み立て
+        ByteArrayOutputStream out = new ByteArrayOutputStream(idat.size() + 64);
+        out.writeBytes(PNG_SIGNATURE);
+        writeChunk(out, "IHDR", header(width, height), buf.crc);
+        writeChunk(out, "IDAT", idat.toByteArray(), buf.crc);
+        writeChunk(out, "IEND", new byte[0], buf.crc);
+        return out.toByteArray();
+    }
+
+    /**
+     * BitArrayの行を1ビットPNGの行形式にパックするメソッド
+     *
+     * ZXingのビットは下位ビットから、PNGは上位ビットから並ぶため、バイト単位で反転します。
+     * また黒モジュールをグレースケール0で表すため、ビットを反転します。
+     */
+    private static void packRow(int[] bits, byte[] line, int rowBytes) {
+        line[0] = FILTER_NONE;
+        for (int i = 0; i < rowBytes; i++) {
+            int word = bits[i >>> 2] >>> ((i & 3) << 3);
+            int reversed = Integer.reverse(word) >>> 24;
+            line[i + 1] = (byte) ~reversed;
+        }
+    }
+
+    /**
+     * 白の行を1ビットPNGの行形式で作成するメソッド
+     */
+    private static void whiteRow(byte[] line, int rowBytes) {
+        line[0] = FILTER_NONE;
+        Arrays.fill(line, 1, rowBytes + 1, (byte) 0xFF);
+    }
+
+    /**
+     * Deflaterに投入済みの入力をすべて圧縮して出力するメソッド
+     */
+    private static void drain(Deflater deflater, byte[] chunk, ByteArrayOutputStream out) {
+        while (!deflater.needsInput()) {
+            int n = deflater.deflate(chunk);
+            if (n == 0) {
+                break;
+            }
+            out.write(chunk, 0, n);
+        }
+    }
+
+    /**
+     * IHDRチャンクの内容を作成するメソッド
+     */
+    private static byte[] header(int width, int height) {
+        byte[] ihdr = new byte[13];
+        writeInt(ihdr, 0, width);
+        writeInt(ihdr, 4, height);
+        ihdr[8] = BIT_DEPTH;
+        ihdr[9] = COLOR_TYPE_GRAYSCALE;
+        ihdr[10] = 0;  // 圧縮方式（deflate）
+        ihdr[11] = 0;  // フィルタ方式
+        ihdr[12] = 0;  // インターレースなし
+        return ihdr;
+    }
+
+    /**
+     * PNGチャンク（長さ・種別・データ・CRC）を書き込むメソッド
+     */
+    private static void writeChunk(ByteArrayOutputStream out, String type, byte[] data, CRC32 crc) {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        byte[] intBuf = new byte[4];
+
+        writeInt(intBuf, 0, data.length);
+        out.writeBytes(intBuf);
+        out.writeBytes(typeBytes);
+        out.writeBytes(data);
+
+        crc.reset();
+        crc.update(typeBytes);
+        crc.update(data);
+        writeInt(intBuf, 0, (int) crc.getValue());
+        out.writeBytes(intBuf);
+    }
+
+    private static void writeInt(byte[] dst, int offset, int value) {
+        dst[offset] = (byte) (value >>> 24);
+        dst[offset + 1] = (byte) (value >>> 16);
+        dst[offset + 2] = (byte) (value >>> 8);
+        dst[offset + 3] = (byte) value;
+    }
+
+    /**
+     * エンコード用バッファ（同時に1スレッドのみが使用する）
+     */
+    private static final class EncoderBuffers {
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private final ByteArrayOutputStream idat = new ByteArrayOutputStream(4096);
+        private final byte[] chunk = new byte[8192];
+        private final CRC32 crc = new CRC32();
+        private byte[] line = new byte[0];
+        private BitArray row = new BitArray();
+
+        private void ensureCapacity(int width, int rowBytes) {
+            if (line.length < rowBytes + 1) {
+                line = new byte[rowBytes + 1];
+            }
+            if (row.getSize() < width) {
+                row = new BitArray(width);
+            }
+        }
+    }
+}
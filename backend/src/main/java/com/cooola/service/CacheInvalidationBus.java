@@ -0,0 +1,34 @@
+package com.cooola.service;
+
+import com.cooola.dto.CacheInvalidation;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * キャッシュ無効化イベントの即時通知経路
+ *
+ * コミット後のイベントを他のインスタンスへ即時に通知します。本番環境ではRedis Pub/Sub、
+ * ローカル環境ではメモリ上の通知を使用します（cache-invalidation.transport で切り替え）。
+ * 通知は失われる可能性があるため、各インスタンスはアウトボックスも定期的に確認します。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public interface CacheInvalidationBus {
+
+    /**
+     * イベントを通知するメソッド
+     *
+     * @param events イベント（登録順）
+     */
+    void publish(List<CacheInvalidation> events);
+
+    /**
+     * 通知を受け取る処理を登録するメソッド
+     *
+     * @param subscriber 通知を受け取る処理（自インスタンスのイベントも渡される）
+     */
+    void subscribe(Consumer<List<CacheInvalidation>> subscriber);
+}
@@ -0,0 +1,40 @@
+package com.cooola.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * キャッシュ無効化イベントのコミット直前の採番リスナー
+ *
+ * エンティティリスナー（CacheInvalidationListener）からの記録は、トランザクションのコミット時のフラッシュで
+ * 初めて行われることがあります。この時点ではトランザクション同期のコミット直前の処理が終わっているため、
+ * このクラスがコミットの直前にフラッシュし、記録されたイベントを採番します。
+ * トランザクションマネージャーへの登録はSpring Bootの自動構成で行われます。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component                  // Springコンポーネントとして登録
+@RequiredArgsConstructor    // コンストラクタインジェクション
+public class CacheInvalidationCommitListener implements TransactionExecutionListener {
+
+    // キャッシュ無効化サービス（トランザクションマネージャーより後に生成されるため、遅延して取得する）
+    private final ObjectProvider<CacheInvalidationService> cacheInvalidation;
+
+    /**
+     * トランザクションのコミット直前に呼び出されるメソッド
+     *
+     * @param transaction コミットするトランザクション
+     */
+    @Override
+    public void beforeCommit(TransactionExecution transaction) {
+        if (transaction.isNewTransaction() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            cacheInvalidation.getObject().sequence(transaction.isReadOnly());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.cooola.service;
+
+import com.cooola.dto.CacheInvalidation;
+import com.cooola.entity.Location;
+import com.cooola.entity.ProductCategory;
+import com.cooola.entity.User;
+import com.cooola.entity.Warehouse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * マスタデータ変更リスナー（複数インスタンス構成用）
+ *
+ * このクラスは倉庫・ロケーション・商品カテゴリ・ユーザーの登録・更新・削除を検知し、
+ * 他のインスタンスのキャッシュを無効化するイベントを変更と同じトランザクションで記録します。
+ * 自インスタンスのキャッシュは二次キャッシュ・LocationChangeListener・CategoryChangeListener が更新します。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component                  // Springコンポーネントとして登録（HibernateがエンティティリスナーとしてSpringから取得する）
+@RequiredArgsConstructor    // コンストラクタインジェクション
+public class CacheInvalidationListener {
+
+    // キャッシュ無効化サービス（リスナーはEntityManagerFactoryの構築中に生成されるため、遅延して取得する）
+    private final ObjectProvider<CacheInvalidationService> cacheInvalidation;
+
+    /**
+     * エンティティの変更後に呼び出されるメソッド
+     *
+     * @param entity 変更されたエンティティ
+     */
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        if (entity instanceof Location location) {
+            Long warehouseId = location.getWarehouse() != null ? location.getWarehouse().getId() : null;
+            record(CacheInvalidation.Type.LOCATION, location.getId(), warehouseId);
+        } else if (entity instanceof ProductCategory category) {
+            record(CacheInvalidation.Type.CATEGORY, category.getId(), null);
+        } else if (entity instanceof Warehouse warehouse) {
+            record(CacheInvalidation.Type.WAREHOUSE, warehouse.getId(), null);
+        } else if (entity instanceof User user) {
+            record(CacheInvalidation.Type.USER, user.getId(), null);
+        }
+    }
+
+    private void record(CacheInvalidation.Type type, Long entityId, Long warehouseId) {
+        cacheInvalidation.getObject().record(type, entityId, warehouseId);
+    }
+}
@@ -0,0 +1,460 @@
+package com.cooola.service;
+
+import com.cooola.dto.CacheInvalidation;
+import com.cooola.dto.ProductScanView;
+import com.cooola.dto.ProductSearchDocument;
+import com.cooola.entity.Location;
+import com.cooola.entity.ProductCategory;
+import com.cooola.entity.User;
+import com.cooola.entity.Warehouse;
+import com.cooola.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * キャッシュ無効化サービス
+ *
+ * このクラスは複数インスタンス構成で、各インスタンスのメモリ上のキャッシュ（商品のインデックス、
+ * カテゴリツリー、ピッキング経路用グラフ、Hibernate二次キャッシュ）を揃えます。
+ *
+ * 変更時は変更と同じトランザクションでアウトボックス（cache_invalidation_events）にイベントを登録し、
+ * コミット後に通知経路（CacheInvalidationBus）で他のインスタンスへ即時に通知します。
+ * 通知は失われる可能性があるため、各インスタンスはアウトボックスを定期的に確認し、未処理のイベントを処理します。
+ * 自インスタンスのキャッシュは変更した処理自身が更新するため、自インスタンスのイベントは処理しません。
+ *
+ * イベントはコミット直前（beforeCommit）にまとめて採番・登録します。採番は連番（cache_invalidation_sequence）の
+ * 行をロックして行い、ロックはコミットまで保持されます。このためイベントIDの順序はコミット順と一致し、
+ * 欠番もありません（ロールバックした場合は連番も戻ります）。
+ * 各インスタンスは、読み取り済みの最大のイベントID（読み取り位置）より後のイベントだけを読みます。
+ * イベントを登録するトランザクションが直列化されるのは、コミット直前からコミットまでの間だけです。
+ * エンティティリスナーからの記録はHibernateのフラッシュ時に行われるため、採番の前にフラッシュします。
+ * それまでに記録のないトランザクションでは CacheInvalidationCommitListener がコミット直前にフラッシュ・採番します。
+ * 採番後に記録されたイベントは、その場で採番・登録します。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component                  // Springコンポーネントとして登録
+@RequiredArgsConstructor    // コンストラクタインジェクション
+@Slf4j                      // ログ機能
+public class CacheInvalidationService {
+
+    // 連番をロックして最後に採番したイベントIDを取得するSQL（ロックはコミットまで保持される）
+    private static final String LOCK_SEQUENCE_SQL =
+            "SELECT last_event_id FROM cache_invalidation_sequence WHERE id = 1 FOR UPDATE";
+    // 最後に採番したイベントIDを更新するSQL
+    private static final String UPDATE_SEQUENCE_SQL =
+            "UPDATE cache_invalidation_sequence SET last_event_id = ? WHERE id = 1";
+    // イベントを登録するSQL
+    private static final String INSERT_SQL = "INSERT INTO cache_invalidation_events " +
+            "(id, cache_type, entity_id, warehouse_id, origin) VALUES (?, ?, ?, ?, ?)";
+    // 読み取り位置より後のイベントを取得するSQL
+    private static final String POLL_SQL = "SELECT id, cache_type, entity_id, warehouse_id, origin " +
+            "FROM cache_invalidation_events WHERE id > ? ORDER BY id LIMIT ?";
+    // 最新のイベントIDを取得するSQL
+    private static final String MAX_ID_SQL = "SELECT COALESCE(MAX(id), 0) FROM cache_invalidation_events";
+    // 保持期間を過ぎたイベントを削除するSQL
+    private static final String PURGE_SQL =
+            "DELETE FROM cache_invalidation_events WHERE created_at < NOW(3) - INTERVAL ? SECOND ORDER BY id LIMIT ?";
+
+    // 1回に再読み込みする商品数
+    private static final int RELOAD_CHUNK = 1000;
+
+    // イベントの変換
+    private static final RowMapper<CacheInvalidation> EVENT_MAPPER = (rs, rowNum) -> new CacheInvalidation(
+            rs.getLong("id"), CacheInvalidation.Type.valueOf(rs.getString("cache_type")), rs.getLong("entity_id"),
+            rs.getObject("warehouse_id", Long.class), rs.getString("origin"));
+
+    // JDBCテンプレート
+    private final JdbcTemplate jdbcTemplate;
+    // トランザクション外で記録する場合に使用
+    private final TransactionTemplate transactionTemplate;
+    // 即時通知の経路
+    private final CacheInvalidationBus bus;
+    // 二次キャッシュの無効化に使用
+    private final EntityManagerFactory entityManagerFactory;
+    // 商品リポジトリ
+    private final ProductRepository productRepository;
+    // 商品スキャン用インデックス
+    private final ProductLookupIndex lookupIndex;
+    // 商品全文検索インデックス
+    private final ProductSearchIndex searchIndex;
+    // 商品カテゴリツリーのキャッシュ
+    private final CategoryTreeCache categoryTree;
+    // ピッキング経路サービス
+    private final PickRouteService pickRouteService;
+
+    // 1回に読み取るイベント数
+    @Value("${cache-invalidation.poll-batch-size:1000}")
+    private int pollBatchSize;
+
+    // イベントの保持期間
+    @Value("${cache-invalidation.retention:PT1H}")
+    private Duration retention;
+
+    // 1回に削除するイベント数
+    @Value("${cache-invalidation.purge-batch-size:10000}")
+    private int purgeBatchSize;
+
+    // 自インスタンスの識別子（起動ごとに一意）
+    private final String origin = UUID.randomUUID().toString();
+    // 読み取り位置（このID以前のイベントは処理済み）
+    private volatile long cursor;
+    // 読み取り位置より後で処理済みのイベントID
+    private final Set<Long> applied = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 読み取り位置を初期化し、即時通知の受け取りを開始するメソッド
+     *
+     * キャッシュは起動後に読み込むため、起動前のイベントは処理しません。
+     */
+    @PostConstruct
+    public void start() {
+        Long maxId = jdbcTemplate.queryForObject(MAX_ID_SQL, Long.class);
+        cursor = maxId != null ? maxId : 0;
+        bus.subscribe(this::receive);
+        log.info("Cache invalidation started: origin={}, cursor={}", origin, cursor);
+    }
+
+    /**
+     * 変更を記録するメソッド
+     *
+     * トランザクション内で呼び出した場合はイベントを同じトランザクションで登録し、コミット後に通知します。
+     * トランザクション外で呼び出した場合は新しいトランザクションで登録します。
+     *
+     * @param type 変更されたデータの種類
+     * @param entityId 変更されたデータのID
+     * @param warehouseId 倉庫ID（ロケーションのみ、その他はnull）
+     */
+    public void record(CacheInvalidation.Type type, Long entityId, Long warehouseId) {
+        enqueue(List.of(new CacheInvalidation(null, type, entityId, warehouseId, origin)));
+    }
+
+    /**
+     * 複数商品の変更を記録するメソッド
+     *
+     * @param productIds 商品IDの一覧
+     */
+    public void recordProducts(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        enqueue(productIds.stream()
+                .map(id -> new CacheInvalidation(null, CacheInvalidation.Type.PRODUCT, id, null, origin))
+                .toList());
+    }
+
+    /**
+     * アウトボックスを確認し、他のインスタンスの未処理のイベントを処理するメソッド
+     */
+    @Scheduled(fixedDelayString = "${cache-invalidation.poll-interval:PT1S}")
+    public void poll() {
+        try {
+            List<CacheInvalidation> rows;
+            do {
+                rows = jdbcTemplate.query(POLL_SQL, EVENT_MAPPER, cursor, pollBatchSize);
+                List<CacheInvalidation> pending = new ArrayList<>();
+                for (CacheInvalidation event : rows) {
+                    if (!origin.equals(event.origin()) && applied.add(event.id())) {
+                        pending.add(event);
+                    }
+                }
+                apply(pending);
+                if (!rows.isEmpty()) {
+                    // イベントIDはコミット順のため、読み取ったイベントより前に後からコミットされるイベントはない
+                    long advanced = rows.get(rows.size() - 1).id();
+                    cursor = advanced;
+                    applied.removeIf(id -> id <= advanced);
+                }
+            } while (rows.size() == pollBatchSize);
+        } catch (DataAccessException e) {
+            log.warn("Failed to poll cache invalidation events, will retry on the next run", e);
+        }
+    }
+
+    /**
+     * 保持期間を過ぎたイベントを削除するメソッド
+     *
+     * 複数のインスタンスで同時に実行されても問題ありません。
+     */
+    @Scheduled(fixedDelayString = "${cache-invalidation.purge-interval:PT10M}")
+    public void purge() {
+        try {
+            int deleted;
+            int total = 0;
+            do {
+                deleted = jdbcTemplate.update(PURGE_SQL, retention.toSeconds(), purgeBatchSize);
+                total += deleted;
+            } while (deleted == purgeBatchSize);
+            if (total > 0) {
+                log.debug("Purged {} cache invalidation events", total);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Failed to purge cache invalidation events", e);
+        }
+    }
+
+    /**
+     * イベントをトランザクションに登録するメソッド
+     *
+     * イベントはコミット直前に採番してアウトボックスに登録し、コミット後に通知します。
+     * 採番後に登録されたイベントはその場で採番します。
+     */
+    private void enqueue(List<CacheInvalidation> events) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            // 採番から登録までを1つのトランザクションで行う
+            transactionTemplate.executeWithoutResult(status -> enqueue(events));
+            return;
+        }
+        Outbox outbox = outbox();
+        if (outbox.sequenced) {
+            outbox.published.addAll(insert(events));
+        } else {
+            outbox.pending.addAll(events);
+        }
+    }
+
+    /**
+     * イベントを採番してアウトボックスに登録するメソッド
+     *
+     * 連番の行ロックはトランザクションのコミットまで保持されます。
+     *
+     * @return 採番したイベント
+     */
+    private List<CacheInvalidation> insert(List<CacheInvalidation> events) {
+        if (events.isEmpty()) {
+            return List.of();
+        }
+        Long last = jdbcTemplate.queryForObject(LOCK_SEQUENCE_SQL, Long.class);
+        long first = (last != null ? last : 0) + 1;
+        jdbcTemplate.update(UPDATE_SEQUENCE_SQL, first + events.size() - 1);
+
+        List<CacheInvalidation> numbered = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            CacheInvalidation event = events.get(i);
+            numbered.add(new CacheInvalidation(first + i, event.type(), event.entityId(), event.warehouseId(),
+                    event.origin()));
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                CacheInvalidation event = numbered.get(i);
+                ps.setLong(1, event.id());
+                ps.setString(2, event.type().name());
+                ps.setLong(3, event.entityId());
+                if (event.warehouseId() != null) {
+                    ps.setLong(4, event.warehouseId());
+                } else {
+                    ps.setNull(4, Types.BIGINT);
+                }
+                ps.setString(5, event.origin());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return numbered.size();
+            }
+        });
+        return numbered;
+    }
+
+    /**
+     * コミット直前に、トランザクションで記録したイベントを採番して登録するメソッド
+     *
+     * エンティティリスナーからの記録を採番前に受け取るため、先にフラッシュします。
+     * 同じトランザクションで2回以上呼び出された場合、2回目以降はフラッシュのみ行います。
+     *
+     * @param readOnly 読み取り専用のトランザクションの場合はtrue
+     */
+    void sequence(boolean readOnly) {
+        if (!readOnly && TransactionSynchronizationManager.hasResource(entityManagerFactory)) {
+            EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory).flush();
+        }
+        Outbox outbox = (Outbox) TransactionSynchronizationManager.getResource(this);
+        if (outbox != null && !outbox.sequenced) {
+            outbox.sequenced = true;
+            outbox.published.addAll(insert(outbox.pending));
+            outbox.pending.clear();
+        }
+    }
+
+    /**
+     * 現在のトランザクションのイベントを取得するメソッド
+     *
+     * 最初の呼び出しで、コミット直前の採番とコミット後の通知を予約します。
+     * 同じトランザクションで登録したイベントはまとめて1回で採番・通知します。
+     */
+    private Outbox outbox() {
+        Outbox outbox = (Outbox) TransactionSynchronizationManager.getResource(this);
+        if (outbox != null) {
+            return outbox;
+        }
+        Outbox created = new Outbox();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                sequence(readOnly);
+            }
+
+            @Override
+            public void afterCommit() {
+                publish(created.published);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(CacheInvalidationService.this);
+            }
+        });
+        return created;
+    }
+
+    /**
+     * イベントを他のインスタンスへ通知するメソッド（失敗した場合はアウトボックスの確認で補われる）
+     */
+    private void publish(List<CacheInvalidation> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        try {
+            bus.publish(List.copyOf(events));
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish {} cache invalidation events, they will be picked up by polling",
+                    events.size(), e);
+        }
+    }
+
+    /**
+     * 即時通知されたイベントを処理するメソッド
+     */
+    private void receive(List<CacheInvalidation> events) {
+        List<CacheInvalidation> pending = new ArrayList<>(events.size());
+        for (CacheInvalidation event : events) {
+            if (!origin.equals(event.origin()) && event.id() > cursor && applied.add(event.id())) {
+                pending.add(event);
+            }
+        }
+        apply(pending);
+    }
+
+    /**
+     * 他のインスタンスの変更をメモリ上のキャッシュに反映するメソッド
+     */
+    private void apply(List<CacheInvalidation> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Set<Long> productIds = new HashSet<>();
+        Set<Long> warehouseIds = new HashSet<>();
+        boolean categories = false;
+        boolean entities = false;
+        Cache secondLevelCache = entityManagerFactory.getCache().unwrap(Cache.class);
+        for (CacheInvalidation event : events) {
+            switch (event.type()) {
+                case PRODUCT -> productIds.add(event.entityId());
+                case CATEGORY -> {
+                    secondLevelCache.evictEntityData(ProductCategory.class, event.entityId());
+                    categories = true;
+                }
+                case LOCATION -> {
+                    secondLevelCache.evictEntityData(Location.class, event.entityId());
+                    if (event.warehouseId() != null) {
+                        warehouseIds.add(event.warehouseId());
+                    }
+                }
+                case WAREHOUSE -> secondLevelCache.evictEntityData(Warehouse.class, event.entityId());
+                case USER -> secondLevelCache.evictEntityData(User.class, event.entityId());
+            }
+            entities |= event.type() != CacheInvalidation.Type.PRODUCT;
+        }
+
+        if (categories) {
+            secondLevelCache.evictCollectionData(ProductCategory.class.getName() + ".children");
+            categoryTree.invalidate();
+        }
+        if (!warehouseIds.isEmpty()) {
+            secondLevelCache.evictCollectionData(Location.class.getName() + ".children");
+            secondLevelCache.evictCollectionData(Warehouse.class.getName() + ".locations");
+            warehouseIds.forEach(pickRouteService::invalidate);
+        }
+        if (entities) {
+            // クエリキャッシュの更新時刻はインスタンスごとに管理されるため、他のインスタンスの変更時は全て破棄する
+            secondLevelCache.evictDefaultQueryRegion();
+        }
+        if (!productIds.isEmpty()) {
+            reloadProducts(new ArrayList<>(productIds));
+        }
+        log.debug("Applied {} cache invalidation events", events.size());
+    }
+
+    /**
+     * 商品のインデックスをデータベースの内容で更新するメソッド
+     */
+    private void reloadProducts(List<Long> productIds) {
+        for (int from = 0; from < productIds.size(); from += RELOAD_CHUNK) {
+            List<Long> chunk = productIds.subList(from, Math.min(from + RELOAD_CHUNK, productIds.size()));
+            Map<Long, ProductScanView> views = productRepository.findScanViewsByIdIn(chunk).stream()
+                    .collect(Collectors.toMap(ProductScanView::id, Function.identity()));
+            Map<Long, ProductSearchDocument> documents = productRepository.findActiveSearchDocumentsByIdIn(chunk)
+                    .stream()
+                    .collect(Collectors.toMap(ProductSearchDocument::id, Function.identity()));
+            for (Long id : chunk) {
+                ProductScanView view = views.get(id);
+                if (view != null) {
+                    lookupIndex.put(view);
+                } else {
+                    lookupIndex.remove(id);
+                }
+                ProductSearchDocument document = documents.get(id);
+                if (document != null) {
+                    searchIndex.put(document);
+                } else {
+                    searchIndex.remove(id);
+                }
+            }
+        }
+    }
+
+    /**
+     * トランザクションごとのイベント
+     */
+    private static final class Outbox {
+        // 採番前のイベント
+        private final List<CacheInvalidation> pending = new ArrayList<>();
+        // 採番・登録済みのイベント（コミット後に通知する）
+        private final List<CacheInvalidation> published = new ArrayList<>();
+        // コミット直前の採番が済んでいる場合はtrue
+        private boolean sequenced;
+    }
+}
@@ -0,0 +1,51 @@
+package com.cooola.service;
+
+import com.cooola.entity.ProductCategory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * 商品カテゴリ変更リスナー
+ *
+ * このクラスはカテゴリの登録・更新・削除を検知し、カテゴリツリーのキャッシュを破棄します。
+ * 破棄はトランザクションのコミット後に行い、コミット前の階層が再び読み込まれることを防ぎます。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component                  // Springコンポーネントとして登録（HibernateがエンティティリスナーとしてSpringから取得する）
+@RequiredArgsConstructor    // コンストラクタインジェクション
+public class CategoryChangeListener {
+
+    // カテゴリツリーのキャッシュ（リスナーはEntityManagerFactoryの構築中に生成されるため、遅延して取得する）
+    private final ObjectProvider<CategoryTreeCache> categoryTree;
+
+    /**
+     * カテゴリの変更後に呼び出されるメソッド
+     *
+     * @param category 変更されたカテゴリ
+     */
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(ProductCategory category) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            categoryTree.getObject().invalidate();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                categoryTree.getObject().invalidate();
+            }
+        });
+    }
+}
@@ -0,0 +1,197 @@
+package com.cooola.service;
+
+import com.cooola.dto.CategoryNode;
+import com.cooola.dto.CategoryProductCount;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 商品カテゴリツリー
+ *
+ * このクラスはカテゴリの隣接リスト（親カテゴリID）を深さ優先の行きがけ順に並べ、
+ * 各カテゴリの配下を「行きがけ順の連続した区間」として保持します（オイラーツアー）。
+ * そのため、任意のカテゴリの配下のカテゴリIDの一覧と、祖先・子孫の判定を定数時間で求められます。
+ * 同じ親を持つカテゴリはカテゴリIDの順に並べます。親が存在しないカテゴリ、および循環している
+ * カテゴリは最上位として扱います。
+ * 構築後は変更しないため、複数スレッドから同時に参照できます。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class CategoryTree {
+
+    // カテゴリID → 行きがけ順の位置
+    private final Map<Long, Integer> positions;
+    // 行きがけ順のカテゴリID（配下の一覧はこのリストの部分リストとして返却する）
+    private final List<Long> ids;
+    // 位置ごとのカテゴリ名・親カテゴリID・深さ
+    private final String[] names;
+    private final Long[] parentIds;
+    private final int[] depths;
+    // 位置ごとの配下の区間の終端（この位置を含まない）
+    private final int[] ends;
+
+    private CategoryTree(Map<Long, Integer> positions, List<Long> ids, String[] names, Long[] parentIds,
+                         int[] depths, int[] ends) {
+        this.positions = positions;
+        this.ids = ids;
+        this.names = names;
+        this.parentIds = parentIds;
+        this.depths = depths;
+        this.ends = ends;
+    }
+
+    /**
+     * カテゴリ階層からツリーを構築するメソッド
+     *
+     * @param nodes 全カテゴリ
+     * @return カテゴリツリー
+     */
+    public static CategoryTree build(List<CategoryNode> nodes) {
+        Map<Long, CategoryNode> byId = new HashMap<>(nodes.size() * 2);
+        nodes.forEach(node -> byId.put(node.id(), node));
+        Map<Long, List<CategoryNode>> children = new HashMap<>();
+        List<CategoryNode> roots = new ArrayList<>();
+        for (CategoryNode node : nodes) {
+            if (node.parentId() != null && byId.containsKey(node.parentId())) {
+                children.computeIfAbsent(node.parentId(), id -> new ArrayList<>()).add(node);
+            } else {
+                roots.add(node);
+            }
+        }
+        Comparator<CategoryNode> byIdOrder = Comparator.comparing(CategoryNode::id);
+        roots.sort(byIdOrder);
+        children.values().forEach(list -> list.sort(byIdOrder));
+
+        int size = nodes.size();
+        Map<Long, Integer> positions = new HashMap<>(size * 2);
+        Long[] order = new Long[size];
+        String[] names = new String[size];
+        Long[] parentIds = new Long[size];
+        int[] depths = new int[size];
+        int[] ends = new int[size];
+        int next = 0;
+
+        // 最上位から辿った後、循環していて辿れなかったカテゴリを最上位として辿る
+        List<CategoryNode> starts = new ArrayList<>(roots);
+        nodes.stream().sorted(byIdOrder).forEach(starts::add);
+        for (CategoryNode start : starts) {
+            if (positions.containsKey(start.id())) {
+                continue;
+            }
+
+            // 行きがけ順に位置を割り当て、帰りがけに区間の終端を記録する
+            Deque<Frame> stack = new ArrayDeque<>();
+            positions.put(start.id(), next);
+            order[next] = start.id();
+            names[next] = start.name();
+            parentIds[next] = null;
+            depths[next] = 0;
+            stack.push(new Frame(start, next++, 0));
+            while (!stack.isEmpty()) {
+                Frame frame = stack.peek();
+                List<CategoryNode> kids = children.getOrDefault(frame.node().id(), List.of());
+                if (frame.childIndex() < kids.size()) {
+                    CategoryNode child = kids.get(frame.childIndex());
+                    stack.pop();
+                    stack.push(new Frame(frame.node(), frame.position(), frame.childIndex() + 1));
+                    if (positions.containsKey(child.id())) {
+                        continue;
+                    }
+                    positions.put(child.id(), next);
+                    order[next] = child.id();
+                    names[next] = child.name();
+                    parentIds[next] = frame.node().id();
+                    depths[next] = depths[frame.position()] + 1;
+                    stack.push(new Frame(child, next++, 0));
+                } else {
+                    stack.pop();
+                    ends[frame.position()] = next;
+                }
+            }
+        }
+        return new CategoryTree(positions, List.of(order), names, parentIds, depths, ends);
+    }
+
+    /**
+     * カテゴリがツリーに含まれるかどうかを判定するメソッド
+     *
+     * @param categoryId カテゴリID
+     * @return 含まれる場合はtrue
+     */
+    public boolean contains(Long categoryId) {
+        return positions.containsKey(categoryId);
+    }
+
+    /**
+     * カテゴリ自身と配下のカテゴリIDを取得するメソッド
+     *
+     * 返却するリストはツリーの配列の部分リストのため、配下の件数によらず定数時間で求められます。
+     *
+     * @param categoryId カテゴリID
+     * @return 行きがけ順のカテゴリID（存在しない場合は空のリスト、変更不可）
+     */
+    public List<Long> subtree(Long categoryId) {
+        Integer position = positions.get(categoryId);
+        if (position == null) {
+            return List.of();
+        }
+        return ids.subList(position, ends[position]);
+    }
+
+    /**
+     * カテゴリが祖先カテゴリの配下（祖先カテゴリ自身を含む）かどうかを判定するメソッド
+     *
+     * @param categoryId カテゴリID
+     * @param ancestorId 祖先カテゴリID
+     * @return 配下の場合はtrue
+     */
+    public boolean isWithin(Long categoryId, Long ancestorId) {
+        Integer position = positions.get(categoryId);
+        Integer ancestor = positions.get(ancestorId);
+        return position != null && ancestor != null && ancestor <= position && position < ends[ancestor];
+    }
+
+    /**
+     * 直接属する商品数から、配下を含めた商品数を全カテゴリについて求めるメソッド
+     *
+     * 行きがけ順の累積和の差で各カテゴリの合計を求めるため、カテゴリ数に比例した時間で求められます。
+     *
+     * @param productCounts カテゴリID → 直接属する商品数（商品のないカテゴリは省略可）
+     * @return 行きがけ順のカテゴリ別商品数
+     */
+    public List<CategoryProductCount> productCounts(Map<Long, Long> productCounts) {
+        int size = ids.size();
+        long[] prefix = new long[size + 1];
+        for (int i = 0; i < size; i++) {
+            prefix[i + 1] = prefix[i] + productCounts.getOrDefault(ids.get(i), 0L);
+        }
+        List<CategoryProductCount> counts = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            counts.add(new CategoryProductCount(ids.get(i), names[i], parentIds[i], depths[i],
+                    prefix[i + 1] - prefix[i], prefix[ends[i]] - prefix[i]));
+        }
+        return counts;
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    /**
+     * 深さ優先探索の途中状態
+     *
+     * @param node カテゴリ
+     * @param position 行きがけ順の位置
+     * @param childIndex 次に辿る子カテゴリの番号
+     */
+    private record Frame(CategoryNode node, int position, int childIndex) {
+    }
+}
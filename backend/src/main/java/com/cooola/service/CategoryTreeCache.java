@@ -0,0 +1,92 @@
+package com.cooola.service;
+
+import com.cooola.repository.ProductCategoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 商品カテゴリツリーのキャッシュ
+ *
+ * このクラスは全カテゴリから構築したCategoryTreeを保持し、カテゴリの変更時（CategoryChangeListener）に破棄します。
+ * 破棄後の最初の参照でツリー全体を構築し直して置き換えるため、参照側が構築途中のツリーを見ることはありません。
+ * 構築中にカテゴリが変更された場合、構築したツリーはその呼び出しでのみ使用し、キャッシュしません。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component                  // Springコンポーネントとして登録
+@RequiredArgsConstructor    // コンストラクタインジェクション
+@Slf4j                      // ログ機能
+public class CategoryTreeCache {
+
+    // 商品カテゴリリポジトリ
+    private final ProductCategoryRepository categoryRepository;
+
+    // ツリーの最大保持期間（データベースを直接更新した場合の保険）
+    @Value("${category-tree.expire-after-write:PT10M}")
+    private Duration expireAfterWrite;
+
+    // 構築の排他（構築中にデータベースを読むため、仮想スレッドを固定しないReentrantLockを使用）
+    private final ReentrantLock buildLock = new ReentrantLock();
+    // 破棄された回数（構築中の変更の検出用）
+    private final AtomicLong version = new AtomicLong();
+    // キャッシュ中のツリー
+    private volatile Cached cached;
+
+    /**
+     * カテゴリツリーを取得するメソッド
+     *
+     * @return カテゴリツリー
+     */
+    public CategoryTree get() {
+        Cached current = cached;
+        if (current != null && !current.isExpired(expireAfterWrite)) {
+            return current.tree();
+        }
+        buildLock.lock();
+        try {
+            current = cached;
+            if (current != null && !current.isExpired(expireAfterWrite)) {
+                return current.tree();
+            }
+            long observed = version.get();
+            long started = System.currentTimeMillis();
+            CategoryTree tree = CategoryTree.build(categoryRepository.findNodes());
+            if (version.get() == observed) {
+                cached = new Cached(tree, System.nanoTime());
+            }
+            log.debug("Category tree built: {} categories in {} ms", tree.size(), System.currentTimeMillis() - started);
+            return tree;
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    /**
+     * キャッシュ中のツリーを破棄するメソッド
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+        cached = null;
+    }
+
+    /**
+     * キャッシュ中のツリー
+     *
+     * @param tree カテゴリツリー
+     * @param builtAt 構築した時刻（System.nanoTime）
+     */
+    private record Cached(CategoryTree tree, long builtAt) {
+
+        private boolean isExpired(Duration expireAfterWrite) {
+            return System.nanoTime() - builtAt > expireAfterWrite.toNanos();
+        }
+    }
+}
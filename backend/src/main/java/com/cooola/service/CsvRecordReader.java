@@ -0,0 +1,158 @@
+package com.cooola.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSVレコード読み取りクラス
+ *
+ * RFC 4180形式のCSVを1レコードずつ読み取ります。
+ * ダブルクォートで囲まれた項目内のカンマ・改行・二重のダブルクォートに対応し、
+ * 先頭のBOMは読み飛ばします。入力全体を保持しないため、件数によらずメモリ使用量は一定です。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class CsvRecordReader {
+
+    // 読み込みバッファのサイズ
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // 入力
+    private final Reader reader;
+    // 読み込みバッファ
+    private final char[] buffer = new char[BUFFER_SIZE];
+    // バッファ内の読み取り位置
+    private int position;
+    // バッファ内の有効文字数
+    private int limit;
+
+    // 現在の行番号（1始まり）
+    private long lineNumber = 1;
+    // 直前に読み取ったレコードの開始行番号
+    private long recordLineNumber;
+    // 先頭のBOMを確認済みかどうか
+    private boolean started;
+
+    public CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * 次のレコードを読み取るメソッド
+     *
+     * 空行は読み飛ばします。
+     *
+     * @return 項目の一覧（入力の終端に達した場合はnull）
+     * @throws IOException 読み込みに失敗した場合、またはクォートが閉じられていない場合
+     */
+    public List<String> next() throws IOException {
+        if (!started) {
+            started = true;
+            if (peek() == '\uFEFF') {
+                read();
+            }
+        }
+
+        // 空行を読み飛ばす
+        int c = peek();
+        while (c == '\r' || c == '\n') {
+            readLineBreak();
+            c = peek();
+        }
+        if (c < 0) {
+            return null;
+        }
+
+        recordLineNumber = lineNumber;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            c = peek();
+            if (quoted) {
+                if (c < 0) {
+                    throw new IOException("Unterminated quoted field at line " + recordLineNumber);
+                }
+                read();
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c < 0 || c == '\r' || c == '\n') {
+                if (c >= 0) {
+                    readLineBreak();
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                read();
+                if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else {
+                    field.append((char) c);
+                }
+            }
+        }
+    }
+
+    /**
+     * 直前に読み取ったレコードの開始行番号を返却するメソッド
+     *
+     * @return 行番号（1始まり）
+     */
+    public long getRecordLineNumber() {
+        return recordLineNumber;
+    }
+
+    /**
+     * 改行（CR、LF、CRLF）を1つ読み取るメソッド
+     */
+    private void readLineBreak() throws IOException {
+        if (read() == '\r' && peek() == '\n') {
+            read();
+        }
+        lineNumber++;
+    }
+
+    /**
+     * 次の1文字を読み取らずに返却するメソッド（終端の場合は-1）
+     */
+    private int peek() throws IOException {
+        if (position >= limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position];
+    }
+
+    /**
+     * 次の1文字を読み取るメソッド（終端の場合は-1）
+     */
+    private int read() throws IOException {
+        int c = peek();
+        if (c >= 0) {
+            position++;
+        }
+        return c;
+    }
+}
@@ -0,0 +1,60 @@
+package com.cooola.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * ページングカーソルのエンコード・デコード
+ *
+ * 前ページ最後の行のソートキーを、クライアントから中身を意識されない文字列に変換します。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class CursorCodec {
+
+    // 値の区切り文字
+    private static final String SEPARATOR = "\u001F";
+
+    private CursorCodec() {
+    }
+
+    /**
+     * 値の並びをカーソル文字列に変換するメソッド
+     *
+     * @param values カーソルに含める値
+     * @return カーソル文字列
+     */
+    public static String encode(Object... values) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                sb.append(SEPARATOR);
+            }
+            sb.append(values[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * カーソル文字列を値の並びに戻すメソッド
+     *
+     * @param cursor カーソル文字列
+     * @param expectedParts 想定する値の数
+     * @return カーソルに含まれる値
+     * @throws IllegalArgumentException カーソルの形式が不正な場合
+     */
+    public static String[] decode(String cursor, int expectedParts) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(SEPARATOR, -1);
+            if (parts.length != expectedParts) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
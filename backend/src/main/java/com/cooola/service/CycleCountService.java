@@ -0,0 +1,733 @@
+package com.cooola.service;
+
+import com.cooola.dto.CountPostingResult;
+import com.cooola.dto.CountUploadResult;
+import com.cooola.dto.InventoryCountRequest;
+import com.cooola.dto.InventoryCountView;
+import com.cooola.dto.ProductScanView;
+import com.cooola.entity.InventoryMovement;
+import com.cooola.entity.Location;
+import com.cooola.repository.LocationRepository;
+import com.cooola.repository.UserRepository;
+import com.cooola.repository.WarehouseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 棚卸しサービス
+ *
+ * このクラスは倉庫全体またはロケーション配下を対象とした棚卸し（循環棚卸し）を行います。
+ * 棚卸しの登録時に、対象範囲の在庫数量を1回のINSERT ... SELECTで予定数量として明細に写し取ります。
+ * 実数はCSVのストリームで受け付け、一定件数ごとに「実数を加算し差異を再計算する」1回のバッチ更新で反映するため、
+ * 複数のスキャナーから同時に取り込んでも明細の値は行単位で正しく加算されます。
+ *
+ * 差異の在庫への反映は、実数のある明細を明細ID順に一定件数ずつ読み取り、ページごとに1トランザクションで
+ * 在庫数量を調整してADJUSTMENTとしてInventoryLedgerへ記録します。全明細をメモリに読み込まないため、
+ * 明細数の多い棚卸しでもメモリ使用量は一定です。
+ * 在庫数量は実数で置き換え、現在の在庫数量との差を調整数量として記録します。予定数量の取得後の入出庫は
+ * 実数に既に含まれるため、差異（実数 − 予定数量）を加算すると入出庫を二重に計上することになります。
+ * そのため、実数の取り込みから差異の反映までの間は対象範囲の入出庫を止めてください。
+ * ホットSKUの在庫レコードを調整した場合は、ページごとのコミット後にメモリ上のカウンターを読み直します。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Service                    // Spring Bootサービスとして登録
+@RequiredArgsConstructor    // コンストラクタインジェクション
+@Slf4j                      // ログ機能
+public class CycleCountService {
+
+    // 棚卸し番号の接頭辞
+    private static final String COUNT_NUMBER_PREFIX = "CNT";
+    // 在庫調整の理由
+    private static final String ADJUSTMENT_REASON = "Cycle count";
+
+    // CSVの列名（ヘッダー行と大文字小文字・アンダースコアを無視して照合）
+    private static final List<String> CSV_COLUMNS = List.of("location", "code", "quantity");
+
+    // 棚卸しを登録するSQL
+    private static final String INSERT_COUNT_SQL =
+            "INSERT INTO inventory_counts (warehouse_id, location_id, count_number, count_date, status, notes, " +
+            "created_by) VALUES (?, ?, ?, ?, 'IN_PROGRESS', ?, ?)";
+    // ロケーション配下のロケーションIDを求める共通テーブル式
+    private static final String SCOPE_CTE =
+            "WITH RECURSIVE scope (id) AS (SELECT id FROM locations WHERE id = :locationId " +
+            "UNION ALL SELECT l.id FROM locations l JOIN scope s ON l.parent_id = s.id) ";
+    // 倉庫全体の在庫数量を予定数量として写し取るSQL
+    private static final String SNAPSHOT_WAREHOUSE_SQL =
+            "INSERT INTO inventory_count_items (inventory_count_id, inventory_id, product_id, location_id, " +
+            "expected_quantity) SELECT :countId, id, product_id, location_id, quantity FROM inventory " +
+            "WHERE warehouse_id = :warehouseId";
+    // ロケーション配下の在庫数量を予定数量として写し取るSQL
+    private static final String SNAPSHOT_SCOPE_SQL =
+            "INSERT INTO inventory_count_items (inventory_count_id, inventory_id, product_id, location_id, " +
+            "expected_quantity) " + SCOPE_CTE + "SELECT :countId, i.id, i.product_id, i.location_id, i.quantity " +
+            "FROM inventory i JOIN scope s ON s.id = i.location_id WHERE i.warehouse_id = :warehouseId";
+    // 倉庫のロケーションを取得するSQL
+    private static final String WAREHOUSE_LOCATIONS_SQL =
+            "SELECT id, code FROM locations WHERE warehouse_id = :warehouseId";
+    // ロケーション配下のロケーションを取得するSQL
+    private static final String SCOPE_LOCATIONS_SQL =
+            SCOPE_CTE + "SELECT l.id, l.code FROM locations l JOIN scope s ON s.id = l.id";
+    // 棚卸しを取得するSQL
+    private static final String SELECT_COUNT_SQL =
+            "SELECT id, count_number, warehouse_id, location_id, count_date, status, created_by " +
+            "FROM inventory_counts WHERE id = ?";
+    // 棚卸しのステータスを共有ロック付きで取得するSQL（実数の取り込みと差異の反映開始を排他する）
+    private static final String SHARE_STATUS_SQL = "SELECT status FROM inventory_counts WHERE id = ? FOR SHARE";
+    // 棚卸しのステータスを排他ロック付きで取得するSQL
+    private static final String LOCK_STATUS_SQL = "SELECT status FROM inventory_counts WHERE id = ? FOR UPDATE";
+    // 棚卸しのステータスを更新するSQL
+    private static final String UPDATE_STATUS_SQL = "UPDATE inventory_counts SET status = ? WHERE id = ?";
+    // 明細の集計を取得するSQL
+    private static final String SUMMARY_SQL =
+            "SELECT COUNT(*) AS item_count, COUNT(counted_quantity) AS counted_items, " +
+            "COALESCE(SUM(variance <> 0), 0) AS variance_items, COUNT(adjusted_quantity) AS adjusted_items, " +
+            "COALESCE(SUM(variance), 0) AS net_variance FROM inventory_count_items WHERE inventory_count_id = ?";
+    // 実数を加算して差異を再計算するSQL（予定数量のない明細は予定数量0で追加する）
+    private static final String UPSERT_COUNTED_SQL =
+            "INSERT INTO inventory_count_items (inventory_count_id, product_id, location_id, expected_quantity, " +
+            "counted_quantity, variance) VALUES (?, ?, ?, 0, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE counted_quantity = COALESCE(counted_quantity, 0) + VALUES(counted_quantity), " +
+            "variance = counted_quantity - expected_quantity";
+    // 在庫へ反映していない実数のある明細を明細ID順に取得するSQL
+    // （予定数量の取得後に在庫が変化している可能性があるため、差異のない明細も対象とする）
+    private static final String PENDING_ITEMS_SQL =
+            "SELECT id, inventory_id, product_id, location_id, counted_quantity FROM inventory_count_items " +
+            "WHERE inventory_count_id = ? AND id > ? AND adjusted_quantity IS NULL AND counted_quantity IS NOT NULL " +
+            "ORDER BY id LIMIT ?";
+    // 商品の在庫レコードのIDを取得するSQL（在庫レコードのない明細の照合用）
+    private static final String INVENTORY_IDS_SQL =
+            "SELECT id, product_id, location_id FROM inventory " +
+            "WHERE warehouse_id = :warehouseId AND product_id IN (:productIds)";
+    // 数量0の在庫レコードを登録するSQL（同時に登録された場合は既存のレコードを使用する）
+    private static final String INSERT_INVENTORY_SQL =
+            "INSERT INTO inventory (product_id, warehouse_id, location_id, quantity, reserved_quantity, " +
+            "available_quantity) VALUES (?, ?, ?, 0, 0, 0) ON DUPLICATE KEY UPDATE quantity = quantity";
+    // 在庫レコードを商品ID・在庫ID順にロックして取得するSQL
+    private static final String LOCK_INVENTORY_SQL =
+            "SELECT id, product_id, location_id, quantity, reserved_quantity, unit_cost FROM inventory " +
+            "WHERE id IN (:ids) ORDER BY product_id, id FOR UPDATE";
+    // 在庫数量を実数で置き換えるSQL（引当可能数量は調整数量を加算する）
+    // 数量0の在庫レコードに在庫が見つかった場合は、数量を置き換える前に入庫日時を更新する
+    private static final String ADJUST_INVENTORY_SQL =
+            "UPDATE inventory SET received_at = IF(quantity = 0, CURRENT_TIMESTAMP(3), received_at), " +
+            "quantity = ?, available_quantity = available_quantity + ? WHERE id = ?";
+    // 明細に反映済みの調整数量を記録するSQL
+    private static final String MARK_ADJUSTED_SQL =
+            "UPDATE inventory_count_items SET inventory_id = ?, adjusted_quantity = ? WHERE id = ?";
+
+    // 倉庫リポジトリ
+    private final WarehouseRepository warehouseRepository;
+    // ロケーションリポジトリ
+    private final LocationRepository locationRepository;
+    // ユーザーリポジトリ
+    private final UserRepository userRepository;
+    // スキャン用の商品照会インデックス
+    private final ProductLookupIndex lookupIndex;
+    // 伝票番号採番
+    private final DocumentNumberGenerator numberGenerator;
+    // 在庫移動台帳
+    private final InventoryLedger ledger;
+    // 在庫集計
+    private final InventoryAggregates aggregates;
+    // ホットSKUのメモリ上引当
+    private final HotInventoryReservations hotReservations;
+    // バッチ更新用のJDBCテンプレート
+    private final JdbcTemplate jdbcTemplate;
+    // IN句展開用のJDBCテンプレート
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    // バッチ単位のトランザクション
+    private final TransactionTemplate transactionTemplate;
+
+    // 1バッチあたりの行数（実数の取り込み・差異の反映で共通）
+    @Value("${inventory.counts.batch-size:1000}")
+    private int batchSize;
+
+    // 結果に含めるエラー詳細の最大件数
+    @Value("${inventory.counts.max-errors:1000}")
+    private int maxErrors;
+
+    // 棚卸しID → 対象範囲のロケーションコード（取り込みごとに読み込まないよう実施中の棚卸しのみ保持する）
+    private final Map<Long, Map<String, Long>> scopes = new ConcurrentHashMap<>();
+
+    /**
+     * 棚卸しを登録し、対象範囲の予定数量を写し取るメソッド
+     *
+     * @param request 棚卸しの登録内容
+     * @return 登録された棚卸し
+     * @throws IllegalArgumentException 倉庫・ユーザー・ロケーションが存在しない場合、またはロケーションが倉庫に属さない場合
+     */
+    public InventoryCountView createCount(InventoryCountRequest request) {
+        if (request.getWarehouseId() == null || request.getCreatedBy() == null) {
+            throw new IllegalArgumentException("Warehouse and creator are required");
+        }
+        if (!warehouseRepository.existsById(request.getWarehouseId())) {
+            throw new IllegalArgumentException("Warehouse not found: " + request.getWarehouseId());
+        }
+        if (!userRepository.existsById(request.getCreatedBy())) {
+            throw new IllegalArgumentException("User not found: " + request.getCreatedBy());
+        }
+        if (request.getLocationId() != null) {
+            Location location = locationRepository.findById(request.getLocationId())
+                    .orElseThrow(() -> new IllegalArgumentException("Location not found: " + request.getLocationId()));
+            if (!Objects.equals(location.getWarehouse().getId(), request.getWarehouseId())) {
+                throw new IllegalArgumentException("Location " + request.getLocationId()
+                        + " does not belong to warehouse " + request.getWarehouseId());
+            }
+        }
+
+        long started = System.currentTimeMillis();
+        String countNumber = numberGenerator.next(COUNT_NUMBER_PREFIX);
+        LocalDate countDate = request.getCountDate() != null ? request.getCountDate() : LocalDate.now();
+        Long countId = transactionTemplate.execute(status -> {
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(INSERT_COUNT_SQL, Statement.RETURN_GENERATED_KEYS);
+                ps.setLong(1, request.getWarehouseId());
+                ps.setObject(2, request.getLocationId());
+                ps.setString(3, countNumber);
+                ps.setDate(4, Date.valueOf(countDate));
+                ps.setString(5, request.getNotes());
+                ps.setLong(6, request.getCreatedBy());
+                return ps;
+            }, keyHolder);
+            long id = Objects.requireNonNull(keyHolder.getKey()).longValue();
+
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("countId", id)
+                    .addValue("warehouseId", request.getWarehouseId())
+                    .addValue("locationId", request.getLocationId());
+            int items = namedParameterJdbcTemplate.update(
+                    request.getLocationId() == null ? SNAPSHOT_WAREHOUSE_SQL : SNAPSHOT_SCOPE_SQL, params);
+            log.info("Inventory count created: {} ({} items) in {} ms", countNumber, items,
+                    System.currentTimeMillis() - started);
+            return id;
+        });
+        return getCount(Objects.requireNonNull(countId)).orElseThrow();
+    }
+
+    /**
+     * 棚卸しの状況を取得するメソッド
+     *
+     * @param id 棚卸しID
+     * @return 棚卸しの状況
+     */
+    public Optional<InventoryCountView> getCount(Long id) {
+        return findHeader(id).map(header -> jdbcTemplate.queryForObject(SUMMARY_SQL, (rs, rowNum) ->
+                new InventoryCountView(header.id(), header.countNumber(), header.warehouseId(), header.locationId(),
+                        header.countDate(), header.status(), rs.getLong("item_count"), rs.getLong("counted_items"),
+                        rs.getLong("variance_items"), rs.getLong("adjusted_items"),
+                        rs.getBigDecimal("net_variance")), id));
+    }
+
+    /**
+     * CSV形式の実数を取り込むメソッド
+     *
+     * 1行目はヘッダー行とし、location（ロケーションコード）, code（バーコードまたはSKU）, quantity（実数）の列を持ちます。
+     * locationが空の行はロケーション未設定の在庫として扱います（倉庫全体の棚卸しのみ）。
+     * 同じロケーション・商品の実数は加算されるため、複数のスキャナーで分担して取り込めます。
+     *
+     * @param id 棚卸しID
+     * @param in 入力ストリーム
+     * @param charset 文字コード
+     * @return 取り込み結果
+     * @throws IllegalArgumentException 棚卸しが存在しない場合、ヘッダー行がない場合、または必須列がない場合
+     * @throws IllegalStateException 棚卸しが実施中でない場合
+     * @throws IOException 読み込みに失敗した場合、またはCSVの形式が不正な場合
+     */
+    public CountUploadResult uploadCsv(Long id, InputStream in, Charset charset) throws IOException {
+        Header header = findHeader(id).orElseThrow(() -> new IllegalArgumentException("Inventory count not found: " + id));
+        requireInProgress(header.status(), header.countNumber());
+
+        CsvRecordReader reader = new CsvRecordReader(new InputStreamReader(in, charset));
+        List<String> columnNames = reader.next();
+        if (columnNames == null) {
+            throw new IllegalArgumentException("CSV header is missing");
+        }
+        int[] columns = mapColumns(columnNames);
+
+        Upload upload = new Upload(header, scopes.computeIfAbsent(id, key -> loadScope(header)));
+        List<String> fields;
+        while ((fields = reader.next()) != null) {
+            upload.add(reader.getRecordLineNumber(), field(fields, columns[0]), field(fields, columns[1]),
+                    field(fields, columns[2]));
+        }
+        return upload.finish();
+    }
+
+    /**
+     * 差異を在庫へ反映して棚卸しを完了するメソッド
+     *
+     * 反映を開始した時点で棚卸しを完了とし、以降の実数の取り込みは受け付けません。
+     * 引当済み数量を下回るため反映しなかった明細は、引当を解除した後に再度このメソッドを呼び出すと反映されます。
+     *
+     * @param id 棚卸しID
+     * @param userId 操作したユーザーID（台帳に記録する、nullの場合は棚卸しの登録者）
+     * @return 反映結果
+     * @throws IllegalArgumentException 棚卸しが存在しない場合
+     * @throws IllegalStateException 取消済みの棚卸しの場合
+     */
+    public CountPostingResult postAdjustments(Long id, Long userId) {
+        Header header = findHeader(id).orElseThrow(() -> new IllegalArgumentException("Inventory count not found: " + id));
+        transactionTemplate.executeWithoutResult(status -> {
+            String current = jdbcTemplate.queryForObject(LOCK_STATUS_SQL, String.class, id);
+            if ("CANCELLED".equals(current)) {
+                throw new IllegalStateException("Inventory count is cancelled: " + header.countNumber());
+            }
+            jdbcTemplate.update(UPDATE_STATUS_SQL, "COMPLETED", id);
+        });
+        scopes.remove(id);
+
+        long started = System.currentTimeMillis();
+        Long createdBy = userId != null ? userId : header.createdBy();
+        long adjusted = 0;
+        long skipped = 0;
+        BigDecimal net = BigDecimal.ZERO;
+        long afterId = 0;
+        while (true) {
+            List<PendingItem> page = jdbcTemplate.query(PENDING_ITEMS_SQL, (rs, rowNum) -> new PendingItem(
+                    rs.getLong("id"), rs.getObject("inventory_id", Long.class), rs.getLong("product_id"),
+                    rs.getObject("location_id", Long.class), rs.getBigDecimal("counted_quantity")),
+                    id, afterId, batchSize);
+            if (page.isEmpty()) {
+                break;
+            }
+            PageOutcome outcome = Objects.requireNonNull(
+                    transactionTemplate.execute(status -> adjust(header, page, createdBy)));
+            hotReservations.refresh(outcome.inventoryIds());
+            adjusted += outcome.adjusted();
+            skipped += outcome.skipped();
+            net = net.add(outcome.net());
+            afterId = page.get(page.size() - 1).id();
+        }
+
+        long elapsed = System.currentTimeMillis() - started;
+        log.info("Inventory count posted: {} ({} adjusted, {} skipped, net {}) in {} ms", header.countNumber(),
+                adjusted, skipped, net.toPlainString(), elapsed);
+        return new CountPostingResult(header.countNumber(), adjusted, skipped, net, elapsed);
+    }
+
+    /**
+     * 棚卸しを取り消すメソッド
+     *
+     * 在庫は変更しません。
+     *
+     * @param id 棚卸しID
+     * @throws IllegalArgumentException 棚卸しが存在しない場合
+     * @throws IllegalStateException 棚卸しが実施中でない場合
+     */
+    public void cancelCount(Long id) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<String> current = jdbcTemplate.queryForList(LOCK_STATUS_SQL, String.class, id);
+            if (current.isEmpty()) {
+                throw new IllegalArgumentException("Inventory count not found: " + id);
+            }
+            requireInProgress(current.get(0), String.valueOf(id));
+            jdbcTemplate.update(UPDATE_STATUS_SQL, "CANCELLED", id);
+        });
+        scopes.remove(id);
+        log.info("Inventory count cancelled: {}", id);
+    }
+
+    /**
+     * 1ページ分の差異を在庫へ反映するメソッド（トランザクション内で呼び出す）
+     *
+     * 在庫レコードのない明細（棚卸しで見つかった商品）は数量0の在庫レコードを登録してから調整します。
+     * 実数が現在の在庫数量と一致する明細は、調整数量0として反映済みにします。
+     */
+    private PageOutcome adjust(Header header, List<PendingItem> page, Long createdBy) {
+        Map<Long, Long> inventoryIds = new HashMap<>();
+        List<PendingItem> unmatched = new ArrayList<>();
+        for (PendingItem item : page) {
+            if (item.inventoryId() != null) {
+                inventoryIds.put(item.id(), item.inventoryId());
+            } else {
+                unmatched.add(item);
+            }
+        }
+        List<Long> created = unmatched.isEmpty() ? List.of() : matchInventory(header, unmatched, inventoryIds);
+
+        Map<Long, StockRow> rows = new HashMap<>();
+        if (!inventoryIds.isEmpty()) {
+            namedParameterJdbcTemplate.query(LOCK_INVENTORY_SQL,
+                    new MapSqlParameterSource("ids", inventoryIds.values()), rs -> {
+                        rows.put(rs.getLong("id"), new StockRow(rs.getBigDecimal("quantity"),
+                                rs.getBigDecimal("reserved_quantity"), rs.getBigDecimal("unit_cost")));
+                    });
+        }
+
+        List<Object[]> inventoryArgs = new ArrayList<>(page.size());
+        List<Object[]> itemArgs = new ArrayList<>(page.size());
+        List<InventoryLedger.Movement> movements = new ArrayList<>(page.size());
+        List<InventoryAggregates.Change> changes = new ArrayList<>(page.size());
+        List<Long> adjustedIds = new ArrayList<>(page.size());
+        long skipped = 0;
+        BigDecimal net = BigDecimal.ZERO;
+        for (PendingItem item : page) {
+            Long inventoryId = inventoryIds.get(item.id());
+            StockRow row = rows.get(inventoryId);
+            if (row == null || item.counted().compareTo(row.reservedQuantity()) < 0) {
+                skipped++;
+                continue;
+            }
+            BigDecimal delta = item.counted().subtract(row.quantity());
+            itemArgs.add(new Object[]{inventoryId, delta, item.id()});
+            if (delta.signum() == 0) {
+                continue;
+            }
+            inventoryArgs.add(new Object[]{item.counted(), delta, inventoryId});
+            adjustedIds.add(inventoryId);
+            movements.add(new InventoryLedger.Movement(inventoryId, header.warehouseId(), item.productId(),
+                    item.locationId(), InventoryMovement.MovementType.ADJUSTMENT, delta,
+                    header.countNumber(), ADJUSTMENT_REASON, createdBy));
+            changes.add(new InventoryAggregates.Change(header.warehouseId(), item.productId(),
+                    created.contains(inventoryId) ? null : row.quantity(), row.unitCost(), item.counted(),
+                    row.unitCost()));
+            net = net.add(delta);
+        }
+        if (!itemArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(MARK_ADJUSTED_SQL, itemArgs);
+        }
+        if (!inventoryArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(ADJUST_INVENTORY_SQL, inventoryArgs);
+            ledger.record(movements);
+            aggregates.record(changes);
+        }
+        return new PageOutcome(inventoryArgs.size(), skipped, net, adjustedIds);
+    }
+
+    /**
+     * 在庫レコードのない明細を在庫レコードと照合し、存在しない場合は登録するメソッド
+     *
+     * @param inventoryIds 明細ID → 在庫ID（照合結果を追加する）
+     * @return 登録した在庫レコードのID
+     */
+    private List<Long> matchInventory(Header header, List<PendingItem> items, Map<Long, Long> inventoryIds) {
+        Map<StockKey, Long> existing = findInventoryIds(header.warehouseId(), items);
+        List<Object[]> inserts = new ArrayList<>();
+        items.stream()
+                .map(item -> new StockKey(item.productId(), item.locationId()))
+                .filter(key -> !existing.containsKey(key))
+                .distinct()
+                .sorted(Comparator.comparing(StockKey::productId)
+                        .thenComparing(StockKey::locationId, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .forEach(key -> inserts.add(new Object[]{key.productId(), header.warehouseId(), key.locationId()}));
+        List<Long> created = new ArrayList<>();
+        Map<StockKey, Long> all = existing;
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_INVENTORY_SQL, inserts);
+            all = findInventoryIds(header.warehouseId(), items);
+            all.forEach((key, inventoryId) -> {
+                if (!existing.containsKey(key)) {
+                    created.add(inventoryId);
+                }
+            });
+        }
+        for (PendingItem item : items) {
+            Long inventoryId = all.get(new StockKey(item.productId(), item.locationId()));
+            if (inventoryId != null) {
+                inventoryIds.put(item.id(), inventoryId);
+            }
+        }
+        return created;
+    }
+
+    /**
+     * 明細の商品の在庫レコードIDを取得するメソッド
+     */
+    private Map<StockKey, Long> findInventoryIds(Long warehouseId, List<PendingItem> items) {
+        Map<StockKey, Long> ids = new HashMap<>();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("warehouseId", warehouseId)
+                .addValue("productIds", items.stream().map(PendingItem::productId).distinct().toList());
+        namedParameterJdbcTemplate.query(INVENTORY_IDS_SQL, params, rs -> {
+            ids.putIfAbsent(new StockKey(rs.getLong("product_id"), rs.getObject("location_id", Long.class)),
+                    rs.getLong("id"));
+        });
+        return ids;
+    }
+
+    /**
+     * 棚卸しの対象範囲のロケーションコードを読み込むメソッド
+     *
+     * @return ロケーションコード → ロケーションID
+     */
+    private Map<String, Long> loadScope(Header header) {
+        Map<String, Long> codes = new HashMap<>();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("warehouseId", header.warehouseId())
+                .addValue("locationId", header.locationId());
+        namedParameterJdbcTemplate.query(header.locationId() == null ? WAREHOUSE_LOCATIONS_SQL : SCOPE_LOCATIONS_SQL,
+                params, rs -> {
+                    codes.put(rs.getString("code"), rs.getLong("id"));
+                });
+        return codes;
+    }
+
+    /**
+     * 棚卸しを取得するメソッド
+     */
+    private Optional<Header> findHeader(Long id) {
+        return jdbcTemplate.query(SELECT_COUNT_SQL, (rs, rowNum) -> new Header(rs.getLong("id"),
+                rs.getString("count_number"), rs.getLong("warehouse_id"), rs.getObject("location_id", Long.class),
+                rs.getDate("count_date").toLocalDate(), rs.getString("status"), rs.getLong("created_by")), id)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * 棚卸しが実施中であることを検証するメソッド
+     */
+    private static void requireInProgress(String status, String countNumber) {
+        if (!"IN_PROGRESS".equals(status)) {
+            throw new IllegalStateException("Inventory count is not in progress: " + countNumber + " (" + status + ")");
+        }
+    }
+
+    /**
+     * ヘッダー行から各列の位置を求めるメソッド
+     *
+     * @return CSV_COLUMNSの順に並んだ列位置
+     * @throws IllegalArgumentException 列がない場合
+     */
+    private static int[] mapColumns(List<String> header) {
+        List<String> names = header.stream()
+                .map(name -> name.strip().replace("_", "").toLowerCase(Locale.ROOT))
+                .toList();
+        int[] columns = new int[CSV_COLUMNS.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = names.indexOf(CSV_COLUMNS.get(i));
+            if (columns[i] < 0) {
+                throw new IllegalArgumentException("Required CSV column is missing: " + CSV_COLUMNS.get(i));
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * 指定位置の項目を前後の空白を除去して取得するメソッド（空の場合はnull）
+     */
+    private static String field(List<String> fields, int column) {
+        if (column >= fields.size() || fields.get(column).isBlank()) {
+            return null;
+        }
+        return fields.get(column).strip();
+    }
+
+    /**
+     * 1回の取り込み処理の状態
+     *
+     * 読み込み中の行をロケーション・商品ごとに合算してバッチにまとめ、件数とエラーを集計します。
+     */
+    private class Upload {
+
+        // 処理開始時刻
+        private final long started = System.currentTimeMillis();
+        // 棚卸し
+        private final Header header;
+        // 対象範囲のロケーションコード → ロケーションID
+        private final Map<String, Long> locations;
+        // 反映待ちの実数（ロック順を揃えるためロケーション・商品の順に並べる）
+        private final Map<StockKey, BigDecimal> batch = new TreeMap<>(StockKey.ORDER);
+        // 反映待ちの行数
+        private long batchRows;
+        // エラー詳細
+        private final List<CountUploadResult.RowError> errors = new ArrayList<>();
+
+        private long totalRows;
+        private long acceptedRows;
+        private long failedRows;
+        private boolean errorsTruncated;
+
+        private Upload(Header header, Map<String, Long> locations) {
+            this.header = header;
+            this.locations = locations;
+        }
+
+        /**
+         * 1行を検証してバッチに追加するメソッド
+         */
+        void add(long line, String locationCode, String code, String quantity) {
+            totalRows++;
+            Long locationId = null;
+            if (locationCode != null) {
+                locationId = locations.get(locationCode);
+                if (locationId == null) {
+                    recordError(line, "Location is not in count scope: " + locationCode);
+                    return;
+                }
+            } else if (header.locationId() != null) {
+                recordError(line, "Location is required");
+                return;
+            }
+            if (code == null) {
+                recordError(line, "Product code is required");
+                return;
+            }
+            ProductScanView product = lookupIndex.findByBarcode(code);
+            if (product == null) {
+                product = lookupIndex.findBySku(code);
+            }
+            if (product == null) {
+                recordError(line, "Unknown product code: " + code);
+                return;
+            }
+            BigDecimal counted;
+            try {
+                counted = quantity == null ? null : new BigDecimal(quantity);
+            } catch (NumberFormatException e) {
+                counted = null;
+            }
+            if (counted == null || counted.signum() < 0 || counted.stripTrailingZeros().scale() > 3) {
+                recordError(line, "Invalid quantity: " + quantity);
+                return;
+            }
+
+            batch.merge(new StockKey(product.id(), locationId), counted, BigDecimal::add);
+            batchRows++;
+            if (batchRows >= batchSize) {
+                flush();
+            }
+        }
+
+        /**
+         * 残りの行を反映して結果を返却するメソッド
+         */
+        CountUploadResult finish() {
+            flush();
+            long elapsed = System.currentTimeMillis() - started;
+            log.info("Inventory count upload finished: {} ({} rows, {} accepted, {} failed) in {} ms",
+                    header.countNumber(), totalRows, acceptedRows, failedRows, elapsed);
+            return new CountUploadResult(totalRows, acceptedRows, failedRows,
+                    Collections.unmodifiableList(errors), errorsTruncated, elapsed);
+        }
+
+        /**
+         * バッチの実数を明細へ加算するメソッド
+         *
+         * 棚卸しの共有ロックを取って実施中であることを確認するため、差異の反映開始後には加算されません。
+         *
+         * @throws IllegalStateException 棚卸しが実施中でなくなった場合
+         */
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<Object[]> args = new ArrayList<>(batch.size());
+            batch.forEach((key, counted) ->
+                    args.add(new Object[]{header.id(), key.productId(), key.locationId(), counted, counted}));
+            transactionTemplate.executeWithoutResult(status -> {
+                requireInProgress(jdbcTemplate.queryForObject(SHARE_STATUS_SQL, String.class, header.id()),
+                        header.countNumber());
+                jdbcTemplate.batchUpdate(UPSERT_COUNTED_SQL, args);
+            });
+            acceptedRows += batchRows;
+            batch.clear();
+            batchRows = 0;
+        }
+
+        private void recordError(long line, String message) {
+            failedRows++;
+            if (errors.size() < maxErrors) {
+                errors.add(new CountUploadResult.RowError(line, message));
+            } else {
+                errorsTruncated = true;
+            }
+        }
+    }
+
+    /**
+     * 棚卸し
+     *
+     * @param id 棚卸しID
+     * @param countNumber 棚卸し番号
+     * @param warehouseId 倉庫ID
+     * @param locationId 対象範囲のロケーションID
+     * @param countDate 棚卸し日
+     * @param status ステータス
+     * @param createdBy 登録者のユーザーID
+     */
+    private record Header(Long id, String countNumber, Long warehouseId, Long locationId, LocalDate countDate,
+                          String status, Long createdBy) {
+    }
+
+    /**
+     * 在庫へ反映していない明細
+     *
+     * @param id 明細ID
+     * @param inventoryId 在庫ID（在庫レコードのない商品の場合はnull）
+     * @param productId 商品ID
+     * @param locationId ロケーションID
+     * @param counted 実数
+     */
+    private record PendingItem(Long id, Long inventoryId, Long productId, Long locationId, BigDecimal counted) {
+    }
+
+    /**
+     * ロケーション・商品の組
+     *
+     * @param productId 商品ID
+     * @param locationId ロケーションID（未設定の場合はnull）
+     */
+    private record StockKey(Long productId, Long locationId) {
+
+        /**
+         * ロケーションID（未設定を先頭）、商品IDの昇順（明細の一意キーと同じ順序）
+         */
+        private static final Comparator<StockKey> ORDER =
+                Comparator.comparing(StockKey::locationId, Comparator.nullsFirst(Comparator.naturalOrder()))
+                        .thenComparing(StockKey::productId);
+    }
+
+    /**
+     * ロック取得時の在庫レコードの値
+     *
+     * @param quantity 在庫数量
+     * @param reservedQuantity 引当済み数量
+     * @param unitCost 単価
+     */
+    private record StockRow(BigDecimal quantity, BigDecimal reservedQuantity, BigDecimal unitCost) {
+    }
+
+    /**
+     * 1ページ分の反映結果
+     *
+     * @param adjusted 調整した明細数
+     * @param skipped 反映しなかった明細数
+     * @param net 調整数量の合計
+     * @param inventoryIds 調整した在庫ID
+     */
+    private record PageOutcome(long adjusted, long skipped, BigDecimal net, List<Long> inventoryIds) {
+    }
+}
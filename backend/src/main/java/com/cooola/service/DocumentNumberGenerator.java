@@ -0,0 +1,189 @@
+package com.cooola.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 伝票番号採番クラス
+ *
+ * このクラスは「接頭辞-日時(秒)-ノードコード+連番」形式の伝票番号を、データベースを参照せずに採番します。
+ * 同一秒内の連番が上限に達した場合は次の秒の番号を先取りするため、番号は常に単調増加します。
+ *
+ * ノードコードは起動時にデータベース（document_number_nodes）から空いているものを借り受けるため、
+ * 同じ設定で複数インスタンスを起動してもインスタンスごとに異なります。空きがない場合は起動に失敗します。
+ * 借り受けは稼働中に定期的に延長し、延長できないまま期限を過ぎた場合は、
+ * 他のインスタンスが同じコードを使用している可能性があるため、借り受け直すまで採番しません。
+ * 借り受け・延長のデータベース更新はロックの外で行い、ロックは採番の状態を読み書きする間だけ保持します
+ * （採番を待たせず、仮想スレッドも固定しないようReentrantLockを使用します）。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component                  // Springコンポーネントとして登録
+@RequiredArgsConstructor    // コンストラクタインジェクション
+@Slf4j                      // ログ機能
+public class DocumentNumberGenerator {
+
+    // 日時部分の書式
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    // 1秒あたりの最大連番
+    private static final int MAX_PER_SECOND = 99999;
+
+    // 空いているノードコードを1つ借り受けるSQL（期限切れのコードも対象）
+    private static final String CLAIM_SQL =
+            "UPDATE document_number_nodes SET owner = ?, lease_expires_at = NOW(3) + INTERVAL ? SECOND " +
+            "WHERE owner IS NULL OR lease_expires_at < NOW(3) ORDER BY node_code LIMIT 1";
+    // 借り受けたノードコードを取得するSQL
+    private static final String OWNED_SQL = "SELECT node_code FROM document_number_nodes WHERE owner = ?";
+    // 借り受け期間を延長するSQL
+    private static final String RENEW_SQL =
+            "UPDATE document_number_nodes SET lease_expires_at = NOW(3) + INTERVAL ? SECOND " +
+            "WHERE node_code = ? AND owner = ?";
+    // ノードコードを返却するSQL
+    private static final String RELEASE_SQL =
+            "UPDATE document_number_nodes SET owner = NULL, lease_expires_at = NULL WHERE node_code = ? AND owner = ?";
+
+    // ノードコードの借り受け用のJDBCテンプレート
+    private final JdbcTemplate jdbcTemplate;
+
+    // ノードコードの借り受け期間
+    @Value("${document-number.lease-ttl:PT1M}")
+    private Duration leaseTtl;
+
+    // このインスタンスの識別子（借り受けの所有者）
+    private final String owner = UUID.randomUUID().toString();
+    // 以下の採番の状態の排他
+    private final ReentrantLock lock = new ReentrantLock();
+    // 借り受け中のノードコード
+    private String nodeCode;
+    // 借り受けが有効な期限（System.nanoTime基準。データベース上の期限より前になるよう、更新の実行前の時刻から計算する）
+    private long leaseValidUntil;
+
+    // 採番中の秒（エポック秒）
+    private long currentSecond;
+    // 採番中の秒内の連番
+    private int counter;
+
+    /**
+     * 起動時にノードコードを借り受けるメソッド
+     *
+     * @throws IllegalStateException 空いているノードコードがない場合
+     */
+    @PostConstruct
+    public void claim() {
+        long started = System.nanoTime();
+        jdbcTemplate.update(CLAIM_SQL, owner, leaseTtl.toSeconds());
+        List<String> codes = jdbcTemplate.queryForList(OWNED_SQL, String.class, owner);
+        if (codes.isEmpty()) {
+            throw new IllegalStateException("No document number node code available");
+        }
+        String code = codes.get(0);
+        lock.lock();
+        try {
+            nodeCode = code;
+            leaseValidUntil = started + leaseTtl.toNanos();
+        } finally {
+            lock.unlock();
+        }
+        log.info("Document number node code claimed: {}", code);
+    }
+
+    /**
+     * ノードコードの借り受け期間を延長するメソッド
+     *
+     * 他のインスタンスに借り受けられていた場合は、空いているノードコードを借り受け直します。
+     */
+    @Scheduled(fixedDelayString = "${document-number.renew-interval:PT15S}")
+    public void renew() {
+        String code = currentNodeCode();
+        long started = System.nanoTime();
+        if (jdbcTemplate.update(RENEW_SQL, leaseTtl.toSeconds(), code, owner) > 0) {
+            lock.lock();
+            try {
+                // 延長中に借り受け直していた場合は、新しいコードの期限を上書きしない
+                if (code.equals(nodeCode)) {
+                    leaseValidUntil = started + leaseTtl.toNanos();
+                }
+            } finally {
+                lock.unlock();
+            }
+            return;
+        }
+        log.warn("Document number node code lease lost: {}", code);
+        claim();
+    }
+
+    /**
+     * 停止時にノードコードを返却するメソッド
+     */
+    @PreDestroy
+    public void release() {
+        String code = currentNodeCode();
+        if (code != null) {
+            jdbcTemplate.update(RELEASE_SQL, code, owner);
+        }
+    }
+
+    /**
+     * 伝票番号を採番するメソッド
+     *
+     * @param prefix 接頭辞（例: OUT、WAVE）
+     * @return 伝票番号（例: OUT-20240101093000-0100001）
+     * @throws IllegalStateException ノードコードの借り受け期限が切れている場合
+     */
+    public String next(String prefix) {
+        long second;
+        int sequence;
+        String code;
+        lock.lock();
+        try {
+            if (System.nanoTime() - leaseValidUntil > 0) {
+                throw new IllegalStateException("Document number node code lease expired: " + nodeCode);
+            }
+            long now = System.currentTimeMillis() / 1000;
+            if (now > currentSecond) {
+                currentSecond = now;
+                counter = 0;
+            }
+            if (counter >= MAX_PER_SECOND) {
+                currentSecond++;
+                counter = 0;
+            }
+            second = currentSecond;
+            sequence = ++counter;
+            code = nodeCode;
+        } finally {
+            lock.unlock();
+        }
+        String timestamp = FORMAT.format(LocalDateTime.ofInstant(Instant.ofEpochSecond(second), ZoneId.systemDefault()));
+        return String.format("%s-%s-%s%05d", prefix, timestamp, code, sequence);
+    }
+
+    /**
+     * 借り受け中のノードコードを返却するメソッド
+     */
+    private String currentNodeCode() {
+        lock.lock();
+        try {
+            return nodeCode;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,723 @@
+package com.cooola.service;
+
+import com.cooola.dto.InventoryAllocation;
+import com.cooola.entity.Product;
+import com.cooola.repository.InventoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * ホットSKUのメモリ上在庫引当
+ *
+ * このクラスは出荷頻度の高い在庫レコードについて、引当可能数量をメモリ上の分割カウンターで保持し、
+ * 引当の可否を在庫レコードの行ロックを取らずに判定します。
+ * 引当・解除の数量変化は呼び出し元のトランザクション内で inventory_hot_deltas に記録するため、
+ * ロールバックされた引当は記録されず、コミットされた解除は異常終了しても失われません。
+ * 記録は一定間隔で在庫レコードへまとめて反映し、反映と同一トランザクションで削除します。
+ *
+ * 対象の在庫レコードは起動時に inventory_hot_owners で所有を宣言し、稼働中の他のノードが所有している場合は
+ * 起動を失敗させます。所有されている在庫レコードは、所有ノード以外ではデータベース上の引当を行いません。
+ * 反映のたびにデータベースの引当可能数量からカウンターを再計算するため、入庫・棚卸し・他ノードでの変更も
+ * 反映間隔以内にカウンターへ反映されます。
+ * 有効期限・入庫日時も反映のたびに読み直し、引当候補は商品の引当方式（LotAllocator）と同じ条件・順序で返却します。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component                  // Springコンポーネントとして登録
+@RequiredArgsConstructor    // コンストラクタインジェクション
+@Slf4j                      // ログ機能
+public class HotInventoryReservations {
+
+    // 数量の小数点以下桁数（DECIMAL(10,3)）
+    private static final int SCALE = 3;
+    // 1回の読み取りで反映する数量変化の最大件数
+    private static final int APPLY_BATCH = 10000;
+
+    // ノードの稼働を記録するSQL
+    private static final String HEARTBEAT_SQL = "INSERT INTO inventory_hot_nodes (node_id, heartbeat_at) " +
+            "VALUES (?, NOW(3)) ON DUPLICATE KEY UPDATE heartbeat_at = NOW(3)";
+    // 稼働中の他のノードが所有する対象レコードをロックして取得するSQL
+    private static final String LOCK_LIVE_OWNERS_SQL =
+            "SELECT o.inventory_id, o.node_id FROM inventory_hot_owners o " +
+            "JOIN inventory_hot_nodes n ON n.node_id = o.node_id " +
+            "WHERE o.inventory_id IN (:ids) AND o.node_id <> :nodeId " +
+            "AND n.heartbeat_at >= NOW(3) - INTERVAL :leaseMicros MICROSECOND FOR UPDATE";
+    // 対象レコードの所有を記録するSQL
+    private static final String CLAIM_SQL = "INSERT INTO inventory_hot_owners (inventory_id, node_id, claimed_at) " +
+            "VALUES (?, ?, NOW(3)) ON DUPLICATE KEY UPDATE node_id = VALUES(node_id), claimed_at = VALUES(claimed_at)";
+    // 自ノードが所有する対象レコードを取得するSQL
+    private static final String OWNED_SQL = "SELECT inventory_id FROM inventory_hot_owners WHERE node_id = ?";
+    // 自ノードが所有する対象レコードをロックして取得するSQL
+    private static final String LOCK_OWNED_SQL =
+            "SELECT inventory_id FROM inventory_hot_owners WHERE node_id = ? FOR UPDATE";
+    // 他のノードが所有する対象レコードを取得するSQL
+    private static final String FOREIGN_SQL = "SELECT inventory_id FROM inventory_hot_owners WHERE node_id <> ?";
+    // 所有を解除するSQL
+    private static final String DISOWN_SQL = "DELETE FROM inventory_hot_owners WHERE node_id = ?";
+    // ノードを削除するSQL
+    private static final String DELETE_NODE_SQL = "DELETE FROM inventory_hot_nodes WHERE node_id = ?";
+    // 数量変化を記録するSQL（自ノードが所有していない場合は記録しない。所有の移動とは共有ロックで排他する）
+    private static final String RECORD_SQL = "INSERT INTO inventory_hot_deltas (inventory_id, delta) " +
+            "SELECT inventory_id, ? FROM inventory_hot_owners WHERE inventory_id = ? AND node_id = ? FOR SHARE";
+    // コミット済みの数量変化を取得するSQL
+    private static final String PENDING_SQL = "SELECT id, inventory_id, delta FROM inventory_hot_deltas " +
+            "WHERE inventory_id IN (:ids) ORDER BY id LIMIT :limit";
+    // 反映した数量変化を削除するSQL
+    private static final String DELETE_APPLIED_SQL = "DELETE FROM inventory_hot_deltas WHERE id = ?";
+    // 数量変化の反映SQL
+    private static final String APPLY_SQL = "UPDATE inventory SET reserved_quantity = reserved_quantity + ?, " +
+            "available_quantity = available_quantity - ? WHERE id = ?";
+    // 反映後の引当可能数量・有効期限・入庫日時を取得するSQL
+    private static final String AVAILABLE_SQL =
+            "SELECT id, available_quantity, expiry_date, received_at FROM inventory WHERE id IN (:ids)";
+    // 対象レコード以外にも引当可能数量のある在庫レコードがある商品・倉庫を取得するSQL
+    private static final String OTHER_LOTS_SQL =
+            "SELECT DISTINCT product_id, warehouse_id FROM inventory WHERE product_id IN (:productIds) " +
+            "AND id NOT IN (:ids) AND available_quantity > 0";
+
+    // 在庫リポジトリ
+    private final InventoryRepository inventoryRepository;
+    // 数量変化の記録・反映用のJDBCテンプレート
+    private final JdbcTemplate jdbcTemplate;
+    // IN句展開用のJDBCテンプレート
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    // 所有の宣言・反映処理のトランザクション
+    private final TransactionTemplate transactionTemplate;
+
+    // メモリ上引当の有効化
+    @Value("${inventory.hot-reservation.enabled:false}")
+    private boolean enabled;
+
+    // 対象の在庫ID
+    @Value("${inventory.hot-reservation.inventory-ids:}")
+    private List<Long> inventoryIds;
+
+    // 1レコードあたりのカウンター分割数（0の場合はCPUコア数）
+    @Value("${inventory.hot-reservation.stripes:0}")
+    private int stripes;
+
+    // ノードIDの接頭辞（空の場合はホスト名。起動ごとに乱数を付加して一意にする）
+    @Value("${inventory.hot-reservation.node-name:}")
+    private String nodeName;
+
+    // 稼働の記録がこの時間を超えて更新されないノードは停止したものとみなす
+    @Value("${inventory.hot-reservation.lease:PT10S}")
+    private Duration lease;
+
+    // データベースへの反映間隔
+    @Value("${inventory.hot-reservation.flush-interval:PT1S}")
+    private Duration flushInterval;
+
+    // 在庫ID → カウンター（起動後は変更しない）
+    private final Map<Long, HotRow> rows = new HashMap<>();
+    // 他のノードが所有する在庫ID（反映のたびに読み直す）
+    private volatile Set<Long> foreignRows = Set.of();
+    // 対象レコード以外の引当可能な在庫レコードがある商品・倉庫（反映のたびに読み直す。読み込み前はnull）
+    private volatile Set<ProductWarehouse> productsWithOtherLots;
+    // このノードのID
+    private String nodeId;
+    // カウンターへの読み込みを開始する時刻（System.nanoTime）
+    private long readyAt;
+    // 反映処理の排他（データベースへの書き込み中も保持するため、ReentrantLockを使用）
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /**
+     * 起動時に対象レコードの所有を宣言するメソッド
+     *
+     * 他のノードが対象レコードを所有済みと認識するまでの間（反映間隔の2倍）は、カウンターを0のままにします。
+     *
+     * @throws IllegalStateException 稼働中の他のノードが対象レコードを所有している場合
+     */
+    @PostConstruct
+    public void start() {
+        nodeId = resolveNodeId();
+        if (enabled && !inventoryIds.isEmpty()) {
+            claim();
+            int count = stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors();
+            for (InventoryAllocation row : inventoryRepository.findAllocationsByIdIn(inventoryIds)) {
+                rows.put(row.inventoryId(), new HotRow(row, count));
+            }
+            readyAt = System.nanoTime() + flushInterval.multipliedBy(2).toNanos();
+            log.info("Hot inventory reservations enabled for {} rows on node {} ({} stripes each)",
+                    rows.size(), nodeId, count);
+        }
+        try {
+            refreshForeignRows();
+        } catch (DataAccessException e) {
+            log.warn("Failed to load hot inventory owners, will retry: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 終了時に数量変化を反映して所有を解除するメソッド
+     *
+     * 所有レコードをロックしてから反映するため、解除後に反映されない数量変化は残りません。
+     * 反映に失敗した場合は所有を残し、次に起動したノードが反映します。
+     */
+    @PreDestroy
+    public void stop() {
+        if (rows.isEmpty()) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Long> owned = jdbcTemplate.queryForList(LOCK_OWNED_SQL, Long.class, nodeId);
+                if (!owned.isEmpty()) {
+                    applyPending(owned);
+                }
+                jdbcTemplate.update(DISOWN_SQL, nodeId);
+                jdbcTemplate.update(DELETE_NODE_SQL, nodeId);
+            });
+        } catch (DataAccessException e) {
+            log.warn("Failed to release hot inventory rows, they stay reserved until another node claims them: {}",
+                    e.getMessage());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 在庫レコードがメモリ上引当の対象かどうかを返却するメソッド
+     *
+     * 他のノードが所有する在庫レコードも対象として扱い、データベース上の引当の候補から除きます。
+     *
+     * @param inventoryId 在庫ID
+     * @return 対象の場合はtrue
+     */
+    public boolean isHot(Long inventoryId) {
+        return rows.containsKey(inventoryId) || foreignRows.contains(inventoryId);
+    }
+
+    /**
+     * 指定商品・倉庫に対象レコード以外の引当可能な在庫レコードがあるかどうかを返却するメソッド
+     *
+     * ない場合、呼び出し元は対象レコードだけで引当できれば在庫レコードの行ロックを取らずに引当できます。
+     * 反映のたびに読み直すため、反映間隔以内の入庫などは反映されていない場合があります。
+     *
+     * @param productId 商品ID
+     * @param warehouseId 倉庫ID
+     * @return ある場合、またはまだ読み込んでいない場合はtrue
+     */
+    public boolean hasOtherLots(Long productId, Long warehouseId) {
+        Set<ProductWarehouse> other = productsWithOtherLots;
+        return other == null || other.contains(new ProductWarehouse(productId, warehouseId));
+    }
+
+    /**
+     * 指定商品・倉庫の対象レコードを引当方式の順に返却するメソッド
+     *
+     * FEFOでは期限切れのロットを除き、有効期限の近い順に並べます（LotAllocatorと同じ条件・順序）。
+     * 呼び出し元はLotAllocatorがロックしたロットと合わせて、LotAllocator.orderで並べ直して引当します。
+     *
+     * @param productId 商品ID
+     * @param warehouseId 倉庫ID
+     * @param strategy 商品の引当方式
+     * @param today 基準日
+     * @return このノードで引当できる対象レコードのロット（数量は現在の引当可能数量）
+     */
+    public List<LotAllocator.Lot> findAllocatable(Long productId, Long warehouseId,
+                                                  Product.AllocationStrategy strategy, LocalDate today) {
+        if (rows.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<LotAllocator.Lot> result = new ArrayList<>();
+        for (HotRow row : rows.values()) {
+            InventoryAllocation info = row.info();
+            long available = row.total();
+            if (info.productId().equals(productId) && info.warehouseId().equals(warehouseId) && available > 0
+                    && LotAllocator.isAllocatable(strategy, row.expiryDate(), today)) {
+                result.add(new LotAllocator.Lot(info.withQuantity(BigDecimal.valueOf(available, SCALE)),
+                        row.expiryDate(), row.receivedAt(), true));
+            }
+        }
+        result.sort(LotAllocator.order(strategy));
+        return result;
+    }
+
+    /**
+     * 在庫を引当するメソッド
+     *
+     * 引当可能数量が要求数量に満たない場合は、引当可能な分だけを引当します。
+     * 数量変化は呼び出し元のトランザクション内で記録し、ロールバックされた場合はカウンターに戻します。
+     *
+     * @param inventoryId 在庫ID
+     * @param quantity 要求数量
+     * @return 引当した数量（所有が他のノードに移った場合は0）
+     * @throws IllegalArgumentException 数量の小数点以下が3桁を超える場合
+     */
+    public BigDecimal reserve(Long inventoryId, BigDecimal quantity) {
+        HotRow row = rows.get(inventoryId);
+        if (row == null) {
+            return BigDecimal.ZERO;
+        }
+        long taken = row.take(toUnits(quantity));
+        if (taken == 0) {
+            return BigDecimal.ZERO;
+        }
+        try {
+            if (!record(inventoryId, taken)) {
+                row.give(taken);
+                lose(row);
+                return BigDecimal.ZERO;
+            }
+        } catch (RuntimeException e) {
+            row.give(taken);
+            throw e;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        row.give(taken);
+                    }
+                }
+            });
+        }
+        return BigDecimal.valueOf(taken, SCALE);
+    }
+
+    /**
+     * 引当を解除するメソッド
+     *
+     * 数量変化は呼び出し元のトランザクション内で記録し、カウンターにはコミット後に戻します。
+     *
+     * @param inventoryId 在庫ID
+     * @param quantity 解除数量
+     * @throws IllegalArgumentException 数量の小数点以下が3桁を超える場合
+     * @throws IllegalStateException 在庫レコードを他のノードが所有している場合
+     */
+    public void release(Long inventoryId, BigDecimal quantity) {
+        HotRow row = rows.get(inventoryId);
+        long units = toUnits(quantity);
+        if (row == null || !record(inventoryId, -units)) {
+            throw new IllegalStateException("Hot inventory row is owned by another node: " + inventoryId);
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            row.give(units);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                row.give(units);
+            }
+        });
+    }
+
+    /**
+     * 在庫レコードの数量を直接変更した後に、カウンターを読み直すメソッド
+     *
+     * このノードが所有する在庫レコードを含む場合は、反映間隔を待たずに読み直します。
+     * 他のノードが所有する在庫レコードは、そのノードの次回の反映で読み直されます。
+     *
+     * @param inventoryIds 数量を変更した在庫ID（コミット後に呼び出す）
+     */
+    public void refresh(Collection<Long> inventoryIds) {
+        if (rows.isEmpty() || inventoryIds.stream().noneMatch(rows::containsKey)) {
+            return;
+        }
+        flush();
+    }
+
+    /**
+     * 記録済みの数量変化を在庫レコードへ反映し、カウンターを読み直すメソッド
+     *
+     * 反映に失敗した場合は記録を残し、次回にまとめて反映します。
+     */
+    @Scheduled(fixedDelayString = "${inventory.hot-reservation.flush-interval:PT1S}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            refreshForeignRows();
+            if (!rows.isEmpty()) {
+                heartbeat();
+                reconcile();
+            }
+        } catch (DataAccessException e) {
+            log.error("Failed to apply hot inventory reservations, will retry: {}", e.getMessage());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 対象レコードの所有を宣言するメソッド
+     */
+    private void claim() {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", inventoryIds)
+                .addValue("nodeId", nodeId)
+                .addValue("leaseMicros", lease.toNanos() / 1000);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(HEARTBEAT_SQL, nodeId);
+            List<String> held = namedParameterJdbcTemplate.query(LOCK_LIVE_OWNERS_SQL, params,
+                    (rs, rowNum) -> rs.getLong("inventory_id") + " (" + rs.getString("node_id") + ")");
+            if (!held.isEmpty()) {
+                throw new IllegalStateException("Hot inventory rows are owned by another running node: " + held);
+            }
+            List<Object[]> args = inventoryIds.stream()
+                    .sorted()
+                    .map(inventoryId -> new Object[]{inventoryId, nodeId})
+                    .toList();
+            jdbcTemplate.batchUpdate(CLAIM_SQL, args);
+        });
+    }
+
+    /**
+     * 稼働を記録し、所有が他のノードに移った在庫レコードの引当を停止するメソッド
+     */
+    private void heartbeat() {
+        jdbcTemplate.update(HEARTBEAT_SQL, nodeId);
+        Set<Long> owned = new HashSet<>(jdbcTemplate.queryForList(OWNED_SQL, Long.class, nodeId));
+        for (HotRow row : rows.values()) {
+            if (!row.isLost() && !owned.contains(row.info().inventoryId())) {
+                lose(row);
+            }
+        }
+    }
+
+    /**
+     * 他のノードが所有する在庫IDを読み直すメソッド
+     */
+    private void refreshForeignRows() {
+        foreignRows = Set.copyOf(jdbcTemplate.queryForList(FOREIGN_SQL, Long.class, nodeId));
+    }
+
+    /**
+     * 数量変化を反映し、反映後の引当可能数量からカウンターを再計算するメソッド
+     */
+    private void reconcile() {
+        List<Long> ids = rows.values().stream()
+                .filter(row -> !row.isLost())
+                .map(row -> row.info().inventoryId())
+                .toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> available = new HashMap<>();
+        Map<Long, LocalDate> expiryDates = new HashMap<>();
+        Map<Long, LocalDateTime> receivedAts = new HashMap<>();
+        Set<ProductWarehouse> otherLots = new HashSet<>();
+        Map<Long, Long> applied = transactionTemplate.execute(status -> {
+            Map<Long, Long> deltas = applyPending(ids);
+            namedParameterJdbcTemplate.query(AVAILABLE_SQL, new MapSqlParameterSource("ids", ids), rs -> {
+                available.put(rs.getLong("id"), toUnits(rs.getBigDecimal("available_quantity")));
+                Date expiryDate = rs.getDate("expiry_date");
+                if (expiryDate != null) {
+                    expiryDates.put(rs.getLong("id"), expiryDate.toLocalDate());
+                }
+                receivedAts.put(rs.getLong("id"), rs.getTimestamp("received_at").toLocalDateTime());
+            });
+            Set<Long> hotIds = new HashSet<>(rows.keySet());
+            hotIds.addAll(foreignRows);
+            Set<Long> productIds = new HashSet<>();
+            rows.values().forEach(row -> productIds.add(row.info().productId()));
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("productIds", productIds)
+                    .addValue("ids", hotIds);
+            namedParameterJdbcTemplate.query(OTHER_LOTS_SQL, params, rs -> {
+                otherLots.add(new ProductWarehouse(rs.getLong("product_id"), rs.getLong("warehouse_id")));
+            });
+            return deltas;
+        });
+
+        productsWithOtherLots = otherLots;
+        boolean ready = System.nanoTime() - readyAt >= 0;
+        for (Long inventoryId : ids) {
+            HotRow row = rows.get(inventoryId);
+            row.setLotDates(expiryDates.get(inventoryId), receivedAts.get(inventoryId));
+            row.reconcile(applied.getOrDefault(inventoryId, 0L), available.getOrDefault(inventoryId, 0L), ready);
+        }
+    }
+
+    /**
+     * コミット済みの数量変化を在庫レコードへ反映して削除するメソッド（トランザクション内で呼び出す）
+     *
+     * @return 在庫ID → 反映した数量変化の合計（1/1000単位）
+     */
+    private Map<Long, Long> applyPending(List<Long> ids) {
+        Map<Long, Long> deltas = new HashMap<>();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("limit", APPLY_BATCH);
+        while (true) {
+            List<Object[]> applied = new ArrayList<>();
+            namedParameterJdbcTemplate.query(PENDING_SQL, params, rs -> {
+                deltas.merge(rs.getLong("inventory_id"), toUnits(rs.getBigDecimal("delta")), Long::sum);
+                applied.add(new Object[]{rs.getLong("id")});
+            });
+            if (!applied.isEmpty()) {
+                jdbcTemplate.batchUpdate(DELETE_APPLIED_SQL, applied);
+            }
+            if (applied.size() < APPLY_BATCH) {
+                break;
+            }
+        }
+
+        List<Map.Entry<Long, Long>> entries = new ArrayList<>(deltas.entrySet());
+        entries.removeIf(entry -> entry.getValue() == 0);
+        entries.sort(Map.Entry.comparingByKey());
+        if (!entries.isEmpty()) {
+            jdbcTemplate.batchUpdate(APPLY_SQL, entries, entries.size(), (ps, entry) -> {
+                BigDecimal delta = BigDecimal.valueOf(entry.getValue(), SCALE);
+                ps.setBigDecimal(1, delta);
+                ps.setBigDecimal(2, delta);
+                ps.setLong(3, entry.getKey());
+            });
+        }
+        return deltas;
+    }
+
+    /**
+     * 所有が他のノードに移った在庫レコードの引当を停止するメソッド
+     */
+    private void lose(HotRow row) {
+        if (row.lose()) {
+            log.error("Hot inventory row {} is now owned by another node, in-memory reservations stopped",
+                    row.info().inventoryId());
+        }
+    }
+
+    /**
+     * 数量変化を呼び出し元のトランザクション内で記録するメソッド
+     *
+     * @return 記録した場合はtrue（自ノードが所有していない場合はfalse）
+     */
+    private boolean record(Long inventoryId, long delta) {
+        return jdbcTemplate.update(RECORD_SQL, BigDecimal.valueOf(delta, SCALE), inventoryId, nodeId) == 1;
+    }
+
+    /**
+     * ノードIDを求めるメソッド
+     *
+     * 同じ設定で複数のインスタンスを起動しても重複しないよう、接頭辞に乱数を付加します。
+     */
+    private String resolveNodeId() {
+        String prefix = nodeName;
+        if (prefix == null || prefix.isBlank()) {
+            try {
+                prefix = InetAddress.getLocalHost().getHostName();
+            } catch (UnknownHostException e) {
+                prefix = "node";
+            }
+        }
+        if (prefix.length() > 80) {
+            prefix = prefix.substring(0, 80);
+        }
+        return prefix + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * 数量を1/1000単位の整数に変換するメソッド
+     */
+    private static long toUnits(BigDecimal quantity) {
+        try {
+            return quantity.movePointRight(SCALE).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Quantity has too many decimal places: " + quantity);
+        }
+    }
+
+    /**
+     * 1在庫レコード分の分割カウンター
+     *
+     * 引当可能数量を複数の区画に分けて保持し、各スレッドはランダムな区画から順に取り崩します。
+     * 区画同士が同じキャッシュラインに載らないよう、要素の間隔を空けて配置します。
+     *
+     * カウンターは常に「在庫レコードの引当可能数量 - 未反映の数量変化」と一致するよう、
+     * 取り崩した数量と戻した数量を未反映分（pending）として保持します。
+     * 引当・解除は読み取りロック、反映時の再計算は書き込みロックで排他します。
+     * 再計算で引当可能数量が負になった場合は先頭の区画のみを負にし、戻す数量は先に先頭の区画へ加算します。
+     */
+    private static final class HotRow {
+
+        // 区画の間隔（64バイト / 8バイト）
+        private static final int PADDING = 8;
+
+        private final InventoryAllocation info;
+        private final AtomicLongArray counters;
+        private final int count;
+        // カウンターに反映済みで在庫レコードに未反映の数量変化（引当は正、解除は負）
+        private final AtomicLong pending = new AtomicLong();
+        private final StampedLock lock = new StampedLock();
+        // 所有が他のノードに移った場合はtrue
+        private volatile boolean lost;
+        // 有効期限・入庫日時（反映のたびに読み直す）
+        private volatile LocalDate expiryDate;
+        private volatile LocalDateTime receivedAt;
+
+        private HotRow(InventoryAllocation info, int count) {
+            this.info = info;
+            this.count = count;
+            this.counters = new AtomicLongArray(count * PADDING);
+        }
+
+        private InventoryAllocation info() {
+            return info;
+        }
+
+        private LocalDate expiryDate() {
+            return expiryDate;
+        }
+
+        private LocalDateTime receivedAt() {
+            return receivedAt;
+        }
+
+        private void setLotDates(LocalDate expiryDate, LocalDateTime receivedAt) {
+            this.expiryDate = expiryDate;
+            this.receivedAt = receivedAt;
+        }
+
+        private boolean isLost() {
+            return lost;
+        }
+
+        /**
+         * 最大で指定数量を取り崩し、取り崩した数量を返却するメソッド
+         */
+        private long take(long max) {
+            long stamp = lock.readLock();
+            try {
+                long taken = 0;
+                int start = ThreadLocalRandom.current().nextInt(count);
+                for (int k = 0; k < count && taken < max; k++) {
+                    int index = ((start + k) % count) * PADDING;
+                    while (true) {
+                        long current = counters.get(index);
+                        if (current <= 0) {
+                            break;
+                        }
+                        long amount = Math.min(current, max - taken);
+                        if (counters.compareAndSet(index, current, current - amount)) {
+                            taken += amount;
+                            break;
+                        }
+                    }
+                }
+                pending.addAndGet(taken);
+                return taken;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        /**
+         * 数量をカウンターに戻すメソッド
+         */
+        private void give(long units) {
+            long stamp = lock.readLock();
+            try {
+                int index = counters.get(0) < 0 ? 0 : ThreadLocalRandom.current().nextInt(count) * PADDING;
+                counters.addAndGet(index, units);
+                pending.addAndGet(-units);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        /**
+         * 在庫レコードへの反映結果からカウンターを再計算するメソッド
+         *
+         * @param applied 反映した数量変化（1/1000単位）
+         * @param available 反映後の引当可能数量（1/1000単位）
+         * @param ready カウンターへ読み込む場合はtrue
+         */
+        private void reconcile(long applied, long available, boolean ready) {
+            long stamp = lock.writeLock();
+            try {
+                long unapplied = pending.addAndGet(-applied);
+                if (ready && !lost) {
+                    set(available - unapplied);
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * 引当を停止し、カウンターを0にするメソッド
+         *
+         * @return 停止した場合はtrue（停止済みの場合はfalse）
+         */
+        private boolean lose() {
+            long stamp = lock.writeLock();
+            try {
+                if (lost) {
+                    return false;
+                }
+                lost = true;
+                set(0);
+                return true;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * カウンターの合計を指定値にするメソッド（書き込みロックを保持して呼び出す）
+         */
+        private void set(long total) {
+            long base = total > 0 ? total / count : 0;
+            for (int i = 0; i < count; i++) {
+                counters.set(i * PADDING, i == 0 ? total - base * (count - 1) : base);
+            }
+        }
+
+        /**
+         * 全区画の合計を返却するメソッド
+         */
+        private long total() {
+            long total = 0;
+            for (int i = 0; i < count; i++) {
+                total += counters.get(i * PADDING);
+            }
+            return total;
+        }
+    }
+
+    /**
+     * 商品・倉庫の組
+     */
+    private record ProductWarehouse(Long productId, Long warehouseId) {
+    }
+}
@@ -0,0 +1,122 @@
+package com.cooola.service;
+
+import com.cooola.dto.InboundOrderRequest;
+import com.cooola.dto.InboundOrderView;
+import com.cooola.entity.InboundOrder;
+import com.cooola.entity.InboundOrderItem;
+import com.cooola.entity.Product;
+import com.cooola.entity.User;
+import com.cooola.entity.Warehouse;
+import com.cooola.repository.InboundOrderRepository;
+import com.cooola.repository.ProductRepository;
+import com.cooola.repository.UserRepository;
+import com.cooola.repository.WarehouseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 入庫予定サービス
+ *
+ * このクラスは入庫予定の登録・参照を行います。
+ * 入荷作業（スキャン・確定・格納）はInboundReceivingServiceが行います。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Service                    // Spring Bootサービスとして登録
+@RequiredArgsConstructor    // コンストラクタインジェクション
+@Slf4j                      // ログ機能
+@Transactional              // トランザクション管理
+public class InboundOrderService {
+
+    // 入庫番号の接頭辞
+    private static final String ORDER_NUMBER_PREFIX = "IN";
+
+    // 入庫予定リポジトリ
+    private final InboundOrderRepository orderRepository;
+    // 倉庫リポジトリ
+    private final WarehouseRepository warehouseRepository;
+    // ユーザーリポジトリ
+    private final UserRepository userRepository;
+    // 商品リポジトリ
+    private final ProductRepository productRepository;
+    // 伝票番号採番
+    private final DocumentNumberGenerator numberGenerator;
+
+    /**
+     * 入庫予定を登録するメソッド
+     *
+     * @param request 入庫予定の登録内容
+     * @return 登録された入庫予定
+     * @throws IllegalArgumentException 倉庫・ユーザー・商品が存在しない場合、または数量が不正な場合
+     */
+    public InboundOrderView createOrder(InboundOrderRequest request) {
+        if (request.getWarehouseId() == null || request.getCreatedBy() == null) {
+            throw new IllegalArgumentException("Warehouse and creator are required");
+        }
+        if (request.getItems() == null || request.getItems().isEmpty()) {
+            throw new IllegalArgumentException("Inbound order must have at least one item");
+        }
+        for (InboundOrderRequest.Item item : request.getItems()) {
+            if (item.getProductId() == null || item.getQuantity() == null || item.getQuantity().signum() <= 0) {
+                throw new IllegalArgumentException("Each item requires a product and a positive quantity");
+            }
+        }
+
+        Warehouse warehouse = warehouseRepository.findById(request.getWarehouseId())
+                .orElseThrow(() -> new IllegalArgumentException("Warehouse not found: " + request.getWarehouseId()));
+        User createdBy = userRepository.findById(request.getCreatedBy())
+                .orElseThrow(() -> new IllegalArgumentException("User not found: " + request.getCreatedBy()));
+        List<Long> productIds = request.getItems().stream().map(InboundOrderRequest.Item::getProductId).distinct().toList();
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        InboundOrder order = new InboundOrder();
+        order.setOrderNumber(numberGenerator.next(ORDER_NUMBER_PREFIX));
+        order.setWarehouse(warehouse);
+        order.setSupplierName(request.getSupplierName());
+        order.setSupplierOrderNumber(request.getSupplierOrderNumber());
+        order.setExpectedArrivalDate(request.getExpectedArrivalDate());
+        order.setNotes(request.getNotes());
+        order.setCreatedBy(createdBy);
+        for (InboundOrderRequest.Item line : request.getItems()) {
+            Product product = products.get(line.getProductId());
+            if (product == null) {
+                throw new IllegalArgumentException("Product not found: " + line.getProductId());
+            }
+            InboundOrderItem item = new InboundOrderItem();
+            item.setInboundOrder(order);
+            item.setProduct(product);
+            item.setExpectedQuantity(line.getQuantity());
+            item.setUnitCost(line.getUnitCost());
+            item.setLotNumber(line.getLotNumber());
+            item.setExpiryDate(line.getExpiryDate());
+            item.setNotes(line.getNotes());
+            order.getItems().add(item);
+        }
+
+        InboundOrder saved = orderRepository.save(order);
+        log.info("Inbound order created: {} ({} items)", saved.getOrderNumber(), saved.getItems().size());
+        return InboundOrderView.from(saved);
+    }
+
+    /**
+     * IDで入庫予定を取得するメソッド
+     *
+     * @param id 入庫予定ID
+     * @return 入庫予定（存在しない場合は空のOptional）
+     */
+    @Transactional(readOnly = true)
+    public Optional<InboundOrderView> getOrder(Long id) {
+        return orderRepository.findWithItemsById(id).map(InboundOrderView::from);
+    }
+}
@@ -0,0 +1,697 @@
+package com.cooola.service;
+
+import com.cooola.dto.ProductScanView;
+import com.cooola.dto.ReceiptCommit;
+import com.cooola.dto.ReceivingScanResult;
+import com.cooola.entity.InboundOrder;
+import com.cooola.entity.InboundOrderItem;
+import com.cooola.entity.InventoryMovement;
+import com.cooola.repository.InboundOrderItemRepository;
+import com.cooola.repository.InboundOrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 入荷受付サービス
+ *
+ * このクラスは入荷時のスキャンを受け付け、入庫予定ごとにメモリ上で数量を集計します。
+ * スキャン1回ごとにはデータベースへ書き込まず、一定間隔（または確定・完了の要求時）に
+ * 集計済みの数量をまとめて1トランザクションで入庫明細と在庫へ反映し、格納先を決定します。
+ * これにより、トラック1台分の大量スキャンでもトランザクション数は反映回数分だけで済みます。
+ *
+ * 商品の照会はProductLookupIndexのメモリ上インデックスで行います。
+ * 反映前の数量はメモリ上にのみ存在するため、異常終了時には直近の反映以降のスキャンが失われます。
+ * スキャン結果の未確定数量で反映状況を確認できます。
+ * 反映した数量は入庫番号とともにInventoryLedgerへ記録し、在庫レコードの変更前後の値をInventoryAggregatesへ記録します。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Service                    // Spring Bootサービスとして登録
+@RequiredArgsConstructor    // コンストラクタインジェクション
+@Slf4j                      // ログ機能
+public class InboundReceivingService {
+
+    // 入庫明細の入荷数量を加算するSQL
+    private static final String UPDATE_ITEM_SQL =
+            "UPDATE inbound_order_items SET received_quantity = COALESCE(received_quantity, 0) + ? WHERE id = ?";
+    // 在庫を加算または登録するSQL
+    // 格納先には同じロット番号・期限の在庫か空きビンのみを割り当てるため、既存の在庫レコードと重複するのは
+    // 同じロットの場合か数量0の場合に限られる。数量0の場合はロット番号・期限・単価・入庫日時を入荷分で置き換える
+    // （MySQLは左から順に代入するため、数量を加算する前に判定する）
+    private static final String UPSERT_INVENTORY_SQL =
+            "INSERT INTO inventory (product_id, warehouse_id, location_id, quantity, reserved_quantity, " +
+            "available_quantity, unit_cost, lot_number, expiry_date) VALUES (?, ?, ?, ?, 0, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "unit_cost = IF(quantity = 0, VALUES(unit_cost), COALESCE(unit_cost, VALUES(unit_cost))), " +
+            "lot_number = IF(quantity = 0, VALUES(lot_number), lot_number), " +
+            "expiry_date = IF(quantity = 0, VALUES(expiry_date), expiry_date), " +
+            "received_at = IF(quantity = 0, CURRENT_TIMESTAMP(3), received_at), " +
+            "quantity = quantity + VALUES(quantity), " +
+            "available_quantity = available_quantity + VALUES(available_quantity)";
+    // ロケーション未設定の在庫を登録するSQL（NULLは一意キーで重複と判定されないため、ロットごとに登録する）
+    private static final String INSERT_UNLOCATED_SQL =
+            "INSERT INTO inventory (product_id, warehouse_id, location_id, quantity, reserved_quantity, " +
+            "available_quantity, unit_cost, lot_number, expiry_date) VALUES (?, ?, NULL, ?, 0, ?, ?, ?, ?)";
+    // ロケーション未設定の同じロットの在庫レコード1件に加算するSQL（数量0の場合は入庫日時も更新する）
+    private static final String UPDATE_UNLOCATED_SQL =
+            "UPDATE inventory SET unit_cost = IF(quantity = 0, ?, COALESCE(unit_cost, ?)), " +
+            "received_at = IF(quantity = 0, CURRENT_TIMESTAMP(3), received_at), " +
+            "quantity = quantity + ?, available_quantity = available_quantity + ? WHERE id = ?";
+    // 反映前の在庫レコードを商品ID順にロックして取得するSQL（在庫集計の差分計算・反映先の特定用）
+    private static final String LOCK_INVENTORY_SQL =
+            "SELECT id, product_id, location_id, lot_number, expiry_date, quantity, unit_cost FROM inventory " +
+            "WHERE warehouse_id = :warehouseId AND product_id IN (:productIds) ORDER BY product_id, id FOR UPDATE";
+    // 反映した在庫レコードのIDを取得するSQL（台帳への記録用）
+    private static final String INVENTORY_IDS_SQL =
+            "SELECT id, product_id, location_id FROM inventory " +
+            "WHERE warehouse_id = :warehouseId AND product_id IN (:productIds)";
+
+    // 入庫予定リポジトリ
+    private final InboundOrderRepository orderRepository;
+    // 入庫明細リポジトリ
+    private final InboundOrderItemRepository itemRepository;
+    // スキャン用の商品照会インデックス
+    private final ProductLookupIndex lookupIndex;
+    // 格納先決定サービス
+    private final PutawayService putawayService;
+    // バッチ更新用のJDBCテンプレート
+    private final JdbcTemplate jdbcTemplate;
+    // IN句展開用のJDBCテンプレート
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    // 在庫移動台帳
+    private final InventoryLedger ledger;
+    // 在庫集計
+    private final InventoryAggregates aggregates;
+    // 反映単位のトランザクション
+    private final TransactionTemplate transactionTemplate;
+
+    // 未反映のまま保持する最大期間（最後のスキャンからこの期間が過ぎた受付は、反映後にメモリから破棄する）
+    @Value("${inbound.receiving.idle-timeout:PT30M}")
+    private Duration idleTimeout;
+
+    // 入庫予定ID → 受付中の入荷
+    private final Map<Long, Session> sessions = new ConcurrentHashMap<>();
+    // 入庫予定ID → 読み込み中の受付（同じ入庫予定の読み込みを1件にまとめる）
+    private final Map<Long, CompletableFuture<Session>> opening = new ConcurrentHashMap<>();
+
+    /**
+     * スキャンを受け付けるメソッド
+     *
+     * 初回のスキャンで入庫予定を読み込み、ステータスを入荷済み（ARRIVED）にします。
+     * 同じ商品の明細が複数ある場合は、予定数量に達していない明細から順に割り当てます。
+     *
+     * @param orderId 入庫予定ID
+     * @param code バーコードまたはSKU
+     * @param quantity 数量（nullの場合は1）
+     * @return スキャン結果
+     * @throws IllegalArgumentException 商品・入庫予定が存在しない場合、商品が入庫予定に含まれない場合、数量が不正な場合
+     * @throws IllegalStateException 入荷完了済み・取消済みの入庫予定の場合
+     */
+    public ReceivingScanResult scan(Long orderId, String code, BigDecimal quantity) {
+        BigDecimal amount = quantity == null ? BigDecimal.ONE : quantity;
+        if (amount.signum() <= 0 || amount.stripTrailingZeros().scale() > 3) {
+            throw new IllegalArgumentException("Quantity must be positive with at most 3 decimal places");
+        }
+        if (code == null || code.isBlank()) {
+            throw new IllegalArgumentException("Scanned code is required");
+        }
+        ProductScanView product = lookupIndex.findByBarcode(code.trim());
+        if (product == null) {
+            product = lookupIndex.findBySku(code.trim());
+        }
+        if (product == null) {
+            throw new IllegalArgumentException("Unknown product code: " + code);
+        }
+
+        while (true) {
+            Session session = session(orderId);
+            synchronized (session) {
+                if (session.state == State.EVICTED) {
+                    // 破棄済みの受付を参照した場合は読み込み直す
+                    continue;
+                }
+                if (session.state != State.OPEN) {
+                    throw new IllegalStateException("Receiving already completed: " + session.orderNumber);
+                }
+                List<Line> lines = session.lines.get(product.id());
+                if (lines == null) {
+                    throw new IllegalArgumentException("Product " + product.sku() + " is not on inbound order "
+                            + session.orderNumber);
+                }
+                Line target = lines.get(lines.size() - 1);
+                for (Line line : lines) {
+                    if (line.received().compareTo(line.expected) < 0) {
+                        target = line;
+                        break;
+                    }
+                }
+                target.pending = target.pending.add(amount);
+                session.lastScanAt = System.currentTimeMillis();
+
+                BigDecimal expected = BigDecimal.ZERO;
+                BigDecimal received = BigDecimal.ZERO;
+                BigDecimal pending = BigDecimal.ZERO;
+                for (Line line : lines) {
+                    expected = expected.add(line.expected);
+                    received = received.add(line.received());
+                    pending = pending.add(line.pending).add(line.flushing);
+                }
+                return new ReceivingScanResult(session.orderNumber, product.id(), product.sku(), product.name(),
+                        expected, received, pending, received.compareTo(expected) > 0);
+            }
+        }
+    }
+
+    /**
+     * 集計済みの数量を直ちに反映するメソッド
+     *
+     * @param orderId 入庫予定ID
+     * @return 今回反映した数量と格納先
+     * @throws IllegalStateException 受付中の入荷がない場合
+     */
+    public ReceiptCommit commit(Long orderId) {
+        Session session = sessions.get(orderId);
+        if (session == null) {
+            throw new IllegalStateException("No receiving in progress for inbound order: " + orderId);
+        }
+        return flush(session, false);
+    }
+
+    /**
+     * 入荷を完了するメソッド
+     *
+     * 集計済みの数量を反映し、同じトランザクションでステータスを入庫完了（RECEIVED）にします。
+     * 完了後のスキャンは受け付けません。
+     *
+     * @param orderId 入庫予定ID
+     * @return 今回反映した数量と格納先
+     * @throws IllegalArgumentException 入庫予定が存在しない場合
+     * @throws IllegalStateException 入荷完了済み・取消済みの入庫予定の場合
+     */
+    public ReceiptCommit complete(Long orderId) {
+        Session session = null;
+        while (session == null) {
+            Session current = session(orderId);
+            synchronized (current) {
+                if (current.state == State.OPEN) {
+                    current.state = State.COMPLETING;
+                    session = current;
+                } else if (current.state != State.EVICTED) {
+                    throw new IllegalStateException("Receiving already completed: " + current.orderNumber);
+                }
+            }
+        }
+        try {
+            ReceiptCommit result = flush(session, true);
+            synchronized (session) {
+                session.state = State.COMPLETED;
+            }
+            sessions.remove(orderId, session);
+            log.info("Inbound order received: {}", session.orderNumber);
+            return result;
+        } catch (RuntimeException e) {
+            synchronized (session) {
+                session.state = State.OPEN;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 受付中の全入荷の集計済み数量を反映するメソッド
+     *
+     * 反映に失敗した数量はメモリ上に残し、次回に反映します。
+     * 最後のスキャンから一定期間が過ぎ、未反映の数量がない受付はメモリから破棄します。
+     */
+    @Scheduled(fixedDelayString = "${inbound.receiving.flush-interval:PT2S}")
+    public void flushAll() {
+        long idleBefore = System.currentTimeMillis() - idleTimeout.toMillis();
+        for (Session session : sessions.values()) {
+            try {
+                if (session.hasPending()) {
+                    flush(session, false);
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to flush receiving for inbound order {}", session.orderNumber, e);
+                continue;
+            }
+            synchronized (session) {
+                if (session.state == State.OPEN && session.lastScanAt < idleBefore && !session.hasPending()) {
+                    session.state = State.EVICTED;
+                    sessions.remove(session.orderId, session);
+                }
+            }
+        }
+    }
+
+    /**
+     * 停止時に未反映の数量を反映するメソッド
+     */
+    @PreDestroy
+    public void stop() {
+        flushAll();
+    }
+
+    /**
+     * 受付中の入荷を返却するメソッド（受付がない場合は入庫予定を読み込んで開始する）
+     *
+     * 入庫予定の読み込みは行ロックを取得するデータベースアクセスのため、マップの内部ロックの外で行います
+     * （computeIfAbsentの中で行うと、仮想スレッドではキャリアスレッドを占有し、同じビンの他の入庫予定も待たせるため）。
+     * 同じ入庫予定を同時に読み込む場合は、最初の読み込みの完了を待ってその結果を使用します。
+     */
+    private Session session(Long orderId) {
+        Session session = sessions.get(orderId);
+        if (session != null) {
+            return session;
+        }
+        CompletableFuture<Session> pending = new CompletableFuture<>();
+        CompletableFuture<Session> existing = opening.putIfAbsent(orderId, pending);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        try {
+            // 読み込みの権利を得るまでの間に他のスレッドが開始していないか確認する
+            session = sessions.get(orderId);
+            if (session == null) {
+                session = openSession(orderId);
+                sessions.put(orderId, session);
+            }
+            pending.complete(session);
+            return session;
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            opening.remove(orderId, pending);
+        }
+    }
+
+    /**
+     * 入庫予定を読み込んで受付を開始するメソッド
+     */
+    private Session openSession(Long orderId) {
+        return transactionTemplate.execute(status -> {
+            InboundOrder order = orderRepository.findForUpdateById(orderId)
+                    .orElseThrow(() -> new IllegalArgumentException("Inbound order not found: " + orderId));
+            if (order.getStatus() == InboundOrder.OrderStatus.RECEIVED
+                    || order.getStatus() == InboundOrder.OrderStatus.CANCELLED) {
+                throw new IllegalStateException("Inbound order cannot be received: status=" + order.getStatus());
+            }
+            order.setStatus(InboundOrder.OrderStatus.ARRIVED);
+
+            Map<Long, List<Line>> lines = new HashMap<>();
+            for (InboundOrderItem item : itemRepository.findByInboundOrderId(orderId)) {
+                lines.computeIfAbsent(item.getProduct().getId(), id -> new ArrayList<>()).add(new Line(item));
+            }
+            return new Session(order.getId(), order.getOrderNumber(), order.getWarehouse().getId(), lines);
+        });
+    }
+
+    /**
+     * 1件の受付の集計済み数量を1トランザクションで反映するメソッド
+     *
+     * 反映中に受け付けたスキャンは次回の反映の対象になります。
+     */
+    private ReceiptCommit flush(Session session, boolean complete) {
+        session.flushLock.lock();
+        try {
+            List<Drained> batch = session.drain();
+            try {
+                List<ReceiptCommit.PutawayLine> putaway = transactionTemplate.execute(status -> {
+                    List<ReceiptCommit.PutawayLine> lines = batch.isEmpty() ? List.of() : write(session, batch);
+                    if (complete) {
+                        orderRepository.findForUpdateById(session.orderId)
+                                .ifPresent(order -> order.setStatus(InboundOrder.OrderStatus.RECEIVED));
+                    }
+                    return lines;
+                });
+                session.confirm(batch);
+                log.debug("Receiving flushed: order={}, lines={}", session.orderNumber, batch.size());
+                return new ReceiptCommit(session.orderNumber, putaway);
+            } catch (RuntimeException e) {
+                session.restore(batch);
+                throw e;
+            }
+        } finally {
+            session.flushLock.unlock();
+        }
+    }
+
+    /**
+     * 入庫明細・在庫をバッチで更新するメソッド
+     *
+     * 数量は商品・ロット番号・期限ごとに合算し、ロットごとに格納先を決定します。
+     *
+     * @return ロットごとの反映数量と格納先
+     */
+    private List<ReceiptCommit.PutawayLine> write(Session session, List<Drained> batch) {
+        List<Object[]> itemArgs = new ArrayList<>(batch.size());
+        Map<PutawayService.Lot, Receipt> receipts = new TreeMap<>(PutawayService.Lot.ORDER);
+        for (Drained drained : batch) {
+            Line line = drained.line();
+            itemArgs.add(new Object[]{drained.quantity(), line.itemId});
+            receipts.computeIfAbsent(new PutawayService.Lot(line.productId, line.lotNumber, line.expiryDate),
+                    lot -> new Receipt(line)).add(drained.quantity());
+        }
+        jdbcTemplate.batchUpdate(UPDATE_ITEM_SQL, itemArgs);
+
+        // 在庫は商品ID順に更新する（引当処理と同じ順序でロックを取得する）
+        Set<Long> productIds = new TreeSet<>();
+        receipts.keySet().forEach(lot -> productIds.add(lot.productId()));
+        Map<PutawayService.Lot, PutawayService.Suggestion> putaway =
+                putawayService.assign(session.warehouseId, receipts.keySet());
+        Map<Long, List<StockRow>> existing = lockInventory(session.warehouseId, productIds);
+        List<Object[]> upsertArgs = new ArrayList<>(receipts.size());
+        List<Placement> placements = new ArrayList<>(receipts.size());
+        List<InventoryAggregates.Change> changes = new ArrayList<>(receipts.size());
+        for (Map.Entry<PutawayService.Lot, Receipt> entry : receipts.entrySet()) {
+            PutawayService.Lot lot = entry.getKey();
+            Receipt receipt = entry.getValue();
+            Line line = receipt.line;
+            PutawayService.Suggestion suggestion = putaway.get(lot);
+            Long locationId = suggestion == null ? null : suggestion.locationId();
+            // ロケーションごとの在庫レコードは一意、ロケーション未設定の場合は同じロットの在庫レコードに加算する
+            StockRow row = existing.getOrDefault(line.productId, List.of()).stream()
+                    .filter(candidate -> Objects.equals(candidate.locationId(), locationId))
+                    .filter(candidate -> locationId != null || candidate.isSameLot(lot))
+                    .findFirst()
+                    .orElse(null);
+            Long inventoryId = null;
+            if (locationId != null) {
+                upsertArgs.add(new Object[]{line.productId, session.warehouseId, locationId, receipt.quantity,
+                        receipt.quantity, line.unitCost, line.lotNumber, line.expiryDate});
+            } else if (row != null) {
+                jdbcTemplate.update(UPDATE_UNLOCATED_SQL, line.unitCost, line.unitCost, receipt.quantity,
+                        receipt.quantity, row.id());
+                inventoryId = row.id();
+            } else {
+                inventoryId = insertUnlocated(session.warehouseId, line, receipt.quantity);
+            }
+
+            if (row == null) {
+                changes.add(new InventoryAggregates.Change(session.warehouseId, line.productId, null, null,
+                        receipt.quantity, line.unitCost));
+            } else {
+                BigDecimal unitCost = row.quantity().signum() == 0 || row.unitCost() == null
+                        ? line.unitCost : row.unitCost();
+                changes.add(new InventoryAggregates.Change(session.warehouseId, line.productId, row.quantity(),
+                        row.unitCost(), row.quantity().add(receipt.quantity), unitCost));
+            }
+            placements.add(new Placement(inventoryId, new ReceiptCommit.PutawayLine(line.productId, line.sku,
+                    line.lotNumber, line.expiryDate, receipt.quantity, locationId,
+                    suggestion == null ? null : suggestion.locationCode())));
+        }
+        if (!upsertArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_INVENTORY_SQL, upsertArgs);
+        }
+        recordMovements(session, placements);
+        aggregates.record(changes);
+        return placements.stream().map(Placement::line).toList();
+    }
+
+    /**
+     * ロケーション未設定の在庫レコードを登録するメソッド
+     *
+     * @return 登録した在庫ID
+     */
+    private Long insertUnlocated(Long warehouseId, Line line, BigDecimal quantity) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_UNLOCATED_SQL, Statement.RETURN_GENERATED_KEYS);
+            ps.setLong(1, line.productId);
+            ps.setLong(2, warehouseId);
+            ps.setBigDecimal(3, quantity);
+            ps.setBigDecimal(4, quantity);
+            ps.setBigDecimal(5, line.unitCost);
+            ps.setString(6, line.lotNumber);
+            ps.setObject(7, line.expiryDate);
+            return ps;
+        }, keyHolder);
+        return Objects.requireNonNull(keyHolder.getKey()).longValue();
+    }
+
+    /**
+     * 反映先になり得る在庫レコードをロックして反映前の値を取得するメソッド
+     *
+     * @return 商品ID → 在庫レコード
+     */
+    private Map<Long, List<StockRow>> lockInventory(Long warehouseId, Collection<Long> productIds) {
+        Map<Long, List<StockRow>> rows = new HashMap<>();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("warehouseId", warehouseId)
+                .addValue("productIds", productIds);
+        namedParameterJdbcTemplate.query(LOCK_INVENTORY_SQL, params, rs -> {
+            Date expiryDate = rs.getDate("expiry_date");
+            rows.computeIfAbsent(rs.getLong("product_id"), id -> new ArrayList<>())
+                    .add(new StockRow(rs.getLong("id"), rs.getObject("location_id", Long.class),
+                            rs.getString("lot_number"), expiryDate != null ? expiryDate.toLocalDate() : null,
+                            rs.getBigDecimal("quantity"), rs.getBigDecimal("unit_cost")));
+        });
+        return rows;
+    }
+
+    /**
+     * 反映した数量を在庫レコードごとに台帳へ記録するメソッド
+     *
+     * ロケーションを割り当てた在庫レコードは、商品・ロケーションの一意キーで在庫IDを特定します。
+     */
+    private void recordMovements(Session session, List<Placement> placements) {
+        Map<Long, List<Object[]>> rowsByProduct = new HashMap<>();
+        List<Long> locatedProductIds = placements.stream()
+                .filter(placement -> placement.inventoryId() == null)
+                .map(placement -> placement.line().productId())
+                .distinct()
+                .toList();
+        if (!locatedProductIds.isEmpty()) {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("warehouseId", session.warehouseId)
+                    .addValue("productIds", locatedProductIds);
+            namedParameterJdbcTemplate.query(INVENTORY_IDS_SQL, params, rs -> {
+                rowsByProduct.computeIfAbsent(rs.getLong("product_id"), id -> new ArrayList<>())
+                        .add(new Object[]{rs.getLong("id"), rs.getObject("location_id", Long.class)});
+            });
+        }
+
+        List<InventoryLedger.Movement> movements = new ArrayList<>(placements.size());
+        for (Placement placement : placements) {
+            ReceiptCommit.PutawayLine line = placement.line();
+            Long inventoryId = placement.inventoryId() != null ? placement.inventoryId()
+                    : rowsByProduct.getOrDefault(line.productId(), List.of()).stream()
+                            .filter(row -> Objects.equals(row[1], line.locationId()))
+                            .map(row -> (Long) row[0])
+                            .findFirst()
+                            .orElse(null);
+            movements.add(new InventoryLedger.Movement(inventoryId, session.warehouseId, line.productId(),
+                    line.locationId(), InventoryMovement.MovementType.RECEIPT, line.quantity(),
+                    session.orderNumber, null, null));
+        }
+        ledger.record(movements);
+    }
+
+    /**
+     * 受付中の入荷（入庫予定1件分）
+     *
+     * 数量の参照・更新はこのオブジェクトで同期し、データベースへの反映はflushLockで1件ずつ行います。
+     */
+    private static final class Session {
+
+        private final Long orderId;
+        private final String orderNumber;
+        private final Long warehouseId;
+        // 商品ID → 入庫明細（明細ID順）
+        private final Map<Long, List<Line>> lines;
+        // 反映処理の排他（データベースへの書き込み中も保持するため、ReentrantLockを使用）
+        private final ReentrantLock flushLock = new ReentrantLock();
+        // 最後にスキャンを受け付けた時刻
+        private long lastScanAt = System.currentTimeMillis();
+        // 受付の状態
+        private State state = State.OPEN;
+
+        private Session(Long orderId, String orderNumber, Long warehouseId, Map<Long, List<Line>> lines) {
+            this.orderId = orderId;
+            this.orderNumber = orderNumber;
+            this.warehouseId = warehouseId;
+            this.lines = lines;
+        }
+
+        private synchronized boolean hasPending() {
+            return lines.values().stream().flatMap(List::stream).anyMatch(line -> line.pending.signum() > 0);
+        }
+
+        /**
+         * 未反映の数量を取り出すメソッド（取り出した数量は反映中として扱う）
+         */
+        private synchronized List<Drained> drain() {
+            List<Drained> batch = new ArrayList<>();
+            for (List<Line> productLines : lines.values()) {
+                for (Line line : productLines) {
+                    if (line.pending.signum() > 0) {
+                        batch.add(new Drained(line, line.pending));
+                        line.flushing = line.flushing.add(line.pending);
+                        line.pending = BigDecimal.ZERO;
+                    }
+                }
+            }
+            return batch;
+        }
+
+        /**
+         * 反映が完了した数量を確定済みにするメソッド
+         */
+        private synchronized void confirm(List<Drained> batch) {
+            for (Drained drained : batch) {
+                Line line = drained.line();
+                line.flushing = line.flushing.subtract(drained.quantity());
+                line.committed = line.committed.add(drained.quantity());
+            }
+        }
+
+        /**
+         * 反映に失敗した数量を未反映に戻すメソッド
+         */
+        private synchronized void restore(List<Drained> batch) {
+            for (Drained drained : batch) {
+                Line line = drained.line();
+                line.flushing = line.flushing.subtract(drained.quantity());
+                line.pending = line.pending.add(drained.quantity());
+            }
+        }
+    }
+
+    /**
+     * 受付の状態
+     */
+    private enum State {
+        /** スキャン受付中 */
+        OPEN,
+        /** 完了処理中 */
+        COMPLETING,
+        /** 完了済み */
+        COMPLETED,
+        /** 一定期間スキャンがなくメモリから破棄済み */
+        EVICTED
+    }
+
+    /**
+     * 入庫明細1件分の集計
+     */
+    private static final class Line {
+
+        private final Long itemId;
+        private final Long productId;
+        private final String sku;
+        private final BigDecimal expected;
+        private final BigDecimal unitCost;
+        private final String lotNumber;
+        private final LocalDate expiryDate;
+        // 反映済みの数量
+        private BigDecimal committed;
+        // 反映中の数量
+        private BigDecimal flushing = BigDecimal.ZERO;
+        // 未反映の数量
+        private BigDecimal pending = BigDecimal.ZERO;
+
+        private Line(InboundOrderItem item) {
+            this.itemId = item.getId();
+            this.productId = item.getProduct().getId();
+            this.sku = item.getProduct().getSku();
+            this.expected = item.getExpectedQuantity();
+            this.unitCost = item.getUnitCost();
+            this.lotNumber = item.getLotNumber();
+            this.expiryDate = item.getExpiryDate();
+            this.committed = item.getReceivedQuantity() == null ? BigDecimal.ZERO : item.getReceivedQuantity();
+        }
+
+        /**
+         * 未反映分を含む入荷数量
+         */
+        private BigDecimal received() {
+            return committed.add(flushing).add(pending);
+        }
+    }
+
+    /**
+     * 反映対象として取り出した数量
+     */
+    private record Drained(Line line, BigDecimal quantity) {
+    }
+
+    /**
+     * 反映前の在庫レコード
+     */
+    private record StockRow(Long id, Long locationId, String lotNumber, LocalDate expiryDate, BigDecimal quantity,
+                            BigDecimal unitCost) {
+
+        /**
+         * 同じロット番号・期限の在庫レコードかどうかを返却するメソッド
+         */
+        private boolean isSameLot(PutawayService.Lot lot) {
+            return Objects.equals(lotNumber, lot.lotNumber()) && Objects.equals(expiryDate, lot.expiryDate());
+        }
+    }
+
+    /**
+     * 反映先
+     *
+     * @param inventoryId 在庫ID（ロケーションを割り当てた場合は反映後に特定するためnull）
+     * @param line 格納指示
+     */
+    private record Placement(Long inventoryId, ReceiptCommit.PutawayLine line) {
+    }
+
+    /**
+     * ロットごとの反映数量（単価は最初の明細の値を使用する）
+     */
+    private static final class Receipt {
+
+        private final Line line;
+        private BigDecimal quantity = BigDecimal.ZERO;
+
+        private Receipt(Line line) {
+            this.line = line;
+        }
+
+        private void add(BigDecimal amount) {
+            quantity = quantity.add(amount);
+        }
+    }
+}
@@ -0,0 +1,390 @@
+package com.cooola.service;
+
+import com.cooola.dto.ProductStockSummary;
+import com.cooola.dto.WarehouseStockSummary;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 在庫集計
+ *
+ * このクラスは倉庫ごとの在庫数量・在庫金額・在庫あり/なしのレコード数と、商品ごとの在庫数量を
+ * 集計テーブル（warehouse_inventory_totals、product_inventory_totals）に保持します。
+ * ダッシュボードは主キーで1行を読むだけで集計値を取得できるため、在庫テーブルを毎回集計しません。
+ *
+ * 在庫を変更した処理は変更前後の値を記録し、コミット後にメモリ上で差分として合算します。
+ * 合算した差分は定期的にまとめて集計テーブルへ加算するため、同じ倉庫の在庫を変更する処理同士が
+ * 集計行のロックで待ち合わせることはありません。
+ * 差分の記録漏れ（在庫テーブルの直接更新など）に備え、定期的に在庫テーブルを集計して照合し、
+ * 食い違いがあれば集計値を置き換えます。照合の直前にコミットされた変更は、次回の照合まで
+ * わずかな誤差が残る場合があります。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component                  // Springコンポーネントとして登録
+@RequiredArgsConstructor    // コンストラクタインジェクション
+@Slf4j                      // ログ機能
+public class InventoryAggregates {
+
+    // 倉庫の集計に差分を加算するSQL
+    private static final String ADD_WAREHOUSE_SQL =
+            "INSERT INTO warehouse_inventory_totals (warehouse_id, total_quantity, total_value, in_stock_count, " +
+            "out_of_stock_count) VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+            "total_quantity = total_quantity + VALUES(total_quantity), " +
+            "total_value = total_value + VALUES(total_value), " +
+            "in_stock_count = in_stock_count + VALUES(in_stock_count), " +
+            "out_of_stock_count = out_of_stock_count + VALUES(out_of_stock_count)";
+    // 商品の集計に差分を加算するSQL
+    private static final String ADD_PRODUCT_SQL =
+            "INSERT INTO product_inventory_totals (product_id, total_quantity) VALUES (?, ?) " +
+            "ON DUPLICATE KEY UPDATE total_quantity = total_quantity + VALUES(total_quantity)";
+    // 倉庫の集計を置き換えるSQL
+    private static final String SET_WAREHOUSE_SQL =
+            "INSERT INTO warehouse_inventory_totals (warehouse_id, total_quantity, total_value, in_stock_count, " +
+            "out_of_stock_count) VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+            "total_quantity = VALUES(total_quantity), total_value = VALUES(total_value), " +
+            "in_stock_count = VALUES(in_stock_count), out_of_stock_count = VALUES(out_of_stock_count)";
+    // 商品の集計を置き換えるSQL
+    private static final String SET_PRODUCT_SQL =
+            "INSERT INTO product_inventory_totals (product_id, total_quantity) VALUES (?, ?) " +
+            "ON DUPLICATE KEY UPDATE total_quantity = VALUES(total_quantity)";
+    // 在庫テーブルから倉庫ごとに集計するSQL
+    private static final String COMPUTE_WAREHOUSES_SQL =
+            "SELECT w.id AS warehouse_id, COALESCE(SUM(i.quantity), 0) AS total_quantity, " +
+            "COALESCE(SUM(i.quantity * i.unit_cost), 0) AS total_value, " +
+            "COUNT(CASE WHEN i.quantity > 0 THEN 1 END) AS in_stock_count, " +
+            "COUNT(CASE WHEN i.quantity = 0 THEN 1 END) AS out_of_stock_count " +
+            "FROM warehouses w LEFT JOIN inventory i ON i.warehouse_id = w.id GROUP BY w.id";
+    // 在庫テーブルから商品ごとに集計するSQL
+    private static final String COMPUTE_PRODUCTS_SQL =
+            "SELECT product_id, SUM(quantity) AS total_quantity FROM inventory GROUP BY product_id";
+    // 倉庫の集計を取得するSQL
+    private static final String WAREHOUSE_SQL =
+            "SELECT warehouse_id, total_quantity, total_value, in_stock_count, out_of_stock_count, updated_at " +
+            "FROM warehouse_inventory_totals";
+    // 商品の集計を取得するSQL
+    private static final String PRODUCT_SQL =
+            "SELECT product_id, total_quantity, updated_at FROM product_inventory_totals";
+
+    // JDBCテンプレート
+    private final JdbcTemplate jdbcTemplate;
+    // 反映単位のトランザクション
+    private final TransactionTemplate transactionTemplate;
+
+    // 倉庫ID → 未反映の差分
+    private final Map<Long, WarehouseDelta> warehouseDeltas = new ConcurrentHashMap<>();
+    // 商品ID → 未反映の在庫数量の差分
+    private final Map<Long, BigDecimal> productDeltas = new ConcurrentHashMap<>();
+    // 反映・照合の排他（データベースへの書き込み中も保持するため、仮想スレッドを固定しないReentrantLockを使用）
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /**
+     * 在庫レコードの変更を記録するメソッド
+     *
+     * 呼び出し元のトランザクション内の場合はコミット後に記録し、ロールバックされた場合は記録しません。
+     *
+     * @param changes 在庫レコードの変更前後の値
+     */
+    public void record(List<Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accumulate(changes);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accumulate(changes);
+            }
+        });
+    }
+
+    /**
+     * 倉庫の在庫集計を取得するメソッド
+     *
+     * @param warehouseId 倉庫ID
+     * @return 在庫集計（集計行がない場合はnull）
+     */
+    public WarehouseStockSummary getWarehouseSummary(Long warehouseId) {
+        List<WarehouseStockSummary> rows = jdbcTemplate.query(WAREHOUSE_SQL + " WHERE warehouse_id = ?",
+                (rs, rowNum) -> new WarehouseStockSummary(
+                        rs.getLong("warehouse_id"),
+                        rs.getBigDecimal("total_quantity"),
+                        rs.getBigDecimal("total_value"),
+                        rs.getLong("in_stock_count"),
+                        rs.getLong("out_of_stock_count"),
+                        toLocalDateTime(rs.getTimestamp("updated_at"))),
+                warehouseId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * 商品の在庫集計を取得するメソッド
+     *
+     * @param productId 商品ID
+     * @return 在庫集計（在庫がない場合は数量0）
+     */
+    public ProductStockSummary getProductSummary(Long productId) {
+        List<ProductStockSummary> rows = jdbcTemplate.query(PRODUCT_SQL + " WHERE product_id = ?",
+                (rs, rowNum) -> new ProductStockSummary(
+                        rs.getLong("product_id"),
+                        rs.getBigDecimal("total_quantity"),
+                        toLocalDateTime(rs.getTimestamp("updated_at"))),
+                productId);
+        return rows.isEmpty() ? new ProductStockSummary(productId, BigDecimal.ZERO, null) : rows.get(0);
+    }
+
+    /**
+     * 未反映の差分を集計テーブルに加算するメソッド
+     *
+     * 反映に失敗した差分はメモリ上に戻し、次回に反映します。
+     */
+    @Scheduled(fixedDelayString = "${inventory.aggregates.flush-interval:PT2S}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<Long, WarehouseDelta> warehouses = drain(warehouseDeltas);
+            Map<Long, BigDecimal> products = drain(productDeltas);
+            if (warehouses.isEmpty() && products.isEmpty()) {
+                return;
+            }
+
+            // 集計行は主キー順に更新する（複数インスタンス間でのデッドロックを避けるため）
+            List<Object[]> warehouseArgs = new ArrayList<>(warehouses.size());
+            warehouses.forEach((id, delta) -> warehouseArgs.add(new Object[]{id, delta.quantity(), delta.value(),
+                    delta.inStock(), delta.outOfStock()}));
+            List<Object[]> productArgs = new ArrayList<>(products.size());
+            products.forEach((id, delta) -> productArgs.add(new Object[]{id, delta}));
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.batchUpdate(ADD_WAREHOUSE_SQL, warehouseArgs);
+                    jdbcTemplate.batchUpdate(ADD_PRODUCT_SQL, productArgs);
+                });
+            } catch (DataAccessException e) {
+                log.warn("Failed to flush inventory aggregates, will retry on the next run", e);
+                warehouses.forEach((id, delta) -> warehouseDeltas.merge(id, delta, WarehouseDelta::plus));
+                products.forEach((id, delta) -> productDeltas.merge(id, delta, BigDecimal::add));
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 在庫テーブルを集計して集計テーブルと照合するメソッド
+     *
+     * 未反映の差分を反映した後に集計し、食い違いのある行のみを置き換えます。
+     */
+    @Scheduled(fixedDelayString = "${inventory.aggregates.reconcile-interval:PT15M}")
+    public void reconcile() {
+        flushLock.lock();
+        try {
+            flush();
+            try {
+                long started = System.currentTimeMillis();
+                int[] drift = transactionTemplate.execute(status -> new int[]{
+                        reconcileWarehouses(), reconcileProducts()});
+                if (drift[0] > 0 || drift[1] > 0) {
+                    log.warn("Inventory aggregates drifted and were corrected: {} warehouses, {} products",
+                            drift[0], drift[1]);
+                } else {
+                    log.debug("Inventory aggregates reconciled in {} ms", System.currentTimeMillis() - started);
+                }
+            } catch (DataAccessException e) {
+                log.warn("Failed to reconcile inventory aggregates, will retry on the next run", e);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 停止時に未反映の差分を反映するメソッド
+     */
+    @PreDestroy
+    public void stop() {
+        flush();
+    }
+
+    /**
+     * 倉庫の集計を照合するメソッド
+     *
+     * @return 置き換えた行数
+     */
+    private int reconcileWarehouses() {
+        Map<Long, Object[]> current = new HashMap<>();
+        jdbcTemplate.query(WAREHOUSE_SQL, rs -> {
+            current.put(rs.getLong("warehouse_id"), warehouseRow(rs));
+        });
+        List<Object[]> corrections = new ArrayList<>();
+        jdbcTemplate.query(COMPUTE_WAREHOUSES_SQL, rs -> {
+            Object[] computed = warehouseRow(rs);
+            if (!sameRow(computed, current.get((Long) computed[0]))) {
+                corrections.add(computed);
+            }
+        });
+        jdbcTemplate.batchUpdate(SET_WAREHOUSE_SQL, corrections);
+        return corrections.size();
+    }
+
+    /**
+     * 商品の集計を照合するメソッド
+     *
+     * 在庫レコードがなくなった商品は数量0にします。
+     *
+     * @return 置き換えた行数
+     */
+    private int reconcileProducts() {
+        Map<Long, BigDecimal> current = new HashMap<>();
+        jdbcTemplate.query(PRODUCT_SQL, rs -> {
+            current.put(rs.getLong("product_id"), rs.getBigDecimal("total_quantity"));
+        });
+        List<Object[]> corrections = new ArrayList<>();
+        jdbcTemplate.query(COMPUTE_PRODUCTS_SQL, rs -> {
+            long productId = rs.getLong("product_id");
+            BigDecimal computed = rs.getBigDecimal("total_quantity");
+            BigDecimal stored = current.remove(productId);
+            if (stored == null || stored.compareTo(computed) != 0) {
+                corrections.add(new Object[]{productId, computed});
+            }
+        });
+        current.forEach((productId, stored) -> {
+            if (stored.signum() != 0) {
+                corrections.add(new Object[]{productId, BigDecimal.ZERO});
+            }
+        });
+        jdbcTemplate.batchUpdate(SET_PRODUCT_SQL, corrections);
+        return corrections.size();
+    }
+
+    /**
+     * 変更前後の値から差分を求めて合算するメソッド
+     */
+    private void accumulate(List<Change> changes) {
+        for (Change change : changes) {
+            WarehouseDelta delta = WarehouseDelta.of(change);
+            if (!delta.isZero()) {
+                warehouseDeltas.merge(change.warehouseId(), delta, WarehouseDelta::plus);
+            }
+            if (delta.quantity().signum() != 0) {
+                productDeltas.merge(change.productId(), delta.quantity(), BigDecimal::add);
+            }
+        }
+    }
+
+    /**
+     * 未反映の差分を取り出すメソッド（主キー順）
+     */
+    private static <V> Map<Long, V> drain(Map<Long, V> deltas) {
+        Map<Long, V> drained = new TreeMap<>();
+        for (Long id : deltas.keySet()) {
+            V delta = deltas.remove(id);
+            if (delta != null) {
+                drained.put(id, delta);
+            }
+        }
+        return drained;
+    }
+
+    private static Object[] warehouseRow(ResultSet rs) throws SQLException {
+        return new Object[]{rs.getLong("warehouse_id"), rs.getBigDecimal("total_quantity"),
+                rs.getBigDecimal("total_value"), rs.getLong("in_stock_count"), rs.getLong("out_of_stock_count")};
+    }
+
+    private static boolean sameRow(Object[] computed, Object[] stored) {
+        return stored != null
+                && ((BigDecimal) computed[1]).compareTo((BigDecimal) stored[1]) == 0
+                && ((BigDecimal) computed[2]).compareTo((BigDecimal) stored[2]) == 0
+                && computed[3].equals(stored[3])
+                && computed[4].equals(stored[4]);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    /**
+     * 在庫レコード1件の変更前後の値
+     *
+     * @param warehouseId 倉庫ID
+     * @param productId 商品ID
+     * @param quantityBefore 変更前の在庫数量（レコードを追加した場合はnull）
+     * @param unitCostBefore 変更前の単価
+     * @param quantityAfter 変更後の在庫数量（レコードを削除した場合はnull）
+     * @param unitCostAfter 変更後の単価
+     */
+    public record Change(
+            Long warehouseId,
+            Long productId,
+            BigDecimal quantityBefore,
+            BigDecimal unitCostBefore,
+            BigDecimal quantityAfter,
+            BigDecimal unitCostAfter) {
+    }
+
+    /**
+     * 倉庫の集計の差分
+     */
+    private record WarehouseDelta(BigDecimal quantity, BigDecimal value, long inStock, long outOfStock) {
+
+        private static WarehouseDelta of(Change change) {
+            return new WarehouseDelta(
+                    orZero(change.quantityAfter()).subtract(orZero(change.quantityBefore())),
+                    value(change.quantityAfter(), change.unitCostAfter())
+                            .subtract(value(change.quantityBefore(), change.unitCostBefore())),
+                    inStock(change.quantityAfter()) - inStock(change.quantityBefore()),
+                    outOfStock(change.quantityAfter()) - outOfStock(change.quantityBefore()));
+        }
+
+        private WarehouseDelta plus(WarehouseDelta other) {
+            return new WarehouseDelta(quantity.add(other.quantity), value.add(other.value),
+                    inStock + other.inStock, outOfStock + other.outOfStock);
+        }
+
+        private boolean isZero() {
+            return quantity.signum() == 0 && value.signum() == 0 && inStock == 0 && outOfStock == 0;
+        }
+
+        private static BigDecimal orZero(BigDecimal quantity) {
+            return quantity == null ? BigDecimal.ZERO : quantity;
+        }
+
+        // 単価未設定の在庫は金額に含めない（在庫テーブルのSUM(quantity * unit_cost)と同じ扱い）
+        private static BigDecimal value(BigDecimal quantity, BigDecimal unitCost) {
+            return quantity == null || unitCost == null ? BigDecimal.ZERO : quantity.multiply(unitCost);
+        }
+
+        private static long inStock(BigDecimal quantity) {
+            return quantity != null && quantity.signum() > 0 ? 1 : 0;
+        }
+
+        private static long outOfStock(BigDecimal quantity) {
+            return quantity != null && quantity.signum() == 0 ? 1 : 0;
+        }
+    }
+}
@@ -0,0 +1,467 @@
+package com.cooola.service;
+
+import com.cooola.dto.InventoryAllocation;
+import com.cooola.entity.InventoryMovement;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 在庫移動台帳
+ *
+ * このクラスは在庫数量・引当数量の変化を在庫移動履歴（inventory_movements）に追記します。
+ * 記録は呼び出し元のトランザクションのコミット後に書き込み待ちの列へ追加し、
+ * 専用スレッドが複数件をまとめて1回のバッチINSERTで書き込みます（グループコミット）。
+ * そのため、在庫を変更するリクエストの応答時間には台帳への書き込み時間が加わりません。
+ *
+ * 移動番号はDocumentNumberGeneratorで採番し、採番と列への追加を同じロックの中で行うため、
+ * 台帳には移動番号の順に書き込まれます。
+ *
+ * 書き込みに失敗した場合、接続断・デッドロック・タイムアウトなどの一時的な失敗は同じ順序のまま再試行します。
+ * 制約違反など再試行しても成功しない失敗の場合は1件ずつ書き込み直し、書き込めなかった記録のみを
+ * 書き込み失敗記録（inventory_movement_dead_letters）に移して後続の記録の書き込みを続けます。
+ *
+ * 書き込み待ちの列が満杯の場合、記録元は一定時間（inventory.ledger.enqueue-timeout）だけ空きを待ち、
+ * それでも追加できなかった記録は書き込み失敗記録に直接登録します（メトリクス inventory.ledger.rejected）。
+ * 伝票番号のノードコードの借り受け期限が切れていて採番できない記録も、移動番号なしで書き込み失敗記録に登録します。
+ * コミット後から書き込みまでの間に異常終了した場合、その間の記録は失われます。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component  // Springコンポーネントとして登録
+@Slf4j      // ログ機能
+public class InventoryLedger {
+
+    // 移動番号の接頭辞
+    private static final String MOVEMENT_NUMBER_PREFIX = "MV";
+    // 再試行の最大待機時間（ミリ秒）
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+    // 停止時の最大再試行回数
+    private static final int SHUTDOWN_ATTEMPTS = 3;
+
+    // 書き込み失敗記録に残すエラーメッセージの最大文字数
+    private static final int MAX_ERROR_LENGTH = 2_000;
+
+    // 台帳に追記するSQL
+    private static final String INSERT_SQL =
+            "INSERT INTO inventory_movements (movement_number, inventory_id, warehouse_id, product_id, " +
+            "from_location_id, to_location_id, quantity, movement_type, reference_number, reason, created_by, " +
+            "created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    // 書き込み失敗記録に登録するSQL
+    private static final String INSERT_DEAD_LETTER_SQL =
+            "INSERT INTO inventory_movement_dead_letters (movement_number, inventory_id, warehouse_id, product_id, " +
+            "location_id, movement_type, quantity, reference_number, reason, created_by, occurred_at, error_message) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // バッチ更新用のJDBCテンプレート
+    private final JdbcTemplate jdbcTemplate;
+    // 1回の書き込み単位のトランザクション（一部だけ書き込まれた状態で再試行しないため）
+    private final TransactionTemplate transactionTemplate;
+    // 伝票番号採番
+    private final DocumentNumberGenerator numberGenerator;
+    // 書き込み待ちの記録
+    private final BlockingQueue<Entry> queue;
+    // 1回のINSERTでまとめる最大件数
+    private final int batchSize;
+    // 列が満杯の場合に空きを待つ最大時間（ナノ秒）
+    private final long enqueueTimeoutNanos;
+    // 書き込み済みの件数
+    private final Counter written;
+    // 書き込み失敗記録に移した件数
+    private final Counter deadLettered;
+    // 列が満杯のため追加できなかった件数
+    private final Counter rejected;
+    // 採番と列への追加の排他（列が満杯の場合は保持したまま待機するため、ReentrantLockを使用）
+    private final ReentrantLock enqueueLock = new ReentrantLock();
+    // 在庫の変化の通知先
+    private final ObjectProvider<Listener> listeners;
+
+    // 書き込みスレッド
+    private Thread writer;
+    // 稼働中かどうか
+    private volatile boolean running = true;
+
+    /**
+     * 台帳を初期化するコンストラクタ
+     *
+     * @param jdbcTemplate JDBCテンプレート
+     * @param transactionTemplate トランザクションテンプレート
+     * @param numberGenerator 伝票番号採番
+     * @param listeners 在庫の変化の通知先
+     * @param meterRegistry メトリクスレジストリ
+     * @param queueCapacity 書き込み待ちの最大件数（超えた場合は記録元が空きを待つ）
+     * @param batchSize 1回のINSERTでまとめる最大件数
+     * @param enqueueTimeout 列が満杯の場合に空きを待つ最大時間
+     */
+    public InventoryLedger(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                           DocumentNumberGenerator numberGenerator,
+                           ObjectProvider<Listener> listeners,
+                           MeterRegistry meterRegistry,
+                           @Value("${inventory.ledger.queue-capacity:100000}") int queueCapacity,
+                           @Value("${inventory.ledger.batch-size:500}") int batchSize,
+                           @Value("${inventory.ledger.enqueue-timeout:PT1S}") Duration enqueueTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.numberGenerator = numberGenerator;
+        this.listeners = listeners;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.enqueueTimeoutNanos = enqueueTimeout.toNanos();
+        this.written = Counter.builder("inventory.ledger.written").register(meterRegistry);
+        this.deadLettered = Counter.builder("inventory.ledger.dead-lettered")
+                .description("Inventory movements moved to the dead-letter table")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("inventory.ledger.rejected")
+                .description("Inventory movements not queued because the write queue stayed full")
+                .register(meterRegistry);
+        Gauge.builder("inventory.ledger.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    /**
+     * 書き込みスレッドを開始するメソッド
+     */
+    @PostConstruct
+    public void start() {
+        writer = new Thread(this::run, "inventory-ledger");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * 書き込み待ちの記録を書き込んで停止するメソッド
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 在庫の変化を記録するメソッド
+     *
+     * 呼び出し元のトランザクション内の場合はコミット後に記録し、ロールバックされた場合は記録しません。
+     *
+     * @param movements 在庫の変化
+     */
+    public void record(List<Movement> movements) {
+        if (movements.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(movements);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(movements);
+            }
+        });
+    }
+
+    /**
+     * 移動番号を採番して書き込み待ちの列に追加するメソッド
+     *
+     * 記録日時はコミット後の時刻とし、在庫スナップショットの時点指定の照会で変化が反映された時刻として扱います。
+     * 列の空きを待つのは全体で一定時間までとし、追加できなかった記録は書き込み失敗記録に登録します。
+     * コミット後に呼び出されるため例外は送出せず、採番できなかった記録も書き込み失敗記録に登録します。
+     */
+    private void enqueue(List<Movement> movements) {
+        Timestamp timestamp = Timestamp.valueOf(LocalDateTime.now());
+        List<Entry> overflow = new ArrayList<>();
+        String error = "Inventory ledger queue is full";
+        enqueueLock.lock();
+        try {
+            long deadline = System.nanoTime() + enqueueTimeoutNanos;
+            for (Movement movement : movements) {
+                String number = null;
+                try {
+                    number = numberGenerator.next(MOVEMENT_NUMBER_PREFIX);
+                } catch (IllegalStateException e) {
+                    error = e.getMessage();
+                }
+                Entry entry = new Entry(number, movement, timestamp);
+                boolean queued = false;
+                // 一度追加できなかった後は順序を保つため、残りの記録も列に追加しない
+                if (number != null && overflow.isEmpty()) {
+                    try {
+                        queued = queue.offer(entry, deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        error = "Interrupted while queueing inventory movements";
+                    }
+                }
+                if (!queued) {
+                    overflow.add(entry);
+                }
+            }
+        } finally {
+            enqueueLock.unlock();
+        }
+        if (!overflow.isEmpty()) {
+            rejected.increment(overflow.size());
+            log.error("{}, moving {} movements to the dead-letter table", error, overflow.size());
+            for (Entry entry : overflow) {
+                deadLetter(entry, error);
+            }
+        }
+        listeners.orderedStream().forEach(listener -> {
+            try {
+                listener.onRecorded(movements);
+            } catch (RuntimeException e) {
+                log.warn("Inventory movement listener {} failed", listener.getClass().getSimpleName(), e);
+            }
+        });
+    }
+
+    /**
+     * 書き込みスレッドの処理
+     */
+    private void run() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeWithRetry(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (!batch.isEmpty() || !queue.isEmpty()) {
+            queue.drainTo(batch);
+            log.error("Inventory ledger stopped with {} unwritten movements: {}", batch.size(), batch);
+        }
+    }
+
+    /**
+     * 書き込みに成功するまで再試行するメソッド（停止中は一定回数で諦める）
+     *
+     * 再試行しても成功しない失敗の場合は1件ずつ書き込み直し、書き込めなかった記録を書き込み失敗記録に移します。
+     */
+    private void writeWithRetry(List<Entry> batch) throws InterruptedException {
+        long backoff = 100;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                write(batch);
+                written.increment(batch.size());
+                return;
+            } catch (DuplicateKeyException e) {
+                // 再起動直後など、以前のプロセスと移動番号が重複した場合は採番し直す
+                log.warn("Duplicate movement number in inventory ledger, renumbering {} movements", batch.size());
+                if (!renumber(batch)) {
+                    if (!running && attempt >= SHUTDOWN_ATTEMPTS) {
+                        log.error("Giving up writing {} inventory movements: {}", batch.size(), batch);
+                        return;
+                    }
+                    // 借り受け期限が切れている場合は、借り受け直すまで待って採番し直す
+                    log.error("Cannot renumber {} inventory movements, retrying in {} ms", batch.size(), backoff);
+                    Thread.sleep(backoff);
+                    backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+                }
+            } catch (DataAccessException e) {
+                if (!isTransient(e)) {
+                    log.error("Permanent failure writing {} inventory movements, writing them one by one",
+                            batch.size(), e);
+                    writeIndividually(batch);
+                    return;
+                }
+                if (!running && attempt >= SHUTDOWN_ATTEMPTS) {
+                    log.error("Giving up writing {} inventory movements: {}", batch.size(), batch, e);
+                    return;
+                }
+                log.error("Failed to write {} inventory movements, retrying in {} ms", batch.size(), backoff, e);
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * 記録の移動番号を採番し直すメソッド
+     *
+     * @return 伝票番号のノードコードの借り受け期限が切れていて採番できなかった場合はfalse
+     */
+    private boolean renumber(List<Entry> batch) {
+        enqueueLock.lock();
+        try {
+            batch.replaceAll(entry -> entry.renumber(numberGenerator.next(MOVEMENT_NUMBER_PREFIX)));
+            return true;
+        } catch (IllegalStateException e) {
+            log.warn("Inventory movement renumbering failed: {}", e.getMessage());
+            return false;
+        } finally {
+            enqueueLock.unlock();
+        }
+    }
+
+    /**
+     * 記録を1件ずつ書き込み、再試行しても成功しない記録を書き込み失敗記録に移すメソッド
+     *
+     * 一時的な失敗の場合は、その記録から書き込みに成功するまで再試行します。
+     */
+    private void writeIndividually(List<Entry> batch) throws InterruptedException {
+        for (Entry entry : batch) {
+            List<Entry> single = new ArrayList<>(List.of(entry));
+            try {
+                write(single);
+                written.increment();
+            } catch (DataAccessException e) {
+                if (e instanceof DuplicateKeyException || isTransient(e)) {
+                    writeWithRetry(single);
+                } else {
+                    deadLetter(entry, e.getMostSpecificCause().toString());
+                }
+            }
+        }
+    }
+
+    /**
+     * 再試行すれば成功する可能性のある失敗かどうかを返却するメソッド
+     *
+     * 接続断・デッドロック・ロック待ちのタイムアウトなどは一時的な失敗、制約違反・SQLの誤りなどは恒久的な失敗とします。
+     */
+    private static boolean isTransient(DataAccessException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException;
+    }
+
+    /**
+     * 記録を書き込み失敗記録に登録するメソッド（登録にも失敗した場合は内容をログに出力する）
+     */
+    private void deadLetter(Entry entry, String error) {
+        Movement m = entry.movement();
+        try {
+            jdbcTemplate.update(INSERT_DEAD_LETTER_SQL, entry.movementNumber(), m.inventoryId(), m.warehouseId(),
+                    m.productId(), m.locationId(), m.type().name(), m.quantity(), m.referenceNumber(), m.reason(),
+                    m.createdBy(), entry.occurredAt(),
+                    error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+            deadLettered.increment();
+            log.warn("Moved inventory movement {} to the dead-letter table: {}", entry.movementNumber(), error);
+        } catch (DataAccessException e) {
+            log.error("Failed to dead-letter inventory movement, it was not recorded: {}", entry, e);
+        }
+    }
+
+    /**
+     * 記録をまとめて書き込むメソッド
+     */
+    private void write(List<Entry> batch) {
+        List<Object[]> args = new ArrayList<>(batch.size());
+        for (Entry entry : batch) {
+            Movement m = entry.movement();
+            boolean increase = m.quantity().signum() >= 0;
+            args.add(new Object[]{entry.movementNumber(), m.inventoryId(), m.warehouseId(), m.productId(),
+                    increase ? null : m.locationId(), increase ? m.locationId() : null, m.quantity(),
+                    m.type().name(), m.referenceNumber(), m.reason(), m.createdBy(), entry.occurredAt()});
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, args));
+    }
+
+    /**
+     * 在庫レコード1件の変化
+     *
+     * 数量は在庫数量（RESERVE・RELEASEの場合は引当数量）の増減を符号付きで表します。
+     * 台帳には増加の場合は移動先、減少の場合は移動元のロケーションとして記録されます。
+     *
+     * @param inventoryId 在庫ID
+     * @param warehouseId 倉庫ID
+     * @param productId 商品ID
+     * @param locationId ロケーションID
+     * @param type 移動種別
+     * @param quantity 数量の増減
+     * @param referenceNumber 伝票番号（入庫番号・ウェーブ番号など）
+     * @param reason 理由
+     * @param createdBy 操作したユーザーID（システムによる変更の場合はnull）
+     */
+    public record Movement(
+            Long inventoryId,
+            Long warehouseId,
+            Long productId,
+            Long locationId,
+            InventoryMovement.MovementType type,
+            BigDecimal quantity,
+            String referenceNumber,
+            String reason,
+            Long createdBy) {
+
+        /**
+         * 引当結果から在庫の変化を作成するメソッド
+         *
+         * @param allocation 在庫レコードと数量
+         * @param type 移動種別
+         * @param quantity 数量の増減
+         * @param referenceNumber 伝票番号
+         * @return 在庫の変化
+         */
+        public static Movement of(InventoryAllocation allocation, InventoryMovement.MovementType type,
+                                  BigDecimal quantity, String referenceNumber) {
+            return new Movement(allocation.inventoryId(), allocation.warehouseId(), allocation.productId(),
+                    allocation.locationId(), type, quantity, referenceNumber, null, null);
+        }
+    }
+
+    /**
+     * 在庫の変化の通知を受け取るリスナー
+     *
+     * 通知はコミット後に記録元のスレッドで行うため、時間のかかる処理は行わないでください。
+     */
+    public interface Listener {
+
+        /**
+         * 在庫の変化が記録された後に呼び出されるメソッド
+         *
+         * @param movements 在庫の変化
+         */
+        void onRecorded(List<Movement> movements);
+    }
+
+    /**
+     * 書き込み待ちの記録
+     */
+    private record Entry(String movementNumber, Movement movement, Timestamp occurredAt) {
+
+        private Entry renumber(String number) {
+            return new Entry(number, movement, occurredAt);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.cooola.service;
+
+import com.cooola.dto.InventoryAllocation;
+import com.cooola.dto.ReservationLine;
+import com.cooola.entity.InventoryMovement;
+import com.cooola.entity.Product;
+import com.cooola.repository.InventoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 在庫引当サービス
+ *
+ * このクラスは在庫の引当と引当解除を行います。
+ * 引当候補の在庫レコードはLotAllocatorが在庫IDの昇順にロック付きで読み取り、商品の引当方式
+ * （FEFO・FIFO・LIFO）の順に並べ替えます。ロック中の最新の引当可能数量から引当するため、過剰引当も、
+ * 他のトランザクションの引当による誤った在庫不足も発生しません。
+ * 複数明細の引当は1トランザクションで行い、在庫レコードは常に商品ID・倉庫ID・在庫IDの順に
+ * ロックするため、同じ商品を含む注文が同時に引当されてもデッドロックになりません。
+ * ホットSKUとして指定された在庫レコードはHotInventoryReservationsのメモリ上カウンターで引当し、
+ * 引当順はロックした在庫レコードと合わせた引当方式の順に従います。
+ * 引当・解除した数量はコミット後にInventoryLedgerへ記録します。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Service                    // Spring Bootサービスとして登録
+@RequiredArgsConstructor    // コンストラクタインジェクション
+@Slf4j                      // ログ機能
+@Transactional              // トランザクション管理
+public class InventoryReservationService {
+
+    // 在庫リポジトリ
+    private final InventoryRepository inventoryRepository;
+    // ホットSKUのメモリ上引当
+    private final HotInventoryReservations hotReservations;
+    // 在庫移動台帳
+    private final InventoryLedger ledger;
+    // ロット引当エンジン
+    private final LotAllocator lotAllocator;
+
+    /**
+     * 複数明細の在庫を引当するメソッド
+     *
+     * 同じ商品・倉庫の明細は合算し、商品の引当方式の順に在庫レコードを選んで引当します。
+     * いずれかの明細で在庫が不足した場合は例外をスローし、トランザクション全体がロールバックされます。
+     *
+     * @param lines 引当明細の一覧
+     * @return 在庫レコードごとの引当結果（明細ごとに引当方式の順）
+     * @throws IllegalArgumentException 明細の指定が不正な場合
+     * @throws IllegalStateException 在庫が不足している場合
+     */
+    public List<InventoryAllocation> reserve(List<ReservationLine> lines) {
+        return reserve(lines, null);
+    }
+
+    /**
+     * 複数明細の在庫を引当し、伝票番号とともに台帳へ記録するメソッド
+     *
+     * @param lines 引当明細の一覧
+     * @param referenceNumber 伝票番号（台帳に記録する）
+     * @return 在庫レコードごとの引当結果（明細ごとに引当方式の順）
+     * @throws IllegalArgumentException 明細の指定が不正な場合
+     * @throws IllegalStateException 在庫が不足している場合
+     */
+    public List<InventoryAllocation> reserve(List<ReservationLine> lines, String referenceNumber) {
+        List<InventoryAllocation> allocations = new ArrayList<>();
+        for (Map.Entry<LineKey, BigDecimal> line : merge(lines).entrySet()) {
+            LineKey key = line.getKey();
+            BigDecimal shortage = reserveLine(key.productId(), key.warehouseId(), line.getValue(), allocations);
+            if (shortage.signum() > 0) {
+                throw new IllegalStateException(String.format(
+                        "Insufficient stock: product=%d, warehouse=%d, requested=%s, shortage=%s",
+                        key.productId(), key.warehouseId(), line.getValue().toPlainString(), shortage.toPlainString()));
+            }
+        }
+        ledger.record(allocations.stream()
+                .map(a -> InventoryLedger.Movement.of(a, InventoryMovement.MovementType.RESERVE, a.quantity(),
+                        referenceNumber))
+                .toList());
+        log.debug("Inventory reserved: {} lines, {} allocations", lines.size(), allocations.size());
+        return allocations;
+    }
+
+    /**
+     * 引当を解除するメソッド
+     *
+     * 引当時と同じ順序で在庫レコードを更新します。
+     *
+     * @param allocations 解除する引当の一覧
+     * @throws IllegalArgumentException 数量の指定が不正な場合
+     * @throws IllegalStateException 解除数量が引当済み数量を超える場合
+     */
+    public void release(List<InventoryAllocation> allocations) {
+        release(allocations, null);
+    }
+
+    /**
+     * 引当を解除し、伝票番号とともに台帳へ記録するメソッド
+     *
+     * @param allocations 解除する引当の一覧
+     * @param referenceNumber 伝票番号（台帳に記録する）
+     * @throws IllegalArgumentException 数量の指定が不正な場合
+     * @throws IllegalStateException 解除数量が引当済み数量を超える場合
+     */
+    public void release(List<InventoryAllocation> allocations, String referenceNumber) {
+        Map<Long, InventoryAllocation> byInventory = new TreeMap<>();
+        for (InventoryAllocation allocation : allocations) {
+            requirePositive(allocation.quantity());
+            byInventory.merge(allocation.inventoryId(), allocation,
+                    (a, b) -> a.withQuantity(a.quantity().add(b.quantity())));
+        }
+
+        List<InventoryAllocation> ordered = new ArrayList<>(byInventory.values());
+        ordered.sort(InventoryAllocation.LOCK_ORDER);
+        for (InventoryAllocation allocation : ordered) {
+            if (hotReservations.isHot(allocation.inventoryId())) {
+                hotReservations.release(allocation.inventoryId(), allocation.quantity());
+                continue;
+            }
+            if (inventoryRepository.release(allocation.inventoryId(), allocation.quantity()) == 0) {
+                throw new IllegalStateException(String.format(
+                        "Reserved quantity is less than release quantity: inventory=%d, quantity=%s",
+                        allocation.inventoryId(), allocation.quantity().toPlainString()));
+            }
+        }
+        ledger.record(ordered.stream()
+                .map(a -> InventoryLedger.Movement.of(a, InventoryMovement.MovementType.RELEASE, a.quantity().negate(),
+                        referenceNumber))
+                .toList());
+        log.debug("Inventory released: {} allocations", ordered.size());
+    }
+
+    /**
+     * 1商品・1倉庫分を引当するメソッド
+     *
+     * ホットSKUの在庫レコードとLotAllocatorがロックした在庫レコードを1つの一覧にまとめ、
+     * 引当方式の順に引当します。ホットSKUの在庫レコードは行ロックを取らず、メモリ上のカウンターで引当します。
+     * ホットSKUの在庫レコードだけで足り、他に引当可能な在庫レコードがない場合はロック付きの読み取りを行いません
+     * （読み取りは商品・倉庫の在庫レコードをすべてロックするため、ホットSKUの引当が行ロックで直列化されるのを避ける）。
+     *
+     * @return 引当できなかった数量
+     */
+    private BigDecimal reserveLine(Long productId, Long warehouseId, BigDecimal quantity,
+                                   List<InventoryAllocation> allocations) {
+        LocalDate today = LocalDate.now();
+        Product.AllocationStrategy strategy = lotAllocator.strategyOf(productId);
+        List<LotAllocator.Lot> lots = new ArrayList<>(
+                hotReservations.findAllocatable(productId, warehouseId, strategy, today));
+        BigDecimal hotAvailable = lots.stream()
+                .map(lot -> lot.row().quantity())
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        boolean locked = hotReservations.hasOtherLots(productId, warehouseId) || hotAvailable.compareTo(quantity) < 0;
+        if (locked) {
+            lots.addAll(lotAllocator.lock(productId, warehouseId, strategy, today, hotReservations::isHot));
+            lots.sort(LotAllocator.order(strategy));
+        }
+
+        BigDecimal remaining = reserveLots(lots, quantity, allocations);
+        if (remaining.signum() > 0 && !locked) {
+            // 並行する引当でホットSKUの在庫が不足した場合は、ロックした在庫レコードから引当する
+            List<LotAllocator.Lot> lockedLots =
+                    lotAllocator.lock(productId, warehouseId, strategy, today, hotReservations::isHot);
+            remaining = reserveLots(lockedLots, remaining, allocations);
+        }
+        return remaining;
+    }
+
+    /**
+     * ロットを順に引当するメソッド
+     *
+     * @return 引当できなかった数量
+     */
+    private BigDecimal reserveLots(List<LotAllocator.Lot> lots, BigDecimal quantity,
+                                   List<InventoryAllocation> allocations) {
+        BigDecimal remaining = quantity;
+        for (LotAllocator.Lot lot : lots) {
+            if (remaining.signum() <= 0) {
+                break;
+            }
+            BigDecimal take = reserveLot(lot, remaining);
+            if (take.signum() > 0) {
+                allocations.add(lot.row().withQuantity(take));
+                remaining = remaining.subtract(take);
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * 1ロットから引当するメソッド
+     *
+     * @return 引当した数量
+     */
+    private BigDecimal reserveLot(LotAllocator.Lot lot, BigDecimal quantity) {
+        Long inventoryId = lot.row().inventoryId();
+        if (lot.hot()) {
+            return hotReservations.reserve(inventoryId, quantity);
+        }
+        BigDecimal take = lot.row().quantity().min(quantity);
+        // ロック取得済みのため条件は念のための確認
+        return inventoryRepository.reserve(inventoryId, take) > 0 ? take : BigDecimal.ZERO;
+    }
+
+    /**
+     * 明細を検証し、商品・倉庫ごとに合算してロック取得順に並べるメソッド
+     */
+    private static Map<LineKey, BigDecimal> merge(List<ReservationLine> lines) {
+        if (lines == null || lines.isEmpty()) {
+            throw new IllegalArgumentException("No reservation lines specified");
+        }
+        Map<LineKey, BigDecimal> merged = new TreeMap<>(LineKey.ORDER);
+        for (ReservationLine line : lines) {
+            if (line.getProductId() == null || line.getWarehouseId() == null) {
+                throw new IllegalArgumentException("Product and warehouse are required");
+            }
+            requirePositive(line.getQuantity());
+            merged.merge(new LineKey(line.getProductId(), line.getWarehouseId()), line.getQuantity(), BigDecimal::add);
+        }
+        return merged;
+    }
+
+    /**
+     * 数量が正の値であることを検証するメソッド
+     */
+    private static void requirePositive(BigDecimal quantity) {
+        if (quantity == null || quantity.signum() <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive: " + quantity);
+        }
+    }
+
+    /**
+     * 引当明細の集計キー
+     *
+     * @param productId 商品ID
+     * @param warehouseId 倉庫ID
+     */
+    private record LineKey(Long productId, Long warehouseId) {
+
+        /**
+         * 商品ID、倉庫IDの昇順（InventoryAllocation.LOCK_ORDERと同じ順序）
+         */
+        private static final Comparator<LineKey> ORDER =
+                Comparator.comparing(LineKey::productId).thenComparing(LineKey::warehouseId);
+    }
+}
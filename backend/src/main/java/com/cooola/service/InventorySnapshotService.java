@@ -0,0 +1,344 @@
+package com.cooola.service;
+
+import com.cooola.dto.InventoryAsOf;
+import com.cooola.dto.InventoryPosition;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * 在庫スナップショットサービス
+ *
+ * このクラスは在庫レコードごとの数量・引当数量を一定間隔の時点（デフォルト: 毎正時）で保存し、
+ * 直近のスナップショットに在庫移動台帳の増減を加えることで任意の時点の在庫を求めます。
+ * 台帳を再生する範囲はスナップショットの間隔以内に収まるため、台帳の長さによらず一定の時間で応答します。
+ *
+ * スナップショットは直前のスナップショットに、その時点から次の時点までの台帳の増減を加えて
+ * 1回のINSERT ... SELECTで作成します（差分作成）。台帳は非同期に書き込まれるため、
+ * 書き込みの遅れを見込んだ猶予（lag）が過ぎた時点のみを対象とします。
+ * 各スナップショットには作成時に確認した台帳の最後のID（反映位置）を保存し、
+ * 猶予を過ぎてから書き込まれた過去の時刻の記録は、反映位置より後の記録として次のスナップショットで反映します。
+ * そのため、書き込みが遅れた記録もスナップショットの連鎖から漏れることはありません。
+ * 反映位置は書き込みから一定時間（1分）が過ぎた記録のみとし、コミット前の記録を読み飛ばさないようにします。
+ * 最初のスナップショットは台帳の開始前から存在する在庫を取り込むため、在庫テーブルから作成します
+ * （作成中に並行して在庫が変更された場合、その時点の前後で誤差が出る可能性があります）。
+ * 在庫テーブルには作成時点までの記録がすべて反映済みのため、最初のスナップショットを基準にする場合は
+ * 書き込みが遅れた記録を反映しません（反映すると二重に計上されるため）。
+ *
+ * 時点指定の照会では、基準のスナップショットの後に書き込まれた記録のうち次のスナップショットの作成までに
+ * 書き込まれたものを反映します（それより後に書き込まれた記録は照会の時点より後のスナップショットにのみ反映されます）。
+ *
+ * 保持期間を過ぎたスナップショットは、日付の境界（0時）のものを除いて削除します。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Service                    // Springサービスとして登録
+@RequiredArgsConstructor    // コンストラクタインジェクション
+@Slf4j                      // ログ機能
+public class InventorySnapshotService {
+
+    // 1回のDELETEで削除する最大明細数
+    private static final int DELETE_CHUNK = 10_000;
+    // 反映位置とする台帳の記録の書き込みからの経過秒数（コミット前の記録を読み飛ばさないため）
+    private static final int WATERMARK_MARGIN_SECONDS = 60;
+
+    // 指定時点以前の最新スナップショットを取得するSQL
+    private static final String LATEST_SQL =
+            "SELECT id, snapshot_at, snapshot_type, last_movement_id FROM inventory_snapshots " +
+            "WHERE snapshot_at <= ? ORDER BY snapshot_at DESC LIMIT 1";
+    // 指定時点より後の最初のスナップショットの反映位置を取得するSQL
+    private static final String NEXT_WATERMARK_SQL =
+            "SELECT last_movement_id FROM inventory_snapshots WHERE snapshot_at > ? ORDER BY snapshot_at LIMIT 1";
+    // 書き込みから一定時間が過ぎた台帳の最後のIDを取得するSQL
+    private static final String WATERMARK_SQL =
+            "SELECT id FROM inventory_movements WHERE recorded_at <= NOW(3) - INTERVAL ? SECOND " +
+            "ORDER BY id DESC LIMIT 1";
+    // スナップショットを登録するSQL
+    private static final String INSERT_SNAPSHOT_SQL =
+            "INSERT INTO inventory_snapshots (snapshot_at, snapshot_type, base_snapshot_id, last_movement_id) " +
+            "VALUES (?, ?, ?, ?)";
+    // 在庫テーブルから明細を作成するSQL
+    private static final String INSERT_BASELINE_LINES_SQL =
+            "INSERT INTO inventory_snapshot_lines (snapshot_id, inventory_id, product_id, warehouse_id, " +
+            "location_id, quantity, reserved_quantity) " +
+            "SELECT ?, id, product_id, warehouse_id, location_id, quantity, reserved_quantity FROM inventory " +
+            "WHERE quantity <> 0 OR reserved_quantity <> 0";
+    // 台帳の記録を明細と同じ列で取得するSQL（RESERVE・RELEASEは引当数量、それ以外は在庫数量の増減。在庫IDのない記録は対象外）
+    private static final String MOVEMENT_COLUMNS_SQL =
+            "SELECT inventory_id, product_id, warehouse_id, COALESCE(to_location_id, from_location_id), " +
+            "CASE WHEN movement_type IN ('RESERVE', 'RELEASE') THEN 0 ELSE quantity END, " +
+            "CASE WHEN movement_type IN ('RESERVE', 'RELEASE') THEN quantity ELSE 0 END " +
+            "FROM inventory_movements WHERE inventory_id IS NOT NULL%1$s ";
+    // スナップショットの明細に台帳の増減を加えるSQL
+    // 1. 期間内（from より後 to 以前）の記録のうち、反映位置 toId 以前のもの
+    // 2. 期間より前（from 以前）の記録のうち、スナップショットの反映位置 fromId より後 lateToId 以前のもの（書き込みが遅れた記録）
+    private static final String REPLAY_SQL =
+            "SELECT x.inventory_id, MAX(x.product_id) AS product_id, MAX(x.warehouse_id) AS warehouse_id, " +
+            "MAX(x.location_id) AS location_id, SUM(x.quantity) AS quantity, " +
+            "SUM(x.reserved_quantity) AS reserved_quantity FROM (" +
+            "SELECT inventory_id, product_id, warehouse_id, location_id, quantity, reserved_quantity " +
+            "FROM inventory_snapshot_lines WHERE snapshot_id = :snapshotId%1$s " +
+            "UNION ALL " +
+            MOVEMENT_COLUMNS_SQL + "AND created_at > :from AND created_at <= :to AND id <= :toId " +
+            "UNION ALL " +
+            MOVEMENT_COLUMNS_SQL + "AND id > :fromId AND id <= :lateToId AND created_at <= :from" +
+            ") x GROUP BY x.inventory_id " +
+            "HAVING SUM(x.quantity) <> 0 OR SUM(x.reserved_quantity) <> 0";
+    // 差分作成で明細を登録するSQL
+    private static final String INSERT_REPLAYED_LINES_SQL =
+            "INSERT INTO inventory_snapshot_lines (snapshot_id, inventory_id, product_id, warehouse_id, " +
+            "location_id, quantity, reserved_quantity) SELECT :newSnapshotId, r.* FROM (" +
+            REPLAY_SQL.formatted("") + ") r";
+    // 保持期間を過ぎたスナップショットを取得するSQL（0時のもの・最初のものは残す）
+    private static final String EXPIRED_SQL =
+            "SELECT id FROM inventory_snapshots WHERE snapshot_at < ? AND snapshot_type = 'SCHEDULED' " +
+            "AND TIME(snapshot_at) <> '00:00:00' AND id <> ? ORDER BY id";
+
+    // JDBCテンプレート
+    private final JdbcTemplate jdbcTemplate;
+    // 名前付きパラメータ用のJDBCテンプレート
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    // スナップショット作成単位のトランザクション
+    private final TransactionTemplate transactionTemplate;
+
+    // スナップショットの間隔（1日を割り切れる長さ）
+    @Value("${inventory.snapshot.interval:PT1H}")
+    private Duration interval;
+
+    // 台帳の書き込みの遅れを見込んだ猶予（この期間より前の時点のみスナップショットを作成する）
+    @Value("${inventory.snapshot.lag:PT5M}")
+    private Duration lag;
+
+    // 0時以外のスナップショットの保持期間
+    @Value("${inventory.snapshot.retention:P7D}")
+    private Duration retention;
+
+    /**
+     * 設定値を検証するメソッド
+     */
+    @PostConstruct
+    public void validate() {
+        long seconds = interval.toSeconds();
+        if (seconds <= 0 || Duration.ofDays(1).toSeconds() % seconds != 0) {
+            throw new IllegalStateException("inventory.snapshot.interval must divide one day: " + interval);
+        }
+    }
+
+    /**
+     * 指定時点の在庫を取得するメソッド
+     *
+     * @param at 指定時点
+     * @param warehouseId 倉庫ID
+     * @param productId 商品ID（nullの場合は倉庫内の全商品）
+     * @return 指定時点の在庫
+     * @throws IllegalArgumentException 指定時点以前のスナップショットが存在しない場合
+     */
+    public InventoryAsOf asOf(LocalDateTime at, Long warehouseId, Long productId) {
+        LocalDateTime time = at.truncatedTo(ChronoUnit.SECONDS);
+        Snapshot base = latestAtOrBefore(time);
+        if (base == null) {
+            throw new IllegalArgumentException("No inventory snapshot at or before " + time);
+        }
+
+        // 次のスナップショットの作成後に書き込まれた記録は対象外とし、基準以降の記録の範囲を限定する
+        Long nextWatermark = jdbcTemplate.query(NEXT_WATERMARK_SQL,
+                rs -> rs.next() ? rs.getLong(1) : null, Timestamp.valueOf(base.at()));
+        StringBuilder filter = new StringBuilder(" AND warehouse_id = :warehouseId");
+        MapSqlParameterSource params = replayParams(base, time, Long.MAX_VALUE,
+                nextWatermark != null ? nextWatermark : Long.MAX_VALUE)
+                .addValue("warehouseId", warehouseId);
+        if (productId != null) {
+            filter.append(" AND product_id = :productId");
+            params.addValue("productId", productId);
+        }
+        List<InventoryPosition> positions = namedParameterJdbcTemplate.query(
+                REPLAY_SQL.formatted(filter) + " ORDER BY x.inventory_id", params,
+                (rs, rowNum) -> new InventoryPosition(
+                        rs.getLong("inventory_id"),
+                        rs.getLong("product_id"),
+                        rs.getLong("warehouse_id"),
+                        rs.getObject("location_id", Long.class),
+                        rs.getBigDecimal("quantity"),
+                        rs.getBigDecimal("reserved_quantity")));
+        return new InventoryAsOf(time, base.at(), positions);
+    }
+
+    /**
+     * 作成時期を過ぎたスナップショットを作成するメソッド
+     *
+     * 停止などで複数の時点を過ぎていた場合は、0時のスナップショットを順に作成した上で最新の時点に追いつきます。
+     * 複数のインスタンスで同時に実行された場合、同じ時点のスナップショットは一意キーにより1つだけ作成されます。
+     */
+    @Scheduled(fixedDelayString = "${inventory.snapshot.check-interval:PT5M}")
+    public void takeSnapshots() {
+        try {
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+            Snapshot base = latestAtOrBefore(now);
+            if (base == null) {
+                base = createBaseline(now);
+            }
+
+            LocalDateTime target = boundaryAtOrBefore(now.minus(lag));
+            while (base.at().isBefore(target)) {
+                LocalDateTime next = boundaryAtOrBefore(base.at()).plus(interval);
+                if (next.isBefore(target)) {
+                    LocalDateTime midnight = base.at().toLocalDate().plusDays(1).atStartOfDay();
+                    next = midnight.isBefore(target) ? midnight : target;
+                }
+                base = createSnapshot(base, next);
+            }
+            purgeExpired(now, base);
+        } catch (DuplicateKeyException e) {
+            log.debug("Inventory snapshot already taken by another instance: {}", e.getMessage());
+        } catch (DataAccessException e) {
+            log.warn("Failed to take inventory snapshot, will retry on the next run", e);
+        }
+    }
+
+    /**
+     * 在庫テーブルから最初のスナップショットを作成するメソッド
+     */
+    private Snapshot createBaseline(LocalDateTime at) {
+        return transactionTemplate.execute(status -> {
+            long watermark = watermark(0);
+            long id = insertSnapshot(at, "BASELINE", null, watermark);
+            int lines = jdbcTemplate.update(INSERT_BASELINE_LINES_SQL, id);
+            jdbcTemplate.update("UPDATE inventory_snapshots SET line_count = ? WHERE id = ?", lines, id);
+            log.info("Inventory baseline snapshot taken at {}: {} lines", at, lines);
+            return new Snapshot(id, at, watermark, true);
+        });
+    }
+
+    /**
+     * 直前のスナップショットに台帳の増減を加えてスナップショットを作成するメソッド
+     *
+     * 直前のスナップショットの反映位置より後に書き込まれた、直前の時点以前の記録もあわせて反映します。
+     */
+    private Snapshot createSnapshot(Snapshot base, LocalDateTime at) {
+        return transactionTemplate.execute(status -> {
+            long started = System.currentTimeMillis();
+            long watermark = watermark(base.watermark());
+            long id = insertSnapshot(at, "SCHEDULED", base.id(), watermark);
+            int lines = namedParameterJdbcTemplate.update(INSERT_REPLAYED_LINES_SQL,
+                    replayParams(base, at, watermark, watermark).addValue("newSnapshotId", id));
+            jdbcTemplate.update("UPDATE inventory_snapshots SET line_count = ? WHERE id = ?", lines, id);
+            log.info("Inventory snapshot taken at {}: {} lines up to movement {} in {} ms", at, lines, watermark,
+                    System.currentTimeMillis() - started);
+            return new Snapshot(id, at, watermark, false);
+        });
+    }
+
+    /**
+     * 反映位置とする台帳のIDを取得するメソッド
+     *
+     * @param previous 直前のスナップショットの反映位置
+     * @return 書き込みから一定時間が過ぎた台帳の最後のID（直前の反映位置より前には戻らない）
+     */
+    private long watermark(long previous) {
+        Long id = jdbcTemplate.query(WATERMARK_SQL, rs -> rs.next() ? rs.getLong(1) : null,
+                WATERMARK_MARGIN_SECONDS);
+        return id != null ? Math.max(id, previous) : previous;
+    }
+
+    /**
+     * スナップショットのヘッダーを登録して採番されたIDを返却するメソッド
+     */
+    private long insertSnapshot(LocalDateTime at, String type, Long baseSnapshotId, long watermark) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_SNAPSHOT_SQL, Statement.RETURN_GENERATED_KEYS);
+            ps.setTimestamp(1, Timestamp.valueOf(at));
+            ps.setString(2, type);
+            ps.setObject(3, baseSnapshotId);
+            ps.setLong(4, watermark);
+            return ps;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+
+    /**
+     * 保持期間を過ぎたスナップショットを削除するメソッド
+     */
+    private void purgeExpired(LocalDateTime now, Snapshot latest) {
+        List<Long> expired = jdbcTemplate.queryForList(EXPIRED_SQL, Long.class,
+                Timestamp.valueOf(now.minus(retention)), latest.id());
+        for (Long id : expired) {
+            // 明細は大量になり得るため、ロックを長く保持しないよう分割して削除する
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update("DELETE FROM inventory_snapshot_lines WHERE snapshot_id = ? LIMIT ?",
+                        id, DELETE_CHUNK);
+            } while (deleted > 0);
+            jdbcTemplate.update("DELETE FROM inventory_snapshots WHERE id = ?", id);
+        }
+        if (!expired.isEmpty()) {
+            log.info("Purged {} expired inventory snapshots", expired.size());
+        }
+    }
+
+    /**
+     * 指定時点以前の最新スナップショットを取得するメソッド
+     */
+    private Snapshot latestAtOrBefore(LocalDateTime at) {
+        return jdbcTemplate.query(LATEST_SQL,
+                rs -> rs.next() ? new Snapshot(rs.getLong("id"), rs.getTimestamp("snapshot_at").toLocalDateTime(),
+                        rs.getLong("last_movement_id"), "BASELINE".equals(rs.getString("snapshot_type"))) : null,
+                Timestamp.valueOf(at));
+    }
+
+    /**
+     * 台帳を再生する範囲のパラメータを作成するメソッド
+     *
+     * 在庫テーブルから作成したスナップショットには基準時点以前の記録が反映済みのため、書き込みが遅れた記録を対象外とします。
+     *
+     * @param base 基準のスナップショット
+     * @param to 期間の終了時点
+     * @param toId 期間内の記録の最後の台帳ID
+     * @param lateToId 書き込みが遅れた記録の最後の台帳ID
+     */
+    private static MapSqlParameterSource replayParams(Snapshot base, LocalDateTime to, long toId, long lateToId) {
+        return new MapSqlParameterSource()
+                .addValue("snapshotId", base.id())
+                .addValue("from", Timestamp.valueOf(base.at()))
+                .addValue("to", Timestamp.valueOf(to))
+                .addValue("fromId", base.baseline() ? Long.MAX_VALUE : base.watermark())
+                .addValue("toId", toId)
+                .addValue("lateToId", lateToId);
+    }
+
+    /**
+     * 指定時刻以前で最も近いスナップショットの時点を返却するメソッド
+     */
+    private LocalDateTime boundaryAtOrBefore(LocalDateTime time) {
+        long step = interval.toSeconds();
+        long secondOfDay = time.toLocalTime().toSecondOfDay();
+        return time.toLocalDate().atStartOfDay().plusSeconds(secondOfDay / step * step);
+    }
+
+    /**
+     * スナップショットのID・時点・台帳の反映位置・在庫テーブルから作成したかどうか
+     */
+    private record Snapshot(long id, LocalDateTime at, long watermark, boolean baseline) {
+    }
+}
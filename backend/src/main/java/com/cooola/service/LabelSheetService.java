@@ -0,0 +1,218 @@
+package com.cooola.service;
+
+import com.cooola.dto.LabelSheetRequest;
+import com.cooola.entity.Product;
+import com.cooola.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * ラベルシート一括生成サービス
+ *
+ * このクラスは複数商品のバーコードラベルをまとめて生成し、ZIPアーカイブとして出力します。
+ * 対象商品は件数を確認した上で1回のクエリで解決し、画像はラベルシート専用のスレッドプールで並列に描画します。
+ * 描画中の画像数を一定数に抑えたままストリームへ順に書き出すため、
+ * ラベル枚数が多くてもヒープ使用量は増えません。
+ * ラベル画像は1回しか使用しないため、画像キャッシュを経由せずに生成します。
+ * 描画用スレッドプールの待ち行列が満杯の場合は、書き出し中のスレッドで描画して待ち行列の空きを待つため、
+ * 出力の途中で失敗することはありません。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Service  // Spring Bootサービスとして登録
+@Slf4j    // ログ機能
+public class LabelSheetService {
+
+    // 商品リポジトリ
+    private final ProductRepository productRepository;
+    // バーコード・QRコード生成サービス
+    private final BarcodeService barcodeService;
+    // ラベルシート描画用スレッドプール
+    private final ThreadPoolTaskExecutor renderExecutor;
+
+    // 1リクエストで生成できるラベルの最大数
+    @Value("${barcode.labels.max-count:5000}")
+    private int maxLabels;
+
+    public LabelSheetService(ProductRepository productRepository,
+                             BarcodeService barcodeService,
+                             @Qualifier("labelSheetRenderExecutor") ThreadPoolTaskExecutor renderExecutor) {
+        this.productRepository = productRepository;
+        this.barcodeService = barcodeService;
+        this.renderExecutor = renderExecutor;
+    }
+
+    /**
+     * リクエストの条件に該当する商品のラベル情報を取得するメソッド
+     *
+     * 商品を読み込む前に件数を確認し、上限件数を超える場合は読み込みません。
+     *
+     * @param request ラベルシート生成リクエスト
+     * @return ラベル情報の一覧
+     * @throws IllegalArgumentException 対象の指定がない場合、または上限件数を超える場合
+     */
+    @Transactional(readOnly = true)
+    public List<Label> resolveLabels(LabelSheetRequest request) {
+        List<Product> products;
+        if (request.getSkus() != null && !request.getSkus().isEmpty()) {
+            Set<String> skus = new LinkedHashSet<>(request.getSkus());
+            checkCount(skus.size());
+            products = productRepository.findBySkuIn(skus);
+        } else if (request.getCategoryId() != null) {
+            checkCount(productRepository.countByCategoryId(request.getCategoryId()));
+            products = productRepository.findByCategoryId(request.getCategoryId());
+        } else if (request.getLocationId() != null) {
+            checkCount(productRepository.countStockedInLocation(request.getLocationId()));
+            products = productRepository.findStockedInLocation(request.getLocationId());
+        } else if (request.getWarehouseId() != null) {
+            checkCount(productRepository.countStockedInWarehouse(request.getWarehouseId()));
+            products = productRepository.findStockedInWarehouse(request.getWarehouseId());
+        } else {
+            throw new IllegalArgumentException("No label target specified");
+        }
+
+        return products.stream()
+                .map(product -> new Label(product.getSku(), product.getName()))
+                .toList();
+    }
+
+    /**
+     * ラベル画像をZIPアーカイブとして出力するメソッド
+     *
+     * 描画は並列で行い、アーカイブへの書き込みはラベルの順序どおりに行います。
+     * 同時に描画中となる画像はスレッド数の2倍までに制限されます。
+     * 描画または書き込みに失敗した場合は、描画中の画像を破棄し、アーカイブを完成させずに打ち切ります
+     * （終端を書き込まないため、途中までのアーカイブが正常なファイルとして扱われることはありません）。
+     *
+     * @param labels ラベル情報の一覧
+     * @param labelType ラベルの種類
+     * @param out 出力先ストリーム
+     * @throws IOException 出力に失敗した場合
+     */
+    public void writeZip(List<Label> labels, LabelSheetRequest.LabelType labelType, OutputStream out)
+            throws IOException {
+        int window = Math.max(1, renderExecutor.getMaxPoolSize() * 2);
+        Deque<CompletableFuture<byte[]>> pending = new ArrayDeque<>(window);
+
+        ZipOutputStream zip = new ZipOutputStream(out);
+        boolean finished = false;
+        try {
+            int next = 0;
+            for (int i = 0; i < labels.size(); i++) {
+                // 描画ウィンドウを補充
+                while (next < labels.size() && pending.size() < window) {
+                    Label label = labels.get(next++);
+                    pending.add(submit(label, labelType));
+                }
+
+                byte[] image;
+                try {
+                    image = pending.poll().join();
+                } catch (CompletionException e) {
+                    throw new IOException("ラベル画像の生成に失敗しました", e.getCause());
+                }
+                writeEntry(zip, entryName(i, labels.get(i)), image);
+            }
+            zip.finish();
+            finished = true;
+        } finally {
+            if (!finished) {
+                // 描画待ちの画像を破棄して打ち切る
+                pending.forEach(future -> future.cancel(false));
+                log.warn("Label sheet aborted after a failure: {} labels requested", labels.size());
+            }
+        }
+        log.info("Label sheet generated: {} labels", labels.size());
+    }
+
+    /**
+     * 件数が上限以下であることを確認するメソッド
+     */
+    private void checkCount(long count) {
+        if (count > maxLabels) {
+            throw new IllegalArgumentException("Too many labels requested: " + count);
+        }
+    }
+
+    /**
+     * ラベル画像の描画を描画用スレッドプールに登録するメソッド
+     *
+     * 待ち行列が満杯で登録できない場合は、呼び出し元のスレッドで描画します
+     * （描画が終わるまで次の登録を行わないため、待ち行列が空くのを待つことになります）。
+     */
+    private CompletableFuture<byte[]> submit(Label label, LabelSheetRequest.LabelType labelType) {
+        try {
+            return CompletableFuture.supplyAsync(() -> render(label, labelType), renderExecutor);
+        } catch (TaskRejectedException e) {
+            return CompletableFuture.supplyAsync(() -> render(label, labelType), Runnable::run);
+        }
+    }
+
+    /**
+     * ラベル画像を1件描画するメソッド
+     */
+    private byte[] render(Label label, LabelSheetRequest.LabelType labelType) {
+        if (labelType == LabelSheetRequest.LabelType.QR) {
+            return barcodeService.generateUncached(barcodeService.productQRCodeKey(label.sku(), label.name()));
+        }
+        return barcodeService.generateUncached(barcodeService.productBarcodeKey(label.sku()));
+    }
+
+    /**
+     * PNG画像を無圧縮エントリとしてZIPに書き込むメソッド
+     *
+     * PNGは圧縮済みのため、再圧縮せずに格納します。
+     */
+    private static void writeEntry(ZipOutputStream zip, String name, byte[] image) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(image);
+
+        ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(image.length);
+        entry.setCompressedSize(image.length);
+        entry.setCrc(crc.getValue());
+
+        zip.putNextEntry(entry);
+        zip.write(image);
+        zip.closeEntry();
+    }
+
+    /**
+     * 連番とSKUからファイル名として安全なエントリ名を作成するメソッド
+     *
+     * 記号を置換したSKU同士が衝突しないよう、先頭に連番を付与します。
+     */
+    private static String entryName(int index, Label label) {
+        return String.format("%05d_%s.png", index + 1, label.sku().replaceAll("[^A-Za-z0-9._-]", "_"));
+    }
+
+    /**
+     * ラベル情報
+     *
+     * @param sku 商品のSKU
+     * @param name 商品名
+     */
+    public record Label(String sku, String name) {
+    }
+}
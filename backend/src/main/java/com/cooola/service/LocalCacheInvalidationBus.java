@@ -0,0 +1,41 @@
+package com.cooola.service;
+
+import com.cooola.dto.CacheInvalidation;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * メモリ上のキャッシュ無効化イベント通知
+ *
+ * Redisを使用しない環境での代替です。通知は登録済みの処理を呼び出し元のスレッドで順に呼び出します。
+ * 同じインスタンスを複数のアプリケーションコンテキストで共有すると、1つのJVM内で複数インスタンス構成を再現できます。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Slf4j  // ログ機能
+public class LocalCacheInvalidationBus implements CacheInvalidationBus {
+
+    // 通知を受け取る処理
+    private final List<Consumer<List<CacheInvalidation>>> subscribers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(List<CacheInvalidation> events) {
+        for (Consumer<List<CacheInvalidation>> subscriber : subscribers) {
+            try {
+                subscriber.accept(events);
+            } catch (RuntimeException e) {
+                log.error("Failed to deliver {} cache invalidation events", events.size(), e);
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<List<CacheInvalidation>> subscriber) {
+        subscribers.add(subscriber);
+    }
+}
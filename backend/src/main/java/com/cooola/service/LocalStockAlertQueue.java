@@ -0,0 +1,59 @@
+package com.cooola.service;
+
+import com.cooola.dto.StockAlert;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+
+/**
+ * メモリ上の在庫アラートキュー
+ *
+ * SQSを使用しない環境での代替です。送信したアラートはreceiveで先頭から取り出せます。
+ * 上限を超えた場合は古いアラートから破棄します。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Slf4j  // ログ機能
+public class LocalStockAlertQueue implements StockAlertQueue {
+
+    // 保持するアラート
+    private final BlockingDeque<StockAlert> alerts;
+
+    /**
+     * キューを作成するコンストラクタ
+     *
+     * @param capacity 保持する最大件数
+     */
+    public LocalStockAlertQueue(int capacity) {
+        this.alerts = new LinkedBlockingDeque<>(capacity);
+    }
+
+    @Override
+    public void send(List<StockAlert> batch) {
+        for (StockAlert alert : batch) {
+            while (!alerts.offerLast(alert)) {
+                StockAlert dropped = alerts.pollFirst();
+                if (dropped != null) {
+                    log.warn("Local stock alert queue is full, dropped: {}", dropped);
+                }
+            }
+        }
+    }
+
+    /**
+     * アラートを古い順に取り出すメソッド
+     *
+     * @param max 取り出す最大件数
+     * @return アラート（取り出したアラートはキューから削除される）
+     */
+    public List<StockAlert> receive(int max) {
+        List<StockAlert> received = new ArrayList<>(Math.min(max, alerts.size()));
+        alerts.drainTo(received, max);
+        return received;
+    }
+}
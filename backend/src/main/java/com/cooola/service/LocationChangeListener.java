@@ -0,0 +1,55 @@
+package com.cooola.service;
+
+import com.cooola.entity.Location;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * ロケーション変更リスナー
+ *
+ * このクラスはロケーションの登録・更新・削除を検知し、その倉庫のピッキング経路用グラフを破棄します。
+ * 破棄はトランザクションのコミット後に行い、コミット前の階層が再び読み込まれることを防ぎます。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component                  // Springコンポーネントとして登録（HibernateがエンティティリスナーとしてSpringから取得する）
+@RequiredArgsConstructor    // コンストラクタインジェクション
+public class LocationChangeListener {
+
+    // ピッキング経路サービス（リスナーはEntityManagerFactoryの構築中に生成されるため、遅延して取得する）
+    private final ObjectProvider<PickRouteService> pickRouteService;
+
+    /**
+     * ロケーションの変更後に呼び出されるメソッド
+     *
+     * @param location 変更されたロケーション
+     */
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Location location) {
+        if (location.getWarehouse() == null) {
+            return;
+        }
+        Long warehouseId = location.getWarehouse().getId();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            pickRouteService.getObject().invalidate(warehouseId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pickRouteService.getObject().invalidate(warehouseId);
+            }
+        });
+    }
+}
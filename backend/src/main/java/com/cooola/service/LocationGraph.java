@@ -0,0 +1,212 @@
+package com.cooola.service;
+
+import com.cooola.dto.LocationNode;
+import com.cooola.entity.Location;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 倉庫内ロケーションの配置グラフ
+ *
+ * このクラスはAISLE→RACK→SHELF→BINのロケーション階層を、経路計算用の配列に展開して保持します。
+ * ロケーションには座標がないため、階層から次のように配置を決めます。
+ * <ul>
+ *   <li>通路（AISLE、または親を持たない最上位ロケーション）はコード順に並ぶ</li>
+ *   <li>通路内の位置は、通路直下のロケーション（ラック）のコード順の番号とする</li>
+ *   <li>棚・ビンは属するラックの位置にあるものとする（同じ位置ではコード順に並べる）</li>
+ * </ul>
+ * 通路は手前と奥の両端で横断通路につながっているものとし、出発点は先頭の通路の手前とします。
+ * 構築後は変更しないため、複数スレッドから同時に参照できます。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class LocationGraph {
+
+    /**
+     * 隣り合う通路の間隔（ラック1つ分の奥行きを1とした距離）
+     */
+    static final int AISLE_SPACING = 3;
+
+    // ロケーションID → ノード番号
+    private final Map<Long, Integer> indexes;
+    // ノード番号ごとのロケーションID・コード
+    private final long[] ids;
+    private final String[] codes;
+    // ノード番号ごとの通路番号・通路内の位置（1始まり、通路自体は0）・階層の深さ優先順
+    private final int[] aisles;
+    private final int[] positions;
+    private final int[] sequences;
+    // 奥の横断通路の位置（最も長い通路の位置 + 1）
+    private final int backPosition;
+
+    private LocationGraph(Map<Long, Integer> indexes, long[] ids, String[] codes, int[] aisles,
+                          int[] positions, int[] sequences, int backPosition) {
+        this.indexes = indexes;
+        this.ids = ids;
+        this.codes = codes;
+        this.aisles = aisles;
+        this.positions = positions;
+        this.sequences = sequences;
+        this.backPosition = backPosition;
+    }
+
+    /**
+     * ロケーション階層からグラフを構築するメソッド
+     *
+     * 親が同じ倉庫に存在しないロケーションは最上位として扱います。
+     *
+     * @param nodes 倉庫内の全ロケーション
+     * @return 配置グラフ
+     */
+    public static LocationGraph build(List<LocationNode> nodes) {
+        Map<Long, LocationNode> byId = new HashMap<>(nodes.size() * 2);
+        nodes.forEach(node -> byId.put(node.id(), node));
+        Map<Long, List<LocationNode>> children = new HashMap<>();
+        List<LocationNode> roots = new ArrayList<>();
+        for (LocationNode node : nodes) {
+            if (node.parentId() == null || !byId.containsKey(node.parentId())) {
+                roots.add(node);
+            } else {
+                children.computeIfAbsent(node.parentId(), id -> new ArrayList<>()).add(node);
+            }
+        }
+        Comparator<LocationNode> byCode = Comparator.comparing(LocationNode::code).thenComparing(LocationNode::id);
+        roots.sort(byCode);
+        children.values().forEach(list -> list.sort(byCode));
+
+        int size = nodes.size();
+        Map<Long, Integer> indexes = new HashMap<>(size * 2);
+        long[] ids = new long[size];
+        String[] codes = new String[size];
+        int[] aisles = new int[size];
+        int[] positions = new int[size];
+        int[] sequences = new int[size];
+        int maxPosition = 0;
+        int aisleCount = 0;
+
+        // 深さ優先で展開する（循環した親子関係があっても各ノードは1回だけ処理する）
+        Deque<Placement> stack = new ArrayDeque<>();
+        for (int r = roots.size() - 1; r >= 0; r--) {
+            stack.push(new Placement(roots.get(r), -1, 0, 0));
+        }
+        int next = 0;
+        while (!stack.isEmpty()) {
+            Placement placement = stack.pop();
+            LocationNode node = placement.node();
+            if (indexes.containsKey(node.id())) {
+                continue;
+            }
+            int aisle = placement.aisle();
+            int position = placement.position();
+            int depth = placement.depth();
+            if (aisle < 0 || node.locationType() == Location.LocationType.AISLE) {
+                aisle = aisleCount++;
+                position = 0;
+                depth = 0;
+            }
+
+            int index = next++;
+            indexes.put(node.id(), index);
+            ids[index] = node.id();
+            codes[index] = node.code();
+            aisles[index] = aisle;
+            positions[index] = position;
+            sequences[index] = index;
+            maxPosition = Math.max(maxPosition, position);
+
+            List<LocationNode> kids = children.getOrDefault(node.id(), List.of());
+            for (int k = kids.size() - 1; k >= 0; k--) {
+                // 通路直下のロケーションは通路内の位置を持ち、それより下は親の位置を引き継ぐ
+                int childPosition = depth == 0 ? k + 1 : position;
+                stack.push(new Placement(kids.get(k), aisle, childPosition, depth + 1));
+            }
+        }
+
+        // 親子関係が循環していて最上位から辿れなかったロケーションは末尾の通路に置く
+        for (LocationNode node : nodes) {
+            if (!indexes.containsKey(node.id())) {
+                int index = next++;
+                indexes.put(node.id(), index);
+                ids[index] = node.id();
+                codes[index] = node.code();
+                aisles[index] = aisleCount;
+                sequences[index] = index;
+            }
+        }
+        return new LocationGraph(indexes, ids, codes, aisles, positions, sequences, maxPosition + 1);
+    }
+
+    /**
+     * ロケーションのノード番号を返却するメソッド
+     *
+     * @param locationId ロケーションID
+     * @return ノード番号（グラフに含まれない場合は-1）
+     */
+    public int indexOf(Long locationId) {
+        Integer index = indexes.get(locationId);
+        return index == null ? -1 : index;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public long id(int index) {
+        return ids[index];
+    }
+
+    public String code(int index) {
+        return codes[index];
+    }
+
+    public int aisle(int index) {
+        return aisles[index];
+    }
+
+    public int position(int index) {
+        return positions[index];
+    }
+
+    public int sequence(int index) {
+        return sequences[index];
+    }
+
+    public int backPosition() {
+        return backPosition;
+    }
+
+    /**
+     * 2地点間の歩行距離を返却するメソッド
+     *
+     * 同じ通路内は位置の差、異なる通路間は手前・奥のうち近い横断通路を経由した距離とします。
+     * 出発点は通路0・位置0として扱えます。
+     *
+     * @param aisleA 地点Aの通路番号
+     * @param positionA 地点Aの位置
+     * @param aisleB 地点Bの通路番号
+     * @param positionB 地点Bの位置
+     * @return 歩行距離
+     */
+    public int distance(int aisleA, int positionA, int aisleB, int positionB) {
+        if (aisleA == aisleB) {
+            return Math.abs(positionA - positionB);
+        }
+        int viaFront = positionA + positionB;
+        int viaBack = 2 * backPosition - positionA - positionB;
+        return Math.abs(aisleA - aisleB) * AISLE_SPACING + Math.min(viaFront, viaBack);
+    }
+
+    /**
+     * 展開中のノードと、引き継ぐ配置
+     */
+    private record Placement(LocationNode node, int aisle, int position, int depth) {
+    }
+}
@@ -0,0 +1,174 @@
+package com.cooola.service;
+
+import com.cooola.dto.InventoryAllocation;
+import com.cooola.entity.Product;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongPredicate;
+
+/**
+ * ロット引当エンジン
+ *
+ * このクラスは商品の引当方式（FEFO・FIFO・LIFO）に従って、引当するロット（在庫レコード）を選びます。
+ * 引当候補は商品・倉庫の在庫レコードを在庫IDの昇順にロック付きで読み取り、メモリ上で引当方式の順に並べ替えます。
+ * ロック付きの読み取りは最新のコミット済みの数量を返すため、他のトランザクションが引当した後でも
+ * 古いスナップショットの数量で候補を選ぶことはなく、ロックの取得順序も在庫IDの昇順に保たれます。
+ *
+ * FEFOでは有効期限のあるロットを期限の近い順に引当し、その後に有効期限のないロットを入庫順に引当します。
+ * 期限切れのロットは引当しません。FIFO・LIFOは入庫日時（received_at）の昇順・降順に引当します。
+ * 数量0の在庫レコードは入庫・棚卸で再利用されるため、在庫IDの順序は入庫順と一致しません。
+ * 商品に引当方式が設定されていない場合は inventory.allocation.default-strategy を使用します。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component                  // Springコンポーネントとして登録
+@RequiredArgsConstructor    // コンストラクタインジェクション
+@Slf4j                      // ログ機能
+public class LotAllocator {
+
+    // 引当可能数量のある在庫レコードを在庫IDの昇順にロックして取得するSQL
+    private static final String LOCK_LOTS_SQL =
+            "SELECT id, product_id, warehouse_id, location_id, expiry_date, received_at, available_quantity " +
+            "FROM inventory WHERE product_id = :productId AND warehouse_id = :warehouseId AND available_quantity > 0 " +
+            "ORDER BY id FOR UPDATE";
+    // 商品の引当方式を取得するSQL
+    private static final String SELECT_STRATEGIES_SQL =
+            "SELECT id, allocation_strategy FROM products WHERE id IN (:productIds)";
+
+    // 在庫レコードの変換
+    private static final RowMapper<Lot> LOT_MAPPER = (rs, rowNum) -> {
+        Date expiryDate = rs.getDate("expiry_date");
+        InventoryAllocation row = new InventoryAllocation(rs.getLong("id"), rs.getLong("product_id"),
+                rs.getLong("warehouse_id"), rs.getObject("location_id", Long.class),
+                rs.getBigDecimal("available_quantity"));
+        return new Lot(row, expiryDate != null ? expiryDate.toLocalDate() : null,
+                rs.getTimestamp("received_at").toLocalDateTime(), false);
+    };
+
+    // IN句展開用のJDBCテンプレート
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    // 引当方式が設定されていない商品の引当方式
+    @Value("${inventory.allocation.default-strategy:FIFO}")
+    private Product.AllocationStrategy defaultStrategy;
+
+    /**
+     * 商品の引当方式を取得するメソッド
+     *
+     * @param productId 商品ID
+     * @return 引当方式
+     */
+    public Product.AllocationStrategy strategyOf(Long productId) {
+        return strategiesOf(List.of(productId)).get(productId);
+    }
+
+    /**
+     * 複数商品の引当方式をまとめて取得するメソッド
+     *
+     * @param productIds 商品IDの一覧
+     * @return 商品ID → 引当方式（存在しない商品は既定値）
+     */
+    public Map<Long, Product.AllocationStrategy> strategiesOf(Collection<Long> productIds) {
+        Map<Long, Product.AllocationStrategy> strategies = new HashMap<>();
+        productIds.forEach(productId -> strategies.put(productId, defaultStrategy));
+        if (productIds.isEmpty()) {
+            return strategies;
+        }
+        namedParameterJdbcTemplate.query(SELECT_STRATEGIES_SQL,
+                new MapSqlParameterSource("productIds", productIds), rs -> {
+                    String strategy = rs.getString("allocation_strategy");
+                    if (strategy != null) {
+                        strategies.put(rs.getLong("id"), Product.AllocationStrategy.valueOf(strategy));
+                    }
+                });
+        return strategies;
+    }
+
+    /**
+     * 引当候補の在庫レコードをロックし、引当方式の順に返却するメソッド
+     *
+     * 在庫レコードは在庫IDの昇順にロックします（ロックはトランザクションの終了まで保持されます）。
+     * FEFOでは期限切れのロットを除きます。トランザクション内で呼び出してください。
+     *
+     * @param productId 商品ID
+     * @param warehouseId 倉庫ID
+     * @param strategy 引当方式
+     * @param today 基準日
+     * @param excluded 対象外とする在庫ID（ホットSKUの在庫レコード）
+     * @return ロット（数量は引当可能数量、引当方式の順）
+     */
+    public List<Lot> lock(Long productId, Long warehouseId, Product.AllocationStrategy strategy,
+                          LocalDate today, LongPredicate excluded) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("productId", productId)
+                .addValue("warehouseId", warehouseId);
+        List<Lot> lots = new ArrayList<>(namedParameterJdbcTemplate.query(LOCK_LOTS_SQL, params, LOT_MAPPER));
+        lots.removeIf(lot -> excluded.test(lot.row().inventoryId())
+                || !isAllocatable(strategy, lot.expiryDate(), today));
+        lots.sort(order(strategy));
+        log.debug("Lots locked: product={}, warehouse={}, strategy={}, lots={}", productId, warehouseId,
+                strategy, lots.size());
+        return lots;
+    }
+
+    /**
+     * 引当方式の順序を返却するメソッド
+     *
+     * ロック付きで読み取った在庫レコードとホットSKUの在庫レコードを1つの一覧にまとめて並べ替える場合に使用します。
+     * FEFOでは有効期限のない在庫レコードを最後に並べます。入庫日時が同じ場合は在庫IDの順に並べます。
+     *
+     * @param strategy 引当方式
+     * @return 引当順の比較器
+     */
+    public static Comparator<Lot> order(Product.AllocationStrategy strategy) {
+        Comparator<Lot> byId = Comparator.comparing(lot -> lot.row().inventoryId());
+        Comparator<Lot> received = Comparator.comparing(Lot::receivedAt,
+                Comparator.nullsLast(Comparator.<LocalDateTime>naturalOrder())).thenComparing(byId);
+        return switch (strategy) {
+            case FEFO -> Comparator.comparing(Lot::expiryDate, Comparator.nullsLast(Comparator.naturalOrder()))
+                    .thenComparing(received);
+            case FIFO -> received;
+            case LIFO -> received.reversed();
+        };
+    }
+
+    /**
+     * 引当方式で引当できるロットかどうかを判定するメソッド
+     *
+     * @param strategy 引当方式
+     * @param expiryDate 有効期限
+     * @param today 基準日
+     * @return FEFOで期限切れのロットの場合はfalse
+     */
+    public static boolean isAllocatable(Product.AllocationStrategy strategy, LocalDate expiryDate, LocalDate today) {
+        return strategy != Product.AllocationStrategy.FEFO || expiryDate == null || !expiryDate.isBefore(today);
+    }
+
+    /**
+     * 引当候補のロット
+     *
+     * @param row 在庫レコード（数量は読み取り時の引当可能数量）
+     * @param expiryDate 有効期限
+     * @param receivedAt 入庫日時
+     * @param hot ホットSKUの在庫レコード（メモリ上のカウンターで引当する）の場合はtrue
+     */
+    public record Lot(InventoryAllocation row, LocalDate expiryDate, LocalDateTime receivedAt, boolean hot) {
+    }
+}
@@ -0,0 +1,178 @@
+package com.cooola.service;
+
+import com.cooola.dto.InventoryAllocation;
+import com.cooola.dto.OutboundOrderRequest;
+import com.cooola.dto.OutboundOrderView;
+import com.cooola.dto.PickList;
+import com.cooola.entity.OutboundOrder;
+import com.cooola.entity.OutboundOrderItem;
+import com.cooola.entity.Product;
+import com.cooola.entity.User;
+import com.cooola.entity.Warehouse;
+import com.cooola.repository.OutboundAllocationRepository;
+import com.cooola.repository.OutboundOrderRepository;
+import com.cooola.repository.ProductRepository;
+import com.cooola.repository.UserRepository;
+import com.cooola.repository.WarehouseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 出庫指示サービス
+ *
+ * このクラスは出庫指示の登録・参照・取消と、ウェーブ単位のピッキングリストの作成を行います。
+ * 在庫の引当はウェーブ作成時にOutboundWaveServiceがまとめて行うため、登録時点では引当しません。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Service                    // Spring Bootサービスとして登録
+@RequiredArgsConstructor    // コンストラクタインジェクション
+@Slf4j                      // ログ機能
+@Transactional              // トランザクション管理
+public class OutboundOrderService {
+
+    // 出庫番号の接頭辞
+    private static final String ORDER_NUMBER_PREFIX = "OUT";
+
+    // 出庫指示リポジトリ
+    private final OutboundOrderRepository orderRepository;
+    // 出庫引当リポジトリ
+    private final OutboundAllocationRepository allocationRepository;
+    // 倉庫リポジトリ
+    private final WarehouseRepository warehouseRepository;
+    // ユーザーリポジトリ
+    private final UserRepository userRepository;
+    // 商品リポジトリ
+    private final ProductRepository productRepository;
+    // 在庫引当サービス
+    private final InventoryReservationService reservationService;
+    // 伝票番号採番
+    private final DocumentNumberGenerator numberGenerator;
+    // ピッキング経路サービス
+    private final PickRouteService pickRouteService;
+
+    /**
+     * 出庫指示を登録するメソッド
+     *
+     * @param request 出庫指示の登録内容
+     * @return 登録された出庫指示
+     * @throws IllegalArgumentException 倉庫・ユーザー・商品が存在しない場合、または数量が不正な場合
+     */
+    public OutboundOrderView createOrder(OutboundOrderRequest request) {
+        if (request.getWarehouseId() == null || request.getCreatedBy() == null) {
+            throw new IllegalArgumentException("Warehouse and creator are required");
+        }
+        if (request.getItems() == null || request.getItems().isEmpty()) {
+            throw new IllegalArgumentException("Outbound order must have at least one item");
+        }
+        for (OutboundOrderRequest.Item item : request.getItems()) {
+            if (item.getProductId() == null || item.getQuantity() == null || item.getQuantity().signum() <= 0) {
+                throw new IllegalArgumentException("Each item requires a product and a positive quantity");
+            }
+        }
+
+        Warehouse warehouse = warehouseRepository.findById(request.getWarehouseId())
+                .orElseThrow(() -> new IllegalArgumentException("Warehouse not found: " + request.getWarehouseId()));
+        User createdBy = userRepository.findById(request.getCreatedBy())
+                .orElseThrow(() -> new IllegalArgumentException("User not found: " + request.getCreatedBy()));
+        List<Long> productIds = request.getItems().stream().map(OutboundOrderRequest.Item::getProductId).distinct().toList();
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        OutboundOrder order = new OutboundOrder();
+        order.setOrderNumber(numberGenerator.next(ORDER_NUMBER_PREFIX));
+        order.setWarehouse(warehouse);
+        order.setCustomerName(request.getCustomerName());
+        order.setCustomerOrderNumber(request.getCustomerOrderNumber());
+        order.setRequiredDate(request.getRequiredDate());
+        if (request.getPriority() != null) {
+            order.setPriority(request.getPriority());
+        }
+        order.setNotes(request.getNotes());
+        order.setCreatedBy(createdBy);
+        for (OutboundOrderRequest.Item line : request.getItems()) {
+            Product product = products.get(line.getProductId());
+            if (product == null) {
+                throw new IllegalArgumentException("Product not found: " + line.getProductId());
+            }
+            OutboundOrderItem item = new OutboundOrderItem();
+            item.setOutboundOrder(order);
+            item.setProduct(product);
+            item.setRequestedQuantity(line.getQuantity());
+            item.setUnitPrice(line.getUnitPrice());
+            item.setNotes(line.getNotes());
+            order.getItems().add(item);
+        }
+
+        OutboundOrder saved = orderRepository.save(order);
+        log.info("Outbound order created: {} ({} items)", saved.getOrderNumber(), saved.getItems().size());
+        return OutboundOrderView.from(saved);
+    }
+
+    /**
+     * IDで出庫指示を取得するメソッド
+     *
+     * @param id 出庫指示ID
+     * @return 出庫指示（存在しない場合は空のOptional）
+     */
+    @Transactional(readOnly = true)
+    public Optional<OutboundOrderView> getOrder(Long id) {
+        return orderRepository.findWithItemsById(id).map(OutboundOrderView::from);
+    }
+
+    /**
+     * 出庫指示を取り消すメソッド
+     *
+     * ウェーブに割り当て済み（ピッキング中）の場合は、引当済みの在庫を解除します。
+     * ウェーブ作成と同時に実行された場合に備え、出庫指示の行をロックしてから状態を確認します。
+     *
+     * @param id 出庫指示ID
+     * @throws IllegalArgumentException 出庫指示が存在しない場合
+     * @throws IllegalStateException ピッキング完了済み・出荷済み・取消済みの場合
+     */
+    public void cancelOrder(Long id) {
+        OutboundOrder order = orderRepository.findForUpdateById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Outbound order not found: " + id));
+        OutboundOrder.OrderStatus status = order.getStatus();
+        if (status != OutboundOrder.OrderStatus.PENDING && status != OutboundOrder.OrderStatus.PICKING) {
+            throw new IllegalStateException("Outbound order cannot be cancelled: status=" + status);
+        }
+
+        if (status == OutboundOrder.OrderStatus.PICKING) {
+            List<InventoryAllocation> allocations = allocationRepository.findInventoryAllocationsByOrderId(id);
+            if (!allocations.isEmpty()) {
+                reservationService.release(allocations, order.getOrderNumber());
+                allocationRepository.deleteByOrderId(id);
+            }
+        }
+        order.setStatus(OutboundOrder.OrderStatus.CANCELLED);
+        log.info("Outbound order cancelled: {}", order.getOrderNumber());
+    }
+
+    /**
+     * ウェーブのピッキングリストを取得するメソッド
+     *
+     * @param waveNumber ウェーブ番号
+     * @return ピッキングリスト（巡回順、ウェーブが存在しない場合は行が空）
+     */
+    @Transactional(readOnly = true)
+    public PickList getPickList(String waveNumber) {
+        PickList pickList = PickList.of(waveNumber, allocationRepository.findPickListEntries(waveNumber));
+        List<Long> warehouseIds = orderRepository.findWarehouseIdsByWaveNumber(waveNumber, PageRequest.of(0, 1));
+        if (pickList.lines().isEmpty() || warehouseIds.isEmpty()) {
+            return pickList;
+        }
+        return pickRouteService.sequence(warehouseIds.get(0), pickList);
+    }
+}
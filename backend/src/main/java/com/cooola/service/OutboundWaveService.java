@@ -0,0 +1,391 @@
+package com.cooola.service;
+
+import com.cooola.dto.InventoryAllocation;
+import com.cooola.dto.PickList;
+import com.cooola.dto.WaveRequest;
+import com.cooola.dto.WaveResult;
+import com.cooola.entity.InventoryMovement;
+import com.cooola.entity.OutboundOrder;
+import com.cooola.entity.OutboundOrderItem;
+import com.cooola.entity.Product;
+import com.cooola.repository.OutboundAllocationRepository;
+import com.cooola.repository.OutboundOrderItemRepository;
+import com.cooola.repository.OutboundOrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 出庫ウェーブサービス
+ *
+ * このクラスは未処理の出庫指示をまとめてウェーブに割り当て、在庫を一括で引当します。
+ * 出庫指示ごとに引当を行うのではなく、対象となる在庫レコードを1回のロック付き読み取りで取得し、
+ * 引当計画をメモリ上で立ててから、在庫の更新・引当明細の登録・出庫指示の状態更新をそれぞれバッチで実行します。
+ *
+ * 出庫指示は優先度・納期の順に処理し、全明細を引当できた出庫指示のみをウェーブに含めます（出庫指示単位の全量引当）。
+ * 引当できなかった出庫指示は未処理のまま残り、次のウェーブの対象になります。
+ * 各商品の引当候補は、ロック取得後に商品の引当方式（FEFO・FIFO・LIFO）の順に並べ替えてから計画に使用します。
+ * ピッキングリストはPickRouteServiceで計算した巡回順に並べて返却します。
+ * 同じ倉庫で同時にウェーブを作成した場合、他方がロック中の出庫指示は読み飛ばします。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Service                    // Spring Bootサービスとして登録
+@RequiredArgsConstructor    // コンストラクタインジェクション
+@Slf4j                      // ログ機能
+public class OutboundWaveService {
+
+    // ウェーブ番号の接頭辞
+    private static final String WAVE_NUMBER_PREFIX = "WAVE";
+    // IN句1回あたりの最大件数
+    private static final int IN_CHUNK_SIZE = 1000;
+
+    // 引当候補の在庫レコードをロックして取得するSQL（在庫レコードのロック順は商品ID・在庫IDの昇順）
+    private static final String LOCK_CANDIDATES_SQL =
+            "SELECT id, product_id, warehouse_id, location_id, expiry_date, received_at, available_quantity " +
+            "FROM inventory WHERE warehouse_id = :warehouseId AND product_id IN (:productIds) AND available_quantity > 0 " +
+            "ORDER BY product_id, id FOR UPDATE";
+    // 在庫レコードを引当するSQL（ロック取得済みのため条件は念のための確認）
+    private static final String RESERVE_SQL =
+            "UPDATE inventory SET reserved_quantity = reserved_quantity + ?, " +
+            "available_quantity = available_quantity - ? WHERE id = ? AND available_quantity >= ?";
+    // 引当明細を登録するSQL
+    private static final String INSERT_ALLOCATION_SQL =
+            "INSERT INTO outbound_allocations (outbound_order_item_id, inventory_id, quantity, created_at) " +
+            "VALUES (?, ?, ?, ?)";
+
+    // 出庫指示リポジトリ
+    private final OutboundOrderRepository orderRepository;
+    // 出庫明細リポジトリ
+    private final OutboundOrderItemRepository itemRepository;
+    // 出庫引当リポジトリ
+    private final OutboundAllocationRepository allocationRepository;
+    // ホットSKUのメモリ上引当
+    private final HotInventoryReservations hotReservations;
+    // 伝票番号採番
+    private final DocumentNumberGenerator numberGenerator;
+    // ピッキング経路サービス
+    private final PickRouteService pickRouteService;
+    // 在庫移動台帳
+    private final InventoryLedger ledger;
+    // ロット引当エンジン
+    private final LotAllocator lotAllocator;
+    // バッチ更新用のJDBCテンプレート
+    private final JdbcTemplate jdbcTemplate;
+    // IN句展開用のJDBCテンプレート
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    // 1ウェーブあたりの最大出庫指示数
+    @Value("${outbound.wave.max-orders:5000}")
+    private int maxOrders;
+
+    /**
+     * ウェーブを作成するメソッド
+     *
+     * @param request ウェーブの作成条件
+     * @return ウェーブ作成結果（対象の出庫指示がない場合はウェーブ番号がnull）
+     * @throws IllegalArgumentException 倉庫IDが指定されていない場合、または最大出庫指示数が不正な場合
+     */
+    @Transactional
+    public WaveResult createWave(WaveRequest request) {
+        if (request.getWarehouseId() == null) {
+            throw new IllegalArgumentException("Warehouse is required");
+        }
+        int limit = request.getMaxOrders() == null ? maxOrders : request.getMaxOrders();
+        if (limit <= 0 || limit > maxOrders) {
+            throw new IllegalArgumentException("maxOrders must be between 1 and " + maxOrders);
+        }
+        long started = System.currentTimeMillis();
+        Long warehouseId = request.getWarehouseId();
+
+        List<OutboundOrder.Priority> priorities = Arrays.stream(OutboundOrder.Priority.values())
+                .filter(p -> request.getMinPriority() == null || p.compareTo(request.getMinPriority()) >= 0)
+                .toList();
+        List<OutboundOrder> orders = orderRepository.findWaveCandidates(warehouseId, priorities,
+                request.getRequiredBy(), PageRequest.of(0, limit));
+        if (orders.isEmpty()) {
+            return new WaveResult(null, 0, List.of(), new PickList(null, List.of()));
+        }
+
+        Map<Long, List<OutboundOrderItem>> itemsByOrder = loadItems(orders);
+        Set<Long> productIds = new LinkedHashSet<>();
+        itemsByOrder.values().forEach(items -> items.forEach(item -> productIds.add(item.getProduct().getId())));
+        Map<Long, List<Candidate>> candidates = lockCandidates(warehouseId, productIds);
+
+        // 優先度順に出庫指示単位で引当計画を立てる
+        List<Long> acceptedOrderIds = new ArrayList<>();
+        List<String> skippedOrderNumbers = new ArrayList<>();
+        List<Take> takes = new ArrayList<>();
+        for (OutboundOrder order : orders) {
+            List<Take> orderTakes = plan(itemsByOrder.getOrDefault(order.getId(), List.of()), candidates);
+            if (orderTakes == null) {
+                skippedOrderNumbers.add(order.getOrderNumber());
+            } else {
+                acceptedOrderIds.add(order.getId());
+                takes.addAll(orderTakes);
+            }
+        }
+        if (acceptedOrderIds.isEmpty()) {
+            log.info("No outbound orders could be allocated: warehouse={}, candidates={}", warehouseId, orders.size());
+            return new WaveResult(null, 0, skippedOrderNumbers, new PickList(null, List.of()));
+        }
+
+        String waveNumber = numberGenerator.next(WAVE_NUMBER_PREFIX);
+        applyReservations(takes);
+        insertAllocations(takes);
+        recordMovements(takes, waveNumber);
+        int assigned = 0;
+        for (List<Long> chunk : chunks(acceptedOrderIds)) {
+            assigned += orderRepository.assignWave(waveNumber, chunk);
+        }
+        if (assigned != acceptedOrderIds.size()) {
+            throw new IllegalStateException("Outbound orders were modified during wave creation: " + waveNumber);
+        }
+
+        PickList pickList = pickRouteService.sequence(warehouseId,
+                PickList.of(waveNumber, allocationRepository.findPickListEntries(waveNumber)));
+        log.info("Wave {} created: {} orders allocated, {} skipped, {} pick lines in {} ms", waveNumber,
+                assigned, skippedOrderNumbers.size(), pickList.lines().size(), System.currentTimeMillis() - started);
+        return new WaveResult(waveNumber, assigned, skippedOrderNumbers, pickList);
+    }
+
+    /**
+     * 出庫指示の明細をまとめて取得するメソッド
+     *
+     * @return 出庫指示ID → 明細の一覧
+     */
+    private Map<Long, List<OutboundOrderItem>> loadItems(List<OutboundOrder> orders) {
+        Map<Long, List<OutboundOrderItem>> itemsByOrder = new HashMap<>();
+        List<Long> orderIds = orders.stream().map(OutboundOrder::getId).toList();
+        for (List<Long> chunk : chunks(orderIds)) {
+            for (OutboundOrderItem item : itemRepository.findByOutboundOrderIdIn(chunk)) {
+                itemsByOrder.computeIfAbsent(item.getOutboundOrder().getId(), id -> new ArrayList<>()).add(item);
+            }
+        }
+        return itemsByOrder;
+    }
+
+    /**
+     * 引当候補の在庫レコードを1回のロック付き読み取りで取得するメソッド
+     *
+     * ホットSKUの在庫レコードはメモリ上のカウンターで引当するため、SQLの候補から除いてHotInventoryReservationsから加えます。
+     * SQLの候補はロック取得順（在庫IDの昇順）に読み取った後、ホットSKUの候補と合わせて商品の引当方式の順に並べ替えます。
+     * FEFOの商品では期限切れのロットを候補から除きます。
+     *
+     * @return 商品ID → 引当候補（引当順）
+     */
+    private Map<Long, List<Candidate>> lockCandidates(Long warehouseId, Set<Long> productIds) {
+        LocalDate today = LocalDate.now();
+        Map<Long, Product.AllocationStrategy> strategies = lotAllocator.strategiesOf(productIds);
+        Map<Long, List<LotAllocator.Lot>> lots = new HashMap<>();
+        for (Long productId : productIds) {
+            lots.put(productId, new ArrayList<>(
+                    hotReservations.findAllocatable(productId, warehouseId, strategies.get(productId), today)));
+        }
+
+        // IN句が長くなり過ぎないよう分割するが、商品IDの昇順に取得するためロック順は崩れない
+        List<Long> sortedIds = productIds.stream().sorted().toList();
+        for (List<Long> chunk : chunks(sortedIds)) {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("warehouseId", warehouseId)
+                    .addValue("productIds", chunk);
+            namedParameterJdbcTemplate.query(LOCK_CANDIDATES_SQL, params, rs -> {
+                long inventoryId = rs.getLong("id");
+                if (hotReservations.isHot(inventoryId)) {
+                    return;
+                }
+                Long locationId = rs.getObject("location_id", Long.class);
+                Date expiryDate = rs.getDate("expiry_date");
+                InventoryAllocation row = new InventoryAllocation(inventoryId, rs.getLong("product_id"),
+                        rs.getLong("warehouse_id"), locationId, rs.getBigDecimal("available_quantity"));
+                LocalDate expiry = expiryDate != null ? expiryDate.toLocalDate() : null;
+                if (LotAllocator.isAllocatable(strategies.get(row.productId()), expiry, today)) {
+                    lots.get(row.productId()).add(new LotAllocator.Lot(row, expiry,
+                            rs.getTimestamp("received_at").toLocalDateTime(), false));
+                }
+            });
+        }
+
+        Map<Long, List<Candidate>> candidates = new HashMap<>();
+        lots.forEach((productId, list) -> {
+            list.sort(LotAllocator.order(strategies.get(productId)));
+            candidates.put(productId, list.stream().map(Candidate::new).toList());
+        });
+        return candidates;
+    }
+
+    /**
+     * 1出庫指示分の引当計画を立てるメソッド
+     *
+     * 全明細を引当できなかった場合は、計画した分を候補に戻します。
+     *
+     * @return 引当計画（全量を引当できない場合はnull）
+     */
+    private List<Take> plan(List<OutboundOrderItem> items, Map<Long, List<Candidate>> candidates) {
+        List<Take> takes = new ArrayList<>();
+        for (OutboundOrderItem item : items) {
+            BigDecimal remaining = item.getRequestedQuantity();
+            for (Candidate candidate : candidates.getOrDefault(item.getProduct().getId(), List.of())) {
+                if (remaining.signum() <= 0) {
+                    break;
+                }
+                BigDecimal amount = candidate.take(remaining, hotReservations);
+                if (amount.signum() > 0) {
+                    takes.add(new Take(item.getId(), candidate, amount));
+                    remaining = remaining.subtract(amount);
+                }
+            }
+            if (remaining.signum() > 0) {
+                takes.forEach(take -> take.candidate().giveBack(take.quantity(), hotReservations));
+                return null;
+            }
+        }
+        return takes;
+    }
+
+    /**
+     * 在庫レコードの引当をバッチで更新するメソッド
+     *
+     * 在庫レコードごとに合算し、ロック取得時と同じ順序で更新します。
+     */
+    private void applyReservations(List<Take> takes) {
+        Map<Long, InventoryAllocation> totals = new TreeMap<>();
+        for (Take take : takes) {
+            if (take.candidate().lot.hot()) {
+                continue;
+            }
+            InventoryAllocation row = take.candidate().lot.row();
+            totals.merge(row.inventoryId(), row.withQuantity(take.quantity()),
+                    (a, b) -> a.withQuantity(a.quantity().add(b.quantity())));
+        }
+        if (totals.isEmpty()) {
+            return;
+        }
+
+        List<InventoryAllocation> ordered = new ArrayList<>(totals.values());
+        ordered.sort(InventoryAllocation.LOCK_ORDER);
+        List<Object[]> args = new ArrayList<>(ordered.size());
+        for (InventoryAllocation row : ordered) {
+            args.add(new Object[]{row.quantity(), row.quantity(), row.inventoryId(), row.quantity()});
+        }
+        int[] counts = jdbcTemplate.batchUpdate(RESERVE_SQL, args);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                throw new IllegalStateException("Inventory changed during wave creation: inventory="
+                        + ordered.get(i).inventoryId());
+            }
+        }
+    }
+
+    /**
+     * 引当明細をバッチで登録するメソッド
+     */
+    private void insertAllocations(List<Take> takes) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(takes.size());
+        for (Take take : takes) {
+            args.add(new Object[]{take.itemId(), take.candidate().lot.row().inventoryId(), take.quantity(), now});
+        }
+        jdbcTemplate.batchUpdate(INSERT_ALLOCATION_SQL, args);
+    }
+
+    /**
+     * 在庫レコードごとの引当数量を台帳に記録するメソッド（ホットSKUを含む）
+     */
+    private void recordMovements(List<Take> takes, String waveNumber) {
+        Map<Long, InventoryAllocation> totals = new TreeMap<>();
+        for (Take take : takes) {
+            InventoryAllocation row = take.candidate().lot.row();
+            totals.merge(row.inventoryId(), row.withQuantity(take.quantity()),
+                    (a, b) -> a.withQuantity(a.quantity().add(b.quantity())));
+        }
+        ledger.record(totals.values().stream()
+                .map(a -> InventoryLedger.Movement.of(a, InventoryMovement.MovementType.RESERVE, a.quantity(),
+                        waveNumber))
+                .toList());
+    }
+
+    /**
+     * IN句用に一覧を分割するメソッド
+     */
+    private static <T> List<List<T>> chunks(List<T> values) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += IN_CHUNK_SIZE) {
+            chunks.add(values.subList(from, Math.min(from + IN_CHUNK_SIZE, values.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * 引当候補の在庫レコード
+     */
+    private static final class Candidate {
+
+        // 引当候補のロット（数量はロック取得時の引当可能数量）
+        private final LotAllocator.Lot lot;
+        // 計画上の残りの引当可能数量（ホットSKUはカウンターで管理するため使用しない）
+        private BigDecimal available;
+
+        private Candidate(LotAllocator.Lot lot) {
+            this.lot = lot;
+            this.available = lot.row().quantity();
+        }
+
+        /**
+         * 要求数量のうち引当できる分を確保するメソッド
+         *
+         * ホットSKUはこの時点でカウンターから引当します（トランザクションがロールバックされた場合は取り消されます）。
+         */
+        private BigDecimal take(BigDecimal quantity, HotInventoryReservations hotReservations) {
+            if (lot.hot()) {
+                return hotReservations.reserve(lot.row().inventoryId(), quantity);
+            }
+            BigDecimal amount = available.min(quantity);
+            available = available.subtract(amount);
+            return amount;
+        }
+
+        /**
+         * 確保した数量を戻すメソッド
+         */
+        private void giveBack(BigDecimal quantity, HotInventoryReservations hotReservations) {
+            if (lot.hot()) {
+                hotReservations.release(lot.row().inventoryId(), quantity);
+            } else {
+                available = available.add(quantity);
+            }
+        }
+    }
+
+    /**
+     * 引当計画の1件
+     *
+     * @param itemId 出庫明細ID
+     * @param candidate 引当元の在庫レコード
+     * @param quantity 引当数量
+     */
+    private record Take(Long itemId, Candidate candidate, BigDecimal quantity) {
+    }
+}
@@ -0,0 +1,318 @@
+package com.cooola.service;
+
+import com.cooola.dto.PickList;
+import com.cooola.dto.PickRoute;
+import com.cooola.repository.LocationRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * ピッキング経路サービス
+ *
+ * このクラスはピッキング対象のロケーションを巡回する順序を計算します。
+ * 倉庫ごとのロケーション階層はLocationGraphとしてキャッシュし、ロケーションの変更時に破棄します。
+ *
+ * 経路は次の2つの方式で計算し、歩行距離の短い方を採用します（同距離の場合はS字型）。
+ * <ul>
+ *   <li>S字型: ピッキング対象のある通路を順に、1本ごとに向きを変えて通り抜ける</li>
+ *   <li>最近傍法 + 2-opt: 最も近い未訪問地点へ進む経路を作り、交差する区間を反転して短縮する</li>
+ * </ul>
+ * 同じラックの棚・ビンは1地点にまとめてから計算し、巡回順ではロケーション階層の順に並べます。
+ * どちらも地点数nに対してO(n^2)程度で、数百地点でも数ミリ秒で計算できます。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Service    // Spring Bootサービスとして登録
+@Slf4j      // ログ機能
+public class PickRouteService {
+
+    // 2-optの最大反復回数
+    private static final int MAX_TWO_OPT_PASSES = 50;
+
+    // ロケーションリポジトリ
+    private final LocationRepository locationRepository;
+    // 倉庫ID → ロケーション配置グラフ
+    private final Cache<Long, LocationGraph> graphs;
+
+    /**
+     * サービスを初期化するコンストラクタ
+     *
+     * @param locationRepository ロケーションリポジトリ
+     * @param meterRegistry メトリクスレジストリ
+     * @param expireAfterWrite グラフの最大保持期間（データベースを直接更新した場合の保険）
+     */
+    public PickRouteService(LocationRepository locationRepository, MeterRegistry meterRegistry,
+                            @Value("${pick-route.graph-cache.expire-after-write:PT10M}") Duration expireAfterWrite) {
+        this.locationRepository = locationRepository;
+        this.graphs = Caffeine.newBuilder()
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, graphs, "pick_route.location_graphs");
+    }
+
+    /**
+     * ロケーションの巡回順を計算するメソッド
+     *
+     * @param warehouseId 倉庫ID
+     * @param locationIds 巡回するロケーションID（重複は1地点として扱う）
+     * @return ピッキング経路
+     */
+    public PickRoute route(Long warehouseId, Collection<Long> locationIds) {
+        long started = System.nanoTime();
+        LocationGraph graph = graph(warehouseId);
+        Set<Long> distinct = new LinkedHashSet<>(locationIds);
+        distinct.remove(null);
+        if (distinct.stream().anyMatch(id -> graph.indexOf(id) < 0)) {
+            // 追加直後のロケーションが含まれている可能性があるため1回だけ読み直す
+            graphs.invalidate(warehouseId);
+            return route(graph(warehouseId), warehouseId, distinct, started);
+        }
+        return route(graph, warehouseId, distinct, started);
+    }
+
+    /**
+     * ピッキングリストを巡回順に並べ替えるメソッド
+     *
+     * ロケーションが未設定の行、または経路に含められなかった行は末尾に残ります。
+     *
+     * @param warehouseId 倉庫ID
+     * @param pickList ピッキングリスト
+     * @return 巡回順のピッキングリスト
+     */
+    public PickList sequence(Long warehouseId, PickList pickList) {
+        List<Long> locationIds = pickList.lines().stream()
+                .map(PickList.Line::locationId)
+                .filter(Objects::nonNull)
+                .toList();
+        if (locationIds.isEmpty()) {
+            return pickList;
+        }
+        return pickList.inRouteOrder(route(warehouseId, locationIds));
+    }
+
+    /**
+     * 倉庫のロケーション配置グラフを破棄するメソッド
+     *
+     * @param warehouseId 倉庫ID
+     */
+    public void invalidate(Long warehouseId) {
+        graphs.invalidate(warehouseId);
+    }
+
+    /**
+     * 倉庫のロケーション配置グラフを返却するメソッド（キャッシュにない場合は読み込む）
+     */
+    private LocationGraph graph(Long warehouseId) {
+        return graphs.get(warehouseId, id -> {
+            LocationGraph graph = LocationGraph.build(locationRepository.findNodesByWarehouseId(id));
+            log.debug("Location graph loaded: warehouse={}, locations={}", id, graph.size());
+            return graph;
+        });
+    }
+
+    /**
+     * 配置グラフ上で経路を計算するメソッド
+     */
+    private PickRoute route(LocationGraph graph, Long warehouseId, Set<Long> locationIds, long started) {
+        // 同じ通路・位置のロケーション（同じラックの棚・ビン）は1地点にまとめて計算する
+        List<Long> unrouted = new ArrayList<>();
+        Map<Long, List<Integer>> members = new LinkedHashMap<>();
+        for (Long locationId : locationIds) {
+            int index = graph.indexOf(locationId);
+            if (index < 0) {
+                unrouted.add(locationId);
+            } else {
+                members.computeIfAbsent(pointKey(graph, index), key -> new ArrayList<>()).add(index);
+            }
+        }
+        int[] points = new int[members.size()];
+        int count = 0;
+        for (List<Integer> indexes : members.values()) {
+            indexes.sort(Comparator.comparingInt(graph::sequence));
+            points[count++] = indexes.get(0);
+        }
+
+        int[] sShape = sShape(graph, points);
+        long sShapeDistance = distance(graph, sShape);
+        int[] improved = twoOpt(graph, nearestNeighbour(graph, points));
+        long improvedDistance = distance(graph, improved);
+
+        boolean useImproved = improvedDistance < sShapeDistance;
+        int[] order = useImproved ? improved : sShape;
+        List<PickRoute.Stop> result = new ArrayList<>(locationIds.size());
+        for (int point : order) {
+            for (int index : members.get(pointKey(graph, point))) {
+                result.add(new PickRoute.Stop(result.size() + 1, graph.id(index), graph.code(index),
+                        graph.aisle(index), graph.position(index)));
+            }
+        }
+        long elapsedMicros = (System.nanoTime() - started) / 1000;
+        log.debug("Pick route computed: warehouse={}, stops={}, points={}, s-shape={}, 2-opt={}, {} us",
+                warehouseId, result.size(), points.length, sShapeDistance, improvedDistance, elapsedMicros);
+        return new PickRoute(warehouseId,
+                useImproved ? PickRoute.Algorithm.NEAREST_NEIGHBOUR_2OPT : PickRoute.Algorithm.S_SHAPE,
+                useImproved ? improvedDistance : sShapeDistance, elapsedMicros, result, unrouted);
+    }
+
+    /**
+     * 通路番号と通路内の位置を1つの値にまとめるメソッド
+     */
+    private static long pointKey(LocationGraph graph, int index) {
+        return ((long) graph.aisle(index) << 32) | graph.position(index);
+    }
+
+    /**
+     * S字型の巡回順を返却するメソッド
+     *
+     * 通路を番号順に処理し、手前から入った通路は奥へ、奥から入った通路は手前へ向かって地点を並べます。
+     */
+    static int[] sShape(LocationGraph graph, int[] stops) {
+        Integer[] sorted = Arrays.stream(stops).boxed().toArray(Integer[]::new);
+        Arrays.sort(sorted, (a, b) -> {
+            int c = Integer.compare(graph.aisle(a), graph.aisle(b));
+            if (c == 0) {
+                c = Integer.compare(graph.position(a), graph.position(b));
+            }
+            return c != 0 ? c : Integer.compare(graph.sequence(a), graph.sequence(b));
+        });
+
+        int[] order = new int[sorted.length];
+        boolean fromFront = true;
+        int start = 0;
+        while (start < sorted.length) {
+            int end = start;
+            while (end < sorted.length && graph.aisle(sorted[end]) == graph.aisle(sorted[start])) {
+                end++;
+            }
+            for (int i = start; i < end; i++) {
+                order[i] = fromFront ? sorted[i] : sorted[end - 1 - (i - start)];
+            }
+            fromFront = !fromFront;
+            start = end;
+        }
+        return order;
+    }
+
+    /**
+     * 最近傍法で巡回順を作成するメソッド（出発点から始め、同距離の場合は階層順の早い地点を選ぶ）
+     */
+    static int[] nearestNeighbour(LocationGraph graph, int[] stops) {
+        int n = stops.length;
+        int[] order = new int[n];
+        boolean[] visited = new boolean[n];
+        int aisle = 0;
+        int position = 0;
+        for (int step = 0; step < n; step++) {
+            int best = -1;
+            int bestDistance = Integer.MAX_VALUE;
+            for (int i = 0; i < n; i++) {
+                if (visited[i]) {
+                    continue;
+                }
+                int stop = stops[i];
+                int d = graph.distance(aisle, position, graph.aisle(stop), graph.position(stop));
+                if (d < bestDistance || (d == bestDistance && graph.sequence(stop) < graph.sequence(stops[best]))) {
+                    best = i;
+                    bestDistance = d;
+                }
+            }
+            visited[best] = true;
+            order[step] = stops[best];
+            aisle = graph.aisle(stops[best]);
+            position = graph.position(stops[best]);
+        }
+        return order;
+    }
+
+    /**
+     * 2-optで巡回順を改善するメソッド
+     *
+     * 出発点を両端に固定した経路について、2辺を繋ぎ替えて短くなる区間を反転します。
+     * 改善がなくなるか、最大反復回数に達するまで繰り返します。
+     */
+    static int[] twoOpt(LocationGraph graph, int[] order) {
+        int n = order.length;
+        if (n < 3) {
+            return order;
+        }
+        // 両端を出発点とした座標の配列（添字0とn+1が出発点）
+        int[] aisles = new int[n + 2];
+        int[] positions = new int[n + 2];
+        int[] nodes = new int[n + 2];
+        for (int i = 0; i < n; i++) {
+            nodes[i + 1] = order[i];
+            aisles[i + 1] = graph.aisle(order[i]);
+            positions[i + 1] = graph.position(order[i]);
+        }
+
+        for (int pass = 0; pass < MAX_TWO_OPT_PASSES; pass++) {
+            boolean improved = false;
+            for (int i = 1; i < n; i++) {
+                int before = graph.distance(aisles[i - 1], positions[i - 1], aisles[i], positions[i]);
+                for (int j = i + 1; j <= n; j++) {
+                    int delta = graph.distance(aisles[i - 1], positions[i - 1], aisles[j], positions[j])
+                            + graph.distance(aisles[i], positions[i], aisles[j + 1], positions[j + 1])
+                            - before
+                            - graph.distance(aisles[j], positions[j], aisles[j + 1], positions[j + 1]);
+                    if (delta < 0) {
+                        reverse(nodes, i, j);
+                        reverse(aisles, i, j);
+                        reverse(positions, i, j);
+                        before = graph.distance(aisles[i - 1], positions[i - 1], aisles[i], positions[i]);
+                        improved = true;
+                    }
+                }
+            }
+            if (!improved) {
+                break;
+            }
+        }
+        return Arrays.copyOfRange(nodes, 1, n + 1);
+    }
+
+    /**
+     * 出発点から巡回順に回って出発点に戻るまでの歩行距離を返却するメソッド
+     */
+    static long distance(LocationGraph graph, int[] order) {
+        long total = 0;
+        int aisle = 0;
+        int position = 0;
+        for (int stop : order) {
+            total += graph.distance(aisle, position, graph.aisle(stop), graph.position(stop));
+            aisle = graph.aisle(stop);
+            position = graph.position(stop);
+        }
+        return total + graph.distance(aisle, position, 0, 0);
+    }
+
+    /**
+     * 配列の区間[from, to]を反転するメソッド
+     */
+    private static void reverse(int[] values, int from, int to) {
+        for (int i = from, j = to; i < j; i++, j--) {
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
+}
@@ -0,0 +1,508 @@
+package com.cooola.service;
+
+import com.cooola.dto.ProductImportResult;
+import com.cooola.dto.ProductImportRow;
+import com.cooola.dto.ProductScanView;
+import com.cooola.dto.ProductSearchDocument;
+import com.cooola.repository.ProductCategoryRepository;
+import com.cooola.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 商品一括登録サービス
+ *
+ * このクラスはCSVまたはNDJSON形式の商品データをストリームから読み込み、一括で登録します。
+ * 行は一定件数ごとのバッチにまとめ、SKU・バーコードの重複をバッチ単位の1クエリで確認した上で
+ * JDBCのバッチINSERTで登録します（rewriteBatchedStatements有効時は複数行INSERTに書き換えられます）。
+ * カテゴリの存在確認は取り込み開始時に読み込んだカテゴリIDの集合で行います。
+ * SKU・バーコードの重複は、データベースの照合順序と同様に前後の空白と大文字小文字を無視して判定し、
+ * 重複した行は行単位のエラーとして結果に含めます。
+ * バッチごとにコミットするため、エラーのある行を除いた行は途中で中断しても登録済みとなります。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Service                    // Spring Bootサービスとして登録
+@RequiredArgsConstructor    // コンストラクタインジェクション
+@Slf4j                      // ログ機能
+public class ProductImportService {
+
+    // 商品登録SQL（IDは自動採番、作成日時・更新日時はデフォルト値）
+    private static final String INSERT_SQL = "INSERT INTO products " +
+            "(sku, name, description, category_id, unit_of_measure, weight, dimensions, barcode, is_active) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, TRUE)";
+
+    // CSVの列名（ヘッダー行と大文字小文字・アンダースコアを無視して照合）
+    private static final List<String> CSV_COLUMNS = List.of(
+            "sku", "name", "description", "categoryId", "unitOfMeasure", "weight", "dimensions", "barcode");
+    // CSVの必須列
+    private static final List<String> CSV_REQUIRED_COLUMNS = List.of("sku", "name", "categoryId", "unitOfMeasure");
+
+    // 商品リポジトリ
+    private final ProductRepository productRepository;
+    // 商品カテゴリリポジトリ
+    private final ProductCategoryRepository categoryRepository;
+    // バッチINSERT用のJDBCテンプレート
+    private final JdbcTemplate jdbcTemplate;
+    // バッチ単位のトランザクション
+    private final TransactionTemplate transactionTemplate;
+    // 商品ルックアップインデックス（スキャン照会用）
+    private final ProductLookupIndex lookupIndex;
+    // 商品全文検索インデックス
+    private final ProductSearchIndex searchIndex;
+    // 他のインスタンスへのキャッシュ無効化の通知
+    private final CacheInvalidationService cacheInvalidation;
+    // NDJSONの読み込み用
+    private final ObjectMapper objectMapper;
+
+    // 1バッチあたりの行数
+    @Value("${product.import.batch-size:1000}")
+    private int batchSize;
+
+    // 結果に含めるエラー詳細の最大件数
+    @Value("${product.import.max-errors:1000}")
+    private int maxErrors;
+
+    /**
+     * CSV形式の商品データを一括登録するメソッド
+     *
+     * 1行目はヘッダー行とし、sku, name, categoryId, unitOfMeasureの列は必須です。
+     *
+     * @param in 入力ストリーム
+     * @param charset 文字コード
+     * @return 取り込み結果
+     * @throws IllegalArgumentException ヘッダー行がない場合、または必須列がない場合
+     * @throws IOException 読み込みに失敗した場合、またはCSVの形式が不正な場合
+     */
+    public ProductImportResult importCsv(InputStream in, Charset charset) throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new InputStreamReader(in, charset));
+        List<String> header = reader.next();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV header is missing");
+        }
+        int[] columns = mapColumns(header);
+
+        Import job = new Import();
+        List<String> fields;
+        while ((fields = reader.next()) != null) {
+            long line = reader.getRecordLineNumber();
+            ProductImportRow row;
+            try {
+                row = toRow(fields, columns);
+            } catch (IllegalArgumentException e) {
+                job.reject(line, clean(field(fields, columns[0])), e.getMessage());
+                continue;
+            }
+            job.add(line, row);
+        }
+        return job.finish();
+    }
+
+    /**
+     * NDJSON形式の商品データを一括登録するメソッド
+     *
+     * 1行に1商品のJSONオブジェクトを記述します。空行は読み飛ばします。
+     *
+     * @param in 入力ストリーム（UTF-8）
+     * @return 取り込み結果
+     * @throws IOException 読み込みに失敗した場合
+     */
+    public ProductImportResult importNdjson(InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        Import job = new Import();
+        long line = 0;
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            ProductImportRow row;
+            try {
+                row = objectMapper.readValue(text, ProductImportRow.class);
+            } catch (JsonProcessingException e) {
+                job.reject(line, null, "Invalid JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            job.add(line, row);
+        }
+        return job.finish();
+    }
+
+    /**
+     * ヘッダー行から各列の位置を求めるメソッド
+     *
+     * @return CSV_COLUMNSの順に並んだ列位置（列がない場合は-1）
+     */
+    private static int[] mapColumns(List<String> header) {
+        List<String> names = header.stream().map(ProductImportService::columnKey).toList();
+        int[] columns = new int[CSV_COLUMNS.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = names.indexOf(columnKey(CSV_COLUMNS.get(i)));
+        }
+        for (String required : CSV_REQUIRED_COLUMNS) {
+            if (columns[CSV_COLUMNS.indexOf(required)] < 0) {
+                throw new IllegalArgumentException("Required CSV column is missing: " + required);
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * 列名を照合用に正規化するメソッド（unit_of_measure と unitOfMeasure を同一視）
+     */
+    private static String columnKey(String name) {
+        return name.strip().replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * CSVの1レコードを商品データに変換するメソッド
+     *
+     * @throws IllegalArgumentException 数値項目の形式が不正な場合
+     */
+    private static ProductImportRow toRow(List<String> fields, int[] columns) {
+        ProductImportRow row = new ProductImportRow();
+        row.setSku(field(fields, columns[0]));
+        row.setName(field(fields, columns[1]));
+        row.setDescription(field(fields, columns[2]));
+        row.setUnitOfMeasure(field(fields, columns[4]));
+        row.setDimensions(field(fields, columns[6]));
+        row.setBarcode(field(fields, columns[7]));
+
+        String categoryId = clean(field(fields, columns[3]));
+        String weight = clean(field(fields, columns[5]));
+        try {
+            row.setCategoryId(categoryId != null ? Long.valueOf(categoryId) : null);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid categoryId: " + categoryId);
+        }
+        try {
+            row.setWeight(weight != null ? new BigDecimal(weight) : null);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid weight: " + weight);
+        }
+        return row;
+    }
+
+    /**
+     * 指定位置の項目を取得するメソッド（列がない場合、または空の場合はnull）
+     */
+    private static String field(List<String> fields, int column) {
+        if (column < 0 || column >= fields.size()) {
+            return null;
+        }
+        return fields.get(column).isEmpty() ? null : fields.get(column);
+    }
+
+    /**
+     * SKU・バーコードの重複判定に使用する照合キーを返却するメソッド（前後の空白を除去して大文字に統一）
+     */
+    private static String matchKey(String value) {
+        return value.strip().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * 前後の空白を除去するメソッド（空の場合はnull）
+     */
+    private static String clean(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.strip();
+    }
+
+    /**
+     * 1回の取り込み処理の状態
+     *
+     * 読み込み中の行をバッチにまとめ、件数とエラーを集計します。
+     */
+    private class Import {
+
+        // 処理開始時刻
+        private final long started = System.currentTimeMillis();
+        // 登録済みのカテゴリID
+        private final Set<Long> categoryIds = new HashSet<>(categoryRepository.findAllIds());
+        // ファイル内で受け付けたSKUの照合キー（ファイル内の重複検出用）
+        private final Set<String> seenSkus = new HashSet<>();
+        // ファイル内で受け付けたバーコードの照合キー（ファイル内の重複検出用）
+        private final Set<String> seenBarcodes = new HashSet<>();
+        // 登録待ちの行
+        private final List<PendingRow> batch = new ArrayList<>(batchSize);
+        // エラー詳細
+        private final List<ProductImportResult.RowError> errors = new ArrayList<>();
+
+        private long totalRows;
+        private long importedRows;
+        private long failedRows;
+        private boolean errorsTruncated;
+
+        /**
+         * 1行を検証してバッチに追加するメソッド
+         */
+        void add(long line, ProductImportRow row) {
+            totalRows++;
+            normalize(row);
+            String error = validate(row);
+            if (error != null) {
+                recordError(line, row.getSku(), error);
+                return;
+            }
+            seenSkus.add(matchKey(row.getSku()));
+            if (row.getBarcode() != null) {
+                seenBarcodes.add(matchKey(row.getBarcode()));
+            }
+            batch.add(new PendingRow(line, row));
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        /**
+         * 読み取りできなかった行をエラーとして記録するメソッド
+         */
+        void reject(long line, String sku, String message) {
+            totalRows++;
+            recordError(line, sku, message);
+        }
+
+        /**
+         * 残りの行を登録して結果を返却するメソッド
+         */
+        ProductImportResult finish() {
+            flush();
+            long elapsed = System.currentTimeMillis() - started;
+            log.info("Product import finished: {} rows, {} imported, {} failed in {} ms",
+                    totalRows, importedRows, failedRows, elapsed);
+            return new ProductImportResult(totalRows, importedRows, failedRows,
+                    Collections.unmodifiableList(errors), errorsTruncated, elapsed);
+        }
+
+        /**
+         * 1行の項目を検証するメソッド
+         *
+         * @return エラー内容（正常な場合はnull）
+         */
+        private String validate(ProductImportRow row) {
+            if (row.getSku() == null) {
+                return "SKU is required";
+            }
+            if (row.getSku().length() > 50) {
+                return "SKU is too long";
+            }
+            if (row.getName() == null) {
+                return "Name is required";
+            }
+            if (row.getName().length() > 200) {
+                return "Name is too long";
+            }
+            if (row.getCategoryId() == null) {
+                return "Category is required";
+            }
+            if (!categoryIds.contains(row.getCategoryId())) {
+                return "Category not found: " + row.getCategoryId();
+            }
+            if (row.getUnitOfMeasure() == null) {
+                return "Unit of measure is required";
+            }
+            if (row.getUnitOfMeasure().length() > 20) {
+                return "Unit of measure is too long";
+            }
+            if (row.getWeight() != null && (row.getWeight().scale() > 3
+                    || row.getWeight().precision() - row.getWeight().scale() > 7)) {
+                return "Invalid weight: " + row.getWeight().toPlainString();
+            }
+            if (row.getDimensions() != null && row.getDimensions().length() > 50) {
+                return "Dimensions are too long";
+            }
+            if (row.getBarcode() != null && row.getBarcode().length() > 100) {
+                return "Barcode is too long";
+            }
+            if (seenSkus.contains(matchKey(row.getSku()))) {
+                return "Duplicate SKU in file: " + row.getSku();
+            }
+            if (row.getBarcode() != null && seenBarcodes.contains(matchKey(row.getBarcode()))) {
+                return "Duplicate barcode in file: " + row.getBarcode();
+            }
+            return null;
+        }
+
+        /**
+         * バッチを登録するメソッド
+         *
+         * 他の処理と同時にSKUが登録されて一意制約違反となった場合は、重複チェックからやり直します。
+         * やり直しても一意制約違反となった場合は1行ずつ登録し、違反した行をエラーとして記録します。
+         */
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                apply(transactionTemplate.execute(status -> insertBatch(batch)));
+            } catch (DuplicateKeyException e) {
+                log.warn("Product import batch conflicted with concurrent insert, retrying: {}", e.getMessage());
+                try {
+                    apply(transactionTemplate.execute(status -> insertBatch(batch)));
+                } catch (DuplicateKeyException retryFailure) {
+                    log.warn("Product import batch conflicted again, inserting rows one by one: {}",
+                            retryFailure.getMessage());
+                    for (PendingRow pending : batch) {
+                        try {
+                            apply(transactionTemplate.execute(status -> insertBatch(List.of(pending))));
+                        } catch (DuplicateKeyException rowFailure) {
+                            recordError(pending.line(), pending.row().getSku(), "SKU or barcode already exists");
+                        }
+                    }
+                }
+            }
+            batch.clear();
+        }
+
+        /**
+         * バッチの登録結果を集計に反映するメソッド
+         */
+        private void apply(BatchOutcome outcome) {
+            Objects.requireNonNull(outcome);
+            outcome.rejected().forEach(rejected -> recordError(rejected.row().line(),
+                    rejected.row().row().getSku(), rejected.message()));
+            importedRows += outcome.insertedRows();
+
+            // コミット済みの商品をインデックスに反映
+            outcome.scanViews().forEach(lookupIndex::put);
+            outcome.searchDocuments().forEach(searchIndex::put);
+        }
+
+        /**
+         * 行の重複を確認して登録するメソッド（トランザクション内で呼び出す）
+         */
+        private BatchOutcome insertBatch(List<PendingRow> rows) {
+            Set<String> skus = new HashSet<>();
+            Set<String> barcodes = new HashSet<>();
+            for (PendingRow pending : rows) {
+                skus.add(pending.row().getSku());
+                if (pending.row().getBarcode() != null) {
+                    barcodes.add(pending.row().getBarcode());
+                }
+            }
+            // 照合順序により大文字小文字違いの値も返却されるため、照合キーで比較する
+            Set<String> existingSkus = new HashSet<>();
+            productRepository.findExistingSkus(skus).forEach(sku -> existingSkus.add(matchKey(sku)));
+            Set<String> existingBarcodes = new HashSet<>();
+            if (!barcodes.isEmpty()) {
+                productRepository.findExistingBarcodes(barcodes)
+                        .forEach(barcode -> existingBarcodes.add(matchKey(barcode)));
+            }
+
+            List<RejectedRow> rejected = new ArrayList<>();
+            List<ProductImportRow> accepted = new ArrayList<>(rows.size());
+            for (PendingRow pending : rows) {
+                ProductImportRow row = pending.row();
+                if (existingSkus.contains(matchKey(row.getSku()))) {
+                    rejected.add(new RejectedRow(pending, "SKU already exists: " + row.getSku()));
+                } else if (row.getBarcode() != null && existingBarcodes.contains(matchKey(row.getBarcode()))) {
+                    rejected.add(new RejectedRow(pending, "Barcode already exists: " + row.getBarcode()));
+                } else {
+                    accepted.add(row);
+                }
+            }
+            if (accepted.isEmpty()) {
+                return new BatchOutcome(0, rejected, Collections.emptyList(), Collections.emptyList());
+            }
+
+            jdbcTemplate.batchUpdate(INSERT_SQL, accepted, accepted.size(), (ps, row) -> {
+                ps.setString(1, row.getSku());
+                ps.setString(2, row.getName());
+                ps.setString(3, row.getDescription());
+                ps.setLong(4, row.getCategoryId());
+                ps.setString(5, row.getUnitOfMeasure());
+                ps.setBigDecimal(6, row.getWeight());
+                ps.setString(7, row.getDimensions());
+                ps.setString(8, row.getBarcode());
+            });
+
+            List<String> insertedSkus = accepted.stream().map(ProductImportRow::getSku).toList();
+            List<ProductScanView> scanViews = productRepository.findScanViewsBySkuIn(insertedSkus);
+            cacheInvalidation.recordProducts(scanViews.stream().map(ProductScanView::id).toList());
+            return new BatchOutcome(accepted.size(), rejected, scanViews,
+                    productRepository.findSearchDocumentsBySkuIn(insertedSkus));
+        }
+
+        /**
+         * エラーを記録するメソッド（上限件数を超えた詳細は破棄）
+         */
+        private void recordError(long line, String sku, String message) {
+            failedRows++;
+            if (errors.size() < maxErrors) {
+                errors.add(new ProductImportResult.RowError(line, sku, message));
+            } else {
+                errorsTruncated = true;
+            }
+        }
+
+        /**
+         * 文字列項目の前後の空白を除去するメソッド
+         */
+        private void normalize(ProductImportRow row) {
+            row.setSku(clean(row.getSku()));
+            row.setName(clean(row.getName()));
+            row.setDescription(clean(row.getDescription()));
+            row.setUnitOfMeasure(clean(row.getUnitOfMeasure()));
+            row.setDimensions(clean(row.getDimensions()));
+            row.setBarcode(clean(row.getBarcode()));
+        }
+    }
+
+    /**
+     * 登録待ちの行
+     *
+     * @param line 入力の行番号
+     * @param row 商品データ
+     */
+    private record PendingRow(long line, ProductImportRow row) {
+    }
+
+    /**
+     * 重複により登録しなかった行
+     *
+     * @param row 登録待ちの行
+     * @param message エラー内容
+     */
+    private record RejectedRow(PendingRow row, String message) {
+    }
+
+    /**
+     * バッチの登録結果
+     *
+     * @param insertedRows 登録した行数
+     * @param rejected 重複により登録しなかった行
+     * @param scanViews 登録した商品のスキャン用ビュー
+     * @param searchDocuments 登録した商品の検索ドキュメント
+     */
+    private record BatchOutcome(int insertedRows, List<RejectedRow> rejected,
+                                List<ProductScanView> scanViews, List<ProductSearchDocument> searchDocuments) {
+    }
+}
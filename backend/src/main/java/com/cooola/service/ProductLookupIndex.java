@@ -0,0 +1,191 @@
+package com.cooola.service;
+
+import com.cooola.dto.ProductScanView;
+import com.cooola.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 商品ルックアップインデックス
+ *
+ * このクラスはアクティブな商品をSKUとバーコードで引けるようメモリ上に保持します。
+ * 起動時に全件を読み込み、以降は商品の登録・更新・削除に合わせて更新されます。
+ * インデックスに存在しない場合の照会はリポジトリにフォールバックします。
+ * SKU・バーコードはデータベースの照合順序と同じく大文字・小文字を区別せずに照会できるよう、大文字にそろえたキーで保持します。
+ *
+ * 更新は1件ずつ排他して行うため、商品ID・SKU・バーコードの各マップは常に同じビューを指します。
+ * フォールバックで読み込んだビューは {@link #putLoaded} で登録し、読み込みを始めてから
+ * インデックスが更新されていた場合は登録しません（コミット後に登録された新しいビューを古い内容で上書きしないため）。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component                  // Springコンポーネントとして登録
+@RequiredArgsConstructor    // コンストラクタインジェクション
+@Slf4j                      // ログ機能
+public class ProductLookupIndex {
+
+    // 商品リポジトリ
+    private final ProductRepository productRepository;
+
+    // 商品ID → ビュー（更新時に旧キーを削除するため）
+    private final Map<Long, ProductScanView> byId = new ConcurrentHashMap<>();
+    // SKU（大文字） → ビュー
+    private final Map<String, ProductScanView> bySku = new ConcurrentHashMap<>();
+    // バーコード（大文字） → ビュー
+    private final Map<String, ProductScanView> byBarcode = new ConcurrentHashMap<>();
+    // インデックスの更新世代（登録・削除のたびに増加）
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * 起動時にアクティブな商品を全件読み込むメソッド
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        long started = System.currentTimeMillis();
+        try (Stream<ProductScanView> views = productRepository.streamActiveScanViews()) {
+            views.forEach(this::put);
+        }
+        log.info("Product lookup index loaded: {} products in {} ms",
+                byId.size(), System.currentTimeMillis() - started);
+    }
+
+    /**
+     * SKUで商品を照会するメソッド
+     *
+     * @param sku 商品のSKU
+     * @return 商品スキャン用ビュー（インデックスに存在しない場合はnull）
+     */
+    public ProductScanView findBySku(String sku) {
+        return sku != null ? bySku.get(key(sku)) : null;
+    }
+
+    /**
+     * バーコードで商品を照会するメソッド
+     *
+     * @param barcode 商品のバーコード
+     * @return 商品スキャン用ビュー（インデックスに存在しない場合はnull）
+     */
+    public ProductScanView findByBarcode(String barcode) {
+        return barcode != null ? byBarcode.get(key(barcode)) : null;
+    }
+
+    /**
+     * インデックスの更新世代を返却するメソッド
+     *
+     * リポジトリから読み込む前に取得し、{@link #putLoaded} に渡してください。
+     *
+     * @return 更新世代
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * 商品をインデックスに登録・更新するメソッド
+     *
+     * コミット済みの最新の内容で呼び出してください。
+     * 非アクティブな商品は登録せず、既存のエントリを削除します。
+     *
+     * @param view 商品スキャン用ビュー
+     */
+    public synchronized void put(ProductScanView view) {
+        generation.incrementAndGet();
+        if (!Boolean.TRUE.equals(view.isActive())) {
+            removeEntry(view.id());
+            return;
+        }
+        ProductScanView previous = byId.put(view.id(), view);
+        if (previous != null) {
+            removeKeys(previous);
+        }
+        bySku.put(key(view.sku()), view);
+        if (view.barcode() != null) {
+            byBarcode.put(key(view.barcode()), view);
+        }
+    }
+
+    /**
+     * リポジトリから読み込んだ商品をインデックスに追加するメソッド
+     *
+     * 読み込み前に取得した更新世代から変わっていない場合のみ、未登録の商品を追加します。
+     * 読み込み中に登録・更新・削除が行われた場合は、読み込んだ内容が古い可能性があるため追加しません。
+     *
+     * @param view 商品スキャン用ビュー
+     * @param loadedAt 読み込み前に {@link #generation()} で取得した更新世代
+     * @return 追加した場合はtrue
+     */
+    public synchronized boolean putLoaded(ProductScanView view, long loadedAt) {
+        if (!Boolean.TRUE.equals(view.isActive()) || generation.get() != loadedAt || byId.containsKey(view.id())
+                || bySku.containsKey(key(view.sku()))
+                || (view.barcode() != null && byBarcode.containsKey(key(view.barcode())))) {
+            return false;
+        }
+        byId.put(view.id(), view);
+        bySku.put(key(view.sku()), view);
+        if (view.barcode() != null) {
+            byBarcode.put(key(view.barcode()), view);
+        }
+        return true;
+    }
+
+    /**
+     * 商品をインデックスから削除するメソッド
+     *
+     * @param id 商品ID
+     */
+    public synchronized void remove(Long id) {
+        generation.incrementAndGet();
+        removeEntry(id);
+    }
+
+    /**
+     * インデックスに登録されている商品数を返却するメソッド
+     *
+     * @return 登録商品数
+     */
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * 商品のエントリを削除するメソッド
+     */
+    private void removeEntry(Long id) {
+        ProductScanView previous = byId.remove(id);
+        if (previous != null) {
+            removeKeys(previous);
+        }
+    }
+
+    /**
+     * 旧ビューのSKU・バーコードのエントリを削除するメソッド
+     *
+     * 別の商品に置き換わっているエントリは削除しません。
+     */
+    private void removeKeys(ProductScanView previous) {
+        bySku.remove(key(previous.sku()), previous);
+        if (previous.barcode() != null) {
+            byBarcode.remove(key(previous.barcode()), previous);
+        }
+    }
+
+    /**
+     * 大文字・小文字を区別しない照会用のキーを返却するメソッド
+     */
+    private static String key(String value) {
+        return value.toUpperCase(Locale.ROOT);
+    }
+}
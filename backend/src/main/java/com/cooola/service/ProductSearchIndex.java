@@ -0,0 +1,457 @@
+package com.cooola.service;
+
+import com.cooola.dto.ProductSearchDocument;
+import com.cooola.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * 商品全文検索インデックス
+ *
+ * このクラスは有効な商品のSKU、商品名、説明文、バーコードを対象とした転置インデックスをメモリ上に保持します
+ * （無効化した商品は検索結果に含まれません）。
+ * 文字列はNFKC正規化（全角・半角の統一）と小文字化を行った上で文字バイグラムに分割するため、
+ * 分かち書きのない日本語でも部分一致検索が可能です。
+ * 候補はバイグラムの積集合で絞り込み、部分一致を確認した上で項目ごとの重みでスコア付けします。
+ *
+ * ポスティングは圧縮ビットマップ（Roaring64Bitmap）で保持します。説明文は全文を対象とし、
+ * 1文字の語は全項目の文字ごとのポスティングで絞り込むため、データベースの部分一致検索と同じ商品が一致します。
+ * 検索結果はキーワードごとにキャッシュし、インデックスが更新されるまでページ送りで再利用します。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component                  // Springコンポーネントとして登録
+@RequiredArgsConstructor    // コンストラクタインジェクション
+@Slf4j                      // ログ機能
+public class ProductSearchIndex {
+
+    // 商品リポジトリ
+    private final ProductRepository productRepository;
+
+    // 検索結果キャッシュの最大件数（全キーワードの一致件数の合計）
+    private static final long RESULT_CACHE_MAX_HITS = 2_000_000;
+    // 検索結果キャッシュの保持期間（最終アクセスから）
+    private static final Duration RESULT_CACHE_EXPIRE_AFTER_ACCESS = Duration.ofMinutes(5);
+
+    // 商品ID → 正規化済みドキュメント
+    private final Map<Long, Entry> documents = new ConcurrentHashMap<>();
+    // バイグラムと1文字 → 商品IDのビットマップ（lockで保護）
+    private final Map<String, Roaring64Bitmap> postings = new HashMap<>();
+    // ポスティングの読み書きロック
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // インデックスの更新世代（更新のたびに増加し、古い検索結果キャッシュを無効にする）
+    private final AtomicLong generation = new AtomicLong();
+    // 正規化済みキーワード → 検索結果
+    private final Cache<String, Hits> results = Caffeine.newBuilder()
+            .maximumWeight(RESULT_CACHE_MAX_HITS)
+            .weigher((String keyword, Hits hits) -> hits.size() + 1)
+            .expireAfterAccess(RESULT_CACHE_EXPIRE_AFTER_ACCESS)
+            .build();
+
+    /**
+     * 起動時にアクティブな商品を全件インデックスに登録するメソッド
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        long started = System.currentTimeMillis();
+        try (Stream<ProductSearchDocument> docs = productRepository.streamActiveSearchDocuments()) {
+            docs.forEach(this::put);
+        }
+        lock.writeLock().lock();
+        try {
+            postings.values().forEach(Roaring64Bitmap::runOptimize);
+            log.info("Product search index loaded: {} products, {} terms in {} ms",
+                    documents.size(), postings.size(), System.currentTimeMillis() - started);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * キーワードで商品を検索するメソッド
+     *
+     * 空白で区切られた複数の語はすべてを含む商品（AND条件）を返却します。
+     * 結果はスコアの降順、同スコアの場合は商品IDの昇順に並びます。
+     * 同じキーワードの結果はインデックスが更新されるまでキャッシュから返却します。
+     *
+     * @param keyword 検索キーワード
+     * @return 検索結果（スコア順）
+     */
+    public Hits search(String keyword) {
+        List<String> terms = terms(keyword);
+        if (terms.isEmpty()) {
+            return Hits.EMPTY;
+        }
+
+        String key = String.join(" ", terms);
+        long current = generation.get();
+        Hits cached = results.getIfPresent(key);
+        if (cached != null && cached.generation() == current) {
+            return cached;
+        }
+        Hits hits = rank(terms, current);
+        results.put(key, hits);
+        return hits;
+    }
+
+    /**
+     * 候補を絞り込んでスコア順に並べるメソッド
+     */
+    private Hits rank(List<String> terms, long current) {
+        // 全ての語のポスティングを含む候補に絞り込む
+        Roaring64Bitmap candidates = null;
+        lock.readLock().lock();
+        try {
+            for (String term : terms) {
+                Roaring64Bitmap termCandidates = candidatesFor(term);
+                if (candidates == null) {
+                    candidates = termCandidates;
+                } else {
+                    candidates.and(termCandidates);
+                }
+                if (candidates.isEmpty()) {
+                    return new Hits(new long[0], new int[0], current);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // 部分一致を確認してスコア付け
+        List<Hit> hits = new ArrayList<>();
+        candidates.forEach(id -> {
+            Entry entry = documents.get(id);
+            if (entry == null) {
+                return;
+            }
+            int score = 0;
+            for (String term : terms) {
+                int termScore = entry.score(term);
+                if (termScore == 0) {
+                    return;
+                }
+                score += termScore;
+            }
+            hits.add(new Hit(id, score));
+        });
+        hits.sort(Hit.ORDER);
+
+        long[] ids = new long[hits.size()];
+        int[] scores = new int[hits.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = hits.get(i).id();
+            scores[i] = hits.get(i).score();
+        }
+        return new Hits(ids, scores, current);
+    }
+
+    /**
+     * 商品をインデックスに登録・更新するメソッド
+     *
+     * @param document 商品検索ドキュメント
+     */
+    public void put(ProductSearchDocument document) {
+        Entry entry = new Entry(normalize(document.sku()), normalize(document.name()),
+                normalize(document.description()), normalize(document.barcode()));
+        lock.writeLock().lock();
+        try {
+            unindex(document.id());
+            documents.put(document.id(), entry);
+            for (String gram : entry.grams()) {
+                postings.computeIfAbsent(gram, key -> new Roaring64Bitmap()).addLong(document.id());
+            }
+            generation.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 商品をインデックスから削除するメソッド
+     *
+     * @param id 商品ID
+     */
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            if (unindex(id)) {
+                generation.incrementAndGet();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 登録済みの商品をポスティングから外すメソッド（書き込みロックを取得して呼び出す）
+     *
+     * @return 登録されていた場合はtrue
+     */
+    private boolean unindex(Long id) {
+        Entry previous = documents.remove(id);
+        if (previous == null) {
+            return false;
+        }
+        for (String gram : previous.grams()) {
+            Roaring64Bitmap ids = postings.get(gram);
+            if (ids != null) {
+                ids.removeLong(id);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 1語に対する候補の商品IDを返却するメソッド（読み取りロックを取得して呼び出す）
+     *
+     * 1文字の語は文字のポスティングを使用します。
+     * 返却するビットマップは呼び出し元で変更できる複製です。
+     */
+    private Roaring64Bitmap candidatesFor(String term) {
+        Set<String> grams = term.codePointCount(0, term.length()) == 1 ? Set.of(term) : grams(term);
+
+        // 件数の少ないポスティングから積集合を取る
+        List<Roaring64Bitmap> lists = new ArrayList<>(grams.size());
+        for (String gram : grams) {
+            Roaring64Bitmap ids = postings.get(gram);
+            if (ids == null) {
+                return new Roaring64Bitmap();
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingLong(Roaring64Bitmap::getLongCardinality));
+
+        Roaring64Bitmap result = lists.get(0).clone();
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.and(lists.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * キーワードを正規化して空白で分割するメソッド
+     */
+    private static List<String> terms(String keyword) {
+        String normalized = normalize(keyword);
+        if (normalized.isBlank()) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(normalized.trim().split("\\s+")).distinct().toList();
+    }
+
+    /**
+     * 文字列をNFKC正規化して小文字化するメソッド
+     */
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        return Normalizer.normalize(value, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 文字列の文字（空白以外）を返却するメソッド
+     */
+    static Set<String> unigrams(String value) {
+        Set<String> unigrams = new LinkedHashSet<>();
+        value.codePoints()
+                .filter(codePoint -> !Character.isWhitespace(codePoint))
+                .forEach(codePoint -> unigrams.add(Character.toString(codePoint)));
+        return unigrams;
+    }
+
+    /**
+     * 文字列を文字バイグラムに分割するメソッド
+     *
+     * 空白を含むバイグラムは対象外とします。
+     */
+    static Set<String> grams(String value) {
+        int[] codePoints = value.codePoints().toArray();
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 1 < codePoints.length; i++) {
+            if (Character.isWhitespace(codePoints[i]) || Character.isWhitespace(codePoints[i + 1])) {
+                continue;
+            }
+            grams.add(new String(codePoints, i, 2));
+        }
+        return grams;
+    }
+
+    /**
+     * スコア順の検索結果
+     *
+     * 商品IDとスコアをプリミティブ配列で保持します。
+     */
+    public static final class Hits {
+
+        // 一致なし
+        static final Hits EMPTY = new Hits(new long[0], new int[0], -1);
+
+        // スコア順の商品ID
+        private final long[] ids;
+        // 商品IDごとのスコア
+        private final int[] scores;
+        // 作成時のインデックスの更新世代
+        private final long generation;
+
+        private Hits(long[] ids, int[] scores, long generation) {
+            this.ids = ids;
+            this.scores = scores;
+            this.generation = generation;
+        }
+
+        /**
+         * 一致件数を返却するメソッド
+         *
+         * @return 一致件数
+         */
+        public int size() {
+            return ids.length;
+        }
+
+        /**
+         * 指定位置の検索結果を返却するメソッド
+         *
+         * @param index 位置（0始まり）
+         * @return 検索結果
+         */
+        public Hit get(int index) {
+            return new Hit(ids[index], scores[index]);
+        }
+
+        /**
+         * 指定範囲の商品IDを返却するメソッド
+         *
+         * @param from 開始位置（含む）
+         * @param to 終了位置（含まない）
+         * @return スコア順の商品ID
+         */
+        public List<Long> ids(int from, int to) {
+            List<Long> result = new ArrayList<>(Math.max(0, to - from));
+            for (int i = from; i < to; i++) {
+                result.add(ids[i]);
+            }
+            return result;
+        }
+
+        /**
+         * 指定の検索結果の次の位置を返却するメソッド
+         *
+         * 指定の検索結果が含まれない場合は、並び順でその後に来る最初の位置を返却します。
+         *
+         * @param last 前ページ最後の検索結果
+         * @return 次の位置
+         */
+        public int indexAfter(Hit last) {
+            int low = 0;
+            int high = ids.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (Hit.ORDER.compare(get(mid), last) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private long generation() {
+            return generation;
+        }
+    }
+
+    /**
+     * 検索結果
+     *
+     * @param id 商品ID
+     * @param score 一致スコア
+     */
+    public record Hit(Long id, int score) {
+
+        /**
+         * スコアの降順、商品IDの昇順
+         */
+        public static final Comparator<Hit> ORDER =
+                Comparator.comparingInt(Hit::score).reversed().thenComparing(Hit::id);
+    }
+
+    /**
+     * 正規化済みの検索対象項目
+     */
+    private record Entry(String sku, String name, String description, String barcode) {
+
+        /**
+         * 全項目のバイグラムと文字を返却するメソッド
+         */
+        private Set<String> grams() {
+            Set<String> grams = new HashSet<>();
+            grams.addAll(unigrams(sku));
+            grams.addAll(unigrams(name));
+            grams.addAll(unigrams(description));
+            grams.addAll(unigrams(barcode));
+            grams.addAll(ProductSearchIndex.grams(sku));
+            grams.addAll(ProductSearchIndex.grams(name));
+            grams.addAll(ProductSearchIndex.grams(description));
+            grams.addAll(ProductSearchIndex.grams(barcode));
+            return grams;
+        }
+
+        /**
+         * 1語に対する一致スコアを返却するメソッド（一致しない場合は0）
+         *
+         * SKU・バーコードの完全一致を最も高く、説明文のみの一致を最も低く評価します。
+         */
+        private int score(String term) {
+            int score = 0;
+            if (sku.equals(term) || barcode.equals(term)) {
+                score += 100;
+            } else if (sku.startsWith(term)) {
+                score += 40;
+            } else if (sku.contains(term) || barcode.contains(term)) {
+                score += 15;
+            }
+            if (name.startsWith(term)) {
+                score += 30;
+            } else if (name.contains(term)) {
+                score += 20;
+            }
+            if (description.contains(term)) {
+                score += 5;
+            }
+            return score;
+        }
+    }
+}
@@ -1,5 +1,13 @@
 package com.cooola.service;
 
+import com.cooola.dto.CacheInvalidation;
+import com.cooola.dto.CategoryProductCount;
+import com.cooola.dto.CursorPage;
+import com.cooola.dto.ProductDetailView;
+import com.cooola.dto.ProductListItem;
+import com.cooola.dto.ProductScanView;
+import com.cooola.dto.ProductSortKey;
+import com.cooola.dto.ProductSearchDocument;
 import com.cooola.entity.Product;
 import com.cooola.entity.ProductCategory;
 import com.cooola.repository.ProductRepository;
@@ -7,12 +15,26 @@ import com.cooola.repository.ProductCategoryRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * 商品管理サービス
@@ -35,6 +57,17 @@ public class ProductService {
     private final ProductRepository productRepository;
     // 商品カテゴリリポジトリ
     private final ProductCategoryRepository categoryRepository;
+    // 商品ルックアップインデックス（スキャン照会用）
+    private final ProductLookupIndex lookupIndex;
+    // 商品全文検索インデックス
+    private final ProductSearchIndex searchIndex;
+    // 商品カテゴリツリー
+    private final CategoryTreeCache categoryTree;
+    // 他のインスタンスへのキャッシュ無効化の通知
+    private final CacheInvalidationService cacheInvalidation;
+
+    // ストリーミング出力時に一度に取得する件数
+    private static final int STREAM_CHUNK_SIZE = 500;
 
     /**
      * 商品一覧を取得するメソッド
@@ -42,11 +75,64 @@ public class ProductService {
      * アクティブな商品のみをページネーション付きで取得します。
      * 
      * @param pageable ページネーション情報
-     * @return ページネーションされた商品一覧
+     * @return ページネーションされた商品一覧用ビュー
      */
     @Transactional(readOnly = true)  // 読み取り専用トランザクション
-    public Page<Product> getAllProducts(Pageable pageable) {
-        return productRepository.findByIsActive(true, pageable);
+    public Page<ProductListItem> getAllProducts(Pageable pageable) {
+        return productRepository.findActiveListItems(pageable);
+    }
+
+    /**
+     * 商品一覧を総件数なしで取得するメソッド
+     * 
+     * COUNTクエリを発行しないため、総件数が不要な場合はgetAllProductsより高速です。
+     * 
+     * @param pageable ページネーション情報
+     * @return 総件数を含まない商品一覧用ビューのスライス
+     */
+    @Transactional(readOnly = true)
+    public Slice<ProductListItem> getProductSlice(Pageable pageable) {
+        return productRepository.findActiveListItemSlice(pageable);
+    }
+
+    /**
+     * 商品一覧を取得するメソッド（カーソル方式）
+     * 
+     * カーソルは前ページ最後の行の（ソート値, 商品ID）を表し、ソート条件も含みます。
+     * ページ位置によらず、先頭ページと同じコストで取得できます。
+     * 
+     * @param sortKey ソート項目
+     * @param descending 降順の場合はtrue
+     * @param cursor 前ページのカーソル（先頭ページの場合はnull）
+     * @param size 1ページあたりの件数
+     * @return 商品一覧のページ
+     * @throws IllegalArgumentException カーソルの形式が不正、またはソート条件と一致しない場合
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ProductListItem> getProductsAfter(ProductSortKey sortKey, boolean descending,
+                                                        String cursor, int size) {
+        Object lastValue = null;
+        Long lastId = null;
+        if (cursor != null) {
+            String[] parts = CursorCodec.decode(cursor, 4);
+            if (!parts[0].equals(sortKey.name()) || Boolean.parseBoolean(parts[1]) != descending) {
+                throw new IllegalArgumentException("Cursor does not match sort order: " + cursor);
+            }
+            lastValue = sortKey.parse(parts[2]);
+            lastId = Long.valueOf(parts[3]);
+        }
+
+        // 次ページの有無を判定するため1件多く取得
+        List<ProductListItem> items = productRepository.findActiveListItemsAfter(
+                sortKey, descending, lastValue, lastId, size + 1);
+        boolean hasNext = items.size() > size;
+        List<ProductListItem> content = hasNext ? items.subList(0, size) : items;
+        String nextCursor = null;
+        if (hasNext) {
+            ProductListItem last = content.get(content.size() - 1);
+            nextCursor = CursorCodec.encode(sortKey.name(), descending, sortKey.valueOf(last), last.id());
+        }
+        return new CursorPage<>(content, nextCursor, hasNext);
     }
 
     /**
@@ -60,6 +146,19 @@ public class ProductService {
         return productRepository.findById(id);
     }
 
+    /**
+     * 商品詳細用ビューをIDで取得するメソッド
+     * 
+     * カテゴリ名を同一クエリで取得します。
+     * 
+     * @param id 商品ID
+     * @return 商品詳細用ビュー（存在しない場合は空のOptional）
+     */
+    @Transactional(readOnly = true)
+    public Optional<ProductDetailView> getProductDetail(Long id) {
+        return productRepository.findDetailViewById(id);
+    }
+
     /**
      * 商品をSKUで取得するメソッド
      * 
@@ -82,28 +181,200 @@ public class ProductService {
         return productRepository.findByBarcode(barcode);
     }
 
+    /**
+     * SKUで商品のスキャン用ビューを取得するメソッド
+     * 
+     * メモリ上のインデックスを優先し、存在しない場合のみリポジトリを照会します。
+     * インデックスにヒットした場合はトランザクションを開始せず、DB接続も使用しません。
+     * 照会結果は、照会中にインデックスが更新されていない場合のみインデックスに追加します。
+     * 
+     * @param sku 商品のSKU
+     * @return 商品スキャン用ビュー（存在しない場合は空のOptional）
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<ProductScanView> getScanViewBySku(String sku) {
+        ProductScanView view = lookupIndex.findBySku(sku);
+        if (view != null) {
+            return Optional.of(view);
+        }
+        long generation = lookupIndex.generation();
+        Optional<ProductScanView> loaded = productRepository.findScanViewBySku(sku);
+        loaded.ifPresent(found -> lookupIndex.putLoaded(found, generation));
+        return loaded;
+    }
+
+    /**
+     * バーコードで商品のスキャン用ビューを取得するメソッド
+     * 
+     * メモリ上のインデックスを優先し、存在しない場合のみリポジトリを照会します。
+     * インデックスにヒットした場合はトランザクションを開始せず、DB接続も使用しません。
+     * 照会結果は、照会中にインデックスが更新されていない場合のみインデックスに追加します。
+     * 
+     * @param barcode 商品のバーコード
+     * @return 商品スキャン用ビュー（存在しない場合は空のOptional）
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<ProductScanView> getScanViewByBarcode(String barcode) {
+        ProductScanView view = lookupIndex.findByBarcode(barcode);
+        if (view != null) {
+            return Optional.of(view);
+        }
+        long generation = lookupIndex.generation();
+        Optional<ProductScanView> loaded = productRepository.findScanViewByBarcode(barcode);
+        loaded.ifPresent(found -> lookupIndex.putLoaded(found, generation));
+        return loaded;
+    }
+
     /**
      * キーワードで商品を検索するメソッド
      * 
-     * 商品名、説明文などで部分一致検索を行います。
+     * SKU、商品名、説明文、バーコードを対象に全文検索インデックスで部分一致検索を行い、
+     * 一致度の高い順に指定ページの商品のみを取得します。
+     * 検索対象は有効な商品のみです（無効化した商品は含まれません）。
+     * 
+     * @param keyword 検索キーワード（空白区切りでAND条件）
+     * @param page ページ番号（0始まり）
+     * @param size 1ページあたりの件数
+     * @return 一致度順にページネーションされた検索結果
+     * @throws IllegalArgumentException ページ番号が負の場合、または件数が1未満の場合
+     */
+    @Transactional(readOnly = true)
+    public Page<ProductListItem> searchProducts(String keyword, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        ProductSearchIndex.Hits hits = searchIndex.search(keyword);
+
+        int from = (int) Math.min(pageable.getOffset(), hits.size());
+        int to = Math.min(from + size, hits.size());
+
+        return new PageImpl<>(findListItemsInOrder(hits.ids(from, to)), pageable, hits.size());
+    }
+
+    /**
+     * キーワードで商品を検索するメソッド（カーソル方式）
+     * 
+     * 結果は一致度の降順・商品IDの昇順で並び、カーソルは前ページ最後の（スコア, 商品ID）を表します。
+     * 検索対象は有効な商品のみです。
+     * 
+     * @param keyword 検索キーワード（空白区切りでAND条件）
+     * @param cursor 前ページのカーソル（先頭ページの場合はnull）
+     * @param size 1ページあたりの件数
+     * @return 検索結果のページ
+     * @throws IllegalArgumentException カーソルの形式が不正な場合
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ProductListItem> searchProductsAfter(String keyword, String cursor, int size) {
+        ProductSearchIndex.Hits hits = searchIndex.search(keyword);
+
+        // カーソル位置の次の要素から開始
+        int from = 0;
+        if (cursor != null) {
+            String[] parts = CursorCodec.decode(cursor, 2);
+            from = hits.indexAfter(new ProductSearchIndex.Hit(Long.valueOf(parts[1]), Integer.parseInt(parts[0])));
+        }
+        int to = Math.min(from + size, hits.size());
+
+        List<ProductListItem> content = findListItemsInOrder(hits.ids(from, to));
+        boolean hasNext = to < hits.size();
+        String nextCursor = null;
+        if (hasNext && to > from) {
+            ProductSearchIndex.Hit lastHit = hits.get(to - 1);
+            nextCursor = CursorCodec.encode(lastHit.score(), lastHit.id());
+        }
+        return new CursorPage<>(content, nextCursor, hasNext);
+    }
+
+    /**
+     * キーワード検索の全結果を順に出力するメソッド
+     * 
+     * 一致度順の商品IDを一定件数ごとに取得して出力するため、結果件数によらずメモリ使用量は一定です。
      * 
-     * @param keyword 検索キーワード
-     * @return 検索結果の商品一覧
+     * @param keyword 検索キーワード（空白区切りでAND条件）
+     * @param sink 各商品の出力先
      */
     @Transactional(readOnly = true)
-    public List<Product> searchProducts(String keyword) {
-        return productRepository.findByKeyword(keyword);
+    public void streamSearchResults(String keyword, Consumer<ProductListItem> sink) {
+        ProductSearchIndex.Hits hits = searchIndex.search(keyword);
+        for (int from = 0; from < hits.size(); from += STREAM_CHUNK_SIZE) {
+            findListItemsInOrder(hits.ids(from, Math.min(from + STREAM_CHUNK_SIZE, hits.size()))).forEach(sink);
+        }
     }
 
     /**
-     * カテゴリ別商品一覧を取得するメソッド
+     * カテゴリ別商品一覧を取得するメソッド（カーソル方式）
+     * 
+     * 商品IDの昇順で並び、カーソルは前ページ最後の商品IDを表します。
+     * 
+     * @param categoryId カテゴリID
+     * @param cursor 前ページのカーソル（先頭ページの場合はnull）
+     * @param size 1ページあたりの件数
+     * @return 商品一覧のページ
+     * @throws IllegalArgumentException カーソルの形式が不正な場合
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ProductListItem> getProductsByCategoryAfter(Long categoryId, String cursor, int size) {
+        long afterId = cursor != null ? Long.parseLong(CursorCodec.decode(cursor, 1)[0]) : 0L;
+
+        // 次ページの有無を判定するため1件多く取得
+        List<ProductListItem> items = productRepository.findListItemsByCategoryIdAfter(
+                categoryId, afterId, PageRequest.of(0, size + 1));
+        boolean hasNext = items.size() > size;
+        List<ProductListItem> content = hasNext ? items.subList(0, size) : items;
+        String nextCursor = hasNext ? CursorCodec.encode(content.get(content.size() - 1).id()) : null;
+        return new CursorPage<>(content, nextCursor, hasNext);
+    }
+
+    /**
+     * 配下のカテゴリを含めたカテゴリ別商品一覧を取得するメソッド（カーソル方式）
+     * 
+     * 配下のカテゴリIDはカテゴリツリーから求めるため、階層の深さによらずクエリは1回です。
+     * 
+     * @param categoryId カテゴリID
+     * @param cursor 前ページのカーソル（先頭ページの場合はnull）
+     * @param size 1ページあたりの件数
+     * @return 商品一覧のページ
+     * @throws IllegalArgumentException カテゴリが存在しない場合、またはカーソルの形式が不正な場合
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ProductListItem> getProductsByCategorySubtreeAfter(Long categoryId, String cursor, int size) {
+        List<Long> categoryIds = subtreeOf(categoryId);
+        long afterId = cursor != null ? Long.parseLong(CursorCodec.decode(cursor, 1)[0]) : 0L;
+
+        // 次ページの有無を判定するため1件多く取得
+        List<ProductListItem> items = productRepository.findListItemsByCategoryIdInAfter(
+                categoryIds, afterId, PageRequest.of(0, size + 1));
+        boolean hasNext = items.size() > size;
+        List<ProductListItem> content = hasNext ? items.subList(0, size) : items;
+        String nextCursor = hasNext ? CursorCodec.encode(content.get(content.size() - 1).id()) : null;
+        return new CursorPage<>(content, nextCursor, hasNext);
+    }
+
+    /**
+     * カテゴリ別商品一覧を順に出力するメソッド
+     * 
+     * データベースから逐次受信しながら出力するため、件数によらずメモリ使用量は一定です。
+     * 
+     * @param categoryId カテゴリID
+     * @param sink 各商品の出力先
+     */
+    @Transactional(readOnly = true)
+    public void streamProductsByCategory(Long categoryId, Consumer<ProductListItem> sink) {
+        try (Stream<ProductListItem> items = productRepository.streamListItemsByCategoryId(categoryId)) {
+            items.forEach(sink);
+        }
+    }
+
+    /**
+     * カテゴリ別商品一覧を取得するメソッド（ページネーション付き）
      * 
      * @param categoryId カテゴリID
-     * @return 指定カテゴリの商品一覧
+     * @param page ページ番号
+     * @param size 1ページあたりの件数
+     * @return 商品ID昇順の指定カテゴリの商品一覧用ビュー
+     * @throws IllegalArgumentException ページ番号が負、または件数が1未満の場合
      */
     @Transactional(readOnly = true)
-    public List<Product> getProductsByCategory(Long categoryId) {
-        return productRepository.findByCategoryId(categoryId);
+    public List<ProductListItem> getProductsByCategory(Long categoryId, int page, int size) {
+        return productRepository.findListItemsByCategoryId(categoryId, PageRequest.of(page, size));
     }
 
     /**
@@ -138,6 +409,13 @@ public class ProductService {
         // 商品をアクティブ状態で保存
         product.setIsActive(true);
         Product savedProduct = productRepository.save(product);
+        ProductScanView view = ProductScanView.from(savedProduct);
+        ProductSearchDocument document = ProductSearchDocument.from(savedProduct);
+        cacheInvalidation.record(CacheInvalidation.Type.PRODUCT, savedProduct.getId(), null);
+        afterCommit(() -> {
+            lookupIndex.put(view);
+            searchIndex.put(document);
+        });
         log.info("Product created: {}", savedProduct.getSku());
         return savedProduct;
     }
@@ -187,8 +465,18 @@ public class ProductService {
         product.setWeight(productDetails.getWeight());
         product.setDimensions(productDetails.getDimensions());
         product.setBarcode(productDetails.getBarcode());
+        product.setAllocationStrategy(productDetails.getAllocationStrategy());
 
         Product updatedProduct = productRepository.save(product);
+        ProductScanView view = ProductScanView.from(updatedProduct);
+        ProductSearchDocument document = ProductSearchDocument.from(updatedProduct);
+        cacheInvalidation.record(CacheInvalidation.Type.PRODUCT, updatedProduct.getId(), null);
+        afterCommit(() -> {
+            lookupIndex.put(view);
+            if (Boolean.TRUE.equals(updatedProduct.getIsActive())) {
+                searchIndex.put(document);
+            }
+        });
         log.info("Product updated: {}", updatedProduct.getSku());
         return updatedProduct;
     }
@@ -209,6 +497,11 @@ public class ProductService {
         // 論理削除（isActiveをfalseに設定）
         product.setIsActive(false);
         productRepository.save(product);
+        cacheInvalidation.record(CacheInvalidation.Type.PRODUCT, id, null);
+        afterCommit(() -> {
+            lookupIndex.remove(id);
+            searchIndex.remove(id);
+        });
         log.info("Product deleted: {}", product.getSku());
     }
 
@@ -242,4 +535,81 @@ public class ProductService {
     public long getProductCountByCategory(Long categoryId) {
         return productRepository.countByCategoryId(categoryId);
     }
-}
\ No newline at end of file
+
+    /**
+     * 配下のカテゴリを含めたカテゴリ別商品数を取得するメソッド
+     * 
+     * @param categoryId カテゴリID
+     * @return 指定カテゴリとその配下のカテゴリの商品数
+     * @throws IllegalArgumentException カテゴリが存在しない場合
+     */
+    @Transactional(readOnly = true)
+    public long getProductCountByCategorySubtree(Long categoryId) {
+        return productRepository.countByCategoryIdIn(subtreeOf(categoryId));
+    }
+
+    /**
+     * 全カテゴリの商品数を、配下のカテゴリを含めた合計とともに取得するメソッド
+     * 
+     * 商品数は1回の集計クエリで取得し、配下の合計はカテゴリツリー上で求めます。
+     * 
+     * @return 階層の行きがけ順に並んだカテゴリ別商品数
+     */
+    @Transactional(readOnly = true)
+    public List<CategoryProductCount> getCategoryProductCounts() {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : productRepository.countGroupByCategoryId()) {
+            counts.put((Long) row[0], (Long) row[1]);
+        }
+        return categoryTree.get().productCounts(counts);
+    }
+
+    /**
+     * カテゴリ自身と配下のカテゴリIDを取得するメソッド
+     * 
+     * @throws IllegalArgumentException カテゴリが存在しない場合
+     */
+    private List<Long> subtreeOf(Long categoryId) {
+        List<Long> categoryIds = categoryTree.get().subtree(categoryId);
+        if (categoryIds.isEmpty()) {
+            throw new IllegalArgumentException("Category not found: " + categoryId);
+        }
+        return categoryIds;
+    }
+
+    /**
+     * 商品IDの順序を保ったまま商品一覧用ビューを一括取得するメソッド
+     * 
+     * @param ids 商品IDの一覧
+     * @return 指定順に並んだ商品一覧用ビュー（存在しないIDは除外）
+     */
+    private List<ProductListItem> findListItemsInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, ProductListItem> byId = productRepository.findListItemsByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductListItem::id, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * トランザクションのコミット後に処理を実行するメソッド
+     * 
+     * メモリ上のインデックスにロールバックされた変更が反映されないよう、
+     * コミットが完了してから更新します。トランザクション外の場合は即時に実行します。
+     * 
+     * @param action コミット後に実行する処理
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
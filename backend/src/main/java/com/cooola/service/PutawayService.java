@@ -0,0 +1,134 @@
+package com.cooola.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 格納先決定サービス
+ *
+ * このクラスは入荷した商品の格納先ロケーションを決定します。
+ * 同じ倉庫に同じロット番号・期限の在庫がある場合はその中で最も在庫の多いロケーションにまとめ、
+ * それ以外の場合は在庫の入っていないビン（BIN）をコード順に割り当てます。
+ * ロット番号・期限の異なる在庫を同じロケーションにまとめないため、ロットごとの先入先出・期限管理が崩れません。
+ *
+ * 空きビンは行ロックを取って取得し、他のトランザクションがロック中のビンは読み飛ばすため、
+ * 同時に入荷確定を行っても同じ空きビンが別々の商品に割り当てられることはありません。
+ * ロックは呼び出し元のトランザクションが在庫を登録してコミットするまで保持されます。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Service                    // Spring Bootサービスとして登録
+@RequiredArgsConstructor    // コンストラクタインジェクション
+@Slf4j                      // ログ機能
+public class PutawayService {
+
+    // 既に在庫があるロケーションをロット番号・期限とともに取得するSQL（商品ごとに在庫の多い順）
+    private static final String STORED_LOCATIONS_SQL =
+            "SELECT i.product_id, i.lot_number, i.expiry_date, l.id, l.code " +
+            "FROM inventory i JOIN locations l ON l.id = i.location_id " +
+            "WHERE i.warehouse_id = :warehouseId AND i.product_id IN (:productIds) AND i.quantity > 0 " +
+            "AND l.is_active = TRUE ORDER BY i.product_id, i.quantity DESC, l.code";
+    // 空きビンをロックして取得するSQL
+    private static final String FREE_BINS_SQL =
+            "SELECT l.id, l.code FROM locations l WHERE l.warehouse_id = :warehouseId " +
+            "AND l.location_type = 'BIN' AND l.is_active = TRUE " +
+            "AND NOT EXISTS (SELECT 1 FROM inventory i WHERE i.location_id = l.id AND i.quantity > 0) " +
+            "ORDER BY l.code LIMIT :limit FOR UPDATE OF l SKIP LOCKED";
+
+    // IN句展開用のJDBCテンプレート
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * ロットごとの格納先を決定するメソッド
+     *
+     * 呼び出し元のトランザクション内で実行し、同じトランザクションで在庫を登録してください。
+     *
+     * @param warehouseId 倉庫ID
+     * @param lots 入荷したロット
+     * @return ロット → 格納先（空きビンが不足したロットは含まれない）
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<Lot, Suggestion> assign(Long warehouseId, Collection<Lot> lots) {
+        Map<Lot, Suggestion> result = new HashMap<>();
+        if (lots.isEmpty()) {
+            return result;
+        }
+
+        Set<Lot> requested = new HashSet<>(lots);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("warehouseId", warehouseId)
+                .addValue("productIds", lots.stream().map(Lot::productId).distinct().toList());
+        namedParameterJdbcTemplate.query(STORED_LOCATIONS_SQL, params, rs -> {
+            Date expiryDate = rs.getDate(3);
+            Lot lot = new Lot(rs.getLong(1), rs.getString(2), expiryDate != null ? expiryDate.toLocalDate() : null);
+            if (requested.contains(lot)) {
+                result.putIfAbsent(lot, new Suggestion(rs.getLong(4), rs.getString(5)));
+            }
+        });
+
+        // 同じロットの在庫がない場合はロット順に空きビンを割り当てる
+        List<Lot> unassigned = new ArrayList<>(requested);
+        unassigned.removeIf(result::containsKey);
+        unassigned.sort(Lot.ORDER);
+        if (unassigned.isEmpty()) {
+            return result;
+        }
+        List<Suggestion> bins = namedParameterJdbcTemplate.query(FREE_BINS_SQL,
+                new MapSqlParameterSource()
+                        .addValue("warehouseId", warehouseId)
+                        .addValue("limit", unassigned.size()),
+                (rs, rowNum) -> new Suggestion(rs.getLong(1), rs.getString(2)));
+        for (int i = 0; i < bins.size(); i++) {
+            result.put(unassigned.get(i), bins.get(i));
+        }
+        if (bins.size() < unassigned.size()) {
+            log.warn("Not enough free bins for putaway: warehouse={}, required={}, found={}",
+                    warehouseId, unassigned.size(), bins.size());
+        }
+        return result;
+    }
+
+    /**
+     * 入荷したロット
+     *
+     * @param productId 商品ID
+     * @param lotNumber ロット番号
+     * @param expiryDate 期限
+     */
+    public record Lot(Long productId, String lotNumber, LocalDate expiryDate) {
+
+        /**
+         * 商品ID、ロット番号、期限の昇順（未設定を先頭）
+         */
+        public static final Comparator<Lot> ORDER = Comparator.comparing(Lot::productId)
+                .thenComparing(Lot::lotNumber, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(Lot::expiryDate, Comparator.nullsFirst(Comparator.naturalOrder()));
+    }
+
+    /**
+     * 格納先
+     *
+     * @param locationId ロケーションID
+     * @param locationCode ロケーションコード
+     */
+    public record Suggestion(Long locationId, String locationCode) {
+    }
+}
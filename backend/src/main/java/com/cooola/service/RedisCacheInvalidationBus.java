@@ -0,0 +1,129 @@
+package com.cooola.service;
+
+import com.cooola.dto.CacheInvalidation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Redis Pub/Subによるキャッシュ無効化イベント通知
+ *
+ * イベントはJSON配列にして1つのチャンネルへ送信し、全インスタンスが購読します。
+ * 受信したイベントはRedisクライアントのI/Oスレッドではなく専用のスレッドで処理します。
+ * 切断時はRedisクライアントが再接続・再購読し、その間のイベントはアウトボックスの確認で補われます。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Slf4j  // ログ機能
+public class RedisCacheInvalidationBus implements CacheInvalidationBus, AutoCloseable {
+
+    // イベント一覧の型
+    private static final TypeReference<List<CacheInvalidation>> EVENTS = new TypeReference<>() {
+    };
+
+    // Redisクライアント
+    private final RedisClient client;
+    // 送信用の接続
+    private final StatefulRedisConnection<String, String> connection;
+    // 購読用の接続
+    private final StatefulRedisPubSubConnection<String, String> subscription;
+    // チャンネル名
+    private final String channel;
+    // JSON変換
+    private final ObjectMapper objectMapper;
+    // 通知を受け取る処理
+    private final List<Consumer<List<CacheInvalidation>>> subscribers = new CopyOnWriteArrayList<>();
+    // 受信したイベントを処理するスレッド
+    private final ExecutorService deliveries = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-invalidation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Redisに接続してチャンネルを購読するコンストラクタ
+     *
+     * @param client Redisクライアント
+     * @param channel チャンネル名
+     * @param objectMapper JSON変換
+     */
+    public RedisCacheInvalidationBus(RedisClient client, String channel, ObjectMapper objectMapper) {
+        this.client = client;
+        this.channel = channel;
+        this.objectMapper = objectMapper;
+        this.connection = client.connect();
+        this.subscription = client.connectPubSub();
+        this.subscription.addListener(new RedisPubSubAdapter<>() {
+            @Override
+            public void message(String channel, String message) {
+                deliveries.execute(() -> deliver(message));
+            }
+        });
+        this.subscription.sync().subscribe(channel);
+    }
+
+    @Override
+    public void publish(List<CacheInvalidation> events) {
+        String message;
+        try {
+            message = objectMapper.writeValueAsString(events);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize {} cache invalidation events", events.size(), e);
+            return;
+        }
+        connection.async().publish(channel, message).whenComplete((receivers, e) -> {
+            if (e != null) {
+                log.warn("Failed to publish {} cache invalidation events to Redis", events.size(), e);
+            }
+        });
+    }
+
+    @Override
+    public void subscribe(Consumer<List<CacheInvalidation>> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * 接続を閉じるメソッド
+     */
+    @Override
+    public void close() {
+        subscription.close();
+        connection.close();
+        client.shutdown();
+        deliveries.shutdown();
+    }
+
+    /**
+     * 受信したイベントを通知を受け取る処理へ渡すメソッド
+     */
+    private void deliver(String message) {
+        List<CacheInvalidation> events;
+        try {
+            events = objectMapper.readValue(message, EVENTS);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to parse cache invalidation message: {}", message, e);
+            return;
+        }
+        for (Consumer<List<CacheInvalidation>> subscriber : subscribers) {
+            try {
+                subscriber.accept(events);
+            } catch (RuntimeException e) {
+                log.error("Failed to apply {} cache invalidation events", events.size(), e);
+            }
+        }
+    }
+}
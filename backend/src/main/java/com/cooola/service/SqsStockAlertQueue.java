@@ -0,0 +1,63 @@
+package com.cooola.service;
+
+import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequest;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.SendMessageBatchResult;
+import com.cooola.dto.StockAlert;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SQSへ在庫アラートを送信するキュー
+ *
+ * アラートはJSONにしてSendMessageBatch（1回あたり最大10件）でまとめて送信します。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@RequiredArgsConstructor    // コンストラクタインジェクション
+@Slf4j                      // ログ機能
+public class SqsStockAlertQueue implements StockAlertQueue {
+
+    // SendMessageBatchの最大件数
+    private static final int MAX_BATCH = 10;
+
+    // SQSクライアント
+    private final AmazonSQS sqs;
+    // 送信先のキューURL
+    private final String queueUrl;
+    // JSON変換
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void send(List<StockAlert> alerts) {
+        for (int from = 0; from < alerts.size(); from += MAX_BATCH) {
+            List<StockAlert> chunk = alerts.subList(from, Math.min(from + MAX_BATCH, alerts.size()));
+            List<SendMessageBatchRequestEntry> entries = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                try {
+                    entries.add(new SendMessageBatchRequestEntry(String.valueOf(i),
+                            objectMapper.writeValueAsString(chunk.get(i))));
+                } catch (JsonProcessingException e) {
+                    log.error("Failed to serialize stock alert: {}", chunk.get(i), e);
+                }
+            }
+            if (entries.isEmpty()) {
+                continue;
+            }
+            SendMessageBatchResult result = sqs.sendMessageBatch(new SendMessageBatchRequest(queueUrl, entries));
+            for (BatchResultErrorEntry failed : result.getFailed()) {
+                log.error("Failed to send stock alert to SQS: {} ({})", chunk.get(Integer.parseInt(failed.getId())),
+                        failed.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.cooola.service;
+
+import com.cooola.dto.StockAlert;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 在庫アラートのServer-Sent Events配信
+ *
+ * このクラスは画面からの購読（SSE接続）を保持し、発生した在庫アラートを全購読者へ送信します。
+ * 送信に失敗した接続は購読を解除します。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component  // Springコンポーネントとして登録
+@Slf4j      // ログ機能
+public class StockAlertBroadcaster {
+
+    // 接続のタイムアウト（ミリ秒、切断後はブラウザが自動で再接続する）
+    private static final long TIMEOUT_MILLIS = 30 * 60 * 1000L;
+    // SSEのイベント名
+    private static final String EVENT_NAME = "stock-alert";
+
+    // 購読中の接続
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+    /**
+     * 購読を開始するメソッド
+     *
+     * @return SSE接続
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(TIMEOUT_MILLIS);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        emitters.add(emitter);
+        return emitter;
+    }
+
+    /**
+     * アラートを全購読者へ送信するメソッド
+     *
+     * @param alerts アラート（発生順）
+     */
+    public void broadcast(List<StockAlert> alerts) {
+        for (SseEmitter emitter : emitters) {
+            try {
+                for (StockAlert alert : alerts) {
+                    emitter.send(SseEmitter.event().name(EVENT_NAME).data(alert));
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Stock alert subscriber disconnected: {}", e.getMessage());
+                emitters.remove(emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.cooola.service;
+
+import com.cooola.dto.StockAlert;
+
+import java.util.List;
+
+/**
+ * 在庫アラートの送信先キュー
+ *
+ * 他システムへの通知に使用します。本番環境ではSQS、ローカル環境ではメモリ上のキューを使用します
+ * （inventory.alerts.queue で切り替え）。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public interface StockAlertQueue {
+
+    /**
+     * アラートを送信するメソッド
+     *
+     * @param alerts アラート（発生順）
+     */
+    void send(List<StockAlert> alerts);
+}
@@ -0,0 +1,743 @@
+package com.cooola.service;
+
+import com.cooola.dto.StockAlert;
+import com.cooola.dto.StockAlertThresholdRequest;
+import com.cooola.entity.InventoryMovement;
+import com.cooola.entity.StockAlertThreshold;
+import com.cooola.repository.ProductCategoryRepository;
+import com.cooola.repository.ProductRepository;
+import com.cooola.repository.StockAlertThresholdRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 在庫アラートサービス
+ *
+ * このクラスは在庫不足と有効期限のアラートを、在庫テーブルを定期的に検索せずに検出します。
+ *
+ * 在庫不足は商品・倉庫ごとの引当可能数量の合計をメモリ上に保持し、InventoryLedgerから在庫の変化が
+ * 通知された商品・倉庫の合計だけを数秒ごとに読み込み直して閾値と比較します。
+ * 在庫を動かしたインスタンスがデータベースの最新の合計で判定するため、他のインスタンスの在庫移動も遅れずに反映されます。
+ * 閾値は商品別、カテゴリ別（親カテゴリへ順にたどる）、system_settings の inventory_low_stock_threshold の順に適用します。
+ * 閾値以下になった時点でLOW_STOCK、閾値を上回った時点でSTOCK_RECOVEREDを通知します。
+ *
+ * 有効期限は在庫レコードごとに次に通知する日付の順に並べた集合で管理し（在庫レコード1件につき1要素）、
+ * 定期的に先頭から期日を迎えたものだけを取り出します。期限の inventory_expiry_warning_days 日前にEXPIRING、
+ * 期限の翌日にEXPIREDを通知します。入荷などで在庫数量が変わった在庫レコードは、次回の確認時に読み込み直し、要素を置き換えます。
+ *
+ * 複数インスタンスで同じアラートを重複して通知しないよう、通知済みの状態をデータベースで共有します。
+ * 在庫不足は stock_alert_states の状態を変更できた場合、期限は stock_alert_expiry_claims に登録できた場合のみ通知します。
+ *
+ * アラートは購読中の画面（SSE）と送信先キュー（SQSまたはメモリ上のキュー）へまとめて送信します。
+ * 記録漏れに備えて定期的に在庫テーブルと照合します。起動時の読み込みでは、通知済みの状態がない在庫は
+ * 条件を満たしていても通知しません（一覧APIで確認できます）。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Service                    // Spring Bootサービスとして登録
+@RequiredArgsConstructor    // コンストラクタインジェクション
+@Slf4j                      // ログ機能
+public class StockAlertService implements InventoryLedger.Listener {
+
+    // 在庫不足の閾値の設定キー
+    private static final String LOW_STOCK_THRESHOLD_KEY = "inventory_low_stock_threshold";
+    // 期限切れ警告の日数の設定キー
+    private static final String EXPIRY_WARNING_DAYS_KEY = "inventory_expiry_warning_days";
+    // 期限切れ警告の日数（未設定の場合）
+    private static final int DEFAULT_EXPIRY_WARNING_DAYS = 30;
+    // IN句1回あたりの最大件数
+    private static final int IN_CHUNK = 1000;
+
+    // 設定値を取得するSQL
+    private static final String SETTING_SQL = "SELECT setting_value FROM system_settings WHERE setting_key = ?";
+    // 商品・倉庫ごとの引当可能数量を集計するSQL
+    private static final String AVAILABLE_SQL =
+            "SELECT product_id, warehouse_id, SUM(available_quantity) AS available FROM inventory " +
+            "GROUP BY product_id, warehouse_id";
+    // 商品のカテゴリを取得するSQL
+    private static final String PRODUCT_CATEGORIES_SQL = "SELECT id, category_id FROM products";
+    // カテゴリの親を取得するSQL
+    private static final String CATEGORY_PARENTS_SQL = "SELECT id, parent_id FROM product_categories";
+    // 商品・倉庫を指定して引当可能数量を集計するSQL
+    private static final String AVAILABLE_BY_KEYS_SQL =
+            "SELECT product_id, warehouse_id, SUM(available_quantity) AS available FROM inventory " +
+            "WHERE (product_id, warehouse_id) IN (:keys) GROUP BY product_id, warehouse_id";
+    // 在庫不足の通知済み状態を取得するSQL
+    private static final String STATES_SQL = "SELECT product_id, warehouse_id, is_low FROM stock_alert_states";
+    // 商品・倉庫を指定して在庫不足の通知済み状態を取得するSQL
+    private static final String STATES_BY_KEYS_SQL =
+            "SELECT product_id, warehouse_id, is_low FROM stock_alert_states WHERE (product_id, warehouse_id) IN (:keys)";
+    // 在庫不足の通知済み状態を変更するSQL（変更できたインスタンスが通知する）
+    private static final String CLAIM_STATE_SQL =
+            "UPDATE stock_alert_states SET is_low = ?, changed_at = NOW(3) " +
+            "WHERE product_id = ? AND warehouse_id = ? AND is_low <> ?";
+    // 在庫不足の通知済み状態を登録するSQL（登録済みの場合は何もしない）
+    private static final String INSERT_STATE_SQL =
+            "INSERT IGNORE INTO stock_alert_states (product_id, warehouse_id, is_low) VALUES (?, ?, ?)";
+    // 期限のアラートを通知済みとして登録するSQL（登録できたインスタンスが通知する）
+    private static final String CLAIM_EXPIRY_SQL =
+            "INSERT IGNORE INTO stock_alert_expiry_claims (inventory_id, expiry_date, stage) VALUES (?, ?, ?)";
+    // 期限から一定期間が過ぎた通知済みの期限のアラートを削除するSQL
+    private static final String PURGE_EXPIRY_CLAIMS_SQL = "DELETE FROM stock_alert_expiry_claims WHERE expiry_date < ?";
+    // 通知済みの期限のアラートを保持する期限後の日数
+    private static final int EXPIRY_CLAIM_RETENTION_DAYS = 7;
+    // 期限のある在庫レコードを取得するSQL
+    private static final String EXPIRY_SQL =
+            "SELECT id, product_id, warehouse_id, lot_number, quantity, expiry_date FROM inventory " +
+            "WHERE expiry_date IS NOT NULL AND quantity > 0";
+    // 在庫レコードの期限を読み込み直すSQL
+    private static final String EXPIRY_BY_ID_SQL =
+            "SELECT id, product_id, warehouse_id, lot_number, quantity, expiry_date FROM inventory " +
+            "WHERE id IN (:ids) AND expiry_date IS NOT NULL AND quantity > 0";
+
+    // JDBCテンプレート
+    private final JdbcTemplate jdbcTemplate;
+    // IN句展開用のJDBCテンプレート
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    // 在庫不足閾値リポジトリ
+    private final StockAlertThresholdRepository thresholdRepository;
+    // 商品リポジトリ
+    private final ProductRepository productRepository;
+    // カテゴリリポジトリ
+    private final ProductCategoryRepository categoryRepository;
+    // SSE配信
+    private final StockAlertBroadcaster broadcaster;
+    // 送信先キュー
+    private final StockAlertQueue alertQueue;
+
+    // 送信待ちアラートの最大件数
+    @Value("${inventory.alerts.outbox-capacity:10000}")
+    private int outboxCapacity;
+
+    // 商品・倉庫 → 引当可能数量の合計と在庫不足かどうか
+    private final Map<StockKey, Level> levels = new ConcurrentHashMap<>();
+    // 商品ID → カテゴリID（読み込み後に登録された商品は初回の参照時に取得する）
+    private final Map<Long, Long> productCategories = new ConcurrentHashMap<>();
+    // 在庫ID → 次に通知する期限のアラート
+    private final Map<Long, ExpiryEntry> expiryEntries = new ConcurrentHashMap<>();
+    // 次に通知する日付順の期限のアラート（expiryEntriesと同じ要素を保持する）
+    private final NavigableSet<ExpiryEntry> expiryQueue = new TreeSet<>(ExpiryEntry.ORDER);
+    // 期限のアラートの排他（全件の読み込み中も保持するため、仮想スレッドを固定しないReentrantLockを使用）
+    private final ReentrantLock expiryLock = new ReentrantLock();
+    // 期限を読み込み直す在庫ID
+    private final Set<Long> dirtyInventoryIds = ConcurrentHashMap.newKeySet();
+    // 引当可能数量を読み込み直す商品・倉庫
+    private final Set<StockKey> dirtyKeys = ConcurrentHashMap.newKeySet();
+    // 送信待ちのアラート
+    private BlockingQueue<StockAlert> outbox;
+
+    // 閾値（設定の変更時・照合時に差し替える）
+    private volatile Thresholds thresholds = Thresholds.EMPTY;
+    // 期限切れ警告の日数
+    private volatile int expiryWarningDays = DEFAULT_EXPIRY_WARNING_DAYS;
+    // 初回の読み込みが完了したかどうか
+    private volatile boolean ready;
+
+    /**
+     * 送信待ちの列を作成するメソッド
+     */
+    @PostConstruct
+    public void init() {
+        outbox = new LinkedBlockingQueue<>(outboxCapacity);
+    }
+
+    /**
+     * 在庫の変化を記録するメソッド（InventoryLedgerからコミット後に呼び出される）
+     *
+     * 変化した商品・倉庫の引当可能数量と在庫レコードの期限は、次回の確認時に読み込み直します。
+     *
+     * @param movements 在庫の変化
+     */
+    @Override
+    public void onRecorded(List<InventoryLedger.Movement> movements) {
+        if (!ready) {
+            return;
+        }
+        for (InventoryLedger.Movement movement : movements) {
+            dirtyKeys.add(new StockKey(movement.productId(), movement.warehouseId()));
+            boolean reservation = movement.type() == InventoryMovement.MovementType.RESERVE
+                    || movement.type() == InventoryMovement.MovementType.RELEASE;
+            if (!reservation && movement.inventoryId() != null) {
+                dirtyInventoryIds.add(movement.inventoryId());
+            }
+        }
+    }
+
+    /**
+     * 在庫不足の商品・倉庫を取得するメソッド
+     *
+     * @param warehouseId 倉庫ID（nullの場合は全倉庫）
+     * @return 在庫不足のアラート（商品ID・倉庫ID順）
+     */
+    public List<StockAlert> getLowStock(Long warehouseId) {
+        Thresholds current = thresholds;
+        return levels.entrySet().stream()
+                .filter(entry -> entry.getValue().low())
+                .filter(entry -> warehouseId == null || warehouseId.equals(entry.getKey().warehouseId()))
+                .sorted(Map.Entry.comparingByKey(StockKey.ORDER))
+                .map(entry -> lowStockAlert(StockAlert.Type.LOW_STOCK, entry.getKey(), entry.getValue(),
+                        current.resolve(entry.getKey().productId(), categoryOf(entry.getKey().productId()))))
+                .toList();
+    }
+
+    /**
+     * 商品別・カテゴリ別の在庫不足閾値を設定するメソッド
+     *
+     * 設定後、全商品・倉庫の在庫不足の判定をやり直し、状態が変わったものを通知します。
+     *
+     * @param request 閾値の設定
+     * @throws IllegalArgumentException 商品IDとカテゴリIDの指定が不正な場合、閾値が負の場合、対象が存在しない場合
+     */
+    public void setThreshold(StockAlertThresholdRequest request) {
+        if ((request.getProductId() == null) == (request.getCategoryId() == null)) {
+            throw new IllegalArgumentException("Exactly one of productId and categoryId is required");
+        }
+        if (request.getThreshold() == null || request.getThreshold().signum() < 0) {
+            throw new IllegalArgumentException("Threshold must be zero or positive");
+        }
+        StockAlertThreshold threshold;
+        if (request.getProductId() != null) {
+            if (!productRepository.existsById(request.getProductId())) {
+                throw new IllegalArgumentException("Product not found: " + request.getProductId());
+            }
+            threshold = thresholdRepository.findByProductId(request.getProductId()).orElseGet(() -> {
+                StockAlertThreshold created = new StockAlertThreshold();
+                created.setProductId(request.getProductId());
+                return created;
+            });
+        } else {
+            if (!categoryRepository.existsById(request.getCategoryId())) {
+                throw new IllegalArgumentException("Category not found: " + request.getCategoryId());
+            }
+            threshold = thresholdRepository.findByCategoryId(request.getCategoryId()).orElseGet(() -> {
+                StockAlertThreshold created = new StockAlertThreshold();
+                created.setCategoryId(request.getCategoryId());
+                return created;
+            });
+        }
+        threshold.setThreshold(request.getThreshold());
+        thresholdRepository.save(threshold);
+        reloadThresholds();
+    }
+
+    /**
+     * 商品別・カテゴリ別の在庫不足閾値を削除するメソッド
+     *
+     * @param productId 商品ID
+     * @param categoryId カテゴリID
+     * @return 削除した場合はtrue
+     */
+    public boolean deleteThreshold(Long productId, Long categoryId) {
+        Optional<StockAlertThreshold> threshold = Optional.empty();
+        if (productId != null) {
+            threshold = thresholdRepository.findByProductId(productId);
+        } else if (categoryId != null) {
+            threshold = thresholdRepository.findByCategoryId(categoryId);
+        }
+        if (threshold.isEmpty()) {
+            return false;
+        }
+        thresholdRepository.delete(threshold.get());
+        reloadThresholds();
+        return true;
+    }
+
+    /**
+     * 在庫テーブルと照合するメソッド
+     *
+     * 初回は閾値・引当可能数量・期限のある在庫レコードを読み込みます（通知済みの状態がない在庫は通知しません）。
+     * 2回目以降は閾値・引当可能数量を読み込み直し、通知済みの状態と食い違うものを通知します。
+     */
+    @Scheduled(fixedDelayString = "${inventory.alerts.reconcile-interval:PT15M}")
+    public void reconcile() {
+        try {
+            boolean initial = !ready;
+            loadCategories();
+            int warningDays = readInt(EXPIRY_WARNING_DAYS_KEY, DEFAULT_EXPIRY_WARNING_DAYS);
+            thresholds = loadThresholds();
+
+            Map<StockKey, BigDecimal> available = new HashMap<>();
+            jdbcTemplate.query(AVAILABLE_SQL, rs -> {
+                available.put(new StockKey(rs.getLong("product_id"), rs.getLong("warehouse_id")),
+                        rs.getBigDecimal("available"));
+            });
+            levels.keySet().forEach(key -> available.putIfAbsent(key, BigDecimal.ZERO));
+            settle(available, loadStates(STATES_SQL, new MapSqlParameterSource()), thresholds, initial);
+
+            if (initial || warningDays != expiryWarningDays) {
+                expiryWarningDays = warningDays;
+                loadExpiries();
+            }
+            jdbcTemplate.update(PURGE_EXPIRY_CLAIMS_SQL, LocalDate.now().minusDays(EXPIRY_CLAIM_RETENTION_DAYS));
+            if (initial) {
+                ready = true;
+                log.info("Stock alerts loaded: {} stock levels ({} low), {} lots with expiry dates",
+                        levels.size(), levels.values().stream().filter(Level::low).count(), expiryEntries.size());
+            }
+        } catch (DataAccessException e) {
+            log.warn("Failed to reconcile stock alerts, will retry on the next run", e);
+        }
+    }
+
+    /**
+     * 在庫が変化した商品・倉庫の引当可能数量を読み込み直すメソッド
+     *
+     * 通知済みの状態と判定が食い違う場合は状態を変更し、変更できた場合のみ通知します。
+     */
+    @Scheduled(fixedDelayString = "${inventory.alerts.level-refresh-interval:PT5S}")
+    public void refreshLevels() {
+        if (!ready || dirtyKeys.isEmpty()) {
+            return;
+        }
+        List<StockKey> keys = new ArrayList<>(dirtyKeys);
+        dirtyKeys.removeAll(keys);
+        Thresholds current = thresholds;
+        for (int from = 0; from < keys.size(); from += IN_CHUNK) {
+            List<StockKey> chunk = keys.subList(from, Math.min(from + IN_CHUNK, keys.size()));
+            MapSqlParameterSource params = new MapSqlParameterSource("keys", chunk.stream()
+                    .map(key -> new Object[]{key.productId(), key.warehouseId()})
+                    .toList());
+            try {
+                Map<StockKey, BigDecimal> available = new HashMap<>();
+                chunk.forEach(key -> available.put(key, BigDecimal.ZERO));
+                namedParameterJdbcTemplate.query(AVAILABLE_BY_KEYS_SQL, params, rs -> {
+                    available.put(new StockKey(rs.getLong("product_id"), rs.getLong("warehouse_id")),
+                            rs.getBigDecimal("available"));
+                });
+                settle(available, loadStates(STATES_BY_KEYS_SQL, params), current, false);
+            } catch (DataAccessException e) {
+                dirtyKeys.addAll(keys.subList(from, keys.size()));
+                log.warn("Failed to refresh stock levels, will retry on the next run", e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * 期日を迎えた期限のアラートを通知するメソッド
+     *
+     * 在庫数量が変わった在庫レコードの期限を読み込み直した後、先頭から期日を迎えたものを取り出します。
+     * 通知済みとして登録できたアラートのみ通知します（他のインスタンスが通知済みの場合は通知しない）。
+     */
+    @Scheduled(fixedDelayString = "${inventory.alerts.expiry-check-interval:PT1M}")
+    public void checkExpiries() {
+        if (!ready) {
+            return;
+        }
+        try {
+            refreshDirtyExpiries();
+        } catch (DataAccessException e) {
+            log.warn("Failed to refresh expiry dates, will retry on the next run", e);
+        }
+
+        LocalDate today = LocalDate.now();
+        expiryLock.lock();
+        try {
+            while (!expiryQueue.isEmpty() && !expiryQueue.first().dueDate().isAfter(today)) {
+                ExpiryEntry entry = expiryQueue.first();
+                // 登録に失敗した場合は要素を残し、次回に通知する
+                if (jdbcTemplate.update(CLAIM_EXPIRY_SQL, entry.inventoryId(), entry.expiryDate(),
+                        entry.stage().name()) > 0) {
+                    emit(new StockAlert(entry.stage(), entry.productId(), entry.warehouseId(), entry.inventoryId(),
+                            entry.quantity(), null, entry.lotNumber(), entry.expiryDate(), LocalDateTime.now()));
+                }
+                if (entry.stage() == StockAlert.Type.EXPIRING) {
+                    schedule(entry.next());
+                } else {
+                    unschedule(entry.inventoryId());
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("Failed to claim expiry alerts, will retry on the next run", e);
+        } finally {
+            expiryLock.unlock();
+        }
+    }
+
+    /**
+     * 送信待ちのアラートを購読者と送信先キューへ送信するメソッド
+     */
+    @Scheduled(fixedDelayString = "${inventory.alerts.dispatch-interval:PT1S}")
+    public void dispatch() {
+        if (outbox.isEmpty()) {
+            return;
+        }
+        List<StockAlert> alerts = new ArrayList<>();
+        outbox.drainTo(alerts);
+        broadcaster.broadcast(alerts);
+        try {
+            alertQueue.send(alerts);
+        } catch (RuntimeException e) {
+            log.error("Failed to send {} stock alerts to the queue", alerts.size(), e);
+        }
+    }
+
+    /**
+     * 商品・倉庫の引当可能数量を更新し、通知済みの状態と判定が食い違う場合に通知するメソッド
+     *
+     * 通知済みの状態を変更できた場合のみ通知するため、複数インスタンスで同じ変化を重複して通知しません。
+     * 通知済みの状態がない商品・倉庫は状態を登録し、在庫不足の場合は通知します（初回の読み込みでは通知しない）。
+     *
+     * @param available 商品・倉庫 → 引当可能数量
+     * @param shared 商品・倉庫 → 通知済みの在庫不足の状態
+     * @param current 閾値
+     * @param initial 初回の読み込みの場合はtrue
+     */
+    private void settle(Map<StockKey, BigDecimal> available, Map<StockKey, Boolean> shared, Thresholds current,
+                        boolean initial) {
+        List<Object[]> seeds = new ArrayList<>();
+        available.forEach((key, quantity) -> {
+            BigDecimal threshold = current.resolve(key.productId(), categoryOf(key.productId()));
+            boolean low = isLow(quantity, threshold);
+            Level level = levels.compute(key, (k, before) ->
+                    before == null ? new Level(quantity, low, LocalDateTime.now()) : before.with(quantity, low));
+            Boolean sharedLow = shared.get(key);
+            if (sharedLow == null) {
+                if (initial) {
+                    seeds.add(new Object[]{key.productId(), key.warehouseId(), low});
+                } else if (jdbcTemplate.update(INSERT_STATE_SQL, key.productId(), key.warehouseId(), low) > 0 && low) {
+                    emit(lowStockAlert(StockAlert.Type.LOW_STOCK, key, level, threshold));
+                }
+            } else if (sharedLow != low
+                    && jdbcTemplate.update(CLAIM_STATE_SQL, low, key.productId(), key.warehouseId(), low) > 0) {
+                emit(lowStockAlert(low ? StockAlert.Type.LOW_STOCK : StockAlert.Type.STOCK_RECOVERED, key, level,
+                        threshold));
+            }
+        });
+        if (!seeds.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_STATE_SQL, seeds);
+        }
+    }
+
+    /**
+     * 在庫不足の通知済み状態を読み込むメソッド
+     */
+    private Map<StockKey, Boolean> loadStates(String sql, MapSqlParameterSource params) {
+        Map<StockKey, Boolean> states = new HashMap<>();
+        namedParameterJdbcTemplate.query(sql, params, rs -> {
+            states.put(new StockKey(rs.getLong("product_id"), rs.getLong("warehouse_id")), rs.getBoolean("is_low"));
+        });
+        return states;
+    }
+
+    /**
+     * 閾値を読み込み直し、全商品・倉庫の在庫不足の判定をやり直すメソッド
+     */
+    private void reloadThresholds() {
+        loadCategories();
+        thresholds = loadThresholds();
+        if (!ready) {
+            return;
+        }
+        Map<StockKey, BigDecimal> available = new HashMap<>();
+        levels.forEach((key, level) -> available.put(key, level.available()));
+        settle(available, loadStates(STATES_SQL, new MapSqlParameterSource()), thresholds, false);
+    }
+
+    /**
+     * 閾値を読み込むメソッド
+     */
+    private Thresholds loadThresholds() {
+        BigDecimal global = null;
+        List<String> values = jdbcTemplate.queryForList(SETTING_SQL, String.class, LOW_STOCK_THRESHOLD_KEY);
+        if (!values.isEmpty() && values.get(0) != null && !values.get(0).isBlank()) {
+            try {
+                global = new BigDecimal(values.get(0).trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid {} setting: {}", LOW_STOCK_THRESHOLD_KEY, values.get(0));
+            }
+        }
+        Map<Long, BigDecimal> byProduct = new HashMap<>();
+        Map<Long, BigDecimal> byCategory = new HashMap<>();
+        for (StockAlertThreshold threshold : thresholdRepository.findAll()) {
+            if (threshold.getProductId() != null) {
+                byProduct.put(threshold.getProductId(), threshold.getThreshold());
+            } else if (threshold.getCategoryId() != null) {
+                byCategory.put(threshold.getCategoryId(), threshold.getThreshold());
+            }
+        }
+        Map<Long, Long> parents = new HashMap<>();
+        jdbcTemplate.query(CATEGORY_PARENTS_SQL, rs -> {
+            parents.put(rs.getLong("id"), rs.getObject("parent_id", Long.class));
+        });
+        return new Thresholds(global, byProduct, byCategory, parents);
+    }
+
+    /**
+     * 商品のカテゴリを読み込むメソッド
+     */
+    private void loadCategories() {
+        jdbcTemplate.query(PRODUCT_CATEGORIES_SQL, rs -> {
+            productCategories.put(rs.getLong("id"), rs.getLong("category_id"));
+        });
+    }
+
+    /**
+     * 商品のカテゴリIDを返却するメソッド（読み込み後に登録された商品はデータベースから取得する）
+     */
+    private Long categoryOf(Long productId) {
+        Long categoryId = productCategories.get(productId);
+        if (categoryId == null) {
+            List<Long> found = jdbcTemplate.queryForList("SELECT category_id FROM products WHERE id = ?",
+                    Long.class, productId);
+            if (!found.isEmpty()) {
+                categoryId = found.get(0);
+                productCategories.put(productId, categoryId);
+            }
+        }
+        return categoryId;
+    }
+
+    /**
+     * 期限のある在庫レコードを全件読み込むメソッド
+     *
+     * 既に期日を過ぎた段階のアラートは通知済みとして扱い、次の段階から通知します。
+     */
+    private void loadExpiries() {
+        LocalDate today = LocalDate.now();
+        expiryLock.lock();
+        try {
+            expiryEntries.clear();
+            expiryQueue.clear();
+            jdbcTemplate.query(EXPIRY_SQL, rs -> {
+                ExpiryEntry entry = expiryEntry(rs);
+                if (entry.dueDate().isBefore(today)) {
+                    entry = entry.next();
+                }
+                if (entry != null && !entry.dueDate().isBefore(today)) {
+                    schedule(entry);
+                }
+            });
+        } finally {
+            expiryLock.unlock();
+        }
+    }
+
+    /**
+     * 在庫数量が変わった在庫レコードの期限を読み込み直すメソッド
+     */
+    private void refreshDirtyExpiries() {
+        if (dirtyInventoryIds.isEmpty()) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        List<Long> ids = new ArrayList<>(dirtyInventoryIds);
+        dirtyInventoryIds.removeAll(ids);
+        for (int from = 0; from < ids.size(); from += IN_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + IN_CHUNK, ids.size()));
+            Set<Long> found = new HashSet<>();
+            List<ExpiryEntry> refreshed = new ArrayList<>();
+            try {
+                namedParameterJdbcTemplate.query(EXPIRY_BY_ID_SQL, new MapSqlParameterSource("ids", chunk), rs -> {
+                    ExpiryEntry entry = expiryEntry(rs);
+                    found.add(entry.inventoryId());
+                    refreshed.add(entry);
+                });
+            } catch (DataAccessException e) {
+                dirtyInventoryIds.addAll(ids.subList(from, ids.size()));
+                throw e;
+            }
+            expiryLock.lock();
+            try {
+                for (ExpiryEntry entry : refreshed) {
+                    ExpiryEntry current = expiryEntries.get(entry.inventoryId());
+                    if (current != null && current.expiryDate().equals(entry.expiryDate())) {
+                        // 期限が変わらない場合は通知の段階を維持し、数量のみ更新する
+                        ExpiryEntry updated = current.withQuantity(entry.quantity());
+                        if (!updated.equals(current)) {
+                            schedule(updated);
+                        }
+                    } else if (current == null && entry.expiryDate().isBefore(today)) {
+                        // 期限切れの在庫が入荷した場合はEXPIREDのみ通知する
+                        schedule(entry.next());
+                    } else {
+                        schedule(entry);
+                    }
+                }
+                // 在庫がなくなった・期限がなくなった在庫レコードは通知しない
+                for (Long id : chunk) {
+                    if (!found.contains(id)) {
+                        unschedule(id);
+                    }
+                }
+            } finally {
+                expiryLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 期限のアラートを登録するメソッド（expiryLockを保持して呼び出す）
+     *
+     * 同じ在庫レコードの登録済みのアラートは置き換えます。
+     */
+    private void schedule(ExpiryEntry entry) {
+        ExpiryEntry previous = expiryEntries.put(entry.inventoryId(), entry);
+        if (previous != null) {
+            expiryQueue.remove(previous);
+        }
+        expiryQueue.add(entry);
+    }
+
+    /**
+     * 在庫レコードの期限のアラートを削除するメソッド（expiryLockを保持して呼び出す）
+     */
+    private void unschedule(Long inventoryId) {
+        ExpiryEntry previous = expiryEntries.remove(inventoryId);
+        if (previous != null) {
+            expiryQueue.remove(previous);
+        }
+    }
+
+    /**
+     * 在庫レコードから最初の段階（EXPIRING）の期限のアラートを作成するメソッド
+     */
+    private ExpiryEntry expiryEntry(ResultSet rs) throws SQLException {
+        LocalDate expiryDate = rs.getObject("expiry_date", LocalDate.class);
+        return new ExpiryEntry(rs.getLong("id"), rs.getLong("product_id"), rs.getLong("warehouse_id"),
+                rs.getString("lot_number"), rs.getBigDecimal("quantity"), expiryDate,
+                StockAlert.Type.EXPIRING, expiryDate.minusDays(expiryWarningDays));
+    }
+
+    /**
+     * アラートを送信待ちに追加するメソッド
+     */
+    private void emit(StockAlert alert) {
+        if (!outbox.offer(alert)) {
+            log.warn("Stock alert outbox is full, dropped: {}", alert);
+        }
+    }
+
+    private int readInt(String key, int defaultValue) {
+        List<String> values = jdbcTemplate.queryForList(SETTING_SQL, String.class, key);
+        if (values.isEmpty() || values.get(0) == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(values.get(0).trim());
+        } catch (NumberFormatException e) {
+            log.warn("Invalid {} setting: {}", key, values.get(0));
+            return defaultValue;
+        }
+    }
+
+    private static boolean isLow(BigDecimal available, BigDecimal threshold) {
+        return threshold != null && available.compareTo(threshold) <= 0;
+    }
+
+    private static StockAlert lowStockAlert(StockAlert.Type type, StockKey key, Level level, BigDecimal threshold) {
+        return new StockAlert(type, key.productId(), key.warehouseId(), null, level.available(), threshold,
+                null, null, level.since());
+    }
+
+    /**
+     * 商品・倉庫
+     */
+    private record StockKey(Long productId, Long warehouseId) {
+
+        private static final Comparator<StockKey> ORDER =
+                Comparator.comparing(StockKey::productId).thenComparing(StockKey::warehouseId);
+    }
+
+    /**
+     * 引当可能数量の合計と在庫不足かどうか
+     *
+     * @param since 在庫不足の状態になった（または解消した）日時
+     */
+    private record Level(BigDecimal available, boolean low, LocalDateTime since) {
+
+        private Level with(BigDecimal available, boolean low) {
+            return new Level(available, low, low == this.low ? since : LocalDateTime.now());
+        }
+    }
+
+    /**
+     * 次に通知する期限のアラート
+     *
+     * @param stage 次に通知する種別（EXPIRINGまたはEXPIRED）
+     * @param dueDate 通知する日付
+     */
+    private record ExpiryEntry(Long inventoryId, Long productId, Long warehouseId, String lotNumber,
+                               BigDecimal quantity, LocalDate expiryDate, StockAlert.Type stage, LocalDate dueDate) {
+
+        private static final Comparator<ExpiryEntry> ORDER =
+                Comparator.comparing(ExpiryEntry::dueDate).thenComparing(ExpiryEntry::inventoryId);
+
+        /**
+         * 次の段階（EXPIRED）を返却するメソッド（EXPIREDの次はnull）
+         */
+        private ExpiryEntry next() {
+            return stage == StockAlert.Type.EXPIRING
+                    ? new ExpiryEntry(inventoryId, productId, warehouseId, lotNumber, quantity, expiryDate,
+                            StockAlert.Type.EXPIRED, expiryDate.plusDays(1))
+                    : null;
+        }
+
+        private ExpiryEntry withQuantity(BigDecimal quantity) {
+            return new ExpiryEntry(inventoryId, productId, warehouseId, lotNumber, quantity, expiryDate, stage,
+                    dueDate);
+        }
+    }
+
+    /**
+     * 在庫不足の閾値
+     *
+     * @param global 全商品の閾値（未設定の場合はnull）
+     * @param byProduct 商品ID → 閾値
+     * @param byCategory カテゴリID → 閾値
+     * @param categoryParents カテゴリID → 親カテゴリID
+     */
+    private record Thresholds(BigDecimal global, Map<Long, BigDecimal> byProduct, Map<Long, BigDecimal> byCategory,
+                              Map<Long, Long> categoryParents) {
+
+        private static final Thresholds EMPTY = new Thresholds(null, Map.of(), Map.of(), Map.of());
+
+        /**
+         * 商品に適用する閾値を返却するメソッド（商品別 → カテゴリ別（親へ順にたどる） → 全商品）
+         */
+        private BigDecimal resolve(Long productId, Long categoryId) {
+            BigDecimal threshold = byProduct.get(productId);
+            if (threshold != null) {
+                return threshold;
+            }
+            Set<Long> visited = new HashSet<>();
+            for (Long id = categoryId; id != null && visited.add(id); id = categoryParents.get(id)) {
+                threshold = byCategory.get(id);
+                if (threshold != null) {
+                    return threshold;
+                }
+            }
+            return global;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+-- COOOLa 倉庫管理システム 棚卸し拡張
+
+-- 棚卸しの対象範囲（NULLの場合は倉庫全体、指定した場合はそのロケーション配下）
+ALTER TABLE inventory_counts
+    ADD COLUMN location_id BIGINT AFTER warehouse_id,
+    ADD FOREIGN KEY (location_id) REFERENCES locations(id);
+
+-- inventory_id: 予定数量を取得した在庫レコード（棚卸しで見つかった在庫にない商品はNULL）
+-- location_key: ロケーション未設定の明細も一意キーで重複と判定するための列
+-- adjusted_quantity: 在庫へ反映した調整数量（未反映の場合はNULL）
+ALTER TABLE inventory_count_items
+    ADD COLUMN inventory_id BIGINT AFTER inventory_count_id,
+    ADD COLUMN location_key BIGINT AS (COALESCE(location_id, 0)) STORED AFTER location_id,
+    ADD COLUMN adjusted_quantity DECIMAL(10,3) AFTER variance,
+    ADD FOREIGN KEY (inventory_id) REFERENCES inventory(id),
+    ADD UNIQUE KEY uk_inventory_count_items_location_product (inventory_count_id, location_key, product_id);
@@ -0,0 +1,14 @@
+-- COOOLa 倉庫管理システム キャッシュ無効化イベント追加
+
+-- 複数インスタンス間でメモリ上のキャッシュを無効化するためのイベント（トランザクショナルアウトボックス）。
+-- 変更と同じトランザクションで登録し、各インスタンスが定期的に読み取る。
+-- 保持期間を過ぎたイベントは定期的に削除する。
+CREATE TABLE cache_invalidation_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    cache_type ENUM('PRODUCT', 'CATEGORY', 'LOCATION', 'WAREHOUSE', 'USER') NOT NULL,
+    entity_id BIGINT NOT NULL,
+    warehouse_id BIGINT,
+    origin VARCHAR(36) NOT NULL,
+    created_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    INDEX idx_cache_invalidation_events_created_at (created_at)
+);
@@ -0,0 +1,30 @@
+-- COOOLa 倉庫管理システム ホットSKU引当の数量変化テーブル追加
+
+-- ホットSKUの引当・解除の数量変化（引当・解除と同じトランザクションで登録する）。
+-- コミットされた記録のみが残るため、所有ノードが一定間隔で在庫レコードへ反映し、反映した記録を削除する。
+CREATE TABLE inventory_hot_deltas (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    inventory_id BIGINT NOT NULL,
+    delta DECIMAL(13,3) NOT NULL,
+    created_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    INDEX idx_inventory_hot_deltas_inventory (inventory_id, id)
+);
+
+-- メモリ上引当を行うノード（heartbeat_at が一定時間更新されないノードは停止したものとみなす）
+CREATE TABLE inventory_hot_nodes (
+    node_id VARCHAR(100) PRIMARY KEY,
+    heartbeat_at TIMESTAMP(3) NOT NULL
+);
+
+-- 在庫レコードごとのメモリ上引当の所有ノード（1レコードにつき1ノードのみ）。
+-- 登録されている在庫レコードは、所有ノード以外ではデータベース上の引当を行わない。
+CREATE TABLE inventory_hot_owners (
+    inventory_id BIGINT PRIMARY KEY,
+    node_id VARCHAR(100) NOT NULL,
+    claimed_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    FOREIGN KEY (inventory_id) REFERENCES inventory(id),
+    INDEX idx_inventory_hot_owners_node (node_id)
+);
+
+-- ローカルファイルのジャーナルは使用しなくなったため、反映位置のテーブルを削除する
+DROP TABLE inventory_journal_checkpoints;
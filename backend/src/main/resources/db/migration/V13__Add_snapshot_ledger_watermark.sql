@@ -0,0 +1,16 @@
+-- COOOLa 倉庫管理システム 在庫スナップショットの台帳反映位置追加
+
+-- 台帳の書き込み日時（データベースの時刻）。created_at は変化が反映された時刻のため、
+-- 書き込みが遅れた記録は created_at が過去の時刻になる
+ALTER TABLE inventory_movements
+    ADD COLUMN recorded_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3);
+
+-- スナップショット作成時に台帳のどの記録まで確認したか（この台帳ID以下の記録のうち snapshot_at 以前のものを含む）。
+-- これより後に書き込まれた snapshot_at 以前の記録（書き込みが遅れた記録）は次のスナップショットで反映する
+ALTER TABLE inventory_snapshots
+    ADD COLUMN last_movement_id BIGINT NOT NULL DEFAULT 0 AFTER base_snapshot_id;
+
+-- 既存のスナップショットは作成時点で書き込み済みだった記録を特定できないため、snapshot_at 以前の最大の台帳IDとみなす
+UPDATE inventory_snapshots s
+SET last_movement_id = COALESCE(
+    (SELECT MAX(m.id) FROM inventory_movements m WHERE m.created_at <= s.snapshot_at), 0);
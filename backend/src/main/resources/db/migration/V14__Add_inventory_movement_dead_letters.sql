@@ -0,0 +1,22 @@
+-- COOOLa 倉庫管理システム 在庫移動台帳の書き込み失敗記録テーブル追加
+
+-- 在庫移動台帳に書き込めなかった記録（制約違反など再試行しても成功しない記録、書き込み待ちの列が満杯の間の記録）。
+-- 原因を取り除いた後に inventory_movements へ登録し直し、削除する。
+-- 書き込めなかった原因によらず登録できるよう、外部キーは設定しない
+CREATE TABLE inventory_movement_dead_letters (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    movement_number VARCHAR(50) NOT NULL,
+    inventory_id BIGINT,
+    warehouse_id BIGINT,
+    product_id BIGINT,
+    location_id BIGINT,
+    movement_type VARCHAR(20) NOT NULL,
+    quantity DECIMAL(13,3),
+    reference_number VARCHAR(50),
+    reason TEXT,
+    created_by BIGINT,
+    occurred_at TIMESTAMP(3) NOT NULL,
+    error_message TEXT NOT NULL,
+    created_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    INDEX idx_inventory_movement_dead_letters_created_at (created_at)
+);
@@ -0,0 +1,19 @@
+-- COOOLa 倉庫管理システム 伝票番号ノードコードの割り当てテーブル追加
+
+-- 伝票番号に含める2桁のノードコード（00〜99）。
+-- 各インスタンスは起動時に空いているコード（所有者なし、または期限切れ）を1つ借り受け、
+-- 稼働中は期限を延長し、停止時に返却する
+CREATE TABLE document_number_nodes (
+    node_code CHAR(2) PRIMARY KEY,
+    owner VARCHAR(64),
+    lease_expires_at TIMESTAMP(3) NULL,
+    INDEX idx_document_number_nodes_owner (owner)
+);
+
+INSERT INTO document_number_nodes (node_code)
+WITH RECURSIVE codes (n) AS (
+    SELECT 0
+    UNION ALL
+    SELECT n + 1 FROM codes WHERE n < 99
+)
+SELECT LPAD(n, 2, '0') FROM codes;
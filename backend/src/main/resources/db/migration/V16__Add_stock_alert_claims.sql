@@ -0,0 +1,22 @@
+-- COOOLa 倉庫管理システム 在庫アラートの通知済み状態テーブル追加
+
+-- 商品・倉庫ごとの在庫不足の通知済み状態。
+-- 状態を変更できたインスタンスだけがアラートを通知するため、複数インスタンスでも同じ変化は1回だけ通知される
+CREATE TABLE stock_alert_states (
+    product_id BIGINT NOT NULL,
+    warehouse_id BIGINT NOT NULL,
+    is_low BOOLEAN NOT NULL,
+    changed_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    PRIMARY KEY (product_id, warehouse_id)
+);
+
+-- 通知済みの期限のアラート（在庫レコード・期限・段階ごとに1回だけ通知する）。
+-- 期限から一定期間が過ぎた行は定期的に削除する
+CREATE TABLE stock_alert_expiry_claims (
+    inventory_id BIGINT NOT NULL,
+    expiry_date DATE NOT NULL,
+    stage VARCHAR(20) NOT NULL,
+    claimed_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    PRIMARY KEY (inventory_id, expiry_date, stage),
+    INDEX idx_stock_alert_expiry_claims_expiry_date (expiry_date)
+);
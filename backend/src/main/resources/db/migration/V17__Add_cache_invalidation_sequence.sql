@@ -0,0 +1,17 @@
+-- COOOLa 倉庫管理システム キャッシュ無効化イベントのコミット順採番
+
+-- キャッシュ無効化イベントのIDを採番する連番（1行のみ）。
+-- イベントを登録するトランザクションは、変更中はイベントをメモリ上に溜め、コミット直前（beforeCommit）に
+-- この行をロックしてまとめて連番を取得し、コミットまでロックを保持する（ロックの保持はコミット直前からコミットまで）。
+-- このためイベントIDの順序はコミット順と一致し、欠番も発生しない（ロールバックした場合は連番も戻る）。
+-- 各インスタンスは読み取り済みの最大のイベントIDより後のイベントだけを読めばよい
+CREATE TABLE cache_invalidation_sequence (
+    id TINYINT PRIMARY KEY,
+    last_event_id BIGINT NOT NULL
+);
+
+INSERT INTO cache_invalidation_sequence (id, last_event_id)
+SELECT 1, COALESCE(MAX(id), 0) FROM cache_invalidation_events;
+
+-- イベントIDは連番から採番するため、自動採番を外す
+ALTER TABLE cache_invalidation_events MODIFY id BIGINT NOT NULL;
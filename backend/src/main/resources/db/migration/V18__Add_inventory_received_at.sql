@@ -0,0 +1,8 @@
+-- COOOLa 倉庫管理システム 在庫レコードの入庫日時追加
+
+-- 在庫レコードに現在のロットを入庫した日時（FIFO・LIFOの引当順に使用する）。
+-- 数量0の在庫レコードを入庫・棚卸で再利用した場合は再利用した日時に更新するため、在庫IDの順序とは一致しない
+ALTER TABLE inventory ADD COLUMN received_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) AFTER expiry_date;
+
+-- 既存の在庫レコードは登録日時を入庫日時とする
+UPDATE inventory SET received_at = created_at WHERE created_at IS NOT NULL;
@@ -0,0 +1,5 @@
+-- COOOLa 倉庫管理システム 採番できなかった在庫移動の書き込み失敗記録
+
+-- 伝票番号のノードコードの借り受け期限が切れている間は移動番号を採番できないため、
+-- その間の記録は移動番号なしで登録する（inventory_movements へ登録し直す時に採番する）
+ALTER TABLE inventory_movement_dead_letters MODIFY movement_number VARCHAR(50) NULL;
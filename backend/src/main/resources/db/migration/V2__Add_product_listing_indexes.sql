@@ -0,0 +1,8 @@
+-- COOOLa 倉庫管理システム 商品一覧用インデックス追加
+
+-- 商品一覧のソート・キーセットページネーション用（is_active, ソート項目, id）
+CREATE INDEX idx_products_active_id ON products (is_active, id);
+CREATE INDEX idx_products_active_sku ON products (is_active, sku, id);
+CREATE INDEX idx_products_active_name ON products (is_active, name, id);
+CREATE INDEX idx_products_active_created_at ON products (is_active, created_at, id);
+CREATE INDEX idx_products_active_updated_at ON products (is_active, updated_at, id);
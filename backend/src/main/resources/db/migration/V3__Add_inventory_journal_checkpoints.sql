@@ -0,0 +1,9 @@
+-- COOOLa 倉庫管理システム 在庫引当ジャーナルのチェックポイント追加
+
+-- ホットSKUのメモリ上引当をデータベースへ反映した位置（ノードごと）
+-- ジャーナルの反映と同一トランザクションで更新し、再起動時の二重反映を防ぐ
+CREATE TABLE inventory_journal_checkpoints (
+    node_id VARCHAR(100) PRIMARY KEY,
+    last_sequence BIGINT NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
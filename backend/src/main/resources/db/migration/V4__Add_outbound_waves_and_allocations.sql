@@ -0,0 +1,21 @@
+-- COOOLa 倉庫管理システム 出庫ウェーブ・引当テーブル追加
+
+-- 出庫指示にウェーブ番号を追加
+ALTER TABLE outbound_orders ADD COLUMN wave_number VARCHAR(50) AFTER priority;
+CREATE INDEX idx_wave_number ON outbound_orders (wave_number);
+
+-- ウェーブ対象の出庫指示の抽出用（倉庫, ステータス, 優先度, 納期）
+CREATE INDEX idx_outbound_orders_wave ON outbound_orders (warehouse_id, status, priority, required_date);
+
+-- 出庫引当テーブル（出庫明細ごとに引当した在庫レコードと数量）
+CREATE TABLE outbound_allocations (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    outbound_order_item_id BIGINT NOT NULL,
+    inventory_id BIGINT NOT NULL,
+    quantity DECIMAL(10,3) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (outbound_order_item_id) REFERENCES outbound_order_items(id),
+    FOREIGN KEY (inventory_id) REFERENCES inventory(id),
+    INDEX idx_outbound_order_item_id (outbound_order_item_id),
+    INDEX idx_inventory_id (inventory_id)
+);
@@ -0,0 +1,14 @@
+-- COOOLa 倉庫管理システム 在庫移動履歴の台帳化
+
+-- 在庫レコード単位で数量の変化を記録する
+-- quantity は在庫数量（RESERVE・RELEASE の場合は引当数量）の増減を符号付きで表す
+ALTER TABLE inventory_movements
+    ADD COLUMN inventory_id BIGINT AFTER movement_number,
+    ADD COLUMN reference_number VARCHAR(50) AFTER movement_type,
+    MODIFY COLUMN movement_type ENUM('TRANSFER', 'ADJUSTMENT', 'DAMAGE', 'LOSS', 'RECEIPT', 'RESERVE', 'RELEASE') NOT NULL,
+    MODIFY COLUMN created_by BIGINT NULL;
+
+-- 在庫レコードごとの履歴の時系列参照用（在庫ID, 台帳ID）
+CREATE INDEX idx_inventory_movements_inventory ON inventory_movements (inventory_id, id);
+-- 伝票番号からの参照用
+CREATE INDEX idx_inventory_movements_reference ON inventory_movements (reference_number);
@@ -0,0 +1,31 @@
+-- COOOLa 倉庫管理システム 在庫スナップショット追加
+
+-- 在庫スナップショット（snapshot_at 時点の在庫レコードごとの数量）
+-- BASELINE は台帳の開始前から存在する在庫を取り込むため在庫テーブルから作成し、
+-- SCHEDULED は直前のスナップショットに在庫移動台帳の増減を加えて作成する
+CREATE TABLE inventory_snapshots (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    snapshot_at DATETIME NOT NULL,
+    snapshot_type ENUM('BASELINE', 'SCHEDULED') NOT NULL,
+    base_snapshot_id BIGINT,
+    line_count INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_snapshot_at (snapshot_at)
+);
+
+-- スナップショット明細（数量・引当数量がともに0の在庫レコードは含まない）
+CREATE TABLE inventory_snapshot_lines (
+    snapshot_id BIGINT NOT NULL,
+    inventory_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    warehouse_id BIGINT NOT NULL,
+    location_id BIGINT,
+    quantity DECIMAL(13,3) NOT NULL,
+    reserved_quantity DECIMAL(13,3) NOT NULL,
+    PRIMARY KEY (snapshot_id, inventory_id),
+    FOREIGN KEY (snapshot_id) REFERENCES inventory_snapshots(id),
+    INDEX idx_snapshot_lines_warehouse (snapshot_id, warehouse_id, product_id)
+);
+
+-- 時点指定の照会で倉庫ごとに台帳を再生するため（倉庫, 作成日時）
+CREATE INDEX idx_inventory_movements_warehouse_created ON inventory_movements (warehouse_id, created_at);
@@ -0,0 +1,30 @@
+-- COOOLa 倉庫管理システム 在庫集計テーブル追加
+
+-- 倉庫ごとの在庫集計（在庫の変更ごとに差分で更新し、定期的に在庫テーブルと照合する）
+CREATE TABLE warehouse_inventory_totals (
+    warehouse_id BIGINT PRIMARY KEY,
+    total_quantity DECIMAL(20,3) NOT NULL DEFAULT 0,
+    total_value DECIMAL(22,5) NOT NULL DEFAULT 0,
+    in_stock_count INT NOT NULL DEFAULT 0,
+    out_of_stock_count INT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    FOREIGN KEY (warehouse_id) REFERENCES warehouses(id)
+);
+
+-- 商品ごとの在庫集計
+CREATE TABLE product_inventory_totals (
+    product_id BIGINT PRIMARY KEY,
+    total_quantity DECIMAL(20,3) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    FOREIGN KEY (product_id) REFERENCES products(id)
+);
+
+-- 既存の在庫から初期値を作成
+INSERT INTO warehouse_inventory_totals (warehouse_id, total_quantity, total_value, in_stock_count, out_of_stock_count)
+SELECT w.id, COALESCE(SUM(i.quantity), 0), COALESCE(SUM(i.quantity * i.unit_cost), 0),
+       COUNT(CASE WHEN i.quantity > 0 THEN 1 END), COUNT(CASE WHEN i.quantity = 0 THEN 1 END)
+FROM warehouses w LEFT JOIN inventory i ON i.warehouse_id = w.id
+GROUP BY w.id;
+
+INSERT INTO product_inventory_totals (product_id, total_quantity)
+SELECT product_id, SUM(quantity) FROM inventory GROUP BY product_id;
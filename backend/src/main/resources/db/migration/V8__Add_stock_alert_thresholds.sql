@@ -0,0 +1,20 @@
+-- COOOLa 倉庫管理システム 在庫アラート閾値追加
+
+-- 商品別・カテゴリ別の在庫不足閾値（どちらにも該当しない商品は system_settings の
+-- inventory_low_stock_threshold を使用する）
+CREATE TABLE stock_alert_thresholds (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    product_id BIGINT,
+    category_id BIGINT,
+    threshold DECIMAL(10,3) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    FOREIGN KEY (product_id) REFERENCES products(id),
+    FOREIGN KEY (category_id) REFERENCES product_categories(id),
+    UNIQUE KEY uk_stock_alert_thresholds_product (product_id),
+    UNIQUE KEY uk_stock_alert_thresholds_category (category_id),
+    CHECK ((product_id IS NULL) <> (category_id IS NULL))
+);
+
+INSERT INTO system_settings (setting_key, setting_value, description) VALUES
+('inventory_expiry_warning_days', '30', '期限切れ警告の日数');
@@ -0,0 +1,8 @@
+-- COOOLa 倉庫管理システム ロット引当方式追加
+
+-- 商品ごとの引当方式（NULLの場合は inventory.allocation.default-strategy を使用する）
+ALTER TABLE products ADD COLUMN allocation_strategy ENUM('FEFO', 'FIFO', 'LIFO') AFTER barcode;
+
+-- 引当候補の順序付き走査用（FEFO: 有効期限・在庫ID順、FIFO/LIFO: 在庫ID順）
+CREATE INDEX idx_inventory_product_warehouse_expiry ON inventory (product_id, warehouse_id, expiry_date, id);
+CREATE INDEX idx_inventory_product_warehouse_id ON inventory (product_id, warehouse_id, id);
@@ -0,0 +1,125 @@
+package com.cooola.config;
+
+import com.cooola.entity.Location;
+import com.cooola.entity.ProductCategory;
+import com.cooola.repository.LocationRepository;
+import com.cooola.repository.ProductCategoryRepository;
+import com.cooola.repository.WarehouseRepository;
+import com.cooola.support.InventoryFixtures;
+import com.cooola.support.MySqlIntegrationTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hibernate二次キャッシュの統合テスト
+ *
+ * キャッシュはアプリケーションと同じ設定のCaffeine（JCache）をJVM内で使用し、
+ * キャッシュ無効化の通知はRedisの代わりに同一JVM内の経路（LOCAL）を使用します。
+ * 子エンティティの親を設定して保存した場合に、親のコレクションのキャッシュが無効化されることを確認します。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class SecondLevelCacheTest extends MySqlIntegrationTest {
+
+    @Autowired
+    private LocationRepository locationRepository;
+    @Autowired
+    private ProductCategoryRepository categoryRepository;
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * キャッシュ無効化の通知をJVM内の経路にするメソッド
+     */
+    @DynamicPropertySource
+    static void embeddedCache(DynamicPropertyRegistry registry) {
+        registry.add("cache-invalidation.transport", () -> "LOCAL");
+    }
+
+    @Test
+    void savingChildLocationEvictsCachedChildren() {
+        Long parentId = transactionTemplate.execute(status -> locationRepository.save(location(null)).getId());
+        assertThat(locationChildren(parentId)).isZero();
+        assertThat(cache().containsCollection(Location.class.getName() + ".children", parentId)).isTrue();
+
+        // 子側のみ親を設定して保存する（親のコレクションは変更しない）
+        transactionTemplate.executeWithoutResult(status ->
+                locationRepository.save(location(locationRepository.getReferenceById(parentId))));
+
+        assertThat(cache().containsCollection(Location.class.getName() + ".children", parentId)).isFalse();
+        assertThat(locationChildren(parentId)).isEqualTo(1);
+    }
+
+    @Test
+    void savingChildCategoryEvictsCachedChildren() {
+        Long parentId = transactionTemplate.execute(status -> categoryRepository.save(category(null)).getId());
+        assertThat(categoryChildren(parentId)).isZero();
+
+        transactionTemplate.executeWithoutResult(status ->
+                categoryRepository.save(category(categoryRepository.getReferenceById(parentId))));
+
+        assertThat(cache().containsCollection(ProductCategory.class.getName() + ".children", parentId)).isFalse();
+        assertThat(categoryChildren(parentId)).isEqualTo(1);
+    }
+
+    @Test
+    void repeatedLookupsAreServedFromCache() {
+        Long parentId = transactionTemplate.execute(status -> locationRepository.save(location(null)).getId());
+        cache().evictEntityData(Location.class, parentId);
+
+        transactionTemplate.executeWithoutResult(status -> locationRepository.findById(parentId).orElseThrow());
+
+        assertThat(cache().containsEntity(Location.class, parentId)).isTrue();
+    }
+
+    private int locationChildren(Long id) {
+        Integer size = transactionTemplate.execute(status ->
+                locationRepository.findById(id).orElseThrow().getChildren().size());
+        return size != null ? size : -1;
+    }
+
+    private int categoryChildren(Long id) {
+        Integer size = transactionTemplate.execute(status ->
+                categoryRepository.findById(id).orElseThrow().getChildren().size());
+        return size != null ? size : -1;
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.getCache().unwrap(Cache.class);
+    }
+
+    private Location location(Location parent) {
+        String code = "IT-" + UUID.randomUUID().toString().substring(0, 12);
+        Location location = new Location();
+        location.setWarehouse(warehouseRepository.getReferenceById(InventoryFixtures.WAREHOUSE_ID));
+        location.setCode(code);
+        location.setName(code);
+        location.setLocationType(parent == null ? Location.LocationType.AISLE : Location.LocationType.BIN);
+        location.setParent(parent);
+        return location;
+    }
+
+    private static ProductCategory category(ProductCategory parent) {
+        ProductCategory category = new ProductCategory();
+        category.setName("IT-" + UUID.randomUUID().toString().substring(0, 12));
+        category.setParent(parent);
+        return category;
+    }
+}
@@ -0,0 +1,94 @@
+package com.cooola.service;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.oned.Code128Writer;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BitMatrix PNGエンコーダーのマイクロベンチマーク
+ *
+ * QRコードとCODE128のビットマトリックスについて、BitMatrixPngEncoderと
+ * ZXing標準のMatrixToImageWriter（BufferedImage + ImageIO）のスループットを比較します。
+ * 複数スレッドから同時にエンコードし、Deflaterのプールの取得・返却を含めて計測します。
+ *
+ * 実行: ./gradlew jmh -Pjmh.includes=BitMatrixPngEncoderBenchmark
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class BitMatrixPngEncoderBenchmark {
+
+    private BitMatrixPngEncoder encoder;
+    private BitMatrix qrCode;
+    private BitMatrix code128;
+
+    @Setup(Level.Trial)
+    public void setUp() throws WriterException {
+        encoder = new BitMatrixPngEncoder();
+        // BarcodeServiceの既定サイズと同じ条件で作成
+        qrCode = new QRCodeWriter().encode("https://cooola.example.com/products/SKU-000123", BarcodeFormat.QR_CODE,
+                200, 200, Map.of(EncodeHintType.CHARACTER_SET, "UTF-8", EncodeHintType.MARGIN, 1));
+        code128 = new Code128Writer().encode("SKU-000123", BarcodeFormat.CODE_128, 300, 100);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        encoder.close();
+    }
+
+    @Benchmark
+    public byte[] qrCode() {
+        return encoder.encode(qrCode);
+    }
+
+    @Benchmark
+    public byte[] code128() {
+        return encoder.encode(code128);
+    }
+
+    @Benchmark
+    public byte[] qrCodeImageIo() throws IOException {
+        return imageIo(qrCode);
+    }
+
+    @Benchmark
+    public byte[] code128ImageIo() throws IOException {
+        return imageIo(code128);
+    }
+
+    private static byte[] imageIo(BitMatrix matrix) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MatrixToImageWriter.writeToStream(matrix, "PNG", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,101 @@
+package com.cooola.service;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.oned.Code128Writer;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * BitMatrix PNGエンコーダーのテスト
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+class BitMatrixPngEncoderTest {
+
+    private final BitMatrixPngEncoder encoder = new BitMatrixPngEncoder();
+
+    @AfterEach
+    void tearDown() {
+        encoder.close();
+    }
+
+    @Test
+    void encodesQrCodePixels() throws Exception {
+        BitMatrix matrix = new QRCodeWriter().encode("SKU-000123", BarcodeFormat.QR_CODE, 123, 123);
+
+        assertSamePixels(matrix, encoder.encode(matrix));
+    }
+
+    @Test
+    void encodesCode128Pixels() throws Exception {
+        BitMatrix matrix = new Code128Writer().encode("SKU-000123", BarcodeFormat.CODE_128, 301, 40);
+
+        assertSamePixels(matrix, encoder.encode(matrix));
+    }
+
+    @Test
+    void clipsAndPadsToRequestedSize() throws Exception {
+        // 内容が指定幅に収まらないため、マトリックスは指定サイズより広くなる
+        BitMatrix matrix = new Code128Writer().encode("SKU-000123-WIDE-LABEL", BarcodeFormat.CODE_128, 100, 40);
+        assertThat(matrix.getWidth()).isGreaterThan(100);
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(encoder.encode(matrix, 100, 60)));
+        assertThat(image.getWidth()).isEqualTo(100);
+        assertThat(image.getHeight()).isEqualTo(60);
+        for (int y = 0; y < 60; y++) {
+            for (int x = 0; x < 100; x++) {
+                int expected = y < matrix.getHeight() && matrix.get(x, y) ? 0x000000 : 0xFFFFFF;
+                assertThat(image.getRGB(x, y) & 0xFFFFFF).as("(%d, %d)", x, y).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void encodesConcurrentlyBeyondPoolSize() throws Exception {
+        BitMatrix qrCode = new QRCodeWriter().encode("SKU-000123", BarcodeFormat.QR_CODE, 200, 200);
+        BitMatrix code128 = new Code128Writer().encode("SKU-000123", BarcodeFormat.CODE_128, 300, 100);
+        int threads = Runtime.getRuntime().availableProcessors() * 4;
+
+        // プールの上限を超えるスレッド数で同時にエンコードしても、バッファが共有されないこと
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (int i = 0; i < threads * 10; i++) {
+                BitMatrix matrix = i % 2 == 0 ? qrCode : code128;
+                results.add(executor.submit(() -> encoder.encode(matrix)));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertSamePixels(i % 2 == 0 ? qrCode : code128, results.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void assertSamePixels(BitMatrix matrix, byte[] png) throws Exception {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        assertThat(image.getWidth()).isEqualTo(matrix.getWidth());
+        assertThat(image.getHeight()).isEqualTo(matrix.getHeight());
+        for (int y = 0; y < matrix.getHeight(); y++) {
+            for (int x = 0; x < matrix.getWidth(); x++) {
+                int expected = matrix.get(x, y) ? 0x000000 : 0xFFFFFF;
+                assertThat(image.getRGB(x, y) & 0xFFFFFF).as("(%d, %d)", x, y).isEqualTo(expected);
+            }
+        }
+    }
+}
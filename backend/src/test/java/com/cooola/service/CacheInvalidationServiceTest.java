@@ -0,0 +1,228 @@
+package com.cooola.service;
+
+import com.cooola.CooolaApplication;
+import com.cooola.dto.CacheInvalidation;
+import com.cooola.dto.ProductScanView;
+import com.cooola.entity.Location;
+import com.cooola.entity.Product;
+import com.cooola.repository.LocationRepository;
+import com.cooola.support.InventoryFixtures;
+import com.cooola.support.MySqlIntegrationTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 複数インスタンス間のキャッシュ無効化の統合テスト
+ *
+ * 同じデータベースと通知経路（親コンテキストに登録したメモリ上の通知経路）を共有する2つのアプリケーションコンテキストを
+ * 1つのJVMで起動し、一方での変更が他方のメモリ上のキャッシュ（商品のインデックス、二次キャッシュ）に反映されることを確認します。
+ * アウトボックスの定期確認はテストから呼び出すため、自動実行の間隔は十分に長くしています。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+class CacheInvalidationServiceTest extends MySqlIntegrationTest {
+
+    // 共有する通知経路
+    private static final SwitchableBus BUS = new SwitchableBus();
+
+    private static GenericApplicationContext parent;
+    private static ConfigurableApplicationContext first;
+    private static ConfigurableApplicationContext second;
+
+    @BeforeAll
+    static void startContexts() {
+        parent = new GenericApplicationContext();
+        parent.registerBean(CacheInvalidationBus.class, () -> BUS);
+        parent.refresh();
+        first = start();
+        second = start();
+    }
+
+    @AfterAll
+    static void stopContexts() {
+        for (ConfigurableApplicationContext context : new ConfigurableApplicationContext[]{second, first, parent}) {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    @AfterEach
+    void reconnect() {
+        BUS.connected = true;
+    }
+
+    @Test
+    void productUpdateIsPublishedToOtherContext() {
+        long productId = createProduct();
+        String sku = rename(first, productId);
+
+        // 通知は呼び出し元のスレッドで配信されるため、更新の完了時点で反映済み
+        assertThat(lookup(second, sku)).isNotNull().extracting(ProductScanView::id).isEqualTo(productId);
+
+        String renamed = rename(first, productId);
+        assertThat(lookup(second, sku)).isNull();
+        assertThat(lookup(second, renamed).id()).isEqualTo(productId);
+    }
+
+    @Test
+    void locationUpdateEvictsSecondLevelCacheInOtherContext() {
+        long locationId = InventoryFixtures.createBin(jdbc());
+        assertThat(locationName(second, locationId)).isNotNull();
+        assertThat(cache(second).containsEntity(Location.class, locationId)).isTrue();
+
+        String name = "IT-" + UUID.randomUUID().toString().substring(0, 12);
+        first.getBean(TransactionTemplate.class).executeWithoutResult(status ->
+                first.getBean(LocationRepository.class).findById(locationId).orElseThrow().setName(name));
+
+        assertThat(cache(second).containsEntity(Location.class, locationId)).isFalse();
+        assertThat(locationName(second, locationId)).isEqualTo(name);
+    }
+
+    @Test
+    void lostNotificationIsAppliedByPolling() {
+        long productId = createProduct();
+        BUS.connected = false;
+
+        String sku = rename(first, productId);
+        assertThat(lookup(second, sku)).isNull();
+
+        second.getBean(CacheInvalidationService.class).poll();
+        assertThat(lookup(second, sku).id()).isEqualTo(productId);
+    }
+
+    @Test
+    void eventCommittedAfterLaterEventIsNotSkipped() throws Exception {
+        long slowProductId = createProduct();
+        long fastProductId = createProduct();
+        BUS.connected = false;
+
+        // 先に変更を記録したトランザクションのコミットを遅らせる
+        String slowSku = "IT-" + UUID.randomUUID().toString().substring(0, 12);
+        CountDownLatch recorded = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Void> slow = CompletableFuture.runAsync(() ->
+                first.getBean(TransactionTemplate.class).executeWithoutResult(status -> {
+                    first.getBean(ProductService.class).updateProduct(slowProductId, details(slowSku));
+                    recorded.countDown();
+                    await(commit);
+                }));
+        assertThat(recorded.await(30, TimeUnit.SECONDS)).isTrue();
+
+        // 採番はコミット直前に行うため、後から変更したトランザクションは先のトランザクションを待たずにコミットできる
+        String fastSku = CompletableFuture.supplyAsync(() -> rename(first, fastProductId)).get(30, TimeUnit.SECONDS);
+        second.getBean(CacheInvalidationService.class).poll();
+        assertThat(lookup(second, fastSku).id()).isEqualTo(fastProductId);
+
+        // 先に変更を記録したトランザクションのイベントは、読み取り位置より後に採番される
+        commit.countDown();
+        slow.get(30, TimeUnit.SECONDS);
+        second.getBean(CacheInvalidationService.class).poll();
+        assertThat(lookup(second, slowSku).id()).isEqualTo(slowProductId);
+    }
+
+    /**
+     * 共有のデータベースと通知経路を使用するアプリケーションコンテキストを起動するメソッド
+     */
+    private static ConfigurableApplicationContext start() {
+        MySQLContainer<?> container = mysql();
+        return new SpringApplicationBuilder(CooolaApplication.class)
+                .parent(parent)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + container.getJdbcUrl(),
+                        "spring.datasource.username=" + container.getUsername(),
+                        "spring.datasource.password=" + container.getPassword(),
+                        "cache-invalidation.poll-interval=PT1H")
+                .run();
+    }
+
+    private static long createProduct() {
+        return InventoryFixtures.createProduct(jdbc(), null);
+    }
+
+    /**
+     * 商品のSKUを一意な値に変更するメソッド
+     */
+    private static String rename(ConfigurableApplicationContext context, long productId) {
+        String sku = "IT-" + UUID.randomUUID().toString().substring(0, 12);
+        context.getBean(ProductService.class).updateProduct(productId, details(sku));
+        return sku;
+    }
+
+    private static Product details(String sku) {
+        Product details = new Product();
+        details.setSku(sku);
+        details.setName("Integration test " + sku);
+        details.setUnitOfMeasure("PCS");
+        return details;
+    }
+
+    private static ProductScanView lookup(ConfigurableApplicationContext context, String sku) {
+        return context.getBean(ProductLookupIndex.class).findBySku(sku);
+    }
+
+    private static String locationName(ConfigurableApplicationContext context, long locationId) {
+        return context.getBean(TransactionTemplate.class).execute(status ->
+                context.getBean(LocationRepository.class).findById(locationId).orElseThrow().getName());
+    }
+
+    private static Cache cache(ConfigurableApplicationContext context) {
+        return context.getBean(EntityManagerFactory.class).getCache().unwrap(Cache.class);
+    }
+
+    private static JdbcTemplate jdbc() {
+        return first.getBean(JdbcTemplate.class);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 配信を止められるメモリ上の通知経路（通知が失われた場合の確認用）
+     */
+    private static final class SwitchableBus implements CacheInvalidationBus {
+
+        private final LocalCacheInvalidationBus delegate = new LocalCacheInvalidationBus();
+        private volatile boolean connected = true;
+
+        @Override
+        public void publish(List<CacheInvalidation> events) {
+            if (connected) {
+                delegate.publish(events);
+            }
+        }
+
+        @Override
+        public void subscribe(Consumer<List<CacheInvalidation>> subscriber) {
+            delegate.subscribe(subscriber);
+        }
+    }
+}
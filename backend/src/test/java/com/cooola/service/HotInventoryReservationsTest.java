@@ -0,0 +1,161 @@
+package com.cooola.service;
+
+import com.cooola.dto.InventoryAllocation;
+import com.cooola.dto.ReservationLine;
+import com.cooola.entity.Product;
+import com.cooola.support.InventoryFixtures;
+import com.cooola.support.MySqlIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ホットSKUのメモリ上引当の統合テスト
+ *
+ * FEFOの商品のホットSKUの在庫レコードについて、期限切れのロットを引当せず、ホットSKUでない在庫レコードと合わせて
+ * 有効期限の近い順に引当することを確認します。
+ * また、ホットSKUの在庫レコードへの同時引当が在庫レコードの行ロックを待たないことを確認します。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class HotInventoryReservationsTest extends MySqlIntegrationTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    // FEFOの商品と、期限切れ・期限の近い・期限の遠いロット
+    private static long fefoProductId;
+    private static long expiredLotId;
+    private static long soonLotId;
+    private static long laterLotId;
+    // ホットSKUの在庫レコードより期限の近い、ホットSKUでない在庫レコード
+    private static long lockedLotId;
+    // 同時引当に使用する商品と在庫レコード
+    private static long benchmarkProductId;
+    private static long benchmarkLotId;
+
+    @Autowired
+    private InventoryReservationService reservationService;
+    @Autowired
+    private HotInventoryReservations hotReservations;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * ホットSKUの対象レコードを登録してアプリケーションの設定に加えるメソッド
+     */
+    @DynamicPropertySource
+    static void hotRows(DynamicPropertyRegistry registry) {
+        JdbcTemplate jdbc = migratedJdbcTemplate();
+        fefoProductId = InventoryFixtures.createProduct(jdbc, "FEFO");
+        expiredLotId = InventoryFixtures.createInventory(jdbc, fefoProductId, new BigDecimal("100"), TODAY.minusDays(1));
+        laterLotId = InventoryFixtures.createInventory(jdbc, fefoProductId, new BigDecimal("100"), TODAY.plusDays(10));
+        soonLotId = InventoryFixtures.createInventory(jdbc, fefoProductId, new BigDecimal("100"), TODAY.plusDays(5));
+        lockedLotId = InventoryFixtures.createInventory(jdbc, fefoProductId, new BigDecimal("100"), TODAY.plusDays(1));
+        benchmarkProductId = InventoryFixtures.createProduct(jdbc, "FEFO");
+        benchmarkLotId = InventoryFixtures.createInventory(jdbc, benchmarkProductId, new BigDecimal("1000000"),
+                TODAY.plusDays(30));
+
+        registry.add("inventory.hot-reservation.enabled", () -> "true");
+        registry.add("inventory.hot-reservation.inventory-ids",
+                () -> List.of(expiredLotId, laterLotId, soonLotId, benchmarkLotId).stream()
+                        .map(String::valueOf)
+                        .collect(Collectors.joining(",")));
+        registry.add("inventory.hot-reservation.flush-interval", () -> "PT0.1S");
+    }
+
+    @Test
+    void hotCandidatesFollowFefo() throws InterruptedException {
+        awaitCounters(fefoProductId);
+
+        List<LotAllocator.Lot> candidates = hotReservations.findAllocatable(fefoProductId,
+                InventoryFixtures.WAREHOUSE_ID, Product.AllocationStrategy.FEFO, TODAY);
+        assertThat(candidates).extracting(lot -> lot.row().inventoryId()).containsExactly(soonLotId, laterLotId);
+
+        List<InventoryAllocation> allocations = reservationService.reserve(List.of(
+                new ReservationLine(fefoProductId, InventoryFixtures.WAREHOUSE_ID, new BigDecimal("150"))));
+        Map<Long, BigDecimal> byLot = allocations.stream()
+                .collect(Collectors.toMap(InventoryAllocation::inventoryId, InventoryAllocation::quantity,
+                        BigDecimal::add));
+        assertThat(byLot).doesNotContainKeys(expiredLotId, laterLotId);
+        assertThat(byLot.get(lockedLotId)).isEqualByComparingTo("100");
+        assertThat(byLot.get(soonLotId)).isEqualByComparingTo("50");
+
+        hotReservations.flush();
+        assertThat(reserved(expiredLotId)).isEqualByComparingTo("0");
+        assertThat(reserved(lockedLotId)).isEqualByComparingTo("100");
+        assertThat(reserved(soonLotId)).isEqualByComparingTo("50");
+        assertThat(reserved(laterLotId)).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void concurrentHotReservationsNeverWaitForRowLocks() throws Exception {
+        awaitCounters(benchmarkProductId);
+        long lockWaits = rowLockWaits();
+        int threads = 16;
+        int perThread = 500;
+        ReservationLine line = new ReservationLine(benchmarkProductId, InventoryFixtures.WAREHOUSE_ID, BigDecimal.ONE);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    reservationService.reserve(List.of(line));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        // ホットSKUの在庫レコードのみの商品は、行ロックを取らずに引当する
+        assertThat(rowLockWaits()).isEqualTo(lockWaits);
+        int total = threads * perThread;
+        hotReservations.flush();
+        assertThat(reserved(benchmarkLotId)).isEqualByComparingTo(BigDecimal.valueOf(total));
+    }
+
+    /**
+     * 起動直後の待機時間が過ぎてカウンターが読み込まれるまで待つメソッド
+     */
+    private void awaitCounters(long productId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (hotReservations.findAllocatable(productId, InventoryFixtures.WAREHOUSE_ID,
+                Product.AllocationStrategy.FEFO, TODAY).isEmpty()) {
+            assertThat(System.nanoTime()).as("hot counters loaded").isLessThan(deadline);
+            Thread.sleep(50);
+            hotReservations.flush();
+        }
+    }
+
+    private long rowLockWaits() {
+        return jdbcTemplate.queryForObject("SHOW GLOBAL STATUS LIKE 'Innodb_row_lock_waits'",
+                (rs, rowNum) -> rs.getLong("Value"));
+    }
+
+    private BigDecimal reserved(long inventoryId) {
+        return jdbcTemplate.queryForObject("SELECT reserved_quantity FROM inventory WHERE id = ?", BigDecimal.class,
+                inventoryId);
+    }
+}
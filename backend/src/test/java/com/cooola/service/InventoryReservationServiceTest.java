@@ -0,0 +1,208 @@
+package com.cooola.service;
+
+import com.cooola.dto.InventoryAllocation;
+import com.cooola.dto.ReservationLine;
+import com.cooola.support.InventoryFixtures;
+import com.cooola.support.MySqlIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 在庫引当サービスの同時実行の統合テスト
+ *
+ * 在庫数量を超える引当を複数スレッドから同時に実行し、過剰引当が発生しないこと、
+ * 在庫レコードの数量（在庫数量 = 引当済み数量 + 引当可能数量）が崩れないことを確認します。
+ * FIFOの商品では、在庫IDではなく入庫日時の順に引当することも確認します。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class InventoryReservationServiceTest extends MySqlIntegrationTest {
+
+    private static final int THREADS = 16;
+    private static final LocalDate EXPIRY = LocalDate.now().plusDays(30);
+
+    @Autowired
+    private InventoryReservationService reservationService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentReservationsNeverExceedStock() throws Exception {
+        long productId = InventoryFixtures.createProduct(jdbcTemplate, null);
+        List<Long> lots = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            lots.add(InventoryFixtures.createInventory(jdbcTemplate, productId, BigDecimal.TEN, EXPIRY));
+        }
+        ReservationLine line = new ReservationLine(productId, InventoryFixtures.WAREHOUSE_ID, BigDecimal.ONE);
+
+        // 在庫30に対して1ずつ80件を同時に引当する
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger shortages = new AtomicInteger();
+        runConcurrently(5, () -> {
+            try {
+                reservationService.reserve(List.of(line));
+                reserved.incrementAndGet();
+            } catch (IllegalStateException e) {
+                shortages.incrementAndGet();
+            }
+        });
+
+        assertThat(reserved.get()).isEqualTo(30);
+        assertThat(shortages.get()).isEqualTo(THREADS * 5 - 30);
+        for (Long lot : lots) {
+            assertThat(row(lot).reserved()).isEqualByComparingTo("10");
+            assertThat(row(lot).available()).isEqualByComparingTo("0");
+        }
+    }
+
+    @Test
+    void concurrentReservationsSpanningManyLotsUseAllStock() throws Exception {
+        long productId = InventoryFixtures.createProduct(jdbcTemplate, null);
+        List<Long> lots = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            lots.add(InventoryFixtures.createInventory(jdbcTemplate, productId, new BigDecimal("3"), EXPIRY));
+        }
+        ReservationLine line = new ReservationLine(productId, InventoryFixtures.WAREHOUSE_ID, new BigDecimal("2"));
+
+        // 3ずつの10ロット（在庫30）に対して2ずつ32件を同時に引当する。
+        // ロットをまたぐ引当が多数発生しても、在庫が残っている間の引当は在庫不足にならないこと
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger shortages = new AtomicInteger();
+        runConcurrently(2, () -> {
+            try {
+                reservationService.reserve(List.of(line));
+                reserved.incrementAndGet();
+            } catch (IllegalStateException e) {
+                shortages.incrementAndGet();
+            }
+        });
+
+        assertThat(reserved.get()).isEqualTo(15);
+        assertThat(shortages.get()).isEqualTo(THREADS * 2 - 15);
+        for (Long lot : lots) {
+            assertThat(row(lot).reserved()).isEqualByComparingTo("3");
+            assertThat(row(lot).available()).isEqualByComparingTo("0");
+        }
+    }
+
+    @Test
+    void concurrentMultiLineReservationsStayConsistent() throws Exception {
+        long productA = InventoryFixtures.createProduct(jdbcTemplate, null);
+        long productB = InventoryFixtures.createProduct(jdbcTemplate, null);
+        List<Long> lots = List.of(
+                InventoryFixtures.createInventory(jdbcTemplate, productA, new BigDecimal("20"), EXPIRY),
+                InventoryFixtures.createInventory(jdbcTemplate, productA, new BigDecimal("20"), EXPIRY),
+                InventoryFixtures.createInventory(jdbcTemplate, productB, new BigDecimal("25"), EXPIRY));
+
+        // 明細の順序を逆にした注文を混ぜ、在庫を超えるまで引当する（不足した注文は全明細がロールバックされる）
+        List<ReservationLine> forward = List.of(
+                new ReservationLine(productA, InventoryFixtures.WAREHOUSE_ID, new BigDecimal("3")),
+                new ReservationLine(productB, InventoryFixtures.WAREHOUSE_ID, new BigDecimal("2")));
+        List<ReservationLine> reversed = List.of(
+                new ReservationLine(productB, InventoryFixtures.WAREHOUSE_ID, new BigDecimal("1")),
+                new ReservationLine(productA, InventoryFixtures.WAREHOUSE_ID, new BigDecimal("2")));
+        Map<Long, BigDecimal> allocated = new ConcurrentHashMap<>();
+        AtomicInteger turn = new AtomicInteger();
+        AtomicInteger forwardReserved = new AtomicInteger();
+        AtomicInteger reversedReserved = new AtomicInteger();
+        AtomicInteger shortages = new AtomicInteger();
+        runConcurrently(4, () -> {
+            boolean isForward = turn.getAndIncrement() % 2 == 0;
+            try {
+                for (InventoryAllocation allocation : reservationService.reserve(isForward ? forward : reversed)) {
+                    allocated.merge(allocation.inventoryId(), allocation.quantity(), BigDecimal::add);
+                }
+                (isForward ? forwardReserved : reversedReserved).incrementAndGet();
+            } catch (IllegalStateException e) {
+                shortages.incrementAndGet();
+            }
+        });
+
+        for (Long lot : lots) {
+            Row row = row(lot);
+            assertThat(row.available()).isNotNegative();
+            assertThat(row.reserved().add(row.available())).isEqualByComparingTo(row.quantity());
+            assertThat(row.reserved()).isEqualByComparingTo(allocated.getOrDefault(lot, BigDecimal.ZERO));
+        }
+        // 引当された注文は全明細が、不足した注文はいずれの明細も反映されていること
+        assertThat(shortages.get()).isPositive();
+        assertThat(row(lots.get(0)).reserved().add(row(lots.get(1)).reserved()))
+                .isEqualByComparingTo(BigDecimal.valueOf(3L * forwardReserved.get() + 2L * reversedReserved.get()));
+        assertThat(row(lots.get(2)).reserved())
+                .isEqualByComparingTo(BigDecimal.valueOf(2L * forwardReserved.get() + reversedReserved.get()));
+    }
+
+    @Test
+    void fifoFollowsReceiptTimeOfReusedRows() {
+        long productId = InventoryFixtures.createProduct(jdbcTemplate, "FIFO");
+        long reusedLot = InventoryFixtures.createInventory(jdbcTemplate, productId, BigDecimal.TEN, null);
+        long olderLot = InventoryFixtures.createInventory(jdbcTemplate, productId, BigDecimal.TEN, null);
+        // 在庫IDの小さい在庫レコードが数量0になった後に再利用された状態（入庫日時が新しい）
+        jdbcTemplate.update("UPDATE inventory SET received_at = received_at + INTERVAL 1 DAY WHERE id = ?", reusedLot);
+
+        List<InventoryAllocation> allocations = reservationService.reserve(List.of(
+                new ReservationLine(productId, InventoryFixtures.WAREHOUSE_ID, new BigDecimal("12"))));
+
+        assertThat(allocations).extracting(InventoryAllocation::inventoryId).containsExactly(olderLot, reusedLot);
+        assertThat(row(olderLot).reserved()).isEqualByComparingTo("10");
+        assertThat(row(reusedLot).reserved()).isEqualByComparingTo("2");
+    }
+
+    /**
+     * 全スレッドの開始を揃えて処理を繰り返し実行するメソッド
+     */
+    private static void runConcurrently(int perThread, Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    task.run();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Row row(long inventoryId) {
+        return jdbcTemplate.queryForObject("SELECT quantity, reserved_quantity, available_quantity " +
+                "FROM inventory WHERE id = ?", (rs, i) -> new Row(rs.getBigDecimal("quantity"),
+                rs.getBigDecimal("reserved_quantity"), rs.getBigDecimal("available_quantity")), inventoryId);
+    }
+
+    /**
+     * 在庫レコードの数量
+     */
+    private record Row(BigDecimal quantity, BigDecimal reserved, BigDecimal available) {
+    }
+}
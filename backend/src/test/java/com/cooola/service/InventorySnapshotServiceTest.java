@@ -0,0 +1,88 @@
+package com.cooola.service;
+
+import com.cooola.dto.InventoryPosition;
+import com.cooola.support.InventoryFixtures;
+import com.cooola.support.MySqlIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 在庫スナップショットの台帳再生の統合テスト
+ *
+ * 在庫テーブルから作成した最初のスナップショットに反映済みの台帳の記録が、
+ * 次のスナップショットと時点指定の照会で二重に計上されないことを確認します。
+ * スナップショットの連鎖はデータベース全体で1つのため、他のテストクラスと共有しないデータベースを使用します。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+class InventorySnapshotServiceTest extends MySqlIntegrationTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private InventorySnapshotService snapshotService;
+
+    @BeforeEach
+    void createService() {
+        DataSource dataSource = isolatedDataSource("cooola_snapshot_test");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("DELETE FROM inventory_snapshot_lines");
+        jdbcTemplate.update("DELETE FROM inventory_snapshots");
+        snapshotService = new InventorySnapshotService(jdbcTemplate, new NamedParameterJdbcTemplate(dataSource),
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        ReflectionTestUtils.setField(snapshotService, "interval", Duration.ofHours(1));
+        ReflectionTestUtils.setField(snapshotService, "lag", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(snapshotService, "retention", Duration.ofDays(7));
+    }
+
+    @Test
+    void movementsInBaselineAreNotReplayedAgain() {
+        long productId = InventoryFixtures.createProduct(jdbcTemplate, null);
+        long inventoryId = InventoryFixtures.createInventory(jdbcTemplate, productId, BigDecimal.TEN, null);
+        // 在庫テーブルには反映済みで、反映位置の猶予（1分）より後に書き込まれた入庫の記録
+        jdbcTemplate.update("INSERT INTO inventory_movements (movement_number, inventory_id, warehouse_id, " +
+                        "product_id, quantity, movement_type, created_at) VALUES (?, ?, ?, ?, ?, 'RECEIPT', ?)",
+                "IT-" + UUID.randomUUID().toString().substring(0, 12), inventoryId, InventoryFixtures.WAREHOUSE_ID,
+                productId, BigDecimal.TEN, Timestamp.valueOf(LocalDateTime.now().minusSeconds(30)));
+
+        snapshotService.takeSnapshots();
+        assertThat(jdbcTemplate.queryForObject("SELECT snapshot_type FROM inventory_snapshots", String.class))
+                .isEqualTo("BASELINE");
+
+        // 最初のスナップショットと記録を2時間前に移し、次の実行で差分作成のスナップショットを作成させる
+        jdbcTemplate.update("UPDATE inventory_snapshots SET snapshot_at = snapshot_at - INTERVAL 2 HOUR");
+        jdbcTemplate.update("UPDATE inventory_movements SET created_at = created_at - INTERVAL 2 HOUR, " +
+                "recorded_at = recorded_at - INTERVAL 2 HOUR");
+        LocalDateTime baselineAt = jdbcTemplate.queryForObject("SELECT snapshot_at FROM inventory_snapshots",
+                LocalDateTime.class);
+        snapshotService.takeSnapshots();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM inventory_snapshots " +
+                "WHERE snapshot_type = 'SCHEDULED'", Integer.class)).isPositive();
+        assertThat(jdbcTemplate.queryForObject("SELECT l.quantity FROM inventory_snapshot_lines l " +
+                "JOIN inventory_snapshots s ON s.id = l.snapshot_id WHERE l.inventory_id = ? " +
+                "ORDER BY s.snapshot_at DESC LIMIT 1", BigDecimal.class, inventoryId)).isEqualByComparingTo("10");
+        assertThat(quantityAsOf(baselineAt.plusMinutes(1), productId)).isEqualByComparingTo("10");
+        assertThat(quantityAsOf(LocalDateTime.now(), productId)).isEqualByComparingTo("10");
+    }
+
+    private BigDecimal quantityAsOf(LocalDateTime at, long productId) {
+        return snapshotService.asOf(at, InventoryFixtures.WAREHOUSE_ID, productId).positions().stream()
+                .map(InventoryPosition::quantity)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
@@ -0,0 +1,124 @@
+package com.cooola.service;
+
+import com.cooola.dto.LabelSheetRequest;
+import com.cooola.repository.ProductRepository;
+import com.google.zxing.BarcodeFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * ラベルシート一括生成サービスのテスト
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+class LabelSheetServiceTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final BarcodeService barcodeService = mock(BarcodeService.class);
+    private ThreadPoolTaskExecutor executor;
+    private LabelSheetService service;
+
+    @BeforeEach
+    void setUp() {
+        // 待ち行列が1件しかない描画用スレッドプール
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.initialize();
+        service = new LabelSheetService(productRepository, barcodeService, executor);
+        ReflectionTestUtils.setField(service, "maxLabels", 5);
+        when(barcodeService.productBarcodeKey(anyString())).thenAnswer(invocation -> new BarcodeImageCache.Key(
+                BarcodeFormat.CODE_128, invocation.getArgument(0), 300, 100, BarcodeService.RenderMode.PACKED));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void rejectsOversizedRequestBeforeLoadingProducts() {
+        when(productRepository.countStockedInWarehouse(1L)).thenReturn(6L);
+        LabelSheetRequest request = new LabelSheetRequest();
+        request.setWarehouseId(1L);
+
+        assertThatThrownBy(() -> service.resolveLabels(request)).isInstanceOf(IllegalArgumentException.class);
+        verify(productRepository, never()).findStockedInWarehouse(1L);
+    }
+
+    @Test
+    void rejectsTooManySkusBeforeLoadingProducts() {
+        LabelSheetRequest request = new LabelSheetRequest();
+        request.setSkus(List.of("A", "B", "C", "D", "E", "F"));
+
+        assertThatThrownBy(() -> service.resolveLabels(request)).isInstanceOf(IllegalArgumentException.class);
+        verify(productRepository, never()).findBySkuIn(any());
+    }
+
+    @Test
+    void writesEveryLabelWhenRenderQueueIsFull() throws Exception {
+        when(barcodeService.generateUncached(any())).thenAnswer(invocation -> {
+            Thread.sleep(2);
+            return invocation.getArgument(0, BarcodeImageCache.Key.class).content().getBytes();
+        });
+        List<LabelSheetService.Label> labels = IntStream.range(0, 50)
+                .mapToObj(i -> new LabelSheetService.Label("SKU-" + i, "商品" + i))
+                .toList();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.writeZip(labels, LabelSheetRequest.LabelType.CODE128, out);
+
+        int entries = 0;
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            while (zip.getNextEntry() != null) {
+                entries++;
+            }
+        }
+        assertThat(entries).isEqualTo(labels.size());
+        verify(barcodeService, never()).generate(any());
+    }
+
+    @Test
+    void abortsArchiveWhenRenderFails() {
+        when(barcodeService.generateUncached(any())).thenAnswer(invocation -> {
+            String sku = invocation.getArgument(0, BarcodeImageCache.Key.class).content();
+            if (sku.equals("SKU-3")) {
+                throw new RuntimeException("render failed");
+            }
+            return sku.getBytes();
+        });
+        List<LabelSheetService.Label> labels = IntStream.range(0, 10)
+                .mapToObj(i -> new LabelSheetService.Label("SKU-" + i, "商品" + i))
+                .toList();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThatThrownBy(() -> service.writeZip(labels, LabelSheetRequest.LabelType.CODE128, out))
+                .isInstanceOf(IOException.class);
+
+        // アーカイブの終端（中央ディレクトリの終端レコード）を書き込まない
+        assertThat(out.toString(StandardCharsets.ISO_8859_1)).doesNotContain("PK\u0005\u0006");
+    }
+}
@@ -0,0 +1,124 @@
+package com.cooola.service;
+
+import com.cooola.dto.LocationNode;
+import com.cooola.dto.PickRoute;
+import com.cooola.entity.Location;
+import com.cooola.repository.LocationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * ピッキング経路計算のマイクロベンチマーク
+ *
+ * 20通路 × 30ラック × 3棚 × 4ビン（7,200ビン）の倉庫で、ランダムに選んだビンの巡回順を計算します。
+ * routeは配置グラフがキャッシュ済みの状態での経路計算（S字型と最近傍法 + 2-optの両方）、
+ * buildGraphはロケーション階層からの配置グラフの構築を計測します（ピッキング行数には依存しません）。
+ * ピッキング対象は事前に複数パターン作成し、呼び出しごとに切り替えます。
+ *
+ * 実行: ./gradlew jmh -Pjmh.includes=PickRouteBenchmark
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PickRouteBenchmark {
+
+    private static final long WAREHOUSE_ID = 1L;
+    private static final int AISLES = 20;
+    private static final int RACKS_PER_AISLE = 30;
+    private static final int SHELVES_PER_RACK = 3;
+    private static final int BINS_PER_SHELF = 4;
+    // 事前に作成するピッキング対象のパターン数
+    private static final int PICK_SETS = 64;
+
+    // 1経路あたりのピッキング行数
+    @Param({"20", "100", "500"})
+    private int lines;
+
+    private List<LocationNode> nodes;
+    private PickRouteService service;
+    private List<List<Long>> pickSets;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        nodes = new ArrayList<>();
+        List<Long> bins = new ArrayList<>();
+        long id = 0;
+        for (int a = 0; a < AISLES; a++) {
+            long aisleId = ++id;
+            String aisleCode = String.format("A%02d", a);
+            nodes.add(new LocationNode(aisleId, aisleCode, Location.LocationType.AISLE, null));
+            for (int r = 0; r < RACKS_PER_AISLE; r++) {
+                long rackId = ++id;
+                String rackCode = String.format("%s-R%02d", aisleCode, r);
+                nodes.add(new LocationNode(rackId, rackCode, Location.LocationType.RACK, aisleId));
+                for (int s = 0; s < SHELVES_PER_RACK; s++) {
+                    long shelfId = ++id;
+                    String shelfCode = String.format("%s-S%d", rackCode, s);
+                    nodes.add(new LocationNode(shelfId, shelfCode, Location.LocationType.SHELF, rackId));
+                    for (int b = 0; b < BINS_PER_SHELF; b++) {
+                        long binId = ++id;
+                        nodes.add(new LocationNode(binId, String.format("%s-B%d", shelfCode, b),
+                                Location.LocationType.BIN, shelfId));
+                        bins.add(binId);
+                    }
+                }
+            }
+        }
+
+        LocationRepository repository = mock(LocationRepository.class);
+        when(repository.findNodesByWarehouseId(WAREHOUSE_ID)).thenReturn(nodes);
+        service = new PickRouteService(repository, new SimpleMeterRegistry(), Duration.ofHours(1));
+
+        Random random = new Random(42);
+        pickSets = new ArrayList<>(PICK_SETS);
+        for (int p = 0; p < PICK_SETS; p++) {
+            List<Long> picks = new ArrayList<>(lines);
+            for (int i = 0; i < lines; i++) {
+                picks.add(bins.get(random.nextInt(bins.size())));
+            }
+            pickSets.add(picks);
+        }
+        // 配置グラフをキャッシュに読み込んでおく
+        service.route(WAREHOUSE_ID, pickSets.get(0));
+    }
+
+    @Benchmark
+    public PickRoute route() {
+        List<Long> picks = pickSets.get(next);
+        next = (next + 1) % PICK_SETS;
+        return service.route(WAREHOUSE_ID, picks);
+    }
+
+    @Benchmark
+    public LocationGraph buildGraph() {
+        return LocationGraph.build(nodes);
+    }
+}
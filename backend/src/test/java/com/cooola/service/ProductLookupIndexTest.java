@@ -0,0 +1,83 @@
+package com.cooola.service;
+
+import com.cooola.dto.ProductScanView;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 商品ルックアップインデックスのテスト
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+class ProductLookupIndexTest {
+
+    private final ProductLookupIndex index = new ProductLookupIndex(null);
+
+    @Test
+    void loadedViewDoesNotOverwriteCommittedUpdate() {
+        long generation = index.generation();
+        ProductScanView stale = view(1L, "SKU-OLD", "4900000000001", true);
+
+        // 読み込み中に更新がコミットされた
+        index.put(view(1L, "SKU-NEW", "4900000000001", true));
+
+        assertThat(index.putLoaded(stale, generation)).isFalse();
+        assertThat(index.findBySku("SKU-OLD")).isNull();
+        assertThat(index.findByBarcode("4900000000001").sku()).isEqualTo("SKU-NEW");
+    }
+
+    @Test
+    void loadedViewIsNotRestoredAfterConcurrentRemoval() {
+        index.put(view(1L, "SKU-001", null, true));
+        index.remove(1L);
+        long generation = index.generation();
+        ProductScanView loaded = view(1L, "SKU-001", null, true);
+
+        index.remove(1L);
+
+        assertThat(index.putLoaded(loaded, generation)).isFalse();
+        assertThat(index.findBySku("SKU-001")).isNull();
+    }
+
+    @Test
+    void loadedViewIsAddedWhenIndexIsUnchanged() {
+        long generation = index.generation();
+
+        assertThat(index.putLoaded(view(2L, "SKU-002", "4900000000002", true), generation)).isTrue();
+        assertThat(index.findBySku("SKU-002").id()).isEqualTo(2L);
+        assertThat(index.findByBarcode("4900000000002").id()).isEqualTo(2L);
+        assertThat(index.putLoaded(view(3L, "SKU-003", null, false), index.generation())).isFalse();
+    }
+
+    @Test
+    void updateMovesSkuAndBarcodeKeys() {
+        index.put(view(1L, "SKU-001", "4900000000001", true));
+        index.put(view(1L, "SKU-101", null, true));
+
+        assertThat(index.findBySku("SKU-001")).isNull();
+        assertThat(index.findByBarcode("4900000000001")).isNull();
+        assertThat(index.findBySku("SKU-101").id()).isEqualTo(1L);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void lookupIgnoresCase() {
+        index.put(view(1L, "Sku-001", "ABC-123", true));
+
+        assertThat(index.findBySku("SKU-001").id()).isEqualTo(1L);
+        assertThat(index.findBySku("sku-001").id()).isEqualTo(1L);
+        assertThat(index.findByBarcode("abc-123").id()).isEqualTo(1L);
+        assertThat(index.putLoaded(view(2L, "sku-001", null, true), index.generation())).isFalse();
+
+        index.put(view(1L, "SKU-101", null, true));
+        assertThat(index.findBySku("sku-001")).isNull();
+        assertThat(index.findByBarcode("ABC-123")).isNull();
+    }
+
+    private static ProductScanView view(Long id, String sku, String barcode, boolean active) {
+        return new ProductScanView(id, sku, "商品" + id, barcode, "PCS", 1L, "カテゴリ", active);
+    }
+}
@@ -0,0 +1,80 @@
+package com.cooola.service;
+
+import com.cooola.dto.ProductSearchDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 商品全文検索インデックスのテスト
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(null);
+        index.put(new ProductSearchDocument(1L, "SKU-001", "りんごジュース", "果汁100%", "4901234567890"));
+        index.put(new ProductSearchDocument(2L, "SKU-002", "オレンジジュース", "りんご不使用", "4901234567891"));
+        index.put(new ProductSearchDocument(3L, "ＳＫＵ－００３", "緑茶", null, null));
+    }
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        ProductSearchIndex.Hits hits = index.search("りんご");
+
+        assertThat(hits.ids(0, hits.size())).containsExactly(1L, 2L);
+        assertThat(hits.get(0).score()).isGreaterThan(hits.get(1).score());
+    }
+
+    @Test
+    void normalizesWidthAndCase() {
+        assertThat(index.search("sku-003").ids(0, 1)).containsExactly(3L);
+    }
+
+    @Test
+    void singleCharacterTermsMatchEveryField() {
+        ProductSearchIndex.Hits hits = index.search("茶");
+        assertThat(hits.ids(0, hits.size())).containsExactly(3L);
+
+        // 説明文・バーコードのみに含まれる1文字の語も一致する
+        assertThat(index.search("汁").ids(0, 1)).containsExactly(1L);
+        assertThat(index.search("9").ids(0, 2)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void indexesTheWholeDescription() {
+        index.put(new ProductSearchDocument(4L, "SKU-004", "長い説明の商品", "あ".repeat(1000) + "末尾の語", null));
+
+        assertThat(index.search("ああ").ids(0, 1)).containsExactly(4L);
+        assertThat(index.search("末尾").ids(0, 1)).containsExactly(4L);
+    }
+
+    @Test
+    void cachedResultsFollowUpdates() {
+        assertThat(index.search("ジュース").size()).isEqualTo(2);
+
+        index.remove(2L);
+        assertThat(index.search("ジュース").ids(0, 1)).containsExactly(1L);
+
+        index.put(new ProductSearchDocument(2L, "SKU-002", "グレープジュース", null, null));
+        assertThat(index.search("ジュース").size()).isEqualTo(2);
+        assertThat(index.search("オレンジ").size()).isZero();
+    }
+
+    @Test
+    void indexAfterContinuesFromTheLastHit() {
+        ProductSearchIndex.Hits hits = index.search("sku");
+
+        assertThat(hits.indexAfter(hits.get(0))).isEqualTo(1);
+        assertThat(hits.indexAfter(hits.get(hits.size() - 1))).isEqualTo(hits.size());
+        // 前ページ最後の商品が削除されていても次の位置から続ける
+        assertThat(hits.indexAfter(new ProductSearchIndex.Hit(0L, hits.get(0).score()))).isZero();
+    }
+}
@@ -0,0 +1,92 @@
+package com.cooola.support;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * 統合テスト用の在庫データ登録
+ *
+ * 初期データの倉庫（ID: 1）・カテゴリ（ID: 1）を使用し、商品・在庫レコードを一意なSKUで登録します。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class InventoryFixtures {
+
+    // 初期データの倉庫ID
+    public static final long WAREHOUSE_ID = 1L;
+    // 初期データのカテゴリID
+    private static final long CATEGORY_ID = 1L;
+
+    private InventoryFixtures() {
+    }
+
+    /**
+     * 商品を登録するメソッド
+     *
+     * @param jdbcTemplate JDBCテンプレート
+     * @param allocationStrategy 引当方式（nullの場合は既定値）
+     * @return 商品ID
+     */
+    public static long createProduct(JdbcTemplate jdbcTemplate, String allocationStrategy) {
+        String sku = "IT-" + UUID.randomUUID().toString().substring(0, 12);
+        return insert(jdbcTemplate, "INSERT INTO products (sku, name, category_id, unit_of_measure, " +
+                "allocation_strategy) VALUES (?, ?, ?, 'PCS', ?)", sku, "Integration test " + sku, CATEGORY_ID,
+                allocationStrategy);
+    }
+
+    /**
+     * ロケーションを登録するメソッド
+     *
+     * @param jdbcTemplate JDBCテンプレート
+     * @return ロケーションID
+     */
+    public static long createBin(JdbcTemplate jdbcTemplate) {
+        String code = "IT-" + UUID.randomUUID().toString().substring(0, 12);
+        return insert(jdbcTemplate, "INSERT INTO locations (warehouse_id, code, name, location_type) " +
+                "VALUES (?, ?, ?, 'BIN')", WAREHOUSE_ID, code, code);
+    }
+
+    /**
+     * 在庫レコードを登録するメソッド（ロケーションは新しいビン）
+     *
+     * @param jdbcTemplate JDBCテンプレート
+     * @param productId 商品ID
+     * @param quantity 在庫数量（全量を引当可能とする）
+     * @param expiryDate 有効期限
+     * @return 在庫ID
+     */
+    public static long createInventory(JdbcTemplate jdbcTemplate, long productId, BigDecimal quantity,
+                                       LocalDate expiryDate) {
+        long locationId = createBin(jdbcTemplate);
+        return insert(jdbcTemplate, "INSERT INTO inventory (product_id, warehouse_id, location_id, quantity, " +
+                "reserved_quantity, available_quantity, expiry_date) VALUES (?, ?, ?, ?, 0, ?, ?)",
+                productId, WAREHOUSE_ID, locationId, quantity, quantity,
+                expiryDate != null ? Date.valueOf(expiryDate) : null);
+    }
+
+    /**
+     * 1行を登録して採番されたIDを返却するメソッド
+     */
+    private static long insert(JdbcTemplate jdbcTemplate, String sql, Object... args) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            for (int i = 0; i < args.length; i++) {
+                ps.setObject(i + 1, args[i]);
+            }
+            return ps;
+        }, keyHolder);
+        return Objects.requireNonNull(keyHolder.getKey()).longValue();
+    }
+}
@@ -0,0 +1,108 @@
+package com.cooola.support;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+
+/**
+ * MySQLコンテナを使用する統合テストの基底クラス
+ *
+ * このクラスはMySQL 8のコンテナをJVMごとに1つ起動し、アプリケーションのデータソースとして設定します。
+ * ホットSKUの対象レコードのように起動時に読み込まれるデータは、サブクラスの @DynamicPropertySource で
+ * {@link #migratedJdbcTemplate()} を使用して登録してください（アプリケーションの起動前にスキーマを作成します）。
+ * コンテナは複数のテストクラスで共有するため、テストデータは {@link InventoryFixtures} で一意な値を使用して登録します。
+ * Dockerが使用できない環境ではテストを実行しません。
+ *
+ * @author COOOLa Team
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Testcontainers(disabledWithoutDocker = true)  // Dockerがない環境ではスキップ
+public abstract class MySqlIntegrationTest {
+
+    // 共有するMySQLコンテナ（最初に使用された時点で起動し、JVMの終了時にTestcontainersが削除する）
+    private static MySQLContainer<?> mysql;
+
+    /**
+     * コンテナをデータソースとして設定するメソッド
+     *
+     * @param registry プロパティの登録先
+     */
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        MySQLContainer<?> container = mysql();
+        registry.add("spring.datasource.url", container::getJdbcUrl);
+        registry.add("spring.datasource.username", container::getUsername);
+        registry.add("spring.datasource.password", container::getPassword);
+    }
+
+    /**
+     * 起動済みのMySQLコンテナを返却するメソッド
+     *
+     * @return MySQLコンテナ
+     */
+    protected static synchronized MySQLContainer<?> mysql() {
+        if (mysql == null) {
+            mysql = new MySQLContainer<>("mysql:8.0.36")
+                    .withDatabaseName("cooola_db")
+                    .withUsername("cooola_user")
+                    .withPassword("cooola_password")
+                    .withUrlParam("useSSL", "false")
+                    .withUrlParam("allowPublicKeyRetrieval", "true")
+                    .withUrlParam("serverTimezone", "UTC")
+                    .withUrlParam("rewriteBatchedStatements", "true");
+            mysql.start();
+        }
+        return mysql;
+    }
+
+    /**
+     * マイグレーションを適用したデータベースのJDBCテンプレートを返却するメソッド
+     *
+     * アプリケーションの起動前にテストデータを登録する場合に使用します（適用済みの場合は何もしません）。
+     *
+     * @return JDBCテンプレート
+     */
+    protected static JdbcTemplate migratedJdbcTemplate() {
+        MySQLContainer<?> container = mysql();
+        return new JdbcTemplate(migrate(new DriverManagerDataSource(container.getJdbcUrl(),
+                container.getUsername(), container.getPassword())));
+    }
+
+    /**
+     * 他のテストクラスと共有しない、マイグレーションを適用したデータベースのデータソースを返却するメソッド
+     *
+     * 在庫スナップショットの連鎖のように、データベース全体で1つの状態を前提とするテストで使用します
+     * （データベースは同じコンテナ内に作成し、作成済みの場合はそのまま使用します）。
+     *
+     * @param database データベース名
+     * @return データソース
+     */
+    protected static DataSource isolatedDataSource(String database) {
+        MySQLContainer<?> container = mysql();
+        // データベースの作成にはroot（パスワードはアプリケーションのユーザーと同じ）を使用する
+        DriverManagerDataSource root = new DriverManagerDataSource(container.getJdbcUrl(), "root",
+                container.getPassword());
+        new JdbcTemplate(root).execute("CREATE DATABASE IF NOT EXISTS " + database);
+        String url = container.getJdbcUrl().replace("/" + container.getDatabaseName(), "/" + database);
+        return migrate(new DriverManagerDataSource(url, "root", container.getPassword()));
+    }
+
+    /**
+     * マイグレーションを適用するメソッド（適用済みの場合は何もしません）
+     */
+    private static DataSource migrate(DataSource dataSource) {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+        return dataSource;
+    }
+}
@@ -104,7 +104,16 @@ angular.module('cooolaApp')
      * 商品を編集開始
      */
     $scope.startEdit = function(product) {
-        $scope.editingProduct = angular.copy(product);
+        // 一覧には説明・寸法が含まれないため、詳細を取得して編集する
+        ProductService.getProductById(product.id)
+            .then(function(response) {
+                $scope.editingProduct = response.data;
+                $scope.editingProduct.category = response.data.categoryId ? { id: response.data.categoryId } : null;
+            })
+            .catch(function(error) {
+                console.error('Error loading product:', error);
+                toastr.error('商品の取得に失敗しました');
+            });
     };
     
     /**